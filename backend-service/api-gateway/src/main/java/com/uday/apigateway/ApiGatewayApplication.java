@@ -2,15 +2,19 @@ package com.uday.apigateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import com.uday.apigateway.loadbalancer.LotAffinityLoadBalancerConfig;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 
 
 /**
  * The main application class for the Spring Cloud Gateway.
  * It uses the WebFlux dependency provided by the gateway starter (not Spring MVC).
+ * PARKING-LOT-SERVICE is balanced by lot id so each lot lands on its owning instance.
  */
 @EnableDiscoveryClient
 @SpringBootApplication
+@LoadBalancerClient(name = "PARKING-LOT-SERVICE", configuration = LotAffinityLoadBalancerConfig.class)
 public class ApiGatewayApplication {
     public static void main(String[] args) {
 
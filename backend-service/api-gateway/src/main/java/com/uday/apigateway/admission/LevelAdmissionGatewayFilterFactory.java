@@ -0,0 +1,71 @@
+package com.uday.apigateway.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Answers POST .../parking/entry for a level class the service reports as
+ * full with the same 409 problem body the service would send, without
+ * forwarding it. Used as the LevelAdmission filter on the parking route.
+ */
+@Component
+public class LevelAdmissionGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final LevelAdmissionState state;
+    private final Duration retryAfter;
+
+    public LevelAdmissionGatewayFilterFactory(LevelAdmissionState state,
+                                              @Value("${gateway.admission.retry-after:5s}") Duration retryAfter) {
+        super(Object.class);
+        this.state = state;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.POST || !request.getPath().value().endsWith("/parking/entry")) {
+                return chain.filter(exchange);
+            }
+            Long levelId = parseLong(request.getQueryParams().getFirst("levelId"));
+            boolean disabled = Boolean.parseBoolean(request.getQueryParams().getFirst("isDisabled"));
+            if (levelId == null || !state.isFull(levelId, disabled)) {
+                return chain.filter(exchange);
+            }
+            return reject(exchange.getResponse(), levelId, disabled);
+        };
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, long levelId, boolean disabled) {
+        String body = "{\"type\":\"about:blank\",\"title\":\"Level full\",\"status\":409,"
+                + "\"detail\":\"No parking spots are available\","
+                + "\"levelId\":" + levelId + ",\"disabled\":" + disabled + "}";
+        response.setStatusCode(HttpStatus.CONFLICT);
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return value == null ? null : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
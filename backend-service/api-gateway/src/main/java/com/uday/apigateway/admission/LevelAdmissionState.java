@@ -0,0 +1,95 @@
+package com.uday.apigateway.admission;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Level classes (level id + disabled flag) that parking-lot-service reports
+ * as having no free spot, polled from its /parking/admission counters.
+ * When the poll keeps failing the set is dropped, so entries are let
+ * through and the service decides.
+ */
+@Component
+public class LevelAdmissionState {
+
+    record ClassCount(long levelId, boolean disabled, int free) {
+    }
+
+    private record Key(long levelId, boolean disabled) {
+    }
+
+    private final WebClient client;
+    private final Duration refreshInterval;
+    private final Duration staleAfter;
+
+    private volatile Set<Key> full = Set.of();
+    private volatile long refreshedAt;
+    private Disposable poller;
+
+    public LevelAdmissionState(WebClient.Builder builder,
+                               LoadBalancedExchangeFilterFunction loadBalancerFilter,
+                               @Value("${gateway.admission.service-url:http://PARKING-LOT-SERVICE}") String serviceUrl,
+                               @Value("${gateway.admission.refresh-interval:1s}") Duration refreshInterval,
+                               @Value("${gateway.admission.stale-after:5s}") Duration staleAfter) {
+        this.client = builder.clone().baseUrl(serviceUrl).filter(loadBalancerFilter).build();
+        this.refreshInterval = refreshInterval;
+        this.staleAfter = staleAfter;
+    }
+
+    @PostConstruct
+    public void start() {
+        poller = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh(), 1)
+                .subscribe();
+    }
+
+    public boolean isFull(long levelId, boolean disabled) {
+        if (System.currentTimeMillis() - refreshedAt > staleAfter.toMillis()) {
+            return false;
+        }
+        return full.contains(new Key(levelId, disabled));
+    }
+
+    private Mono<Void> refresh() {
+        return client.get()
+                .uri("/parking/admission")
+                .retrieve()
+                .bodyToFlux(ClassCount.class)
+                .collectList()
+                .timeout(refreshInterval)
+                .doOnNext(this::update)
+                .then()
+                .onErrorResume(e -> {
+                    System.out.println("Admission state refresh failed → " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private void update(List<ClassCount> counts) {
+        full = counts.stream()
+                .filter(count -> count.free() <= 0)
+                .map(count -> new Key(count.levelId(), count.disabled()))
+                .collect(Collectors.toUnmodifiableSet());
+        refreshedAt = System.currentTimeMillis();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.dispose();
+        }
+    }
+}
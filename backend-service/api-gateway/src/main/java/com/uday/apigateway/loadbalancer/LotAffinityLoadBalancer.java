@@ -0,0 +1,99 @@
+package com.uday.apigateway.loadbalancer;
+
+import com.uday.common.shard.ConsistentHashRing;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routes parking requests to the instance that owns the lot, using the same
+ * consistent-hash ring as parking-lot-service. The lot id is taken from the
+ * lotId query parameter, the X-Lot-Id header or a /lots/{lotId} path segment;
+ * requests without one go to a random instance.
+ */
+public class LotAffinityLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    static final String LOT_HEADER = "X-Lot-Id";
+    private static final Pattern LOT_PATH = Pattern.compile("/lots/(\\d+)");
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final int virtualNodes;
+
+    private volatile List<String> ringNodes = List.of();
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 1);
+
+    public LotAffinityLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, int virtualNodes) {
+        this.supplierProvider = supplierProvider;
+        this.virtualNodes = virtualNodes;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+                supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String lotId = lotIdOf(request);
+        return supplier.get(request).next().map(instances -> choose(instances, lotId));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, String lotId) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (lotId == null) {
+            return new DefaultResponse(instances.get(ThreadLocalRandom.current().nextInt(instances.size())));
+        }
+
+        String owner = ringFor(instances).nodeFor(lotId);
+        for (ServiceInstance instance : instances) {
+            if (instance.getInstanceId().equals(owner)) {
+                return new DefaultResponse(instance);
+            }
+        }
+        return new DefaultResponse(instances.get(0));
+    }
+
+    // rebuilt only when the instance list actually changes
+    private ConsistentHashRing ringFor(List<ServiceInstance> instances) {
+        List<String> ids = instances.stream()
+                .map(ServiceInstance::getInstanceId)
+                .sorted()
+                .toList();
+        if (!ids.equals(ringNodes)) {
+            ring = new ConsistentHashRing(ids, virtualNodes);
+            ringNodes = ids;
+        }
+        return ring;
+    }
+
+    private static String lotIdOf(Request request) {
+        if (!(request.getContext() instanceof RequestDataContext context)) {
+            return null;
+        }
+        RequestData data = context.getClientRequest();
+        String header = data.getHeaders().getFirst(LOT_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        String param = UriComponentsBuilder.fromUri(data.getUrl()).build().getQueryParams().getFirst("lotId");
+        if (param != null && !param.isBlank()) {
+            return param.trim();
+        }
+        Matcher matcher = LOT_PATH.matcher(data.getUrl().getPath());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
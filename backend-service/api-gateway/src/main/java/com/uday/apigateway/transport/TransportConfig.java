@@ -0,0 +1,31 @@
+package com.uday.apigateway.transport;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Transport settings that have no plain property: the Reactor Netty access
+ * log (one line per request, written through the async appender in
+ * logback-spring.xml instead of DEBUG logging of every exchange) and h2c to
+ * the backends. Both are switched on by the prod profile.
+ */
+@Configuration
+public class TransportConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.access-log.enabled", havingValue = "true")
+    public NettyServerCustomizer accessLog() {
+        return server -> server.accessLog(true);
+    }
+
+    // Upgrades to h2c where the backend has server.http2.enabled=true, HTTP/1.1 otherwise
+    @Bean
+    @ConditionalOnProperty(name = "gateway.upstream.h2c", havingValue = "true")
+    public HttpClientCustomizer upstreamH2c() {
+        return client -> client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+    }
+}
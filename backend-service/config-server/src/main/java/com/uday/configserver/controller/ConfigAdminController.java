@@ -0,0 +1,85 @@
+package com.uday.configserver.controller;
+
+import com.uday.configserver.entity.ConfigRefresh;
+import com.uday.configserver.repository.ConfigRefreshRepository;
+import com.uday.configserver.service.ConfigStoreService;
+import com.uday.configserver.service.ConfigStoreService.VersionView;
+import com.uday.configserver.service.RefreshPusher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Changes, history and rollback of served configuration; every change is pushed to the running instances
+@RestController
+@RequestMapping("/config/admin")
+public class ConfigAdminController {
+
+    @Autowired
+    private ConfigStoreService store;
+
+    @Autowired
+    private RefreshPusher pusher;
+
+    @Autowired
+    private ConfigRefreshRepository refreshes;
+
+    @GetMapping("/{application}/{profile}")
+    public Map<String, String> current(@PathVariable String application, @PathVariable String profile) {
+        return store.current(application, profile);
+    }
+
+    // Body maps keys to new values; a null value removes the key
+    @PutMapping("/{application}/{profile}")
+    public ResponseEntity<?> apply(@PathVariable String application,
+                                   @PathVariable String profile,
+                                   @RequestBody Map<String, String> values,
+                                   @RequestParam String author,
+                                   @RequestParam(required = false) String message) {
+        if (values.isEmpty()) {
+            return ResponseEntity.badRequest().body("No properties given");
+        }
+        return pushed(application, store.apply(application, profile, values, author, message));
+    }
+
+    @PostMapping("/{application}/{profile}/rollback")
+    public ResponseEntity<?> rollback(@PathVariable String application,
+                                      @PathVariable String profile,
+                                      @RequestParam Long version,
+                                      @RequestParam String author) {
+        return pushed(application, store.rollback(application, profile, version, author));
+    }
+
+    @GetMapping("/{application}/history")
+    public List<VersionView> history(@PathVariable String application) {
+        return store.history(application);
+    }
+
+    @GetMapping("/versions/{version}/refreshes")
+    public List<ConfigRefresh> refreshes(@PathVariable Long version) {
+        return refreshes.findByVersionOrderById(version);
+    }
+
+    // The push runs after the version is committed, so every instance reads the new values
+    private ResponseEntity<?> pushed(String application, VersionView version) {
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        System.out.println("Config v" + version.version() + " for " + application + "/" + version.profile()
+                + " by " + version.author() + ": " + version.changes().size() + " keys");
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", version);
+        body.put("refreshes", pusher.push(version.version(), application));
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,33 @@
+package com.uday.configserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+// A key's value before and after a version; null means absent
+@Entity
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "config_change", indexes = @Index(name = "idx_config_change_version", columnList = "version"))
+public class ConfigChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "prop_key", nullable = false)
+    private String propKey;
+
+    @Column(name = "old_value", length = 4000)
+    private String oldValue;
+
+    @Column(name = "new_value", length = 4000)
+    private String newValue;
+}
@@ -0,0 +1,43 @@
+package com.uday.configserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Current value of one key; what the JDBC environment repository serves
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "config_property",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_config_property_key",
+                columnNames = {"application", "profile", "label", "prop_key"}
+        )
+)
+public class ConfigProperty {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String application;
+
+    @Column(nullable = false)
+    private String profile;
+
+    @Column(nullable = false)
+    private String label;
+
+    @Column(name = "prop_key", nullable = false)
+    private String propKey;
+
+    @Column(name = "prop_value", length = 4000)
+    private String propValue;
+
+    // version that last wrote this key
+    private Long version;
+}
@@ -0,0 +1,37 @@
+package com.uday.configserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+// Audit record of pushing a version to one running instance
+@Entity
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "config_refresh", indexes = @Index(name = "idx_config_refresh_version", columnList = "version"))
+public class ConfigRefresh {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long version;
+    private String serviceId;
+    private String instanceId;
+
+    // REFRESHED or FAILED
+    private String status;
+
+    // keys the instance reported as changed, or the failure
+    @Column(length = 4000)
+    private String detail;
+
+    @Column(name = "refreshed_at")
+    private Instant refreshedAt;
+}
@@ -0,0 +1,36 @@
+package com.uday.configserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One change set to an application's configuration; its id is the version number
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "config_version", indexes = @Index(name = "idx_config_version_app", columnList = "application, profile"))
+public class ConfigVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String application;
+
+    @Column(nullable = false)
+    private String profile;
+
+    private String author;
+    private String message;
+
+    // set when this version undoes later ones
+    private Long rollbackTo;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
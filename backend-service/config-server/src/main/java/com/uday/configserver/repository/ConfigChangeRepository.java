@@ -0,0 +1,13 @@
+package com.uday.configserver.repository;
+
+import com.uday.configserver.entity.ConfigChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConfigChangeRepository extends JpaRepository<ConfigChange, Long> {
+
+    List<ConfigChange> findByVersionOrderById(Long version);
+}
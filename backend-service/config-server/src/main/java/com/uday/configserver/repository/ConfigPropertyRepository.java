@@ -0,0 +1,13 @@
+package com.uday.configserver.repository;
+
+import com.uday.configserver.entity.ConfigProperty;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConfigPropertyRepository extends JpaRepository<ConfigProperty, Long> {
+
+    List<ConfigProperty> findByApplicationAndProfileAndLabel(String application, String profile, String label);
+}
@@ -0,0 +1,13 @@
+package com.uday.configserver.repository;
+
+import com.uday.configserver.entity.ConfigRefresh;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConfigRefreshRepository extends JpaRepository<ConfigRefresh, Long> {
+
+    List<ConfigRefresh> findByVersionOrderById(Long version);
+}
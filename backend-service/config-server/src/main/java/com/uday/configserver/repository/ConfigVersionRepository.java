@@ -0,0 +1,16 @@
+package com.uday.configserver.repository;
+
+import com.uday.configserver.entity.ConfigVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConfigVersionRepository extends JpaRepository<ConfigVersion, Long> {
+
+    List<ConfigVersion> findByApplicationOrderByIdDesc(String application);
+
+    // newest first, for undoing everything after a version
+    List<ConfigVersion> findByApplicationAndProfileAndIdGreaterThanOrderByIdDesc(String application, String profile, Long id);
+}
@@ -0,0 +1,156 @@
+package com.uday.configserver.service;
+
+import com.uday.configserver.entity.ConfigChange;
+import com.uday.configserver.entity.ConfigProperty;
+import com.uday.configserver.entity.ConfigVersion;
+import com.uday.configserver.repository.ConfigChangeRepository;
+import com.uday.configserver.repository.ConfigPropertyRepository;
+import com.uday.configserver.repository.ConfigVersionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Versioned configuration store behind the JDBC environment repository.
+ * config_property holds what is served; every write goes through a
+ * config_version with one config_change per key, so any state can be
+ * traced and undone.
+ */
+@Service
+public class ConfigStoreService {
+
+    public static final String LABEL = "master";
+
+    public record ChangeView(String key, String oldValue, String newValue) {
+    }
+
+    public record VersionView(Long version, String application, String profile, String author, String message,
+                              Long rollbackTo, Instant createdAt, List<ChangeView> changes) {
+    }
+
+    private final ConfigPropertyRepository properties;
+    private final ConfigVersionRepository versions;
+    private final ConfigChangeRepository changes;
+
+    public ConfigStoreService(ConfigPropertyRepository properties,
+                              ConfigVersionRepository versions,
+                              ConfigChangeRepository changes) {
+        this.properties = properties;
+        this.versions = versions;
+        this.changes = changes;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, String> current(String application, String profile) {
+        Map<String, String> values = new LinkedHashMap<>();
+        properties.findByApplicationAndProfileAndLabel(application, profile, LABEL).stream()
+                .sorted((a, b) -> a.getPropKey().compareTo(b.getPropKey()))
+                .forEach(p -> values.put(p.getPropKey(), p.getPropValue()));
+        return values;
+    }
+
+    /**
+     * Writes the given keys (a null value removes the key) as one new
+     * version. Null when nothing actually changed.
+     */
+    @Transactional
+    public VersionView apply(String application, String profile, Map<String, String> values,
+                             String author, String message) {
+        return write(application, profile, values, author, message, null);
+    }
+
+    // Restores the values the keys had at the given version, as a new version
+    @Transactional
+    public VersionView rollback(String application, String profile, Long toVersion, String author) {
+        Map<String, String> restore = new HashMap<>();
+        // newest first, so the oldest undone version decides each key
+        for (ConfigVersion version : versions.findByApplicationAndProfileAndIdGreaterThanOrderByIdDesc(
+                application, profile, toVersion)) {
+            for (ConfigChange change : changes.findByVersionOrderById(version.getId())) {
+                restore.put(change.getPropKey(), change.getOldValue());
+            }
+        }
+        return write(application, profile, restore, author, "rollback to " + toVersion, toVersion);
+    }
+
+    @Transactional(readOnly = true)
+    public List<VersionView> history(String application) {
+        List<VersionView> views = new ArrayList<>();
+        for (ConfigVersion version : versions.findByApplicationOrderByIdDesc(application)) {
+            views.add(view(version, changes.findByVersionOrderById(version.getId()).stream()
+                    .map(c -> new ChangeView(c.getPropKey(), c.getOldValue(), c.getNewValue()))
+                    .toList()));
+        }
+        return views;
+    }
+
+    private VersionView write(String application, String profile, Map<String, String> values,
+                              String author, String message, Long rollbackTo) {
+        Map<String, ConfigProperty> existing = new HashMap<>();
+        properties.findByApplicationAndProfileAndLabel(application, profile, LABEL)
+                .forEach(p -> existing.put(p.getPropKey(), p));
+
+        ConfigVersion version = new ConfigVersion();
+        version.setApplication(application);
+        version.setProfile(profile);
+        version.setAuthor(author);
+        version.setMessage(message);
+        version.setRollbackTo(rollbackTo);
+        version.setCreatedAt(Instant.now());
+        version = versions.save(version);
+
+        List<ChangeView> written = new ArrayList<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            String newValue = entry.getValue();
+            ConfigProperty property = existing.get(key);
+            String oldValue = property != null ? property.getPropValue() : null;
+            if (Objects.equals(oldValue, newValue)) {
+                continue;
+            }
+
+            if (newValue == null) {
+                properties.delete(property);
+            } else {
+                if (property == null) {
+                    property = new ConfigProperty();
+                    property.setApplication(application);
+                    property.setProfile(profile);
+                    property.setLabel(LABEL);
+                    property.setPropKey(key);
+                }
+                property.setPropValue(newValue);
+                property.setVersion(version.getId());
+                properties.save(property);
+            }
+
+            ConfigChange change = new ConfigChange();
+            change.setVersion(version.getId());
+            change.setPropKey(key);
+            change.setOldValue(oldValue);
+            change.setNewValue(newValue);
+            changes.save(change);
+            written.add(new ChangeView(key, oldValue, newValue));
+        }
+
+        if (written.isEmpty()) {
+            // no empty versions
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return null;
+        }
+        return view(version, written);
+    }
+
+    private static VersionView view(ConfigVersion version, List<ChangeView> changes) {
+        return new VersionView(version.getId(), version.getApplication(), version.getProfile(),
+                version.getAuthor(), version.getMessage(), version.getRollbackTo(), version.getCreatedAt(), changes);
+    }
+}
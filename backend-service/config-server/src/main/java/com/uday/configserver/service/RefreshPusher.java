@@ -0,0 +1,116 @@
+package com.uday.configserver.service;
+
+import com.uday.configserver.entity.ConfigRefresh;
+import com.uday.configserver.repository.ConfigRefreshRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes a config version to the running instances found in Eureka by
+ * calling their POST /actuator/refresh, which re-reads the config server and
+ * rebinds the changed keys in place. Each instance's answer (the keys it
+ * changed, or why it failed) is kept in config_refresh.
+ */
+@Service
+public class RefreshPusher {
+
+    // Profile-wide changes go to every registered service
+    public static final String ALL_APPLICATIONS = "application";
+
+    private final DiscoveryClient discovery;
+    private final ConfigRefreshRepository refreshes;
+    private final RestClient client;
+    private final String self;
+    private final ExecutorService pushers;
+
+    public RefreshPusher(DiscoveryClient discovery,
+                         ConfigRefreshRepository refreshes,
+                         @Value("${spring.application.name}") String self,
+                         @Value("${config.push.timeout:10s}") Duration timeout,
+                         @Value("${config.push.parallelism:8}") int parallelism) {
+        this.discovery = discovery;
+        this.refreshes = refreshes;
+        this.self = self;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) timeout.toMillis());
+        requestFactory.setReadTimeout((int) timeout.toMillis());
+        this.client = RestClient.builder().requestFactory(requestFactory).build();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.pushers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "config-push-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Refreshes every instance of the application in parallel and records the outcomes
+    public List<ConfigRefresh> push(Long version, String application) {
+        List<CompletableFuture<ConfigRefresh>> pushes = new ArrayList<>();
+        for (String serviceId : targets(application)) {
+            for (ServiceInstance instance : discovery.getInstances(serviceId)) {
+                pushes.add(CompletableFuture.supplyAsync(() -> refresh(version, serviceId, instance), pushers));
+            }
+        }
+        List<ConfigRefresh> results = pushes.stream().map(CompletableFuture::join).toList();
+        if (results.isEmpty()) {
+            System.out.println("Config v" + version + " → no running instances of " + application);
+        }
+        return refreshes.saveAll(results);
+    }
+
+    private List<String> targets(String application) {
+        if (!ALL_APPLICATIONS.equalsIgnoreCase(application)) {
+            return List.of(application);
+        }
+        return discovery.getServices().stream()
+                .filter(serviceId -> !serviceId.equalsIgnoreCase(self))
+                .toList();
+    }
+
+    private ConfigRefresh refresh(Long version, String serviceId, ServiceInstance instance) {
+        ConfigRefresh refresh = new ConfigRefresh();
+        refresh.setVersion(version);
+        refresh.setServiceId(serviceId);
+        refresh.setInstanceId(instance.getInstanceId());
+        try {
+            List<?> changed = client.post()
+                    .uri(instance.getUri() + "/actuator/refresh")
+                    .retrieve()
+                    .body(List.class);
+            refresh.setStatus("REFRESHED");
+            refresh.setDetail(truncate(String.valueOf(changed != null ? changed : List.of())));
+        } catch (RuntimeException e) {
+            refresh.setStatus("FAILED");
+            refresh.setDetail(truncate(e.getMessage()));
+            System.out.println("Config v" + version + " not refreshed on " + instance.getInstanceId()
+                    + " → " + e.getMessage());
+        }
+        refresh.setRefreshedAt(Instant.now());
+        return refresh;
+    }
+
+    private static String truncate(String detail) {
+        return detail != null && detail.length() > 4000 ? detail.substring(0, 4000) : detail;
+    }
+
+    @PreDestroy
+    public void stop() {
+        pushers.shutdown();
+    }
+}
@@ -0,0 +1,72 @@
+package com.uday.ids;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.discovery.EurekaClientConfig;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+/**
+ * The instance's Snowflake, handed to @SnowflakeId entities. Its node id is
+ * ids.node-id when set, otherwise hashed from host and port and then agreed
+ * with the peers through Eureka (NodeIdAssigner), which holds id generation
+ * until the registry confirms it.
+ */
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+        "org.springframework.cloud.netflix.eureka.EurekaClientAutoConfiguration"})
+@EnableConfigurationProperties(IdsProperties.class)
+public class IdsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Snowflake snowflake(IdsProperties properties, Environment environment) {
+        int node = properties.getNodeId() != null
+                ? properties.getNodeId()
+                : Math.floorMod((SnowflakeIdGenerator.hostName() + ":" + environment.getProperty("server.port", "8080"))
+                .hashCode(), Snowflake.MAX_NODE + 1);
+        Snowflake snowflake = new Snowflake(node);
+        SnowflakeIdGenerator.install(snowflake);
+        return snowflake;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ApplicationInfoManager.class)
+    @ConditionalOnBean({ApplicationInfoManager.class, DiscoveryClient.class, EurekaClientConfig.class})
+    static class EurekaNodeIdConfiguration {
+
+        @Bean
+        public NodeIdAssigner snowflakeNodeIdAssigner(Snowflake snowflake,
+                                                      ApplicationInfoManager applicationInfoManager,
+                                                      DiscoveryClient discoveryClient,
+                                                      EurekaClientConfig clientConfig,
+                                                      IdsProperties properties) {
+            // an instance that does not register or fetch cannot see itself in the registry
+            Integer fixedNode = clientConfig.shouldRegisterWithEureka() && clientConfig.shouldFetchRegistry()
+                    ? properties.getNodeId()
+                    : Integer.valueOf(snowflake.getNode());
+            return new NodeIdAssigner(snowflake, applicationInfoManager, discoveryClient,
+                    properties.getPeerServices(), fixedNode, properties.getCheckInterval(), properties.getConfirmWait());
+        }
+    }
+
+    // The node id is proposed before anything can persist; ids then wait for its confirmation
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(LocalContainerEntityManagerFactoryBean.class)
+    @ConditionalOnBean(AbstractEntityManagerFactoryBean.class)
+    static class SnowflakeJpaDependencyConfiguration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        SnowflakeJpaDependencyConfiguration() {
+            super(Snowflake.class, NodeIdAssigner.class);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.uday.ids;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "ids")
+public class IdsProperties {
+
+    // fixed node id (0..63) instead of one agreed through Eureka, e.g. for edge gates
+    private Integer nodeId;
+
+    // services whose instances make ids for the same tables and so need
+    // distinct node ids; empty: this service only
+    private List<String> peerServices = new ArrayList<>();
+
+    // how often node ids are compared with the peers' again
+    private Duration checkInterval = Duration.ofSeconds(30);
+
+    // how long an id waits for the node id to be confirmed before failing
+    private Duration confirmWait = Duration.ofSeconds(10);
+
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Integer nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public List<String> getPeerServices() {
+        return peerServices;
+    }
+
+    public void setPeerServices(List<String> peerServices) {
+        this.peerServices = peerServices;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public Duration getConfirmWait() {
+        return confirmWait;
+    }
+
+    public void setConfirmWait(Duration confirmWait) {
+        this.confirmWait = confirmWait;
+    }
+}
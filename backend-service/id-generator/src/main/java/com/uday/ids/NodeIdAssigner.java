@@ -0,0 +1,201 @@
+package com.uday.ids;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrees on Snowflake node ids through Eureka instance metadata. Each
+ * instance publishes a candidate under METADATA_KEY, the hashed node id or
+ * the first one above it that no registered peer publishes, and holds its
+ * Snowflake until a registry read shows the candidate under its own entry
+ * with no peer on it. That read was taken after the candidate reached the
+ * registry, so an instance publishing the same id later sees it there and
+ * moves; the hash alone collides too easily in 64 ids to be trusted.
+ *
+ * An unconfirmed instance moves as soon as any peer shows its id, to a
+ * random free one so two movers do not meet again. A confirmed instance
+ * (CONFIRMED_KEY) keeps its id; it only moves, held again, when a confirmed
+ * peer ordered before it has the same one, which the registry should
+ * never show.
+ */
+public class NodeIdAssigner {
+
+    public static final String METADATA_KEY = "snowflake-node";
+    public static final String CONFIRMED_KEY = "snowflake-node-confirmed";
+
+    // how often an unconfirmed node id is looked for in the registry
+    private static final long PENDING_POLL_MILLIS = 1000;
+
+    private record Peer(String instanceId, int node, boolean confirmed) {
+    }
+
+    private final Snowflake snowflake;
+    private final ApplicationInfoManager applicationInfoManager;
+    private final DiscoveryClient discoveryClient;
+    private final List<String> peerServices;
+    private final Integer fixedNode;
+    private final Duration checkInterval;
+    private final Duration confirmWait;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "snowflake-node");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NodeIdAssigner(Snowflake snowflake,
+                          ApplicationInfoManager applicationInfoManager,
+                          DiscoveryClient discoveryClient,
+                          List<String> peerServices,
+                          Integer fixedNode,
+                          Duration checkInterval,
+                          Duration confirmWait) {
+        this.snowflake = snowflake;
+        this.applicationInfoManager = applicationInfoManager;
+        this.discoveryClient = discoveryClient;
+        this.peerServices = peerServices;
+        this.fixedNode = fixedNode;
+        this.checkInterval = checkInterval;
+        this.confirmWait = confirmWait;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (fixedNode != null) {
+            snowflake.setNode(fixedNode);
+            publish(fixedNode, true);
+            return;
+        }
+        snowflake.hold(confirmWait);
+        choose(peers(), false);
+        scheduler.schedule(this::checkSafely, PENDING_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Publishes a free node id, unconfirmed; random: any free one rather than the first above the hash
+    private void choose(List<Peer> peers, boolean random) {
+        boolean[] taken = new boolean[Snowflake.MAX_NODE + 1];
+        peers.forEach(peer -> taken[peer.node()] = true);
+        List<Integer> free = new ArrayList<>();
+        int preferred = snowflake.getNode();
+        for (int i = 0; i <= Snowflake.MAX_NODE; i++) {
+            int candidate = (preferred + i) % (Snowflake.MAX_NODE + 1);
+            if (!taken[candidate]) {
+                free.add(candidate);
+            }
+        }
+        if (free.isEmpty()) {
+            System.out.println("Snowflake node ids all taken by peers → keeping " + preferred + " unconfirmed");
+            publish(preferred, false);
+            return;
+        }
+        int node = random ? free.get(ThreadLocalRandom.current().nextInt(free.size())) : free.get(0);
+        snowflake.setNode(node);
+        publish(node, false);
+        System.out.println("Snowflake node id " + node + " proposed (" + peers.size() + " peers)");
+    }
+
+    private void checkSafely() {
+        long delay = PENDING_POLL_MILLIS;
+        try {
+            delay = snowflake.isHeld() ? confirm() : verify();
+        } catch (RuntimeException e) {
+            System.out.println("Snowflake node id check failed → " + e.getMessage());
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::checkSafely, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Unconfirmed: waits for a registry read that carries this candidate; returns the next delay
+    private long confirm() {
+        int node = snowflake.getNode();
+        if (!registered(node)) {
+            return PENDING_POLL_MILLIS;
+        }
+        List<Peer> peers = peers();
+        if (peers.stream().anyMatch(peer -> peer.node() == node)) {
+            System.out.println("Snowflake node id " + node + " also proposed by a peer, choosing another");
+            choose(peers, true);
+            return PENDING_POLL_MILLIS;
+        }
+        publish(node, true);
+        snowflake.release();
+        System.out.println("Snowflake node id " + node + " confirmed");
+        return checkInterval.toMillis();
+    }
+
+    // Confirmed: only a confirmed peer ordered before this instance makes it move
+    private long verify() {
+        int node = snowflake.getNode();
+        String self = applicationInfoManager.getInfo().getInstanceId();
+        List<Peer> peers = peers();
+        boolean clash = peers.stream().anyMatch(peer ->
+                peer.node() == node && peer.confirmed() && peer.instanceId().compareTo(self) < 0);
+        if (!clash) {
+            return checkInterval.toMillis();
+        }
+        System.out.println("Snowflake node id " + node + " also confirmed by a peer, choosing another");
+        snowflake.hold(confirmWait);
+        choose(peers, true);
+        return PENDING_POLL_MILLIS;
+    }
+
+    // Whether the registry already returns this instance with the node id
+    private boolean registered(int node) {
+        String self = applicationInfoManager.getInfo().getInstanceId();
+        return discoveryClient.getInstances(applicationInfoManager.getInfo().getAppName()).stream()
+                .filter(instance -> self.equals(instance.getInstanceId()))
+                .anyMatch(instance -> String.valueOf(node).equals(instance.getMetadata().get(METADATA_KEY)));
+    }
+
+    // Node ids published by the other instances of the peer services
+    private List<Peer> peers() {
+        String self = applicationInfoManager.getInfo().getInstanceId();
+        List<String> services = peerServices.isEmpty()
+                ? List.of(applicationInfoManager.getInfo().getAppName())
+                : peerServices;
+        List<Peer> peers = new ArrayList<>();
+        for (String service : services) {
+            for (ServiceInstance instance : discoveryClient.getInstances(service)) {
+                String id = instance.getInstanceId();
+                String node = instance.getMetadata().get(METADATA_KEY);
+                if (id == null || id.equals(self) || node == null) {
+                    continue;
+                }
+                try {
+                    int parsed = Integer.parseInt(node);
+                    if (parsed >= 0 && parsed <= Snowflake.MAX_NODE) {
+                        peers.add(new Peer(id, parsed, Boolean.parseBoolean(instance.getMetadata().get(CONFIRMED_KEY))));
+                    }
+                } catch (NumberFormatException ignored) {
+                    // not ours to interpret
+                }
+            }
+        }
+        return peers;
+    }
+
+    private void publish(int node, boolean confirmed) {
+        // sent with the next instance info update to the registry
+        applicationInfoManager.registerAppMetadata(Map.of(
+                METADATA_KEY, String.valueOf(node),
+                CONFIRMED_KEY, String.valueOf(confirmed)));
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
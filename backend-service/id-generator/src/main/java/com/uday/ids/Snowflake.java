@@ -0,0 +1,132 @@
+package com.uday.ids;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 64-bit ids, made without asking the database:
+ *
+ *   | 41 bits: ms since EPOCH | 6 bits: node | 6 bits: sequence |
+ *
+ * The layout stays below 2^53, so ids survive JSON numbers in the browser
+ * unchanged, and lasts until 2093. A node makes 64 ids per millisecond; a
+ * burst beyond that borrows the next milliseconds (up to MAX_BORROW ahead of
+ * the clock) instead of waiting, and a clock that steps back is ridden out
+ * the same way, so ids from one node only ever grow.
+ *
+ * Two instances must not share a node id while both make ids for the same
+ * tables; NodeIdAssigner agrees on them through Eureka and holds the
+ * Snowflake until its node id is confirmed.
+ */
+public class Snowflake {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final int NODE_BITS = 6;
+    public static final int SEQUENCE_BITS = 6;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_BORROW = 1000;
+
+    // epoch millis; the system clock outside tests
+    private final LongSupplier clock;
+    private int node;
+    private long lastTimestamp = -1;
+    private long sequence;
+    // while held, nextId waits up to maxWait for release instead of using an unconfirmed node id
+    private boolean held;
+    private long maxWaitMillis;
+
+    public Snowflake(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    Snowflake(int node, LongSupplier clock) {
+        this.clock = clock;
+        setNode(node);
+    }
+
+    public synchronized long nextId() {
+        if (held) {
+            awaitRelease();
+        }
+        long now = clock.getAsLong() - EPOCH;
+        if (now > lastTimestamp) {
+            lastTimestamp = now;
+            sequence = 0;
+        } else if (sequence < MAX_SEQUENCE) {
+            sequence++;
+        } else {
+            lastTimestamp++;
+            sequence = 0;
+            if (lastTimestamp - now > MAX_BORROW) {
+                // far ahead of the clock: let it catch up rather than drift further
+                waitUntil(lastTimestamp - MAX_BORROW);
+            }
+        }
+        return (lastTimestamp << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | sequence;
+    }
+
+    // A new node takes effect for the next id; ids made before keep theirs, so none repeat
+    public synchronized void setNode(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be 0.." + MAX_NODE + ", was " + node);
+        }
+        this.node = node;
+    }
+
+    public synchronized int getNode() {
+        return node;
+    }
+
+    public synchronized void hold(Duration maxWait) {
+        held = true;
+        maxWaitMillis = maxWait.toMillis();
+    }
+
+    public synchronized void release() {
+        held = false;
+        notifyAll();
+    }
+
+    public synchronized boolean isHeld() {
+        return held;
+    }
+
+    // Caller holds the lock; wait gives it up meanwhile
+    private void awaitRelease() {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (held) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                throw new IllegalStateException("Snowflake node id " + node + " is not confirmed yet");
+            }
+            try {
+                wait(left);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the Snowflake node id");
+            }
+        }
+    }
+
+    public static Instant timeOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+
+    private void waitUntil(long timestamp) {
+        while (clock.getAsLong() - EPOCH < timestamp) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
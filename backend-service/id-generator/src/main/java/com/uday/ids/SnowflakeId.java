@@ -0,0 +1,20 @@
+package com.uday.ids;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Use on an entity's Long @Id instead of @GeneratedValue: the id comes from
+ * this instance's Snowflake when the entity is persisted, so no insert has
+ * to go to the database to learn its key and inserts batch. An id minted
+ * earlier is given with SnowflakeIdGenerator.persistWithId.
+ */
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
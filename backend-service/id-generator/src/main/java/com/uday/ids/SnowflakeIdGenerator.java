@@ -0,0 +1,69 @@
+package com.uday.ids;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.function.Supplier;
+
+// Hibernate's side of @SnowflakeId; the Snowflake is the one IdsAutoConfiguration installed
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    private static final ThreadLocal<Long> MINTED = new ThreadLocal<>();
+    private static volatile Snowflake installed;
+
+    /**
+     * Persists a new entity under an id minted elsewhere (e.g. a ticket id
+     * made at the gate). The entity's id stays null until then: Hibernate
+     * would take an entity with an id for a detached one and look it up.
+     */
+    public static <T> T persistWithId(Long id, Supplier<T> persist) {
+        if (id == null) {
+            return persist.get();
+        }
+        MINTED.set(id);
+        try {
+            return persist.get();
+        } finally {
+            MINTED.remove();
+        }
+    }
+
+    static void install(Snowflake snowflake) {
+        installed = snowflake;
+    }
+
+    // Outside a Spring context (tools, scripts): a node from the host name
+    static Snowflake current() {
+        Snowflake snowflake = installed;
+        if (snowflake == null) {
+            synchronized (SnowflakeIdGenerator.class) {
+                if (installed == null) {
+                    installed = new Snowflake(Math.floorMod(hostName().hashCode(), Snowflake.MAX_NODE + 1));
+                }
+                snowflake = installed;
+            }
+        }
+        return snowflake;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        Long minted = MINTED.get();
+        if (minted != null) {
+            // only the first entity persisted in persistWithId takes it
+            MINTED.remove();
+            return minted;
+        }
+        return current().nextId();
+    }
+
+    static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return String.valueOf(ProcessHandle.current().pid());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.uday.ids;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snowflake on a clock the tests move: 64 ids per millisecond, later ones
+ * borrowed from the next milliseconds, and ids that keep growing when the
+ * clock stands still or steps back.
+ */
+class SnowflakeTest {
+
+    private static final int NODE = 5;
+    private static final int PER_MILLI = 1 << Snowflake.SEQUENCE_BITS;
+    // Snowflake.MAX_BORROW
+    private static final int MAX_BORROW = 1000;
+    private static final long START = Snowflake.EPOCH + 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final Snowflake snowflake = new Snowflake(NODE, clock::get);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sequenceOverflowMovesToTheNextMillisecond() {
+        long previous = -1;
+        for (int i = 0; i < PER_MILLI * 3; i++) {
+            long id = snowflake.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(Snowflake.nodeOf(id)).isEqualTo(NODE);
+            assertThat(id & (PER_MILLI - 1)).isEqualTo(i % PER_MILLI);
+            assertThat(Snowflake.timeOf(id)).isEqualTo(Instant.ofEpochMilli(START + i / PER_MILLI));
+            previous = id;
+        }
+    }
+
+    @Test
+    void waitsForTheClockOnceTheBorrowIsUsedUp() throws Exception {
+        long last = 0;
+        for (int i = 0; i < PER_MILLI * (MAX_BORROW + 1); i++) {
+            last = snowflake.nextId();
+        }
+        assertThat(Snowflake.timeOf(last)).isEqualTo(Instant.ofEpochMilli(START + MAX_BORROW));
+
+        Future<Long> next = executor.submit(snowflake::nextId);
+        Thread.sleep(100);
+        assertThat(next.isDone()).as("id made %d ms ahead of the clock", MAX_BORROW + 1).isFalse();
+
+        clock.set(START + 1);
+        long id = next.get(5, TimeUnit.SECONDS);
+        assertThat(id).isGreaterThan(last);
+        assertThat(Snowflake.timeOf(id)).isEqualTo(Instant.ofEpochMilli(START + MAX_BORROW + 1));
+    }
+
+    @Test
+    void idsKeepGrowingWhenTheClockStepsBack() {
+        clock.set(START + 500);
+        long previous = snowflake.nextId();
+
+        // back 400 ms: the node keeps counting on its own last millisecond
+        clock.set(START + 100);
+        for (int i = 0; i < PER_MILLI * 50; i++) {
+            long id = snowflake.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        assertThat(Snowflake.timeOf(previous)).isEqualTo(Instant.ofEpochMilli(START + 550));
+
+        // once the clock is past it again, ids follow the clock
+        clock.set(START + 600);
+        long id = snowflake.nextId();
+        assertThat(id).isGreaterThan(previous);
+        assertThat(Snowflake.timeOf(id)).isEqualTo(Instant.ofEpochMilli(START + 600));
+        assertThat(id & (PER_MILLI - 1)).isZero();
+    }
+
+    @Test
+    void stepBackBeyondTheBorrowWaitsInsteadOfRepeating() throws Exception {
+        clock.set(START + 5000);
+        long previous = snowflake.nextId();
+        clock.set(START);
+
+        // the rest of the millisecond is still handed out
+        for (int i = 1; i < PER_MILLI; i++) {
+            long id = snowflake.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        Future<Long> next = executor.submit(snowflake::nextId);
+        Thread.sleep(100);
+        assertThat(next.isDone()).as("id made 5 s ahead of the clock").isFalse();
+
+        // back within MAX_BORROW of the last id
+        clock.set(START + 5001 - MAX_BORROW);
+        long id = next.get(5, TimeUnit.SECONDS);
+        assertThat(id).isGreaterThan(previous);
+        assertThat(Snowflake.timeOf(id)).isEqualTo(Instant.ofEpochMilli(START + 5001));
+    }
+}
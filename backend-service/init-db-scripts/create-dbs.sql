@@ -1,4 +1,5 @@
 CREATE DATABASE parking_lot_service;
 CREATE DATABASE payment_service;
 CREATE DATABASE vehicle_service;
-CREATE DATABASE notification_service;
\ No newline at end of file
+CREATE DATABASE notification_service;
+CREATE DATABASE config_server;
\ No newline at end of file
@@ -0,0 +1,4 @@
+#!/bin/bash
+# Lets the db-replica stand-in (docker compose --profile replica) stream WAL
+# from this instance. Only runs when the data volume is first initialized.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -1,10 +1,17 @@
 package com.uday.notificationservice.Controller;
 
 import com.google.firebase.messaging.FirebaseMessagingException;
+import com.uday.notificationservice.event.ParkingEvent;
+import com.uday.notificationservice.service.DeviceTokenRegistry;
 import com.uday.notificationservice.service.FCMService;
+import com.uday.notificationservice.service.NotificationDispatcher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
@@ -12,10 +19,39 @@ public class NotificationController {
     @Autowired
     private FCMService fcmService;
 
+    @Autowired
+    private DeviceTokenRegistry deviceTokenRegistry;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
     @PostMapping("/send")
     public String send(@RequestParam String token,
                        @RequestParam String title,
                        @RequestParam String body) throws FirebaseMessagingException {
         return fcmService.sendNotification(title, body, token);
     }
+
+    @PostMapping("/devices")
+    public ResponseEntity<?> registerDevice(@RequestParam String vehicleNumber,
+                                            @RequestParam String token) {
+        deviceTokenRegistry.register(vehicleNumber, token);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/devices/{token}")
+    public ResponseEntity<?> unregisterDevice(@PathVariable String token) {
+        deviceTokenRegistry.unregister(token);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Parking domain events from other services, delivered asynchronously
+    @PostMapping("/events")
+    public ResponseEntity<?> events(@RequestBody List<ParkingEvent> events) {
+        int accepted = dispatcher.accept(events);
+        return ResponseEntity.accepted().body(Map.of(
+                "accepted", accepted,
+                "dropped", events.size() - accepted
+        ));
+    }
 }
@@ -0,0 +1,32 @@
+package com.uday.notificationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "device_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_device_token_token", columnNames = "token"),
+        indexes = @Index(name = "idx_device_token_vehicle", columnList = "vehicle_number")
+)
+public class DeviceToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vehicle_number", nullable = false)
+    private String vehicleNumber;
+
+    @Column(name = "token", nullable = false, length = 512)
+    private String token;
+
+    private LocalDateTime registeredAt;
+}
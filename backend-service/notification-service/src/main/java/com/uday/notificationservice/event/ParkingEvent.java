@@ -0,0 +1,28 @@
+package com.uday.notificationservice.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ParkingEvent {
+
+    public enum Type {
+        TICKET_CREATED,
+        EXIT_COMPLETED,
+        PAYMENT_FAILED,
+        LEVEL_NEARLY_FULL
+    }
+
+    private Type type;
+    private String vehicleNumber;
+    private Long ticketId;
+    private Long levelId;
+    private Double amount;
+    private Integer freeSpots;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,18 @@
+package com.uday.notificationservice.repository;
+
+import com.uday.notificationservice.entity.DeviceToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long> {
+
+    List<DeviceToken> findByVehicleNumber(String vehicleNumber);
+
+    Optional<DeviceToken> findByToken(String token);
+
+    @Transactional
+    void deleteByToken(String token);
+}
@@ -0,0 +1,82 @@
+package com.uday.notificationservice.service;
+
+import com.uday.notificationservice.entity.DeviceToken;
+import com.uday.notificationservice.repository.DeviceTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Device tokens keyed by vehicle number, DB-backed with a bounded LRU read-through cache
+@Service
+public class DeviceTokenRegistry {
+
+    private final DeviceTokenRepository repository;
+    private final Map<String, List<String>> cache;
+    // bumped on every change, so a lookup that raced one does not cache what it read
+    private final AtomicLong changes = new AtomicLong();
+
+    public DeviceTokenRegistry(DeviceTokenRepository repository,
+                               @Value("${notification.tokens.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public List<String> tokensFor(String vehicleNumber) {
+        if (vehicleNumber == null) {
+            return List.of();
+        }
+        String plate = normalize(vehicleNumber);
+        List<String> cached = cache.get(plate);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = changes.get();
+        List<String> tokens = repository.findByVehicleNumber(plate).stream()
+                .map(DeviceToken::getToken)
+                .toList();
+        if (changes.get() == seen) {
+            cache.putIfAbsent(plate, tokens);
+        }
+        return tokens;
+    }
+
+    public void register(String vehicleNumber, String token) {
+        String plate = normalize(vehicleNumber);
+        DeviceToken device = repository.findByToken(token).orElseGet(DeviceToken::new);
+        String previousPlate = device.getVehicleNumber();
+
+        device.setVehicleNumber(plate);
+        device.setToken(token);
+        device.setRegisteredAt(LocalDateTime.now());
+        repository.save(device);
+
+        changes.incrementAndGet();
+        cache.remove(plate);
+        if (previousPlate != null) {
+            cache.remove(previousPlate);
+        }
+    }
+
+    public void unregister(String token) {
+        repository.findByToken(token).ifPresent(device -> {
+            repository.deleteByToken(token);
+            changes.incrementAndGet();
+            cache.remove(device.getVehicleNumber());
+        });
+    }
+
+    private static String normalize(String vehicleNumber) {
+        return vehicleNumber.trim().toUpperCase();
+    }
+}
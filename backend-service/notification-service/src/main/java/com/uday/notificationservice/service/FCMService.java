@@ -19,4 +19,18 @@ public class FCMService {
 
         return FirebaseMessaging.getInstance().send(message);
     }
+
+    public String sendToTopic(String title, String body, String topic) throws FirebaseMessagingException {
+        Notification notification = Notification.builder()
+                .setTitle(title)
+                .setBody(body)
+                .build();
+
+        Message message = Message.builder()
+                .setTopic(topic)  // every device subscribed to the topic
+                .setNotification(notification)
+                .build();
+
+        return FirebaseMessaging.getInstance().send(message);
+    }
 }
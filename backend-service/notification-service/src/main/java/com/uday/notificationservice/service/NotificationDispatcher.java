@@ -0,0 +1,261 @@
+package com.uday.notificationservice.service;
+
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.uday.notificationservice.event.ParkingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns parking events into push notifications off the request thread.
+ * Events land in a bounded queue and are fanned out by a small worker pool.
+ * Per vehicle, the same event is sent at most once per dedupe window and no
+ * more than rate-limit notifications are sent per rate window.
+ * LEVEL_NEARLY_FULL goes to the FCM topic "level-{levelId}" instead of to
+ * individual devices. The windows and the limit follow config-server
+ * refreshes.
+ */
+@Service
+public class NotificationDispatcher {
+
+    // swapped as a whole on refresh
+    private record Limits(long dedupeWindowMillis, int rateLimit, long rateWindowMillis) {
+    }
+
+    private final DeviceTokenRegistry registry;
+    private final FCMService fcmService;
+    private final Environment environment;
+
+    private final BlockingQueue<ParkingEvent> queue;
+    private final ExecutorService workers;
+    private final int workerCount;
+
+    private volatile Limits limits;
+
+    private final Map<String, Long> recentlySent = new ConcurrentHashMap<>();
+    private final Map<String, long[]> rateWindows = new ConcurrentHashMap<>();
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter deduplicated;
+    private final Counter rateLimited;
+    private final Counter sent;
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    public NotificationDispatcher(DeviceTokenRegistry registry,
+                                  FCMService fcmService,
+                                  MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${notification.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notification.workers:4}") int workerCount,
+                                  @Value("${notification.dedupe-window:5m}") Duration dedupeWindow,
+                                  @Value("${notification.rate-limit:5}") int rateLimit,
+                                  @Value("${notification.rate-window:1m}") Duration rateWindow) {
+        this.registry = registry;
+        this.fcmService = fcmService;
+        this.environment = environment;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        this.limits = new Limits(dedupeWindow.toMillis(), rateLimit, rateWindow.toMillis());
+
+        this.accepted = meterRegistry.counter("notification.events", "result", "accepted");
+        this.dropped = meterRegistry.counter("notification.events", "result", "dropped");
+        this.deduplicated = meterRegistry.counter("notification.events", "result", "deduplicated");
+        this.rateLimited = meterRegistry.counter("notification.events", "result", "rate_limited");
+        this.sent = meterRegistry.counter("notification.sends", "result", "sent");
+        this.failed = meterRegistry.counter("notification.sends", "result", "failed");
+        meterRegistry.gauge("notification.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workLoop);
+        }
+    }
+
+    // Pushed from config-server; windows already open keep their start
+    @EventListener
+    public void onRefresh(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith("notification.rate-")
+                || key.startsWith("notification.dedupe-"))) {
+            return;
+        }
+        limits = new Limits(
+                environment.getProperty("notification.dedupe-window", Duration.class, Duration.ofMinutes(5)).toMillis(),
+                environment.getProperty("notification.rate-limit", Integer.class, 5),
+                environment.getProperty("notification.rate-window", Duration.class, Duration.ofMinutes(1)).toMillis());
+        System.out.println("Notification limits refreshed → " + limits);
+    }
+
+    // never blocks: a full queue drops the event rather than slowing the publisher
+    public int accept(List<ParkingEvent> events) {
+        int acceptedCount = 0;
+        for (ParkingEvent event : events) {
+            if (event.getType() != null && queue.offer(event)) {
+                accepted.increment();
+                acceptedCount++;
+            } else {
+                dropped.increment();
+            }
+        }
+        return acceptedCount;
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                ParkingEvent event = queue.poll(1, TimeUnit.SECONDS);
+                if (event != null) {
+                    dispatch(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Notification dispatch failed → " + e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(ParkingEvent event) {
+        long now = System.currentTimeMillis();
+        String title = title(event);
+        String body = body(event);
+
+        if (event.getType() == ParkingEvent.Type.LEVEL_NEARLY_FULL) {
+            if (isDuplicate("level:" + event.getLevelId(), now)) {
+                deduplicated.increment();
+                return;
+            }
+            send(() -> fcmService.sendToTopic(title, body, "level-" + event.getLevelId()), null);
+            return;
+        }
+
+        List<String> tokens = registry.tokensFor(event.getVehicleNumber());
+        if (tokens.isEmpty()) {
+            return;
+        }
+        String user = event.getVehicleNumber().trim().toUpperCase();
+        String dedupeKey = user + ":" + event.getType() + ":" + event.getTicketId();
+        if (isDuplicate(dedupeKey, now)) {
+            deduplicated.increment();
+            return;
+        }
+        if (!tryAcquire(user, now)) {
+            // never sent, so a later copy of the event may still go out
+            recentlySent.remove(dedupeKey, now);
+            rateLimited.increment();
+            return;
+        }
+        for (String token : tokens) {
+            send(() -> fcmService.sendNotification(title, body, token), token);
+        }
+        evictExpired(now);
+    }
+
+    private interface FcmCall {
+        String send() throws FirebaseMessagingException;
+    }
+
+    private void send(FcmCall call, String token) {
+        try {
+            call.send();
+            sent.increment();
+        } catch (FirebaseMessagingException e) {
+            failed.increment();
+            if (token != null && e.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED) {
+                registry.unregister(token);
+            }
+        } catch (IllegalStateException e) {
+            // Firebase not initialised (no service account in this environment)
+            failed.increment();
+        }
+    }
+
+    // A duplicate leaves the window where the send that went out started it
+    private boolean isDuplicate(String key, long now) {
+        long window = limits.dedupeWindowMillis();
+        boolean[] duplicate = new boolean[1];
+        recentlySent.compute(key, (k, previous) -> {
+            if (previous != null && now - previous < window) {
+                duplicate[0] = true;
+                return previous;
+            }
+            return now;
+        });
+        return duplicate[0];
+    }
+
+    // fixed window per vehicle: {windowStart, count}
+    private boolean tryAcquire(String user, long now) {
+        Limits current = limits;
+        long[] window = rateWindows.computeIfAbsent(user, key -> new long[]{now, 0});
+        synchronized (window) {
+            if (now - window[0] >= current.rateWindowMillis()) {
+                window[0] = now;
+                window[1] = 0;
+            }
+            if (window[1] >= current.rateLimit()) {
+                return false;
+            }
+            window[1]++;
+            return true;
+        }
+    }
+
+    private void evictExpired(long now) {
+        if (recentlySent.size() < 10_000) {
+            return;
+        }
+        Limits current = limits;
+        recentlySent.values().removeIf(sentAt -> now - sentAt >= current.dedupeWindowMillis());
+        rateWindows.values().removeIf(window -> now - window[0] >= current.rateWindowMillis());
+    }
+
+    private static String title(ParkingEvent event) {
+        return switch (event.getType()) {
+            case TICKET_CREATED -> "Parking ticket created";
+            case EXIT_COMPLETED -> "Thanks for parking with us";
+            case PAYMENT_FAILED -> "Payment failed";
+            case LEVEL_NEARLY_FULL -> "Level almost full";
+        };
+    }
+
+    private static String body(ParkingEvent event) {
+        return switch (event.getType()) {
+            case TICKET_CREATED -> "Ticket #" + event.getTicketId() + " issued for " + event.getVehicleNumber();
+            case EXIT_COMPLETED -> "Ticket #" + event.getTicketId() + " closed for " + event.getVehicleNumber();
+            case PAYMENT_FAILED -> "Payment for ticket #" + event.getTicketId() + " could not be completed";
+            case LEVEL_NEARLY_FULL -> "Level " + event.getLevelId() + " has only "
+                    + event.getFreeSpots() + " spots left";
+        };
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.shutdownNow();
+    }
+}
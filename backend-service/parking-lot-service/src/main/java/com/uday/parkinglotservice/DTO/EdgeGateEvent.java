@@ -0,0 +1,33 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// One entry or exit recorded by an edge gate; the unit of its write-ahead log and of sync
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class EdgeGateEvent {
+
+    public enum Type { ENTRY, EXIT }
+
+    // per-gate sequence number, strictly increasing
+    private long seq;
+    private Type type;
+    private LocalDateTime time;
+
+    // <edgeId>-<seq of the ENTRY>, the ticket number handed out at the gate
+    private String edgeTicketId;
+    private Long levelId;
+    private Long spotId;
+    private boolean disabled;
+    private String vehicleNumber;
+
+    // fee charged at the gate, EXIT only
+    private double amount;
+}
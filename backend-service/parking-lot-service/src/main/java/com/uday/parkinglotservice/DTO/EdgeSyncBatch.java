@@ -0,0 +1,20 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EdgeSyncBatch {
+
+    private String edgeId;
+
+    // in seq order
+    private List<EdgeGateEvent> events;
+}
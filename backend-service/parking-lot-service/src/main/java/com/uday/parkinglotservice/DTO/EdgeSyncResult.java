@@ -0,0 +1,35 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class EdgeSyncResult {
+
+    public enum Status { APPLIED, DUPLICATE, REASSIGNED, CONFLICT }
+
+    // highest seq the gate may drop from its log; everything after is resent
+    private long ackSeq;
+    private List<Outcome> outcomes = new ArrayList<>();
+
+    // set when the batch stopped early (downstream unavailable), retried later
+    private String error;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Outcome {
+        private long seq;
+        private Status status;
+        private Long ticketId;
+        private String detail;
+    }
+}
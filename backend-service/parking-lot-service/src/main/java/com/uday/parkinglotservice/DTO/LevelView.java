@@ -0,0 +1,25 @@
+package com.uday.parkinglotservice.DTO;
+
+import com.uday.parkinglotservice.Entity.ParkingLevel;
+
+// Level summary served instead of the entity; spot counts replace the spot list
+public record LevelView(
+        Long id,
+        String levelNumber,
+        Long lotId,
+        Long totalSpots,
+        Long freeSpots
+) {
+
+    public LevelView {
+        // sum() over a level without spots is null
+        totalSpots = totalSpots == null ? 0L : totalSpots;
+        freeSpots = freeSpots == null ? 0L : freeSpots;
+    }
+
+    public static LevelView from(ParkingLevel level) {
+        long total = level.getSpots().size();
+        long free = level.getSpots().stream().filter(spot -> !spot.isOccupied()).count();
+        return new LevelView(level.getId(), level.getLevelNumber(), level.getLotId(), total, free);
+    }
+}
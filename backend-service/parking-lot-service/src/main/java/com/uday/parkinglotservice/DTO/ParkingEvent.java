@@ -0,0 +1,34 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ParkingEvent {
+
+    public enum Type {
+        TICKET_CREATED,
+        EXIT_COMPLETED,
+        PAYMENT_FAILED,
+        LEVEL_NEARLY_FULL
+    }
+
+    private Type type;
+    private String vehicleNumber;
+    private Long ticketId;
+    private Long levelId;
+    private Double amount;
+    private Integer freeSpots;
+    private LocalDateTime occurredAt = LocalDateTime.now();
+
+    public ParkingEvent(Type type, String vehicleNumber, Long ticketId) {
+        this.type = type;
+        this.vehicleNumber = vehicleNumber;
+        this.ticketId = ticketId;
+    }
+}
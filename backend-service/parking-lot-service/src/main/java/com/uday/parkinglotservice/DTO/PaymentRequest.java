@@ -11,5 +11,6 @@ import lombok.Setter;
 @NoArgsConstructor
 public class PaymentRequest {
     private Long ticketId;
+    private String vehicleNumber;
     private double amount;
 }
@@ -11,4 +11,15 @@ import lombok.Setter;
 @NoArgsConstructor
 public class PaymentResponse {
     private String status;
+    private String intentId;
+
+    // set on a charge, and on a 409 for a key already charged at another amount
+    private String paymentId;
+    private String orderId;
+    private String reason;
+
+    public PaymentResponse(String status, String intentId) {
+        this.status = status;
+        this.intentId = intentId;
+    }
 }
@@ -0,0 +1,11 @@
+package com.uday.parkinglotservice.DTO;
+
+// Spot row served instead of the entity, without the level back-reference
+public record SpotView(
+        Long id,
+        String spotType,
+        boolean disabled,
+        boolean occupied,
+        Long levelId
+) {
+}
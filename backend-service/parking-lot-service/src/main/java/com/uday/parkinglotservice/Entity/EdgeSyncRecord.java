@@ -0,0 +1,68 @@
+package com.uday.parkinglotservice.Entity;
+
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+import com.uday.parkinglotservice.DTO.EdgeSyncResult;
+import com.uday.ids.SnowflakeId;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One edge gate event applied centrally; (edge_id, seq) makes sync replays
+ * idempotent. Written before the event is applied and advanced a step at a
+ * time, so a retry (after a failure or a restart) resumes where the last
+ * attempt stopped. status stays null until the event is finished.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "edge_sync_record",
+        uniqueConstraints = @UniqueConstraint(name = "uk_edge_sync_seq", columnNames = {"edge_id", "seq"}),
+        indexes = @Index(name = "idx_edge_sync_ticket", columnList = "edge_id, edge_ticket_id"))
+public class EdgeSyncRecord {
+
+    // ENTRY: RECEIVED, SPOT_CLAIMED, TICKET_CREATED; EXIT: RECEIVED, TICKET_FOUND, PAYMENT_REQUESTED, TICKET_CLOSED
+    public enum Step { RECEIVED, SPOT_CLAIMED, TICKET_CREATED, TICKET_FOUND, PAYMENT_REQUESTED, TICKET_CLOSED }
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "edge_id", nullable = false)
+    private String edgeId;
+
+    @Column(name = "seq", nullable = false)
+    private long seq;
+
+    @Enumerated(EnumType.STRING)
+    private EdgeGateEvent.Type type;
+
+    @Column(name = "edge_ticket_id")
+    private String edgeTicketId;
+
+    // central ticket the edge ticket was mapped to
+    private Long ticketId;
+    private Long spotId;
+
+    @Enumerated(EnumType.STRING)
+    private EdgeSyncResult.Status status;
+    private String detail;
+
+    @Enumerated(EnumType.STRING)
+    private Step step;
+    // attempts started so far, counted before each one runs
+    @ColumnDefault("0")
+    private int attempts;
+
+    private LocalDateTime eventTime;
+    private LocalDateTime appliedAt;
+
+    public boolean isFinished() {
+        return status != null;
+    }
+}
@@ -1,8 +1,11 @@
 package com.uday.parkinglotservice.Entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.uday.ids.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,16 +13,24 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@Cacheable
+// near-static; the eager ParkingSpot.level loads on the entry path hit this cache
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "parking-level")
+@Table(indexes = @Index(name = "idx_parking_level_lot", columnList = "lot_id"))
 @ToString(exclude = "spots")
 @EqualsAndHashCode(exclude = "spots")
 public class ParkingLevel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String levelNumber;
 
+    // Lot / facility the level belongs to; the unit of sharding across instances
+    @Column(name = "lot_id")
+    private Long lotId;
+
 //    @OneToMany(mappedBy = "level", )
 //    private List<ParkingSpot> spots;
 
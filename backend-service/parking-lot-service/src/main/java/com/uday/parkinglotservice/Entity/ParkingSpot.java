@@ -1,9 +1,12 @@
 package com.uday.parkinglotservice.Entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.uday.ids.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @Entity
@@ -12,7 +15,7 @@ import lombok.*;
 public class ParkingSpot {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String spotType;
@@ -20,6 +23,19 @@ public class ParkingSpot {
     private boolean isDisabled;
     private boolean isOccupied;
 
+    // Edge gate holding this spot; a free spot under a live lease is only
+    // handed out by that gate, never by central allocation
+    private String leasedTo;
+    private LocalDateTime leaseExpiresAt;
+
+    // Last debounced reading of the spot's sensor; null when it has none
+    private Boolean sensorOccupied;
+
+    // Occupied because the sensor saw a vehicle no ticket was issued for;
+    // freed again when the sensor sees it leave
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean unticketed;
+
     @ManyToOne
     @JoinColumn(name = "level_id")
     @JsonBackReference
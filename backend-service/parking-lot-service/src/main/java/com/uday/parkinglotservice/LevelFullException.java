@@ -0,0 +1,17 @@
+package com.uday.parkinglotservice;
+
+import lombok.Getter;
+
+// No free spot of the requested class on the level; answered with 409
+@Getter
+public class LevelFullException extends IllegalStateException {
+
+    private final Long levelId;
+    private final boolean disabled;
+
+    public LevelFullException(Long levelId, boolean disabled) {
+        super("No parking spots are available");
+        this.levelId = levelId;
+        this.disabled = disabled;
+    }
+}
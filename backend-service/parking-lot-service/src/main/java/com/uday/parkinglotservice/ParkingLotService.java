@@ -1,71 +1,180 @@
 package com.uday.parkinglotservice;
+import com.uday.common.tariff.Tariff;
 import com.uday.parkinglotservice.DTO.*;
 import com.uday.parkinglotservice.Entity.ParkingLevel;
 import com.uday.parkinglotservice.Entity.ParkingSpot;
 import com.uday.parkinglotservice.Repository.ParkingLevelRepository;
 import com.uday.parkinglotservice.Repository.ParkingSpotRepository;
-import io.github.resilience4j.retry.annotation.Retry;
+import com.uday.parkinglotservice.client.ParkingEventPublisher;
+import com.uday.parkinglotservice.client.PaymentClient;
+import com.uday.parkinglotservice.client.TicketingClient;
+import com.uday.parkinglotservice.client.VehicleClient;
+import com.uday.parkinglotservice.forecast.LevelForecast;
+import com.uday.parkinglotservice.forecast.OccupancyForecaster;
+import com.uday.parkinglotservice.occupancy.AdmissionCounters;
+import com.uday.parkinglotservice.occupancy.LevelOccupancy;
+import com.uday.parkinglotservice.occupancy.OccupancyTracker;
+import com.uday.parkinglotservice.sensor.SensorOutcome;
+import com.uday.parkinglotservice.shard.LotOwnership;
+import com.uday.parkinglotservice.waitlist.Waiter;
+import com.uday.parkinglotservice.waitlist.Waitlist;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 
-import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@Profile("!edge")
 public class ParkingLotService {
 
     @Autowired
-    private WebClient loadBalancedWebClient;
+    private VehicleClient vehicleClient;
+
+    @Autowired
+    private TicketingClient ticketingClient;
+
+    @Autowired
+    private PaymentClient paymentClient;
+
+    @Autowired
+    private ParkingEventPublisher events;
+
+    @Autowired
+    private OccupancyTracker occupancy;
+
+    @Autowired
+    private AdmissionCounters admission;
+
+    @Autowired
+    private Waitlist waitlist;
+
+    @Autowired
+    private OccupancyForecaster forecast;
+
+    @Autowired
+    private Tariff tariff;
+
+    @Autowired
+    private LotOwnership lotOwnership;
+
+    // true: exit only waits for a payment intent, settlement is batched later
+    @Value("${payment.async.enabled:false}")
+    private boolean asyncPayment;
 
     private final ParkingLevelRepository levelRepo;
     private final ParkingSpotRepository spotRepo;
+    // a level never moves to another lot, so its lot is looked up once
+    private final Map<Long, Long> lotByLevel = new ConcurrentHashMap<>();
+    // hand-offs finish on the waitlist's threads, outside the proxy
+    private final TransactionTemplate tx;
 
     @Autowired
-    public ParkingLotService(ParkingLevelRepository levelRepo, ParkingSpotRepository spotRepo) {
+    public ParkingLotService(ParkingLevelRepository levelRepo, ParkingSpotRepository spotRepo,
+                             PlatformTransactionManager transactionManager) {
         this.levelRepo = levelRepo;
         this.spotRepo = spotRepo;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
-    public List<ParkingLevel> getAllLevels() {
-        return levelRepo.findAll();
+    @Transactional(readOnly = true)
+    public List<LevelView> getAllLevels() {
+        return levelRepo.findAllViews();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LevelView> getLevelsForLot(Long lotId) {
+        return levelRepo.findViewsByLotId(lotId);
     }
 
 //    public ParkingLevel addLevel(ParkingLevel level) {
 //        return levelRepo.save(level);
 //    }
 
+    @Transactional
     public ParkingLevel addLevel(ParkingLevel level) {
         if (level.getSpots() != null) {
             level.getSpots().forEach(spot -> spot.setLevel(level));
         }
-        return levelRepo.save(level);
+        ParkingLevel saved = levelRepo.save(level);
+        saved.getSpots().forEach(occupancy::spotChanged);
+        saved.getSpots().forEach(admission::freed);
+        // vehicles may have queued for the level id before it had spots
+        if (saved.getId() != null) {
+            handOffFreeSpots(saved.getId(), false);
+            handOffFreeSpots(saved.getId(), true);
+        }
+        return saved;
+    }
+
+    // The lot a level belongs to, from the database rather than the request; null for an unknown level
+    public Long lotOfLevel(Long levelId) {
+        Long lotId = lotByLevel.get(levelId);
+        if (lotId == null) {
+            lotId = levelRepo.findLotIdById(levelId);
+            if (lotId != null) {
+                lotByLevel.put(levelId, lotId);
+            }
+        }
+        return lotId;
+    }
+
+    public LevelOccupancy getLevelOccupancy(Long levelId) {
+        return occupancy.level(levelId);
     }
 
-    public List<ParkingSpot> getAvailableSpots(Long levelId, boolean isDisabled) {
-        return spotRepo.findByLevelIdAndIsOccupiedFalseAndIsDisabled(levelId, isDisabled);
+    public LevelForecast getLevelForecast(Long levelId, int minutes) {
+        return forecast.forecast(levelId, minutes);
+    }
+
+    public List<LevelForecast> getForecasts(int minutes) {
+        return forecast.forecastAll(minutes);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpotView> getAvailableSpots(Long levelId, boolean isDisabled) {
+        return spotRepo.findFreeSpotViews(levelId, isDisabled);
     }
 
     @Transactional
     public ParkingSpot allocateSpot(Long levelId, boolean isDisabled) {
 
+        // queued vehicles come first; their spots arrive through handOffFreeSpots
+        if (waitlist.hasWaiters(levelId, isDisabled)) {
+            throw new LevelFullException(levelId, isDisabled);
+        }
         List<ParkingSpot> spots =
                 spotRepo.findAvailableSpotsForUpdate(levelId, isDisabled);
         System.out.println(spots);
         if (spots.isEmpty()) {
             System.out.println("Parking Spots : "+spots);
-            throw new IllegalStateException("No parking spots are available");
+            admission.noneFree(levelId, isDisabled);
+            throw new LevelFullException(levelId, isDisabled);
         }
 
         ParkingSpot spot = spots.get(0);
         spot.setOccupied(true);
-
-        return spotRepo.save(spot);
+        // an expired edge lease ends here
+        spot.setLeasedTo(null);
+        spot.setLeaseExpiresAt(null);
+
+        ParkingSpot saved = spotRepo.save(spot);
+        occupancy.spotChanged(saved);
+        admission.taken(saved);
+        forecast.arrived(levelId);
+        return saved;
     }
 
     @Transactional
@@ -76,9 +185,15 @@ public class ParkingLotService {
         if (!spot.isOccupied()) {
             throw new IllegalStateException("Spot is already free");
         }
+        if (handOff(spot)) {
+            return;
+        }
 
         spot.setOccupied(false);
-        spotRepo.save(spot);
+        ParkingSpot saved = spotRepo.save(spot);
+        occupancy.spotChanged(saved);
+        admission.freed(saved);
+        forecast.departed(saved.getLevel().getId());
     }
 
     // Ticket Response
@@ -90,94 +205,249 @@ public class ParkingLotService {
     ) {
         System.out.println("Trying to acquire DB lock");
         ParkingSpot spot = allocateSpot(levelId, isDisabled);
-        VehicleResponse vehicle = registerOrFetchVehicle(vehicleNumber, isDisabled);
+        VehicleResponse vehicle = vehicleClient.registerOrFetchVehicle(vehicleNumber, isDisabled);
         System.out.println("Parking spot reserved");
-        return createTicket(spot.getId(), vehicleNumber);
+        TicketDetails ticket = ticketingClient.createTicket(spot, vehicleNumber, vehicle);
+        events.ticketCreated(ticket.getId(), vehicleNumber, levelId);
+        return ticket;
     }
 
-    @PostConstruct
-    public void verifyWebClient() {
-        System.out.println("Injected WebClient class = " + loadBalancedWebClient.getClass());
+    /**
+     * Gives a spot being released to the first vehicle waiting for its class.
+     * The spot is locked and stays occupied, so there is nothing to write and
+     * nothing to look up; the waiter's ticket is created after commit.
+     * Spots still leased to an edge gate go back to the gate instead.
+     */
+    private boolean handOff(ParkingSpot spot) {
+        if (spot.getLeasedTo() != null || spot.getLevel() == null) {
+            return false;
+        }
+        Waiter waiter = waitlist.claimNext(spot.getLevel().getId(), spot.isDisabled());
+        if (waiter == null) {
+            return false;
+        }
+        // the leaving vehicle is counted now, the waiter once its ticket exists
+        forecast.departed(spot.getLevel().getId());
+        waitlist.handOffAfterCommit(waiter, () -> completeHandOff(waiter, spot));
+        return true;
     }
 
-    //Vehicle Service
-    @CircuitBreaker(name = "vehicleService", fallbackMethod = "vehicleFallback")
-    @Retry(name = "vehicleService")
-    public VehicleResponse registerOrFetchVehicle(
-            String vehicleNumber,
-            boolean isDisabled
-    ) {
-        System.out.println("Calling Vehicle service");
-        VehicleRequest request = new VehicleRequest();
-        request.setLicensePlate(vehicleNumber);
-        request.setDisabled(isDisabled);
-        request.setType("CAR"); // or derive later
-
-        return loadBalancedWebClient.post()
-                .uri("http://VEHICLE-SERVICE:8081/vehicle/save")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(VehicleResponse.class)
-                .block();
-    }
-
-    //Vehicle service fallback
-    public VehicleResponse vehicleFallback(
-            String vehicleNumber,
-            boolean isDisabled,
-            Throwable ex
-    ) {
-        throw new IllegalStateException(
-                "Vehicle service unavailable. Cannot register vehicle.", ex
-        );
+    /**
+     * Gives free spots of the class to its waiters, at most one per waiter.
+     * For spots that became free without a release to hand over: a returned
+     * or expired edge lease, a new level. Returns the number handed off.
+     */
+    @Transactional
+    public int handOffFreeSpots(long levelId, boolean disabled) {
+        int waiting = waitlist.waiting(levelId, disabled);
+        if (waiting == 0) {
+            return 0;
+        }
+        int handedOff = 0;
+        for (ParkingSpot spot : spotRepo.findLeasableSpotsForUpdate(levelId, disabled,
+                LocalDateTime.now(), PageRequest.of(0, waiting))) {
+            Waiter waiter = waitlist.claimNext(levelId, disabled);
+            if (waiter == null) {
+                break;
+            }
+            spot.setOccupied(true);
+            spot.setLeasedTo(null);
+            spot.setLeaseExpiresAt(null);
+            ParkingSpot saved = spotRepo.save(spot);
+            occupancy.spotChanged(saved);
+            admission.taken(saved);
+            waitlist.handOffAfterCommit(waiter, () -> completeHandOff(waiter, saved));
+            handedOff++;
+        }
+        return handedOff;
     }
 
-
-    //Calling Ticketing service
-    @CircuitBreaker(name = "ticketingService", fallbackMethod = "ticketFallback")
-    @Retry(name = "ticketingService")
-    public TicketDetails createTicket(Long spotId, String vehicleNumber) {
-        System.out.println("Calling Ticketing service");
+    private void completeHandOff(Waiter waiter, ParkingSpot spot) {
         try {
-            return loadBalancedWebClient.post()
-                    .uri("http://TICKETING-SERVICE:8082/ticketing/create?spotId={spotId}&vehicleNumber={vehicleNumber}",spotId,vehicleNumber)
-                    .retrieve()
-                    .bodyToMono(TicketDetails.class)
-                    .block();
-        } catch (WebClientRequestException ex) {
-            System.out.println("WebClientRequestException → " + ex.getMessage());
-            throw ex;
+            VehicleResponse vehicle = vehicleClient.registerOrFetchVehicle(waiter.getVehicleNumber(), waiter.isDisabled());
+            TicketDetails ticket = ticketingClient.createTicket(spot, waiter.getVehicleNumber(), vehicle);
+            if (!spot.getId().equals(ticket.getSpotId())) {
+                // ticketing handed back the vehicle's open ticket: the spot moves on
+                waitlist.failed(waiter, "vehicle already has open ticket " + ticket.getId());
+                tx.executeWithoutResult(status -> releaseSpot(spot.getId()));
+                return;
+            }
+            events.ticketCreated(ticket.getId(), waiter.getVehicleNumber(), waiter.getLevelId());
+            forecast.arrived(waiter.getLevelId());
+            waitlist.assigned(waiter, ticket);
+        } catch (RuntimeException ex) {
+            // counted by the waitlist and reported with its sweep, not per hand-off
+            String detail = ex.getMessage();
+            try {
+                tx.executeWithoutResult(status -> releaseSpot(spot.getId()));
+            } catch (RuntimeException releaseEx) {
+                detail += "; spot " + spot.getId() + " left occupied → " + releaseEx.getMessage();
+            }
+            waitlist.failed(waiter, detail);
         }
     }
 
-    public TicketDetails ticketFallback(
-            Long spotId,
-            String vehicleNumber,
-            Throwable ex
-    ) {
-        throw new IllegalStateException(
-                "Ticketing service unavailable. Please try again later.", ex
-        );
+    //Calculate amount: the tariff ticketing quotes, refreshed with it
+    private double calculateFee(LocalDateTime entryTime) {
+        return tariff.fee(entryTime, LocalDateTime.now());
     }
 
-    //Calculate amount
-    private double calculateFee(LocalDateTime entryTime) {
-        long hours = ChronoUnit.HOURS.between(entryTime, LocalDateTime.now());
-        return Math.max(600, hours * 50); // minimum ₹50
+    // Edge gates: renew this gate's lease on a level and top it up to count free spots
+    @Transactional
+    public List<ParkingSpot> leaseSpots(String edgeId, Long levelId, boolean isDisabled, int count, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+
+        List<ParkingSpot> leased = new ArrayList<>(
+                spotRepo.findByLeasedToAndLevelIdAndIsDisabled(edgeId, levelId, isDisabled));
+        leased.forEach(spot -> spot.setLeaseExpiresAt(expiresAt));
+
+        int missing = count - leased.size();
+        if (missing > 0) {
+            List<ParkingSpot> fresh =
+                    spotRepo.findLeasableSpotsForUpdate(levelId, isDisabled, now, PageRequest.of(0, missing));
+            fresh.forEach(spot -> {
+                spot.setLeasedTo(edgeId);
+                spot.setLeaseExpiresAt(expiresAt);
+                admission.taken(spot);
+            });
+            leased.addAll(fresh);
+        }
+        return spotRepo.saveAll(leased);
+    }
+
+    // Free spots go back to central allocation; spots the gate still has occupied stay leased
+    @Transactional
+    public int returnLease(String edgeId) {
+        List<ParkingSpot> spots = spotRepo.findByLeasedToAndIsOccupiedFalse(edgeId);
+        spots.forEach(spot -> {
+            spot.setLeasedTo(null);
+            spot.setLeaseExpiresAt(null);
+            admission.freed(spot);
+        });
+        spotRepo.saveAll(spots);
+        spots.stream()
+                .map(spot -> new Waitlist.WaitingClass(spot.getLevel().getId(), spot.isDisabled()))
+                .distinct()
+                .forEach(waiting -> handOffFreeSpots(waiting.levelId(), waiting.disabled()));
+        return spots.size();
     }
 
-    // Vehicle Exit
+    /**
+     * Occupies the spot an edge gate used for an offline entry. If the lease
+     * was lost meanwhile (expired and the spot reallocated) the vehicle is
+     * moved to any free spot on the level; null when the level is full.
+     */
     @Transactional
-    public void exitVehicle(Long ticketId) {
+    public ParkingSpot claimEdgeSpot(String edgeId, Long spotId, Long levelId, boolean isDisabled) {
+        ParkingSpot spot = spotRepo.findSpotForUpdate(spotId);
+        if (spot != null && edgeId.equals(spot.getLeasedTo())) {
+            // already occupied only when this entry is being replayed
+            boolean replayed = spot.isOccupied();
+            spot.setOccupied(true);
+            ParkingSpot saved = spotRepo.save(spot);
+            occupancy.spotChanged(saved);
+            if (!replayed) {
+                forecast.arrived(levelId);
+            }
+            return saved;
+        }
+
+        List<ParkingSpot> spots = spotRepo.findAvailableSpotsForUpdate(levelId, isDisabled);
+        if (spots.isEmpty()) {
+            admission.noneFree(levelId, isDisabled);
+            return null;
+        }
+        ParkingSpot other = spots.get(0);
+        other.setOccupied(true);
+        other.setLeasedTo(null);
+        other.setLeaseExpiresAt(null);
+        ParkingSpot saved = spotRepo.save(other);
+        occupancy.spotChanged(saved);
+        admission.taken(saved);
+        forecast.arrived(levelId);
+        return saved;
+    }
+
+    // Unlike releaseSpot, tolerates a spot that is already free (replayed exit)
+    @Transactional
+    public void releaseEdgeSpot(Long spotId) {
+        ParkingSpot spot = spotRepo.findSpotForUpdate(spotId);
+        if (spot != null && spot.isOccupied() && !handOff(spot)) {
+            spot.setOccupied(false);
+            ParkingSpot saved = spotRepo.save(spot);
+            occupancy.spotChanged(saved);
+            admission.freed(saved);
+            forecast.departed(saved.getLevel().getId());
+        }
+    }
+
+    /**
+     * Applies settled sensor states (spot id -> occupied) to their spots. A
+     * vehicle the sensor sees on a free spot takes the spot out of allocation
+     * until it leaves; a spot sensed free under an open ticket is only
+     * recorded, the ticket is closed at the exit as usual. Unchanged spots
+     * are not written.
+     */
+    @Transactional
+    public Map<Long, SensorOutcome> reconcileSensors(Map<Long, Boolean> sensed) {
+        Map<Long, SensorOutcome> outcomes = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ParkingSpot spot : spotRepo.findSpotsForUpdate(sensed.keySet())) {
+            outcomes.put(spot.getId(), reconcileSensor(spot, sensed.get(spot.getId()), now));
+        }
+        sensed.keySet().forEach(spotId -> outcomes.putIfAbsent(spotId, SensorOutcome.UNKNOWN_SPOT));
+        return outcomes;
+    }
+
+    private SensorOutcome reconcileSensor(ParkingSpot spot, boolean occupied, LocalDateTime now) {
+        boolean changed = !Boolean.valueOf(occupied).equals(spot.getSensorOccupied());
+        spot.setSensorOccupied(occupied);
+
+        if (occupied && !spot.isOccupied()) {
+            if (spot.getLeasedTo() != null && spot.getLeaseExpiresAt() != null && spot.getLeaseExpiresAt().isAfter(now)) {
+                return SensorOutcome.LEASED;
+            }
+            spot.setOccupied(true);
+            spot.setUnticketed(true);
+            occupancy.spotChanged(spot);
+            admission.taken(spot);
+            forecast.arrived(spot.getLevel().getId());
+            return SensorOutcome.UNTICKETED_ARRIVAL;
+        }
+        if (!occupied && spot.isOccupied()) {
+            if (!spot.isUnticketed()) {
+                return changed ? SensorOutcome.LEFT_WITHOUT_EXIT : SensorOutcome.AGREES;
+            }
+            spot.setUnticketed(false);
+            if (!handOff(spot)) {
+                spot.setOccupied(false);
+                occupancy.spotChanged(spot);
+                admission.freed(spot);
+                forecast.departed(spot.getLevel().getId());
+            }
+            return SensorOutcome.UNTICKETED_DEPARTURE;
+        }
+        return SensorOutcome.AGREES;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, List<SpotView>> getSensorMismatches() {
+        Map<String, List<SpotView>> mismatches = new LinkedHashMap<>();
+        mismatches.put("unticketed", spotRepo.findSensorMismatches(true, true));
+        mismatches.put("leftWithoutExit", spotRepo.findSensorMismatches(false, false));
+        return mismatches;
+    }
+
+    // Vehicle Exit. No transaction around the downstream calls: an exit waiting on a slow
+    // payment must not hold a pooled connection the entries need.
+    // requestedLotId: the lot the request was routed on, checked against the ticket's spot
+    public void exitVehicle(Long ticketId, Long requestedLotId) {
         try{
             System.out.println("Exit service being called here");
 
         // 1. Fetch ticket details from ticketing-service
-        TicketDetails ticket = loadBalancedWebClient.get()
-                .uri("http://TICKETING-SERVICE:8082/ticketing/{id}", ticketId)
-                .retrieve()
-                .bodyToMono(TicketDetails.class)
-                .block();
+        TicketDetails ticket = ticketingClient.getTicket(ticketId);
 
         if (ticket == null) {
             throw new IllegalStateException("Ticket not found");
@@ -187,22 +457,29 @@ public class ParkingLotService {
         if (ticket.getExitTime() != null) {
             throw new IllegalStateException("Ticket already closed");
         }
+        lotOwnership.check(() -> spotRepo.findLotIdById(ticket.getSpotId()), requestedLotId);
 
         // 2. Calculate fee (mock for now)
            double amount = calculateFee(ticket.getEntryTime());
 
-        // 3. Process payment (MUST succeed)
-           processPayment(ticketId, amount);
+        // 3. Process payment (MUST succeed, or be accepted for async settlement)
+           try {
+               if (asyncPayment) {
+                   paymentClient.requestPaymentIntent(ticketId, ticket.getVehicleNumber(), amount);
+               } else {
+                   paymentClient.processPayment(ticketId, amount);
+               }
+           } catch (RuntimeException ex) {
+               events.paymentFailed(ticketId, ticket.getVehicleNumber(), amount);
+               throw ex;
+           }
 
         // 3. Close ticket
-        loadBalancedWebClient.put()
-                .uri("http://TICKETING-SERVICE:8082/ticketing/exit/{ticketId}", ticketId)
-                .retrieve()
-                .bodyToMono(Void.class)
-                .block();
+        ticketingClient.closeTicket(ticketId);
 
         // 4. Release parking spot using spotId from ticket
-        releaseSpot(ticket.getSpotId());
+        tx.executeWithoutResult(status -> releaseSpot(ticket.getSpotId()));
+        events.exitCompleted(ticketId, ticket.getVehicleNumber(), amount);
         }
         catch (WebClientRequestException ex) {
             System.out.println("WebClientRequestException → " + ex.getMessage());
@@ -210,35 +487,5 @@ public class ParkingLotService {
         }
     }
 
-    @CircuitBreaker(name = "paymentService", fallbackMethod = "paymentFallback")
-    @Retry(name = "paymentService")
-    public void processPayment(Long ticketId, double amount) {
-
-        System.out.println("Calling Payment service");
-
-        PaymentRequest request = new PaymentRequest();
-        request.setTicketId(ticketId);
-        request.setAmount(amount);
-
-        PaymentResponse response = loadBalancedWebClient.post()
-                .uri("http://PAYMENT-SERVICE:8083/payments/create")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(PaymentResponse.class)
-                .block();
-
-        if (response == null || !"SUCCESS".equals(response.getStatus())) {
-            System.out.println("this is the response : "+response);
-            throw new IllegalStateException("Payment failed");
-        }
-    }
-
-
-    public void paymentFallback(Long ticketId, double amount, Throwable ex) {
-        throw new IllegalStateException(
-                "Payment service unavailable. Exit denied.", ex
-        );
-    }
-
 
 }
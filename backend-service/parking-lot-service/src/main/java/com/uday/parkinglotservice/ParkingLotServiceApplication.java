@@ -3,10 +3,6 @@ package com.uday.parkinglotservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.reactive.function.client.WebClient;
 
 @EnableDiscoveryClient
 @SpringBootApplication
@@ -14,16 +10,4 @@ public class ParkingLotServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ParkingLotServiceApplication.class, args);
     }
-
-    @Configuration
-    public class WebClientConfig {
-
-        @Bean
-        @LoadBalanced
-        public WebClient loadBalancedWebClient(WebClient.Builder builder) {
-            return builder.build();
-        }
-    }
-
-
 }
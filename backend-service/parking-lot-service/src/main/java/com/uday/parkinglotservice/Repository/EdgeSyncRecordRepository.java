@@ -0,0 +1,15 @@
+package com.uday.parkinglotservice.Repository;
+
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+import com.uday.parkinglotservice.Entity.EdgeSyncRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface EdgeSyncRecordRepository extends JpaRepository<EdgeSyncRecord, Long> {
+
+    Optional<EdgeSyncRecord> findByEdgeIdAndSeq(String edgeId, long seq);
+
+    Optional<EdgeSyncRecord> findFirstByEdgeIdAndEdgeTicketIdAndType(String edgeId, String edgeTicketId,
+                                                                     EdgeGateEvent.Type type);
+}
@@ -1,6 +1,37 @@
 package com.uday.parkinglotservice.Repository;
 
+import com.uday.parkinglotservice.DTO.LevelView;
 import com.uday.parkinglotservice.Entity.ParkingLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ParkingLevelRepository extends JpaRepository<ParkingLevel, Long> {}
+import java.util.List;
+
+public interface ParkingLevelRepository extends JpaRepository<ParkingLevel, Long> {
+
+    List<ParkingLevel> findByLotId(Long lotId);
+
+    @Query("SELECT l.lotId FROM ParkingLevel l WHERE l.id = :levelId")
+    Long findLotIdById(@Param("levelId") Long levelId);
+
+    // Read-side projections: one aggregate query, no spot entities loaded
+    @Query("""
+   SELECT new com.uday.parkinglotservice.DTO.LevelView(
+          l.id, l.levelNumber, l.lotId,
+          COUNT(s), SUM(CASE WHEN s.isOccupied = false THEN 1 ELSE 0 END))
+   FROM ParkingLevel l LEFT JOIN l.spots s
+   GROUP BY l.id, l.levelNumber, l.lotId
+   ORDER BY l.id""")
+    List<LevelView> findAllViews();
+
+    @Query("""
+   SELECT new com.uday.parkinglotservice.DTO.LevelView(
+          l.id, l.levelNumber, l.lotId,
+          COUNT(s), SUM(CASE WHEN s.isOccupied = false THEN 1 ELSE 0 END))
+   FROM ParkingLevel l LEFT JOIN l.spots s
+   WHERE l.lotId = :lotId
+   GROUP BY l.id, l.levelNumber, l.lotId
+   ORDER BY l.id""")
+    List<LevelView> findViewsByLotId(@Param("lotId") Long lotId);
+}
@@ -1,23 +1,44 @@
 package com.uday.parkinglotservice.Repository;
 
+import com.uday.parkinglotservice.DTO.SpotView;
 import com.uday.parkinglotservice.Entity.ParkingSpot;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
 
 public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
-    List<ParkingSpot> findByLevelIdAndIsOccupiedFalseAndIsDisabled(Long levelId, boolean isDisabled);
+    // Read-side projection; loading entities would also fetch the eager level per spot
+    @Query("""
+   SELECT new com.uday.parkinglotservice.DTO.SpotView(s.id, s.spotType, s.isDisabled, s.isOccupied, s.level.id)
+   FROM ParkingSpot s
+   WHERE s.level.id = :levelId
+     AND s.isOccupied = false
+     AND s.isDisabled = :isDisabled
+   ORDER BY s.id""")
+    List<SpotView> findFreeSpotViews(@Param("levelId") Long levelId, @Param("isDisabled") boolean isDisabled);
+
+    long countByLevelId(Long levelId);
+
+    long countByLevelIdAndIsOccupiedFalse(Long levelId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
    SELECT s FROM ParkingSpot s
    WHERE s.level.id = :levelId
      AND s.isOccupied = false
-     AND s.isDisabled = :isDisabled""")
+     AND s.isDisabled = :isDisabled
+     AND (s.leasedTo IS NULL OR s.leaseExpiresAt < CURRENT_TIMESTAMP)""")
     List<ParkingSpot> findAvailableSpotsForUpdate(
             @Param("levelId") Long levelId,
             @Param("isDisabled") boolean isDisabled
@@ -26,9 +47,79 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
    SELECT s FROM ParkingSpot s
+   WHERE s.level.id = :levelId
+     AND s.isOccupied = false
+     AND s.isDisabled = :isDisabled
+     AND (s.leasedTo IS NULL OR s.leaseExpiresAt < :now)
+   ORDER BY s.id""")
+    List<ParkingSpot> findLeasableSpotsForUpdate(
+            @Param("levelId") Long levelId,
+            @Param("isDisabled") boolean isDisabled,
+            @Param("now") LocalDateTime now,
+            Pageable page
+    );
+
+    List<ParkingSpot> findByLeasedToAndLevelIdAndIsDisabled(String leasedTo, Long levelId, boolean isDisabled);
+
+    List<ParkingSpot> findByLeasedToAndIsOccupiedFalse(String leasedTo);
+
+    // Occupancy verification: three columns per spot; must run inside a transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT s.id AS id, s.level.id AS levelId, s.isOccupied AS occupied FROM ParkingSpot s")
+    Stream<SpotState> streamAllStates();
+
+    interface SpotState {
+        Long getId();
+        Long getLevelId();
+        Boolean getOccupied();
+    }
+
+    // Admission counters: centrally allocatable spots per level and disabled class
+    @Query("""
+   SELECT s.level.id AS levelId, s.isDisabled AS disabled,
+          SUM(CASE WHEN s.isOccupied = false AND (s.leasedTo IS NULL OR s.leaseExpiresAt < :now)
+                   THEN 1 ELSE 0 END) AS free
+   FROM ParkingSpot s
+   GROUP BY s.level.id, s.isDisabled""")
+    List<ClassFree> countFreeByClass(@Param("now") LocalDateTime now);
+
+    interface ClassFree {
+        Long getLevelId();
+        Boolean getDisabled();
+        Long getFree();
+    }
+
+    @Query("SELECT s.level.lotId FROM ParkingSpot s WHERE s.id = :spotId")
+    Long findLotIdById(@Param("spotId") Long spotId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+   SELECT s FROM ParkingSpot s
    WHERE s.id = :spotId""")
     ParkingSpot findSpotForUpdate(@Param("spotId") Long spotId);
 
+    // Sensor reconciliation: a batch of spots, locked in id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+   SELECT s FROM ParkingSpot s
+   WHERE s.id IN :spotIds
+   ORDER BY s.id""")
+    List<ParkingSpot> findSpotsForUpdate(@Param("spotIds") Collection<Long> spotIds);
+
+    // Occupied spots the sensor disagrees with: parked without a ticket, or left without exiting
+    @Query("""
+   SELECT new com.uday.parkinglotservice.DTO.SpotView(s.id, s.spotType, s.isDisabled, s.isOccupied, s.level.id)
+   FROM ParkingSpot s
+   WHERE s.isOccupied = true
+     AND s.unticketed = :unticketed
+     AND s.sensorOccupied = :sensorOccupied
+   ORDER BY s.id""")
+    List<SpotView> findSensorMismatches(@Param("unticketed") boolean unticketed,
+                                        @Param("sensorOccupied") boolean sensorOccupied);
+
 
 
 }
@@ -0,0 +1,63 @@
+package com.uday.parkinglotservice.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timeout derived from the recent latency of one downstream: the configured
+ * percentile of the last samples times a headroom multiplier, clamped to
+ * [min, max]. Recomputed every RECOMPUTE_EVERY samples so the hot path is a
+ * single array write.
+ */
+public class AdaptiveTimeout {
+
+    private static final int WINDOW = 256;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples = new long[WINDOW];
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final double percentile;
+    private final double multiplier;
+    private final long minMillis;
+    private final long maxMillis;
+
+    private volatile long currentMillis;
+
+    public AdaptiveTimeout(double percentile, double multiplier, Duration min, Duration max) {
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.minMillis = min.toMillis();
+        this.maxMillis = max.toMillis();
+        // start generous until we have seen some traffic
+        this.currentMillis = maxMillis;
+    }
+
+    public Duration current() {
+        return Duration.ofMillis(currentMillis);
+    }
+
+    public void record(long latencyMillis) {
+        int n = cursor.getAndUpdate(AdaptiveTimeout::advance);
+        samples[n % WINDOW] = latencyMillis;
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute(Math.min(n + 1, WINDOW));
+        }
+    }
+
+    // Once the window is full only the slot matters, so the cursor cycles
+    // through [WINDOW, 2 * WINDOW) instead of running into int overflow
+    private static int advance(int n) {
+        return n + 1 < 2 * WINDOW ? n + 1 : WINDOW;
+    }
+
+    private void recompute(int count) {
+        long[] copy = Arrays.copyOf(samples, count);
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        long observed = copy[Math.max(0, Math.min(index, count - 1))];
+        long timeout = (long) (observed * multiplier);
+        currentMillis = Math.max(minMillis, Math.min(maxMillis, timeout));
+    }
+}
@@ -0,0 +1,11 @@
+package com.uday.parkinglotservice.client;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DownstreamClientProperties.class)
+@LoadBalancerClients(defaultConfiguration = DownstreamLoadBalancerConfig.class)
+public class DownstreamClientConfig {
+}
@@ -0,0 +1,58 @@
+package com.uday.parkinglotservice.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "downstream")
+public class DownstreamClientProperties {
+
+    // keyed by logical name: vehicle, ticketing, payment
+    private Map<String, Service> services = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Service {
+
+        // e.g. http://VEHICLE-SERVICE, the host is resolved as a Eureka service id
+        private String baseUrl;
+
+        // Connection pool
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInterval = Duration.ofSeconds(30);
+
+        // Timeouts
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration responseTimeout = Duration.ofSeconds(3);
+
+        // Adaptive timeout: percentile of recent latency * multiplier,
+        // clamped between timeoutMin and responseTimeout
+        private double timeoutPercentile = 0.99;
+        private double timeoutMultiplier = 2.0;
+        private Duration timeoutMin = Duration.ofMillis(200);
+
+        // Retry budget: retries allowed per call made, plus a small reserve
+        private int maxRetries = 2;
+        private Duration retryBackoff = Duration.ofMillis(100);
+        private double retryBudgetRatio = 0.1;
+        private int retryBudgetMin = 5;
+        private boolean retryTimeouts = true;
+
+        // h2c needs server.http2.enabled=true on the downstream service
+        private boolean http2 = false;
+
+        // Smile instead of JSON; needs jackson-dataformat-smile on the downstream
+        // service, responses still fall back to JSON through the Accept q-value
+        private boolean binary = false;
+    }
+}
@@ -0,0 +1,141 @@
+package com.uday.parkinglotservice.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One load-balanced WebClient per downstream service, each with its own
+ * Reactor Netty connection pool so a slow service cannot exhaust the
+ * connections of the others.
+ *
+ * Pool gauges and acquire-wait timers are published to Micrometer under
+ * reactor.netty.connection.provider.* tagged with the pool name.
+ *
+ * Services marked binary are asked for Smile (binary JSON) and sent Smile
+ * request bodies; Jackson maps the same DTOs, only the encoding differs.
+ *
+ * A service's client can be rebuilt from changed settings while traffic is
+ * flowing: new calls go to the new pool at once, the old pool is disposed
+ * only after calls already on it had time to finish.
+ */
+@Component
+public class DownstreamClients implements DisposableBean {
+
+    public static final String VEHICLE = "vehicle";
+    public static final String TICKETING = "ticketing";
+    public static final String PAYMENT = "payment";
+    public static final String NOTIFICATION = "notification";
+
+    public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final String BINARY_ACCEPT = SMILE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    // longer than any response timeout plus its retries
+    private static final Duration DRAIN = Duration.ofSeconds(30);
+
+    private final DownstreamClientProperties properties;
+    private final WebClient.Builder builder;
+    private final LoadBalancedExchangeFilterFunction loadBalancerFilter;
+
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> pools = new ConcurrentHashMap<>();
+
+    public DownstreamClients(DownstreamClientProperties properties,
+                             WebClient.Builder builder,
+                             LoadBalancedExchangeFilterFunction loadBalancerFilter) {
+        this.properties = properties;
+        this.builder = builder;
+        this.loadBalancerFilter = loadBalancerFilter;
+    }
+
+    public WebClient vehicle() {
+        return get(VEHICLE);
+    }
+
+    public WebClient ticketing() {
+        return get(TICKETING);
+    }
+
+    public WebClient payment() {
+        return get(PAYMENT);
+    }
+
+    public WebClient get(String service) {
+        return clients.computeIfAbsent(service, this::create);
+    }
+
+    // Swaps in a client built from the current settings; a client not created yet is left to get()
+    public void rebuild(String service) {
+        if (!clients.containsKey(service)) {
+            return;
+        }
+        ConnectionProvider old = pools.get(service);
+        clients.put(service, create(service));
+        if (old != null) {
+            Mono.delay(DRAIN).then(old.disposeLater()).subscribe();
+        }
+        System.out.println("Downstream client " + service + " rebuilt");
+    }
+
+    // Content type for request bodies sent to the service
+    public MediaType bodyType(String service) {
+        DownstreamClientProperties.Service settings = properties.getServices().get(service);
+        return settings != null && settings.isBinary() ? SMILE : MediaType.APPLICATION_JSON;
+    }
+
+    private WebClient create(String service) {
+        DownstreamClientProperties.Service settings = properties.getServices().get(service);
+        if (settings == null || settings.getBaseUrl() == null) {
+            throw new IllegalStateException("No downstream configuration for " + service);
+        }
+
+        ConnectionProvider pool = ConnectionProvider.builder(service)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .evictInBackground(settings.getEvictInterval())
+                .metrics(true)
+                .build();
+        pools.put(service, pool);
+
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(settings.getResponseTimeout());
+
+        if (settings.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        WebClient.Builder client = builder.clone()
+                .baseUrl(settings.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(loadBalancerFilter);
+        if (settings.isBinary()) {
+            client.defaultHeader(HttpHeaders.ACCEPT, BINARY_ACCEPT);
+        }
+        return client.build();
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(ConnectionProvider::dispose);
+        pools.clear();
+        clients.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package com.uday.parkinglotservice.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive timeout and budgeted retries for each downstream call. Isolation
+ * between services comes from the Resilience4j bulkheads on the *Client beans
+ * and the per-service connection pools in {@link DownstreamClients}.
+ */
+@Component
+public class DownstreamPolicy {
+
+    private final DownstreamClientProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AdaptiveTimeout> timeouts = new ConcurrentHashMap<>();
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public DownstreamPolicy(DownstreamClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> apply(String service, Mono<T> call) {
+        DownstreamClientProperties.Service settings = settings(service);
+        AdaptiveTimeout timeout = timeout(service);
+        RetryBudget budget = budget(service);
+
+        Mono<T> attempt = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .timeout(timeout.current())
+                    .doOnSuccess(result -> timeout.record((System.nanoTime() - start) / 1_000_000))
+                    // a timed-out call still counts, otherwise a slowdown could never raise the timeout
+                    .doOnError(TimeoutException.class, ex -> timeout.record((System.nanoTime() - start) / 1_000_000));
+        });
+
+        return Mono.defer(() -> {
+            // per subscription, not per assembly: a Mono built once and subscribed again deposits each time
+            budget.deposit();
+            // the filter also runs for the failure that exhausts maxRetries, which must not cost a token
+            AtomicLong retries = new AtomicLong();
+            return attempt.retryWhen(
+                    Retry.backoff(settings.getMaxRetries(), settings.getRetryBackoff())
+                            .filter(ex -> isRetryable(ex, settings)
+                                    && retries.get() < settings.getMaxRetries()
+                                    && budget.tryWithdraw())
+                            .doBeforeRetry(signal -> retries.incrementAndGet())
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure())
+            );
+        });
+    }
+
+    public AdaptiveTimeout timeout(String service) {
+        return timeouts.computeIfAbsent(service, name -> {
+            DownstreamClientProperties.Service settings = settings(name);
+            AdaptiveTimeout timeout = new AdaptiveTimeout(
+                    settings.getTimeoutPercentile(),
+                    settings.getTimeoutMultiplier(),
+                    settings.getTimeoutMin(),
+                    settings.getResponseTimeout()
+            );
+            Gauge.builder("downstream.timeout.current", timeout, t -> t.current().toMillis())
+                    .tag("service", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            return timeout;
+        });
+    }
+
+    public RetryBudget budget(String service) {
+        return budgets.computeIfAbsent(service, name -> {
+            DownstreamClientProperties.Service settings = settings(name);
+            RetryBudget budget = new RetryBudget(settings.getRetryBudgetRatio(), settings.getRetryBudgetMin());
+            Gauge.builder("downstream.retry.budget", budget, RetryBudget::available)
+                    .tag("service", name)
+                    .register(meterRegistry);
+            return budget;
+        });
+    }
+
+    // Drops the timeout and budget so the next call builds them from the current settings
+    public void reset(String service) {
+        // gauges first, so the ones registered for the new objects stay
+        removeGauge("downstream.timeout.current", service);
+        removeGauge("downstream.retry.budget", service);
+        timeouts.remove(service);
+        budgets.remove(service);
+    }
+
+    private void removeGauge(String name, String service) {
+        meterRegistry.find(name).tag("service", service).meters().forEach(meterRegistry::remove);
+    }
+
+    private boolean isRetryable(Throwable ex, DownstreamClientProperties.Service settings) {
+        if (ex instanceof WebClientRequestException) {
+            return true;
+        }
+        if (ex instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return ex instanceof TimeoutException && settings.isRetryTimeouts();
+    }
+
+    private DownstreamClientProperties.Service settings(String service) {
+        DownstreamClientProperties.Service settings = properties.getServices().get(service);
+        if (settings == null) {
+            throw new IllegalStateException("No downstream configuration for " + service);
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,173 @@
+package com.uday.parkinglotservice.client;
+
+import com.uday.parkinglotservice.DTO.ParkingEvent;
+import com.uday.parkinglotservice.occupancy.LevelOccupancy;
+import com.uday.parkinglotservice.occupancy.OccupancyTracker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fire-and-forget delivery of parking events to notification-service.
+ * Callers only enqueue; a background thread ships batches and a full queue
+ * or an unreachable notification-service drops events instead of ever
+ * delaying entry or exit. Events raised inside a transaction are queued
+ * once it commits.
+ */
+@Component
+@Profile("!edge")
+public class ParkingEventPublisher {
+
+    private final DownstreamClients clients;
+    private final OccupancyTracker occupancy;
+
+    private final BlockingQueue<ParkingEvent> queue;
+    private final Set<Long> levelsToCheck = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "parking-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final double nearlyFullRatio;
+
+    public ParkingEventPublisher(DownstreamClients clients,
+                                 OccupancyTracker occupancy,
+                                 @Value("${parking.events.enabled:true}") boolean enabled,
+                                 @Value("${parking.events.queue-capacity:5000}") int queueCapacity,
+                                 @Value("${parking.events.batch-size:100}") int batchSize,
+                                 @Value("${parking.events.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${parking.events.level-nearly-full-ratio:0.1}") double nearlyFullRatio) {
+        this.clients = clients;
+        this.occupancy = occupancy;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.nearlyFullRatio = nearlyFullRatio;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            sender.scheduleWithFixedDelay(this::flushSafely,
+                    flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void ticketCreated(Long ticketId, String vehicleNumber, Long levelId) {
+        afterCommit(() -> {
+            publish(new ParkingEvent(ParkingEvent.Type.TICKET_CREATED, vehicleNumber, ticketId));
+            // occupancy is checked off-thread, once per level per flush
+            levelsToCheck.add(levelId);
+        });
+    }
+
+    public void exitCompleted(Long ticketId, String vehicleNumber, double amount) {
+        ParkingEvent event = new ParkingEvent(ParkingEvent.Type.EXIT_COMPLETED, vehicleNumber, ticketId);
+        event.setAmount(amount);
+        afterCommit(() -> publish(event));
+    }
+
+    // The failed payment is what rolls the exit back, so this one goes out either way
+    public void paymentFailed(Long ticketId, String vehicleNumber, double amount) {
+        ParkingEvent event = new ParkingEvent(ParkingEvent.Type.PAYMENT_FAILED, vehicleNumber, ticketId);
+        event.setAmount(amount);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    // Inside a transaction, nothing is announced unless it commits
+    private void afterCommit(Runnable publish) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    private void publish(ParkingEvent event) {
+        if (enabled && !queue.offer(event)) {
+            System.out.println("Parking event queue full, dropping " + event.getType());
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            checkLevels();
+            flush();
+        } catch (RuntimeException e) {
+            System.out.println("Parking event flush failed → " + e.getMessage());
+        }
+    }
+
+    private void checkLevels() {
+        for (Long levelId : List.copyOf(levelsToCheck)) {
+            levelsToCheck.remove(levelId);
+            // served from the occupancy bitmap once it is loaded
+            LevelOccupancy counts = occupancy.level(levelId);
+            long total = counts.total();
+            long free = counts.free();
+            if (total > 0 && free <= total * nearlyFullRatio) {
+                ParkingEvent event = new ParkingEvent(ParkingEvent.Type.LEVEL_NEARLY_FULL, null, null);
+                event.setLevelId(levelId);
+                event.setFreeSpots((int) free);
+                publish(event);
+            }
+        }
+    }
+
+    private void flush() {
+        List<ParkingEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<ParkingEvent> toSend = List.copyOf(batch);
+            batch.clear();
+            clients.get(DownstreamClients.NOTIFICATION).post()
+                    .uri("/api/notifications/events")
+                    .bodyValue(toSend)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .subscribe(
+                            ok -> { },
+                            ex -> System.out.println("Dropped " + toSend.size()
+                                    + " parking events → " + ex.getMessage())
+                    );
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdown();
+    }
+}
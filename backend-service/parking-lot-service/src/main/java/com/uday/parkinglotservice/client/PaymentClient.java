@@ -0,0 +1,101 @@
+package com.uday.parkinglotservice.client;
+
+import com.uday.parkinglotservice.DTO.PaymentRequest;
+import com.uday.parkinglotservice.DTO.PaymentResponse;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+@Component
+public class PaymentClient {
+
+    private final DownstreamClients clients;
+    private final DownstreamPolicy policy;
+
+    public PaymentClient(DownstreamClients clients, DownstreamPolicy policy) {
+        this.clients = clients;
+        this.policy = policy;
+    }
+
+    @CircuitBreaker(name = "paymentService", fallbackMethod = "paymentFallback")
+    @Bulkhead(name = "paymentService")
+    public void processPayment(Long ticketId, double amount) {
+
+        System.out.println("Calling Payment service");
+
+        PaymentRequest request = new PaymentRequest();
+        request.setTicketId(ticketId);
+        request.setAmount(amount);
+
+        PaymentResponse response = policy.apply(DownstreamClients.PAYMENT,
+                clients.payment().post()
+                        .uri("/payments/create")
+                        // same key on every retry of this exit, even after the fee went up: payment-service
+                        // replays a successful charge and answers 409 to a new amount instead of charging it
+                        .header("Idempotency-Key", idempotencyKey(ticketId))
+                        .contentType(clients.bodyType(DownstreamClients.PAYMENT))
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(PaymentResponse.class)
+        )
+                .onErrorResume(WebClientResponseException.Conflict.class,
+                        ex -> Mono.justOrEmpty(ex.getResponseBodyAs(PaymentResponse.class)))
+                .block();
+
+        if (response != null && "AMOUNT_MISMATCH".equals(response.getStatus())
+                && (response.getPaymentId() != null || response.getOrderId() != null)) {
+            // paid by an earlier attempt of this exit whose ticket close failed, at that attempt's fee
+            System.out.println("Ticket " + ticketId + " was already paid → " + response.getReason());
+            return;
+        }
+        if (response == null || !"SUCCESS".equals(response.getStatus())) {
+            System.out.println("this is the response : "+response);
+            throw new IllegalStateException("Payment failed");
+        }
+    }
+
+    static String idempotencyKey(Long ticketId) {
+        return "exit-" + ticketId;
+    }
+
+    // Async mode: payment-service answers with a PENDING intent and settles later
+    @CircuitBreaker(name = "paymentService", fallbackMethod = "intentFallback")
+    @Bulkhead(name = "paymentService")
+    public PaymentResponse requestPaymentIntent(Long ticketId, String vehicleNumber, double amount) {
+
+        System.out.println("Requesting payment intent");
+
+        PaymentRequest request = new PaymentRequest();
+        request.setTicketId(ticketId);
+        request.setVehicleNumber(vehicleNumber);
+        request.setAmount(amount);
+
+        PaymentResponse response = policy.apply(DownstreamClients.PAYMENT,
+                clients.payment().post()
+                        .uri("/payments/intents")
+                        .contentType(clients.bodyType(DownstreamClients.PAYMENT))
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(PaymentResponse.class)
+        ).block();
+
+        if (response == null || "FAILED".equals(response.getStatus())) {
+            throw new IllegalStateException("Payment intent rejected");
+        }
+        return response;
+    }
+
+    public PaymentResponse intentFallback(Long ticketId, String vehicleNumber, double amount, Throwable ex) {
+        throw new IllegalStateException(
+                "Payment service unavailable. Exit denied.", ex
+        );
+    }
+
+    public void paymentFallback(Long ticketId, double amount, Throwable ex) {
+        throw new IllegalStateException(
+                "Payment service unavailable. Exit denied.", ex
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package com.uday.parkinglotservice.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a fraction of live traffic instead of a fixed count per
+ * call. Every call deposits {@code ratio} of a token, every retry withdraws a
+ * whole one, so when a downstream is failing across the board retries stop
+ * multiplying the load on it. The balance starts at {@code minRetries}
+ * tokens, so a service that has seen little traffic yet can still retry; it
+ * is not a floor, a failing downstream drains it to zero like any deposit.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final AtomicLong balance;
+    private final long deposit;
+    private final long cap;
+
+    public RetryBudget(double ratio, int minRetries) {
+        this.deposit = (long) (ratio * SCALE);
+        this.cap = Math.max(minRetries, 1) * SCALE * 10;
+        this.balance = new AtomicLong(minRetries * SCALE);
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, add) -> Math.min(cap, current + add));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    public double available() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,140 @@
+package com.uday.parkinglotservice.client;
+
+import com.uday.ids.Snowflake;
+import com.uday.parkinglotservice.DTO.TicketDetails;
+import com.uday.parkinglotservice.DTO.VehicleResponse;
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class TicketingClient {
+
+    private final DownstreamClients clients;
+    private final DownstreamPolicy policy;
+    private final Snowflake ids;
+
+    public TicketingClient(DownstreamClients clients, DownstreamPolicy policy, Snowflake ids) {
+        this.clients = clients;
+        this.policy = policy;
+        this.ids = ids;
+    }
+
+    @CircuitBreaker(name = "ticketingService", fallbackMethod = "ticketFallback")
+    @Bulkhead(name = "ticketingService")
+    public TicketDetails createTicket(ParkingSpot spot, String vehicleNumber, VehicleResponse vehicle) {
+        return create(spot, vehicleNumber, vehicle, null);
+    }
+
+    // Edge sync: the ticket keeps the entry time recorded at the gate
+    @CircuitBreaker(name = "ticketingService", fallbackMethod = "ticketFallback")
+    @Bulkhead(name = "ticketingService")
+    public TicketDetails createTicket(ParkingSpot spot, String vehicleNumber, VehicleResponse vehicle,
+                                      LocalDateTime entryTime) {
+        return create(spot, vehicleNumber, vehicle, entryTime);
+    }
+
+    private TicketDetails create(ParkingSpot spot, String vehicleNumber, VehicleResponse vehicle,
+                                 LocalDateTime entryTime) {
+        System.out.println("Calling Ticketing service");
+        // level and vehicle details are denormalized into ticketing's read model
+        Map<String, Object> params = new HashMap<>();
+        params.put("spotId", spot.getId());
+        params.put("vehicleNumber", vehicleNumber);
+        params.put("levelId", spot.getLevel() != null ? spot.getLevel().getId() : null);
+        params.put("levelNumber", spot.getLevel() != null ? spot.getLevel().getLevelNumber() : null);
+        params.put("isDisabled", spot.isDisabled());
+        params.put("vehicleType", vehicle != null ? vehicle.getType() : null);
+        params.put("entryTime", entryTime);
+        // minted here, so a retried call cannot create a second ticket under another id
+        params.put("ticketId", ids.nextId());
+        try {
+            return policy.apply(DownstreamClients.TICKETING,
+                    clients.ticketing().post()
+                            .uri("/ticketing/create?spotId={spotId}&vehicleNumber={vehicleNumber}"
+                                    + "&levelId={levelId}&levelNumber={levelNumber}"
+                                    + "&isDisabled={isDisabled}&vehicleType={vehicleType}"
+                                    + "&entryTime={entryTime}&ticketId={ticketId}", params)
+                            .retrieve()
+                            .bodyToMono(TicketDetails.class)
+            ).block();
+        } catch (WebClientRequestException ex) {
+            System.out.println("WebClientRequestException → " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    @CircuitBreaker(name = "ticketingService", fallbackMethod = "lookupFallback")
+    @Bulkhead(name = "ticketingService")
+    public TicketDetails getTicket(Long ticketId) {
+        return policy.apply(DownstreamClients.TICKETING,
+                clients.ticketing().get()
+                        .uri("/ticketing/{id}", ticketId)
+                        .retrieve()
+                        .bodyToMono(TicketDetails.class)
+        ).block();
+    }
+
+    @CircuitBreaker(name = "ticketingService", fallbackMethod = "closeFallback")
+    @Bulkhead(name = "ticketingService")
+    public void closeTicket(Long ticketId) {
+        closeTicket(ticketId, null);
+    }
+
+    @CircuitBreaker(name = "ticketingService", fallbackMethod = "closeFallback")
+    @Bulkhead(name = "ticketingService")
+    public void closeTicket(Long ticketId, LocalDateTime exitTime) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ticketId", ticketId);
+        params.put("exitTime", exitTime);
+        policy.apply(DownstreamClients.TICKETING,
+                clients.ticketing().put()
+                        .uri("/ticketing/exit/{ticketId}?exitTime={exitTime}", params)
+                        .retrieve()
+                        .bodyToMono(Void.class)
+        ).block();
+    }
+
+    public TicketDetails ticketFallback(
+            ParkingSpot spot,
+            String vehicleNumber,
+            VehicleResponse vehicle,
+            Throwable ex
+    ) {
+        throw new IllegalStateException(
+                "Ticketing service unavailable. Please try again later.", ex
+        );
+    }
+
+    public TicketDetails ticketFallback(
+            ParkingSpot spot,
+            String vehicleNumber,
+            VehicleResponse vehicle,
+            LocalDateTime entryTime,
+            Throwable ex
+    ) {
+        return ticketFallback(spot, vehicleNumber, vehicle, ex);
+    }
+
+    public TicketDetails lookupFallback(Long ticketId, Throwable ex) {
+        throw new IllegalStateException(
+                "Ticketing service unavailable. Please try again later.", ex
+        );
+    }
+
+    public void closeFallback(Long ticketId, Throwable ex) {
+        closeFallback(ticketId, null, ex);
+    }
+
+    public void closeFallback(Long ticketId, LocalDateTime exitTime, Throwable ex) {
+        throw new IllegalStateException(
+                "Ticketing service unavailable. Ticket not closed.", ex
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package com.uday.parkinglotservice.client;
+
+import com.uday.parkinglotservice.DTO.VehicleRequest;
+import com.uday.parkinglotservice.DTO.VehicleResponse;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VehicleClient {
+
+    private final DownstreamClients clients;
+    private final DownstreamPolicy policy;
+
+    public VehicleClient(DownstreamClients clients, DownstreamPolicy policy) {
+        this.clients = clients;
+        this.policy = policy;
+    }
+
+    @CircuitBreaker(name = "vehicleService", fallbackMethod = "vehicleFallback")
+    @Bulkhead(name = "vehicleService")
+    public VehicleResponse registerOrFetchVehicle(
+            String vehicleNumber,
+            boolean isDisabled
+    ) {
+        System.out.println("Calling Vehicle service");
+        VehicleRequest request = new VehicleRequest();
+        request.setLicensePlate(vehicleNumber);
+        request.setDisabled(isDisabled);
+        request.setType("CAR"); // or derive later
+
+        return policy.apply(DownstreamClients.VEHICLE,
+                clients.vehicle().post()
+                        .uri("/vehicle/save")
+                        .contentType(clients.bodyType(DownstreamClients.VEHICLE))
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(VehicleResponse.class)
+        ).block();
+    }
+
+    //Vehicle service fallback
+    public VehicleResponse vehicleFallback(
+            String vehicleNumber,
+            boolean isDisabled,
+            Throwable ex
+    ) {
+        throw new IllegalStateException(
+                "Vehicle service unavailable. Cannot register vehicle.", ex
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.uday.parkinglotservice.client;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance at random, weighted by the "weight" entry in its Eureka
+ * metadata (default 1). The supplier has already dropped instances that
+ * failed their health check, so only healthy ones are considered.
+ */
+public class WeightedServiceInstanceLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    static final String WEIGHT_METADATA_KEY = "weight";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+
+    public WeightedServiceInstanceLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                               String serviceId) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+                supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            System.out.println("No healthy instances available for " + serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        int total = 0;
+        int[] weights = new int[instances.size()];
+        for (int i = 0; i < instances.size(); i++) {
+            weights[i] = weightOf(instances.get(i));
+            total += weights[i];
+        }
+
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return new DefaultResponse(instances.get(i));
+            }
+        }
+        return new DefaultResponse(instances.get(instances.size() - 1));
+    }
+
+    private int weightOf(ServiceInstance instance) {
+        String weight = instance.getMetadata().get(WEIGHT_METADATA_KEY);
+        if (weight == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(weight.trim()));
+        } catch (NumberFormatException ex) {
+            return 1;
+        }
+    }
+}
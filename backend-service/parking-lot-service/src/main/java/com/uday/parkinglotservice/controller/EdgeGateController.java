@@ -0,0 +1,46 @@
+package com.uday.parkinglotservice.controller;
+
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+import com.uday.parkinglotservice.edge.EdgeGateService;
+import com.uday.parkinglotservice.edge.EdgeSyncAgent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Gate API in edge mode; answers from local state only, never from the central services
+@RestController
+@Profile("edge")
+@RequestMapping("/edge")
+public class EdgeGateController {
+
+    private final EdgeGateService gate;
+    private final EdgeSyncAgent syncAgent;
+
+    public EdgeGateController(EdgeGateService gate, EdgeSyncAgent syncAgent) {
+        this.gate = gate;
+        this.syncAgent = syncAgent;
+    }
+
+    @PostMapping("/entry")
+    public EdgeGateEvent vehicleEntry(@RequestParam Long levelId,
+                                      @RequestParam boolean isDisabled,
+                                      @RequestParam String vehicleNumber) {
+        return gate.entry(levelId, isDisabled, vehicleNumber);
+    }
+
+    @PutMapping("/exit")
+    public EdgeGateEvent vehicleExit(@RequestParam String ticketId) {
+        return gate.exit(ticketId);
+    }
+
+    @GetMapping("/status")
+    public Map<String, Object> status() {
+        return syncAgent.status();
+    }
+
+    @PostMapping("/sync")
+    public Map<String, Object> syncNow() throws Exception {
+        return syncAgent.syncNow();
+    }
+}
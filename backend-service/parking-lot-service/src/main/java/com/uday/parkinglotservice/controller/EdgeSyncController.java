@@ -0,0 +1,68 @@
+package com.uday.parkinglotservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.parkinglotservice.DTO.EdgeSyncBatch;
+import com.uday.parkinglotservice.DTO.EdgeSyncResult;
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.edge.EdgeSyncService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// Endpoints edge gates call while online: spot leases and WAL sync
+@RestController
+@Profile("!edge")
+@RequestMapping("/parking/edge")
+public class EdgeSyncController {
+
+    private final ParkingLotService service;
+    private final EdgeSyncService syncService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${parking.edge.lease-ttl:30m}")
+    private Duration leaseTtl;
+
+    public EdgeSyncController(ParkingLotService service, EdgeSyncService syncService, ObjectMapper objectMapper) {
+        this.service = service;
+        this.syncService = syncService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping("/leases")
+    public List<Long> leaseSpots(@RequestParam String edgeId,
+                                 @RequestParam Long levelId,
+                                 @RequestParam boolean isDisabled,
+                                 @RequestParam int count) {
+        return service.leaseSpots(edgeId, levelId, isDisabled, count, leaseTtl).stream()
+                .map(ParkingSpot::getId)
+                .toList();
+    }
+
+    @DeleteMapping("/leases")
+    public Map<String, Object> returnLease(@RequestParam String edgeId) {
+        return Map.of("edgeId", edgeId, "returned", service.returnLease(edgeId));
+    }
+
+    // Batches arrive gzip-compressed; Tomcat does not inflate request bodies itself
+    @PostMapping("/sync")
+    public EdgeSyncResult sync(@RequestBody byte[] body,
+                               @RequestHeader(value = "Content-Encoding", required = false) String encoding)
+            throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            in = new GZIPInputStream(in);
+        }
+        try (InputStream json = in) {
+            return syncService.apply(objectMapper.readValue(json, EdgeSyncBatch.class));
+        }
+    }
+}
@@ -1,31 +1,67 @@
 package com.uday.parkinglotservice.controller;
 
+import com.uday.parkinglotservice.DTO.LevelView;
+import com.uday.parkinglotservice.DTO.SpotView;
 import com.uday.parkinglotservice.DTO.TicketDetails;
-import com.uday.parkinglotservice.Entity.*;
+import com.uday.parkinglotservice.Entity.ParkingLevel;
+import com.uday.parkinglotservice.LevelFullException;
+import com.uday.parkinglotservice.forecast.LevelForecast;
 import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.occupancy.AdmissionCounters;
+import com.uday.parkinglotservice.occupancy.LevelOccupancy;
+import com.uday.parkinglotservice.shard.LotOwnership;
+import com.uday.parkinglotservice.waitlist.Waiter;
+import com.uday.parkinglotservice.waitlist.Waitlist;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@Profile("!edge")
 @RequestMapping("/parking")
 public class ParkingLotController {
 
     private final ParkingLotService service;
+    private final LotOwnership lotOwnership;
+    private final AdmissionCounters admission;
+    private final Waitlist waitlist;
+
+    // Retry-After sent with a 409 for a full level
+    @Value("${parking.admission.retry-after:5s}")
+    private Duration retryAfter;
 
     @Autowired
-    public ParkingLotController(ParkingLotService service) {
+    public ParkingLotController(ParkingLotService service, LotOwnership lotOwnership,
+                                AdmissionCounters admission, Waitlist waitlist) {
         this.service = service;
+        this.lotOwnership = lotOwnership;
+        this.admission = admission;
+        this.waitlist = waitlist;
     }
 
     @GetMapping("/levels")
-    public List<ParkingLevel> getLevels() {
+    public List<LevelView> getLevels(@RequestParam(required = false) Long lotId) {
+        if (lotId != null) {
+            return service.getLevelsForLot(lotId);
+        }
         return service.getAllLevels();
     }
 
     @PostMapping("/levels")
-    public ParkingLevel addLevel(@RequestBody ParkingLevel level) {
-        return service.addLevel(level);
+    public LevelView addLevel(@RequestBody ParkingLevel level) {
+        lotOwnership.check(level::getLotId, null);
+        return LevelView.from(service.addLevel(level));
     }
 
     //Main ticketing logic
@@ -33,20 +69,129 @@ public class ParkingLotController {
     public TicketDetails vehicleEntry(
             @RequestParam Long levelId,
             @RequestParam boolean isDisabled,
-            @RequestParam String vehicleNumber
+            @RequestParam String vehicleNumber,
+            @RequestParam(required = false) Long lotId
     ) {
         System.out.println("Entry-endpoint was hit");
+        lotOwnership.check(() -> service.lotOfLevel(levelId), lotId);
+        // a full class is turned away before a transaction or row lock is taken;
+        // so is one with vehicles queued, which get its next spots (409 points to /waitlist)
+        if (waitlist.hasWaiters(levelId, isDisabled) || !admission.admit(levelId, isDisabled)) {
+            throw new LevelFullException(levelId, isDisabled);
+        }
         return service.allocateSpotAndCreateTicket(levelId, isDisabled, vehicleNumber);
     }
     @PutMapping("/exit")
-    public void vehicleExit(@RequestParam Long ticketId)
+    public void vehicleExit(@RequestParam Long ticketId,
+                            @RequestParam(required = false) Long lotId)
     {
-        service.exitVehicle(ticketId);
+        // the ticket's lot is only known once the service has fetched it
+        service.exitVehicle(ticketId, lotId);
     }
 
     @GetMapping("/spots/{levelId}")
-    public List<ParkingSpot> getSpots(@PathVariable Long levelId,
-                                      @RequestParam boolean isDisabled) {
+    public List<SpotView> getSpots(@PathVariable Long levelId,
+                                   @RequestParam boolean isDisabled) {
         return service.getAvailableSpots(levelId, isDisabled);
     }
+
+    @GetMapping("/levels/{levelId}/occupancy")
+    public LevelOccupancy getLevelOccupancy(@PathVariable Long levelId) {
+        return service.getLevelOccupancy(levelId);
+    }
+
+    // Predicted free spots `minutes` from now, from the learned arrival/departure rates
+    @GetMapping("/levels/{levelId}/forecast")
+    public LevelForecast getLevelForecast(@PathVariable Long levelId,
+                                          @RequestParam(defaultValue = "30") int minutes) {
+        return service.getLevelForecast(levelId, minutes);
+    }
+
+    @GetMapping("/forecast")
+    public List<LevelForecast> getForecasts(@RequestParam(defaultValue = "30") int minutes) {
+        return service.getForecasts(minutes);
+    }
+
+    // Free counts per level and disabled class; polled by the gateway to shed entries for full classes
+    @GetMapping("/admission")
+    public List<AdmissionCounters.ClassCount> getAdmission() {
+        return admission.snapshot();
+    }
+
+    /**
+     * Entry that waits instead of failing: parks right away when the class
+     * has a free spot and nobody queued ahead (201), otherwise joins the
+     * class queue (202) and gets the next spot released on it. Follow the
+     * result on /waitlist/{id}/events.
+     */
+    @PostMapping("/waitlist")
+    public ResponseEntity<Waitlist.WaiterView> joinWaitlist(
+            @RequestParam Long levelId,
+            @RequestParam boolean isDisabled,
+            @RequestParam String vehicleNumber,
+            @RequestParam(required = false) Long lotId
+    ) {
+        lotOwnership.check(() -> service.lotOfLevel(levelId), lotId);
+        if (!waitlist.hasWaiters(levelId, isDisabled) && admission.mayHaveFree(levelId, isDisabled)) {
+            try {
+                TicketDetails ticket = service.allocateSpotAndCreateTicket(levelId, isDisabled, vehicleNumber);
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Waitlist.WaiterView.admitted(levelId, isDisabled, vehicleNumber, ticket));
+            } catch (LevelFullException ex) {
+                // taken meanwhile: queue up
+            }
+        }
+        Waiter waiter = waitlist.join(levelId, isDisabled, vehicleNumber);
+        if (waiter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Waitlist for level " + levelId + " is full");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(waitlist.view(waiter));
+    }
+
+    @GetMapping("/waitlist/{id}")
+    public Waitlist.WaiterView getWaiter(@PathVariable String id) {
+        return waitlist.view(findWaiter(id));
+    }
+
+    @GetMapping(value = "/waitlist/{id}/events", produces = "text/event-stream")
+    public SseEmitter waiterEvents(@PathVariable String id) {
+        return waitlist.subscribe(findWaiter(id));
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public Waitlist.WaiterView leaveWaitlist(@PathVariable String id) {
+        findWaiter(id);
+        return waitlist.view(waitlist.cancel(id));
+    }
+
+    @GetMapping("/lots/{lotId}/owner")
+    public Map<String, Object> getLotOwner(@PathVariable Long lotId) {
+        return Map.of(
+                "lotId", lotId,
+                "owner", String.valueOf(lotOwnership.ownerOf(lotId)),
+                "local", lotOwnership.isLocal(lotId)
+        );
+    }
+
+    @ExceptionHandler(LevelFullException.class)
+    public ResponseEntity<ProblemDetail> levelFull(LevelFullException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problem.setTitle("Level full");
+        problem.setProperty("levelId", ex.getLevelId());
+        problem.setProperty("disabled", ex.isDisabled());
+        // clients that would rather wait can queue for the next released spot
+        problem.setProperty("waitlist", "/parking/waitlist");
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()))
+                .body(problem);
+    }
+
+    private Waiter findWaiter(String id) {
+        Waiter waiter = waitlist.find(id);
+        if (waiter == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Waitlist entry " + id + " not found");
+        }
+        return waiter;
+    }
 }
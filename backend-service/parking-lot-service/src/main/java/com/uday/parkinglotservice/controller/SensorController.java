@@ -0,0 +1,109 @@
+package com.uday.parkinglotservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.parkinglotservice.DTO.SpotView;
+import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.sensor.SensorCoalescer;
+import com.uday.parkinglotservice.sensor.SensorFrames;
+import com.uday.parkinglotservice.shard.LotOwnership;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// Spot sensor readings in, sensed-vs-allocated mismatches out
+@RestController
+@Profile("!edge")
+@RequestMapping("/parking/sensors")
+public class SensorController {
+
+    private final SensorCoalescer coalescer;
+    private final ParkingLotService service;
+    private final ObjectMapper objectMapper;
+    private final LotOwnership lotOwnership;
+
+    // true: readings must name their lot, and only its owner takes them
+    @Value("${parking.sharding.enforce:false}")
+    private boolean enforceOwnership;
+
+    public SensorController(SensorCoalescer coalescer, ParkingLotService service, ObjectMapper objectMapper,
+                            LotOwnership lotOwnership) {
+        this.coalescer = coalescer;
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.lotOwnership = lotOwnership;
+    }
+
+    /**
+     * Takes a batch of readings as NDJSON or binary frames (see SensorFrames),
+     * optionally gzip-compressed. The body is parsed as it streams in and only
+     * updates memory; the DB sees settled changes from the reconciler. A
+     * malformed batch keeps the readings before the error and answers 400.
+     *
+     * A batch holds the readings of one lot, named by lotId, so the gateway
+     * sends every reading of a spot to the lot's owner and one coalescer
+     * debounces it.
+     */
+    @PostMapping(value = "/readings", consumes = {"application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<Map<String, Object>> ingest(HttpServletRequest request,
+                                                      @RequestHeader(value = "Content-Encoding", required = false) String encoding,
+                                                      @RequestParam(required = false) Long lotId)
+            throws IOException {
+        checkOwnership(lotId);
+        InputStream in = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        boolean binary = MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+
+        SensorCoalescer.Batch batch = coalescer.batch();
+        String error = null;
+        try {
+            if (binary) {
+                SensorFrames.readBinary(in, batch);
+            } else {
+                SensorFrames.readNdjson(objectMapper.getFactory(), in, batch);
+            }
+        } catch (IOException e) {
+            error = e.getMessage();
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>(batch.close());
+        if (error != null) {
+            System.out.println("Sensor batch rejected → " + error);
+            body.put("error", error);
+            return ResponseEntity.badRequest().body(body);
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/mismatches")
+    public Map<String, List<SpotView>> getMismatches() {
+        return service.getSensorMismatches();
+    }
+
+    private void checkOwnership(Long lotId) {
+        if (!enforceOwnership) {
+            return;
+        }
+        if (lotId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lotId is required for sensor readings");
+        }
+        if (!lotOwnership.isLocal(lotId)) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(421),
+                    "Lot " + lotId + " is owned by " + lotOwnership.ownerOf(lotId));
+        }
+    }
+}
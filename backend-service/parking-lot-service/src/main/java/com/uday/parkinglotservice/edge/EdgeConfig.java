@@ -0,0 +1,40 @@
+package com.uday.parkinglotservice.edge;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Edge gate mode (spring.profiles.active=edge): runs next to a gate without
+ * the central database, admitting vehicles from leased spots and recording
+ * them in a local write-ahead log that is synced when the WAN is up.
+ */
+@Configuration
+@Profile("edge")
+@EnableConfigurationProperties(EdgeProperties.class)
+public class EdgeConfig {
+
+    @Bean(destroyMethod = "close")
+    public WriteAheadLog edgeWriteAheadLog(EdgeProperties properties) throws IOException {
+        return new WriteAheadLog(Path.of(properties.getWalDir()), properties.getSegmentSize(), properties.isFsync());
+    }
+
+    @Bean
+    public WebClient edgeCentralClient(WebClient.Builder builder, EdgeProperties properties) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 2000)
+                .responseTimeout(properties.getSyncTimeout());
+        return builder.clone()
+                .baseUrl(properties.getCentralUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
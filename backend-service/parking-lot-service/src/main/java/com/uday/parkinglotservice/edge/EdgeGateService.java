@@ -0,0 +1,201 @@
+package com.uday.parkinglotservice.edge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.common.tariff.Tariff;
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gate-local admission. Spots come from leases granted by the central
+ * service; every entry and exit is appended to the write-ahead log before
+ * the in-memory state changes, so the gate never waits on the WAN.
+ *
+ * State is rebuilt on start from the last snapshot plus the log after it.
+ */
+@Service
+@Profile("edge")
+public class EdgeGateService {
+
+    private static final String SNAPSHOT_FILE = "gate.snapshot.json";
+
+    private final WriteAheadLog wal;
+    private final ObjectMapper objectMapper;
+    private final Tariff tariff;
+    private final String edgeId;
+    private final Path snapshotFile;
+
+    // "levelId:disabled" -> spots currently leased to this gate
+    private final Map<String, Set<Long>> leases = new HashMap<>();
+    private final Set<Long> occupied = new HashSet<>();
+    // edge ticket id -> its ENTRY event
+    private final Map<String, EdgeGateEvent> active = new LinkedHashMap<>();
+    private final Map<String, String> activeByVehicle = new HashMap<>();
+
+    public EdgeGateService(WriteAheadLog wal, ObjectMapper objectMapper, Tariff tariff, EdgeProperties properties) {
+        this.wal = wal;
+        this.objectMapper = objectMapper;
+        this.tariff = tariff;
+        this.edgeId = properties.getId();
+        this.snapshotFile = Path.of(properties.getWalDir()).resolve(SNAPSHOT_FILE);
+    }
+
+    @PostConstruct
+    public synchronized void recover() throws IOException {
+        long afterSeq = 0;
+        if (Files.exists(snapshotFile)) {
+            Snapshot snapshot = objectMapper.readValue(snapshotFile.toFile(), Snapshot.class);
+            afterSeq = snapshot.seq();
+            snapshot.leases().forEach((key, spots) -> leases.put(key, new LinkedHashSet<>(spots)));
+            snapshot.active().forEach(this::apply);
+        }
+
+        List<EdgeGateEvent> events;
+        while (!(events = wal.readAfter(afterSeq, 1000)).isEmpty()) {
+            events.forEach(this::apply);
+            afterSeq = events.get(events.size() - 1).getSeq();
+        }
+        System.out.println("Edge gate " + edgeId + " recovered: " + active.size() + " open tickets");
+    }
+
+    public synchronized EdgeGateEvent entry(Long levelId, boolean disabled, String vehicleNumber) {
+        String open = activeByVehicle.get(vehicleNumber);
+        if (open != null) {
+            return active.get(open);
+        }
+
+        Long spotId = freeSpot(levelId, disabled);
+        if (spotId == null) {
+            throw new IllegalStateException("No leased parking spots available at this gate");
+        }
+
+        EdgeGateEvent event = new EdgeGateEvent();
+        event.setType(EdgeGateEvent.Type.ENTRY);
+        // millisecond precision survives the round trip through the central databases
+        event.setTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        event.setEdgeTicketId(edgeId + "-" + (wal.lastSeq() + 1));
+        event.setLevelId(levelId);
+        event.setSpotId(spotId);
+        event.setDisabled(disabled);
+        event.setVehicleNumber(vehicleNumber);
+
+        wal.append(event);
+        apply(event);
+        return event;
+    }
+
+    public synchronized EdgeGateEvent exit(String edgeTicketId) {
+        EdgeGateEvent entry = active.get(edgeTicketId);
+        if (entry == null) {
+            throw new IllegalArgumentException("No open ticket " + edgeTicketId + " at this gate");
+        }
+
+        EdgeGateEvent event = new EdgeGateEvent();
+        event.setType(EdgeGateEvent.Type.EXIT);
+        event.setTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        event.setEdgeTicketId(edgeTicketId);
+        event.setLevelId(entry.getLevelId());
+        event.setSpotId(entry.getSpotId());
+        event.setDisabled(entry.isDisabled());
+        event.setVehicleNumber(entry.getVehicleNumber());
+        // the central exit charges from the same tariff bean
+        event.setAmount(tariff.fee(entry.getTime(), event.getTime()));
+
+        wal.append(event);
+        apply(event);
+        return event;
+    }
+
+    private void apply(EdgeGateEvent event) {
+        if (event.getType() == EdgeGateEvent.Type.ENTRY) {
+            active.put(event.getEdgeTicketId(), event);
+            activeByVehicle.put(event.getVehicleNumber(), event.getEdgeTicketId());
+            occupied.add(event.getSpotId());
+        } else if (active.remove(event.getEdgeTicketId()) != null) {
+            activeByVehicle.remove(event.getVehicleNumber());
+            occupied.remove(event.getSpotId());
+        }
+    }
+
+    private Long freeSpot(Long levelId, boolean disabled) {
+        for (Long spotId : leases.getOrDefault(key(levelId, disabled), Set.of())) {
+            if (!occupied.contains(spotId)) {
+                return spotId;
+            }
+        }
+        return null;
+    }
+
+    // Replaces the lease with what central granted; an occupied spot that dropped
+    // out of it simply is not reused after its exit
+    public synchronized void updateLease(Long levelId, boolean disabled, List<Long> spotIds) {
+        leases.put(key(levelId, disabled), new LinkedHashSet<>(spotIds));
+        writeSnapshot();
+    }
+
+    // After a sync: snapshot the state, then drop log segments both it and central have covered
+    public synchronized void checkpoint(long syncedSeq) {
+        long snapshotSeq = writeSnapshot();
+        int deleted = wal.deleteUpTo(Math.min(syncedSeq, snapshotSeq));
+        if (deleted > 0) {
+            System.out.println("Edge WAL: dropped " + deleted + " synced segments");
+        }
+    }
+
+    private long writeSnapshot() {
+        long seq = wal.lastSeq();
+        Map<String, List<Long>> leaseCopy = new HashMap<>();
+        leases.forEach((key, spots) -> leaseCopy.put(key, new ArrayList<>(spots)));
+        Snapshot snapshot = new Snapshot(seq, leaseCopy, new ArrayList<>(active.values()));
+        try {
+            Path tmp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return seq;
+    }
+
+    public synchronized Map<String, Object> status() {
+        int leased = 0;
+        int free = 0;
+        for (Set<Long> spots : leases.values()) {
+            leased += spots.size();
+            free += (int) spots.stream().filter(spot -> !occupied.contains(spot)).count();
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("edgeId", edgeId);
+        status.put("openTickets", active.size());
+        status.put("leasedSpots", leased);
+        status.put("freeSpots", free);
+        status.put("lastSeq", wal.lastSeq());
+        status.put("syncedSeq", wal.syncedSeq());
+        status.put("walSegments", wal.segmentCount());
+        return status;
+    }
+
+    private static String key(Long levelId, boolean disabled) {
+        return levelId + ":" + disabled;
+    }
+
+    record Snapshot(long seq, Map<String, List<Long>> leases, List<EdgeGateEvent> active) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.uday.parkinglotservice.edge;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "parking.edge")
+public class EdgeProperties {
+
+    // unique per gate; the lease holder and sync source name on the central side
+    private String id = "edge-1";
+
+    // central parking-lot-service (or the gateway), reached directly, not through Eureka
+    private String centralUrl = "http://localhost:8084";
+
+    // levels this gate admits to, and how many free spots to keep leased on each
+    private List<Long> levels = new ArrayList<>();
+    private int leaseSize = 20;
+    private int disabledLeaseSize = 2;
+    private Duration leaseRefreshInterval = Duration.ofMinutes(1);
+
+    // Write-ahead log
+    private String walDir = "data/edge-wal";
+    private int segmentSize = 16 * 1024 * 1024;
+    private boolean fsync = true;
+
+    // Sync to central
+    private int syncBatchSize = 500;
+    private Duration syncInterval = Duration.ofSeconds(2);
+    private Duration syncTimeout = Duration.ofSeconds(10);
+}
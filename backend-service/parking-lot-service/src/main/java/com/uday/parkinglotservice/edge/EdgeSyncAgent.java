@@ -0,0 +1,202 @@
+package com.uday.parkinglotservice.edge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+import com.uday.parkinglotservice.DTO.EdgeSyncBatch;
+import com.uday.parkinglotservice.DTO.EdgeSyncResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ships the gate's write-ahead log to the central service in gzip-compressed
+ * batches and keeps the spot leases topped up. Runs on its own thread; a WAN
+ * outage only means the log grows until the next successful sync.
+ */
+@Component
+@Profile("edge")
+public class EdgeSyncAgent {
+
+    private static final int MAX_CONFLICTS = 100;
+
+    private final EdgeProperties properties;
+    private final WriteAheadLog wal;
+    private final EdgeGateService gate;
+    private final WebClient central;
+    private final ObjectMapper objectMapper;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "edge-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean online;
+    private volatile String lastError;
+    private volatile LocalDateTime lastSyncAt;
+    // most recent events central had to resolve, for the gate operator
+    private final Deque<EdgeSyncResult.Outcome> conflicts = new ArrayDeque<>();
+
+    public EdgeSyncAgent(EdgeProperties properties,
+                         WriteAheadLog wal,
+                         EdgeGateService gate,
+                         WebClient edgeCentralClient,
+                         ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.wal = wal;
+        this.gate = gate;
+        this.central = edgeCentralClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshLeasesSafely,
+                0, properties.getLeaseRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::syncSafely,
+                properties.getSyncInterval().toMillis(), properties.getSyncInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(properties.getSyncTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Runs a sync on the agent thread and waits for it, e.g. right after reconnecting
+    public Map<String, Object> syncNow() throws Exception {
+        scheduler.submit(this::syncSafely).get();
+        return status();
+    }
+
+    private void syncSafely() {
+        try {
+            sync();
+            online = true;
+            lastSyncAt = LocalDateTime.now();
+        } catch (Exception ex) {
+            online = false;
+            lastError = ex.getMessage();
+            System.out.println("Edge sync failed, will retry: " + ex.getMessage());
+        }
+    }
+
+    private void sync() throws IOException {
+        long syncedBefore = wal.syncedSeq();
+        while (true) {
+            List<EdgeGateEvent> batch = wal.readAfter(wal.syncedSeq(), properties.getSyncBatchSize());
+            if (batch.isEmpty()) {
+                break;
+            }
+            EdgeSyncResult result = send(batch);
+            remember(result.getOutcomes());
+            wal.markSynced(result.getAckSeq());
+
+            if (result.getError() != null) {
+                lastError = result.getError();
+                break;
+            }
+            if (result.getAckSeq() < batch.get(batch.size() - 1).getSeq()) {
+                break;
+            }
+        }
+        if (wal.syncedSeq() > syncedBefore) {
+            gate.checkpoint(wal.syncedSeq());
+        }
+    }
+
+    private EdgeSyncResult send(List<EdgeGateEvent> batch) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            objectMapper.writeValue(gzip, new EdgeSyncBatch(properties.getId(), batch));
+        }
+        EdgeSyncResult result = central.post()
+                .uri("/parking/edge/sync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Content-Encoding", "gzip")
+                .bodyValue(compressed.toByteArray())
+                .retrieve()
+                .bodyToMono(EdgeSyncResult.class)
+                .block(properties.getSyncTimeout());
+        if (result == null) {
+            throw new IllegalStateException("Empty sync response");
+        }
+        return result;
+    }
+
+    private void refreshLeasesSafely() {
+        try {
+            for (Long levelId : properties.getLevels()) {
+                refreshLease(levelId, false, properties.getLeaseSize());
+                refreshLease(levelId, true, properties.getDisabledLeaseSize());
+            }
+        } catch (Exception ex) {
+            // keep admitting from the lease we already hold
+            System.out.println("Edge lease refresh failed: " + ex.getMessage());
+        }
+    }
+
+    private void refreshLease(Long levelId, boolean disabled, int count) {
+        if (count <= 0) {
+            return;
+        }
+        List<Long> spotIds = central.post()
+                .uri(uri -> uri.path("/parking/edge/leases")
+                        .queryParam("edgeId", properties.getId())
+                        .queryParam("levelId", levelId)
+                        .queryParam("isDisabled", disabled)
+                        .queryParam("count", count)
+                        .build())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Long>>() {})
+                .block(properties.getSyncTimeout());
+        if (spotIds != null) {
+            gate.updateLease(levelId, disabled, spotIds);
+        }
+    }
+
+    private void remember(List<EdgeSyncResult.Outcome> outcomes) {
+        synchronized (conflicts) {
+            for (EdgeSyncResult.Outcome outcome : outcomes) {
+                if (outcome.getStatus() == EdgeSyncResult.Status.CONFLICT
+                        || outcome.getStatus() == EdgeSyncResult.Status.REASSIGNED) {
+                    System.out.println("Edge sync seq " + outcome.getSeq() + " " + outcome.getStatus()
+                            + ": " + outcome.getDetail());
+                    conflicts.addFirst(outcome);
+                    if (conflicts.size() > MAX_CONFLICTS) {
+                        conflicts.removeLast();
+                    }
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>(gate.status());
+        status.put("online", online);
+        status.put("lastSyncAt", lastSyncAt);
+        status.put("lastError", lastError);
+        synchronized (conflicts) {
+            status.put("recentConflicts", new ArrayList<>(conflicts));
+        }
+        return status;
+    }
+}
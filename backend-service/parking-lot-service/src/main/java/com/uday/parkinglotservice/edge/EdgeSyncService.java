@@ -0,0 +1,266 @@
+package com.uday.parkinglotservice.edge;
+
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+import com.uday.parkinglotservice.DTO.EdgeSyncBatch;
+import com.uday.parkinglotservice.DTO.EdgeSyncResult;
+import com.uday.parkinglotservice.DTO.TicketDetails;
+import com.uday.parkinglotservice.DTO.VehicleResponse;
+import com.uday.parkinglotservice.Entity.EdgeSyncRecord;
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.Repository.EdgeSyncRecordRepository;
+import com.uday.parkinglotservice.Repository.ParkingSpotRepository;
+import com.uday.parkinglotservice.client.ParkingEventPublisher;
+import com.uday.parkinglotservice.client.PaymentClient;
+import com.uday.parkinglotservice.client.TicketingClient;
+import com.uday.parkinglotservice.client.VehicleClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Central side of edge gate sync: applies offline entries and exits in seq
+ * order. Each event gets its record under (edgeId, seq) before anything is
+ * applied, and the record is advanced after every step (spot claimed, ticket
+ * created, payment requested, ...) together with that step where it is a
+ * local write. A resent batch is acknowledged without applying a finished
+ * event twice, and an unfinished one resumes at its next step, also after a
+ * restart. The attempt count lives on the record, so an event that keeps
+ * failing is parked as a conflict after maxAttempts however often the
+ * service restarts.
+ *
+ * Conflicts are resolved rather than rejected, since the vehicle has already
+ * physically passed the gate: a spot whose lease was lost is swapped for any
+ * free spot on the level, and a vehicle that already has an open central
+ * ticket keeps that ticket.
+ */
+@Service
+@Profile("!edge")
+public class EdgeSyncService {
+
+    private final ParkingLotService parkingLotService;
+    private final EdgeSyncRecordRepository records;
+    private final ParkingSpotRepository spots;
+    private final VehicleClient vehicleClient;
+    private final TicketingClient ticketingClient;
+    private final PaymentClient paymentClient;
+    private final ParkingEventPublisher events;
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+
+    public EdgeSyncService(ParkingLotService parkingLotService,
+                           EdgeSyncRecordRepository records,
+                           ParkingSpotRepository spots,
+                           VehicleClient vehicleClient,
+                           TicketingClient ticketingClient,
+                           PaymentClient paymentClient,
+                           ParkingEventPublisher events,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${parking.edge.sync-max-attempts:5}") int maxAttempts) {
+        this.parkingLotService = parkingLotService;
+        this.records = records;
+        this.spots = spots;
+        this.vehicleClient = vehicleClient;
+        this.ticketingClient = ticketingClient;
+        this.paymentClient = paymentClient;
+        this.events = events;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public EdgeSyncResult apply(EdgeSyncBatch batch) {
+        String edgeId = batch.getEdgeId();
+        List<EdgeGateEvent> batchEvents = new ArrayList<>(batch.getEvents());
+        batchEvents.sort(Comparator.comparingLong(EdgeGateEvent::getSeq));
+
+        EdgeSyncResult result = new EdgeSyncResult();
+        for (EdgeGateEvent event : batchEvents) {
+            long seq = event.getSeq();
+            EdgeSyncRecord record = records.findByEdgeIdAndSeq(edgeId, seq).orElse(null);
+            if (record != null && record.isFinished()) {
+                result.getOutcomes().add(new EdgeSyncResult.Outcome(seq, EdgeSyncResult.Status.DUPLICATE, null, null));
+                result.setAckSeq(seq);
+                continue;
+            }
+
+            if (record == null) {
+                record = received(edgeId, event);
+            }
+            record.setAttempts(record.getAttempts() + 1);
+            try {
+                record = records.save(record);
+            } catch (DataIntegrityViolationException ex) {
+                // a concurrent sync from the same gate has just taken this event
+                result.setError("seq " + seq + " is being applied by another sync");
+                break;
+            }
+
+            try {
+                record = event.getType() == EdgeGateEvent.Type.ENTRY
+                        ? applyEntry(record, event)
+                        : applyExit(record, event);
+            } catch (RuntimeException ex) {
+                String key = edgeId + ":" + seq;
+                if (record.getAttempts() < maxAttempts) {
+                    // stop here; the gate resends from this event on its next sync
+                    System.out.println("Edge sync " + key + " failed (" + record.getAttempts() + "): " + ex.getMessage());
+                    result.setError("seq " + seq + ": " + ex.getMessage());
+                    break;
+                }
+                record = giveUp(record, event, ex);
+            }
+
+            result.getOutcomes().add(new EdgeSyncResult.Outcome(
+                    seq, record.getStatus(), record.getTicketId(), record.getDetail()));
+            result.setAckSeq(seq);
+        }
+        return result;
+    }
+
+    private EdgeSyncRecord applyEntry(EdgeSyncRecord record, EdgeGateEvent event) {
+        if (record.getStep() == EdgeSyncRecord.Step.RECEIVED) {
+            EdgeSyncRecord received = record;
+            record = tx.execute(status -> claimSpot(received, event));
+        }
+        if (record.isFinished()) {
+            return record;
+        }
+
+        if (record.getStep() == EdgeSyncRecord.Step.SPOT_CLAIMED) {
+            ParkingSpot spot = spots.findById(record.getSpotId()).orElseThrow();
+            VehicleResponse vehicle = vehicleClient.registerOrFetchVehicle(event.getVehicleNumber(), event.isDisabled());
+            // a retry after this call gets the same ticket back, it is the vehicle's open one
+            TicketDetails ticket = ticketingClient.createTicket(spot, event.getVehicleNumber(), vehicle, event.getTime());
+            if (!spot.getId().equals(ticket.getSpotId())) {
+                // ticketing handed back the vehicle's open ticket: keep it, free the spot we claimed
+                EdgeSyncRecord claimed = record;
+                return tx.execute(status -> {
+                    parkingLotService.releaseEdgeSpot(claimed.getSpotId());
+                    return finish(claimed, EdgeSyncResult.Status.CONFLICT, ticket.getId(), ticket.getSpotId(),
+                            "vehicle already had open ticket " + ticket.getId());
+                });
+            }
+            record.setTicketId(ticket.getId());
+            record = advance(record, EdgeSyncRecord.Step.TICKET_CREATED);
+        }
+
+        EdgeSyncRecord created = record;
+        boolean reassigned = !created.getSpotId().equals(event.getSpotId());
+        return tx.execute(status -> {
+            // published once the record is finished
+            events.ticketCreated(created.getTicketId(), event.getVehicleNumber(), event.getLevelId());
+            if (reassigned) {
+                return finish(created, EdgeSyncResult.Status.REASSIGNED, created.getTicketId(), created.getSpotId(),
+                        "spot " + event.getSpotId() + " no longer leased, moved to " + created.getSpotId());
+            }
+            return finish(created, EdgeSyncResult.Status.APPLIED, created.getTicketId(), created.getSpotId(), null);
+        });
+    }
+
+    // Claims the spot and records it in one transaction, so a retry never claims a second one
+    private EdgeSyncRecord claimSpot(EdgeSyncRecord record, EdgeGateEvent event) {
+        ParkingSpot spot = parkingLotService.claimEdgeSpot(
+                record.getEdgeId(), event.getSpotId(), event.getLevelId(), event.isDisabled());
+        if (spot == null) {
+            return finish(record, EdgeSyncResult.Status.CONFLICT, null, null,
+                    "spot " + event.getSpotId() + " no longer leased and level " + event.getLevelId() + " is full");
+        }
+        record.setSpotId(spot.getId());
+        return advance(record, EdgeSyncRecord.Step.SPOT_CLAIMED);
+    }
+
+    private EdgeSyncRecord applyExit(EdgeSyncRecord record, EdgeGateEvent event) {
+        if (record.getStep() == EdgeSyncRecord.Step.RECEIVED) {
+            EdgeSyncRecord entry = records
+                    .findFirstByEdgeIdAndEdgeTicketIdAndType(record.getEdgeId(), event.getEdgeTicketId(),
+                            EdgeGateEvent.Type.ENTRY)
+                    .orElse(null);
+            if (entry == null || entry.getTicketId() == null) {
+                return finish(record, EdgeSyncResult.Status.CONFLICT, null, null,
+                        "entry " + event.getEdgeTicketId() + " has no central ticket");
+            }
+
+            TicketDetails ticket = ticketingClient.getTicket(entry.getTicketId());
+            record.setTicketId(ticket.getId());
+            record.setSpotId(ticket.getSpotId());
+            if (ticket.getExitTime() != null && !ticket.getExitTime().equals(event.getTime())) {
+                EdgeSyncRecord closed = record;
+                return tx.execute(status -> {
+                    parkingLotService.releaseEdgeSpot(closed.getSpotId());
+                    return finish(closed, EdgeSyncResult.Status.CONFLICT, closed.getTicketId(), closed.getSpotId(),
+                            "ticket " + closed.getTicketId() + " was already closed at " + ticket.getExitTime());
+                });
+            }
+            // closed at the gate's exit time: this exit was applied before its record was
+            record = advance(record, ticket.getExitTime() == null
+                    ? EdgeSyncRecord.Step.TICKET_FOUND
+                    : EdgeSyncRecord.Step.TICKET_CLOSED);
+        }
+
+        if (record.getStep() == EdgeSyncRecord.Step.TICKET_FOUND) {
+            // collected at the gate; recorded as an intent so a decline cannot block the sync
+            paymentClient.requestPaymentIntent(record.getTicketId(), event.getVehicleNumber(), event.getAmount());
+            record = advance(record, EdgeSyncRecord.Step.PAYMENT_REQUESTED);
+        }
+        if (record.getStep() == EdgeSyncRecord.Step.PAYMENT_REQUESTED) {
+            ticketingClient.closeTicket(record.getTicketId(), event.getTime());
+            record = advance(record, EdgeSyncRecord.Step.TICKET_CLOSED);
+        }
+
+        EdgeSyncRecord closed = record;
+        return tx.execute(status -> {
+            parkingLotService.releaseEdgeSpot(closed.getSpotId());
+            events.exitCompleted(closed.getTicketId(), event.getVehicleNumber(), event.getAmount());
+            return finish(closed, EdgeSyncResult.Status.APPLIED, closed.getTicketId(), closed.getSpotId(), null);
+        });
+    }
+
+    // Out of attempts: parked as a conflict, freeing a spot the sync picked itself
+    private EdgeSyncRecord giveUp(EdgeSyncRecord record, EdgeGateEvent event, RuntimeException ex) {
+        EdgeSyncRecord current = records.findById(record.getId()).orElse(record);
+        boolean reassignedSpot = event.getType() == EdgeGateEvent.Type.ENTRY
+                && current.getStep() == EdgeSyncRecord.Step.SPOT_CLAIMED
+                && !current.getSpotId().equals(event.getSpotId());
+        return tx.execute(status -> {
+            if (reassignedSpot) {
+                parkingLotService.releaseEdgeSpot(current.getSpotId());
+            }
+            return finish(current, EdgeSyncResult.Status.CONFLICT, current.getTicketId(), current.getSpotId(),
+                    "gave up after " + current.getAttempts() + " attempts: " + ex.getMessage());
+        });
+    }
+
+    private EdgeSyncRecord advance(EdgeSyncRecord record, EdgeSyncRecord.Step step) {
+        record.setStep(step);
+        return records.save(record);
+    }
+
+    private EdgeSyncRecord finish(EdgeSyncRecord record, EdgeSyncResult.Status status,
+                                  Long ticketId, Long spotId, String detail) {
+        record.setTicketId(ticketId);
+        record.setSpotId(spotId);
+        record.setStatus(status);
+        record.setDetail(detail);
+        record.setAppliedAt(LocalDateTime.now());
+        return records.save(record);
+    }
+
+    private static EdgeSyncRecord received(String edgeId, EdgeGateEvent event) {
+        EdgeSyncRecord record = new EdgeSyncRecord();
+        record.setEdgeId(edgeId);
+        record.setSeq(event.getSeq());
+        record.setType(event.getType());
+        record.setEdgeTicketId(event.getEdgeTicketId());
+        record.setEventTime(event.getTime());
+        record.setStep(EdgeSyncRecord.Step.RECEIVED);
+        return record;
+    }
+}
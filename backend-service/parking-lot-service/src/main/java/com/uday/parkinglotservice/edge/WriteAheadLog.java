@@ -0,0 +1,314 @@
+package com.uday.parkinglotservice.edge;
+
+import com.uday.parkinglotservice.DTO.EdgeGateEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of gate events in memory-mapped segment files
+ * (wal-<first seq>.log). Each record is [length][crc32][payload]. The length
+ * is written last, so a record torn by a crash reads as the end of the log;
+ * a tail that fails its checksum is cut off on recovery.
+ *
+ * The seq of the last event accepted by central sync is kept next to the
+ * segments in sync.cursor, and segments entirely below it can be dropped.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final int HEADER = 8;
+    private static final String CURSOR_FILE = "sync.cursor";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    // first seq -> segment, the last one is appended to
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private long lastSeq;
+    private long syncedSeq;
+
+    public WriteAheadLog(Path dir, int segmentSize, boolean fsync) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    private void recover() throws IOException {
+        Path cursor = dir.resolve(CURSOR_FILE);
+        if (Files.exists(cursor)) {
+            syncedSeq = Long.parseLong(Files.readString(cursor, StandardCharsets.UTF_8).trim());
+        }
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().matches("wal-\\d+\\.log"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long firstSeq = Long.parseLong(name.substring(4, name.length() - 4));
+            Segment segment = Segment.open(file, segmentSize);
+            segment.scan(null);
+            segments.put(firstSeq, segment);
+            if (segment.lastSeq > 0) {
+                lastSeq = Math.max(lastSeq, segment.lastSeq);
+            }
+        }
+        // the log may have been compacted past everything it still holds
+        lastSeq = Math.max(lastSeq, syncedSeq);
+        System.out.println("Edge WAL recovered: " + segments.size() + " segments, last seq "
+                + lastSeq + ", synced up to " + syncedSeq);
+    }
+
+    public synchronized long append(EdgeGateEvent event) {
+        event.setSeq(lastSeq + 1);
+        byte[] payload = encode(event);
+
+        Segment active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (active == null || active.remaining() < HEADER + payload.length) {
+            active = roll(event.getSeq());
+        }
+        active.write(payload, event.getSeq(), fsync);
+        lastSeq = event.getSeq();
+        return lastSeq;
+    }
+
+    private Segment roll(long firstSeq) {
+        try {
+            Path file = dir.resolve(String.format("wal-%020d.log", firstSeq));
+            Segment segment = Segment.open(file, segmentSize);
+            segments.put(firstSeq, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Events with seq > afterSeq, oldest first
+    public synchronized List<EdgeGateEvent> readAfter(long afterSeq, int max) {
+        List<EdgeGateEvent> events = new ArrayList<>();
+        Long from = segments.floorKey(afterSeq + 1);
+        for (Segment segment : (from == null ? segments : segments.tailMap(from, true)).values()) {
+            segment.scan(event -> {
+                if (event.getSeq() > afterSeq && events.size() < max) {
+                    events.add(event);
+                }
+            });
+            if (events.size() >= max) {
+                break;
+            }
+        }
+        return events;
+    }
+
+    public synchronized void markSynced(long seq) {
+        if (seq <= syncedSeq) {
+            return;
+        }
+        try {
+            Path tmp = dir.resolve(CURSOR_FILE + ".tmp");
+            Files.writeString(tmp, Long.toString(seq), StandardCharsets.UTF_8);
+            Files.move(tmp, dir.resolve(CURSOR_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncedSeq = seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Drops closed segments whose events all have seq <= seq; the active segment is kept
+    public synchronized int deleteUpTo(long seq) {
+        int deleted = 0;
+        while (segments.size() > 1) {
+            Map.Entry<Long, Segment> first = segments.firstEntry();
+            Long next = segments.higherKey(first.getKey());
+            if (next - 1 > seq) {
+                break;
+            }
+            first.getValue().delete();
+            segments.remove(first.getKey());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    public synchronized long syncedSeq() {
+        return syncedSeq;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.values().forEach(Segment::close);
+    }
+
+    static byte[] encode(EdgeGateEvent event) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(event.getSeq());
+            out.writeByte(event.getType().ordinal());
+            out.writeUTF(event.getTime().toString());
+            out.writeUTF(event.getEdgeTicketId());
+            out.writeLong(event.getLevelId());
+            out.writeLong(event.getSpotId());
+            out.writeBoolean(event.isDisabled());
+            out.writeUTF(event.getVehicleNumber());
+            out.writeDouble(event.getAmount());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static EdgeGateEvent decode(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            EdgeGateEvent event = new EdgeGateEvent();
+            event.setSeq(in.readLong());
+            event.setType(EdgeGateEvent.Type.values()[in.readByte()]);
+            event.setTime(LocalDateTime.parse(in.readUTF()));
+            event.setEdgeTicketId(in.readUTF());
+            event.setLevelId(in.readLong());
+            event.setSpotId(in.readLong());
+            event.setDisabled(in.readBoolean());
+            event.setVehicleNumber(in.readUTF());
+            event.setAmount(in.readDouble());
+            return event;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long lastSeq;
+        private int writePos;
+
+        private Segment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path file, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // mapping past the end grows the file, new bytes read as zero
+            int length = (int) Math.max(size, channel.size());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new Segment(file, channel, buffer);
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePos;
+        }
+
+        void write(byte[] payload, long seq, boolean fsync) {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            buffer.put(writePos + HEADER, payload);
+            buffer.putInt(writePos + 4, (int) crc.getValue());
+            // commit point
+            buffer.putInt(writePos, payload.length);
+            if (fsync) {
+                buffer.force(writePos, HEADER + payload.length);
+            }
+            writePos += HEADER + payload.length;
+            lastSeq = seq;
+        }
+
+        /**
+         * Walks the valid records from the start; with a null consumer this is
+         * recovery, which also finds the write position and erases a torn tail.
+         */
+        void scan(Consumer<EdgeGateEvent> consumer) {
+            ByteBuffer view = buffer.duplicate();
+            int pos = 0;
+            long seq = 0;
+            while (pos + HEADER <= view.capacity()) {
+                int length = view.getInt(pos);
+                if (length <= 0 || pos + HEADER + length > view.capacity()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                view.get(pos + HEADER, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != view.getInt(pos + 4)) {
+                    break;
+                }
+                EdgeGateEvent event = decode(payload);
+                seq = event.getSeq();
+                if (consumer != null) {
+                    consumer.accept(event);
+                }
+                pos += HEADER + length;
+            }
+
+            if (consumer == null) {
+                writePos = pos;
+                lastSeq = seq;
+                if (pos + HEADER <= buffer.capacity() && buffer.getInt(pos) != 0) {
+                    System.out.println("Edge WAL: truncating torn tail of " + file.getFileName() + " at " + pos);
+                    for (int i = pos; i < buffer.capacity(); i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    buffer.force();
+                }
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Edge WAL: closing " + file.getFileName() + " failed: " + e.getMessage());
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.out.println("Edge WAL: deleting " + file.getFileName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
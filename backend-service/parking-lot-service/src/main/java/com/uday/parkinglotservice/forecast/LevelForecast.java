@@ -0,0 +1,13 @@
+package com.uday.parkinglotservice.forecast;
+
+// Expected state of a level `minutes` from now; arrivals/departures are expected counts over that window
+public record LevelForecast(
+        Long levelId,
+        int minutes,
+        long total,
+        long freeNow,
+        long predictedFree,
+        double expectedArrivals,
+        double expectedDepartures
+) {
+}
@@ -0,0 +1,285 @@
+package com.uday.parkinglotservice.forecast;
+
+import com.uday.parkinglotservice.occupancy.LevelOccupancy;
+import com.uday.parkinglotservice.occupancy.OccupancyTracker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-level arrival and departure rates over a week of fixed slots (15
+ * minutes by default), learned online: when a slot ends, the counts seen in
+ * it are folded into that weekday-and-time bucket with an exponentially
+ * weighted average, so each bucket tracks "Tuesdays 08:15" across weeks.
+ * History is never rescanned; the model is kept in a small binary snapshot
+ * across restarts.
+ *
+ * After every fold each level publishes cumulative arrival and departure
+ * curves over the week, so a "free spots in N minutes" query is two
+ * interpolated array reads plus the current free count.
+ */
+@Component
+@Profile("!edge")
+public class OccupancyForecaster {
+
+    private static final int SNAPSHOT_MAGIC = 0x46435331; // "FCS1"
+    private static final int MINUTES_PER_WEEK = 7 * 24 * 60;
+
+    // Cumulative expected counts from the start of the week; index i is the start of slot i
+    private record Curves(double[] arrivals, double[] departures) {
+    }
+
+    private final class LevelModel {
+        final double[] arrivals = new double[slots];
+        final double[] departures = new double[slots];
+        final int[] samples = new int[slots];
+        final AtomicInteger arrivedInSlot = new AtomicInteger();
+        final AtomicInteger departedInSlot = new AtomicInteger();
+        volatile Curves curves = new Curves(new double[slots + 1], new double[slots + 1]);
+
+        // Folds the finished slot's counts into its bucket; scheduler thread only
+        void fold(int slot) {
+            int arrived = arrivedInSlot.getAndSet(0);
+            int departed = departedInSlot.getAndSet(0);
+            if (samples[slot] == 0) {
+                arrivals[slot] = arrived;
+                departures[slot] = departed;
+            } else {
+                arrivals[slot] += alpha * (arrived - arrivals[slot]);
+                departures[slot] += alpha * (departed - departures[slot]);
+            }
+            samples[slot]++;
+            publish();
+        }
+
+        void publish() {
+            double[] arrivalCurve = new double[slots + 1];
+            double[] departureCurve = new double[slots + 1];
+            for (int i = 0; i < slots; i++) {
+                arrivalCurve[i + 1] = arrivalCurve[i] + arrivals[i];
+                departureCurve[i + 1] = departureCurve[i] + departures[i];
+            }
+            curves = new Curves(arrivalCurve, departureCurve);
+        }
+    }
+
+    private final OccupancyTracker occupancy;
+    private final int slotMinutes;
+    private final int slots;
+    private final double alpha;
+    private final Path snapshotFile;
+
+    private final Map<Long, LevelModel> levels = new ConcurrentHashMap<>();
+    private volatile int currentSlot;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "occupancy-forecast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OccupancyForecaster(OccupancyTracker occupancy,
+                               @Value("${parking.forecast.slot:15m}") Duration slot,
+                               @Value("${parking.forecast.alpha:0.3}") double alpha,
+                               @Value("${parking.forecast.snapshot-file:data/forecast/model.snapshot}") String snapshotFile) {
+        this.occupancy = occupancy;
+        this.slotMinutes = (int) Math.max(1, slot.toMinutes());
+        this.slots = MINUTES_PER_WEEK / slotMinutes;
+        this.alpha = alpha;
+        this.snapshotFile = Path.of(snapshotFile);
+    }
+
+    @PostConstruct
+    public void start() {
+        loadSnapshot();
+        currentSlot = slotOf(minuteOfWeek(LocalDateTime.now()));
+        // checks every minute whether a slot ended; the fold itself is cheap
+        scheduler.scheduleWithFixedDelay(this::rollSafely, 1, 1, TimeUnit.MINUTES);
+    }
+
+    // Call when a vehicle takes a spot on the level; counted once the transaction commits
+    public void arrived(Long levelId) {
+        afterCommit(levelId, true);
+    }
+
+    // Call when a vehicle leaves a spot on the level
+    public void departed(Long levelId) {
+        afterCommit(levelId, false);
+    }
+
+    public LevelForecast forecast(Long levelId, int minutes) {
+        LevelOccupancy now = occupancy.level(levelId);
+        LevelModel model = levels.get(levelId);
+        if (model == null) {
+            return new LevelForecast(levelId, minutes, now.total(), now.free(), now.free(), 0, 0);
+        }
+        Curves curves = model.curves;
+        double from = minuteOfWeek(LocalDateTime.now());
+        double to = from + Math.max(0, minutes);
+        double arrivals = at(curves.arrivals(), to) - at(curves.arrivals(), from);
+        double departures = at(curves.departures(), to) - at(curves.departures(), from);
+        long predicted = Math.round(now.free() - arrivals + departures);
+        predicted = Math.max(0, Math.min(now.total(), predicted));
+        return new LevelForecast(levelId, minutes, now.total(), now.free(), predicted, arrivals, departures);
+    }
+
+    public List<LevelForecast> forecastAll(int minutes) {
+        List<LevelForecast> forecasts = new ArrayList<>();
+        for (Long levelId : levels.keySet()) {
+            forecasts.add(forecast(levelId, minutes));
+        }
+        forecasts.sort(Comparator.comparing(LevelForecast::levelId));
+        return forecasts;
+    }
+
+    // Cumulative curve value at minute x of the week; past the end it wraps into the next week
+    private double at(double[] curve, double minute) {
+        double weekTotal = curve[slots];
+        int weeks = (int) (minute / MINUTES_PER_WEEK);
+        double inWeek = minute - (double) weeks * MINUTES_PER_WEEK;
+        int slot = Math.min(slots - 1, (int) (inWeek / slotMinutes));
+        double fraction = (inWeek - (double) slot * slotMinutes) / slotMinutes;
+        return weeks * weekTotal + curve[slot] + (curve[slot + 1] - curve[slot]) * fraction;
+    }
+
+    private void afterCommit(Long levelId, boolean arrival) {
+        if (levelId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(levelId, arrival);
+                }
+            });
+        } else {
+            count(levelId, arrival);
+        }
+    }
+
+    private void count(Long levelId, boolean arrival) {
+        LevelModel model = levels.computeIfAbsent(levelId, id -> new LevelModel());
+        (arrival ? model.arrivedInSlot : model.departedInSlot).incrementAndGet();
+    }
+
+    private void rollSafely() {
+        try {
+            roll();
+        } catch (RuntimeException e) {
+            System.out.println("Forecast update failed → " + e.getMessage());
+        }
+    }
+
+    private void roll() {
+        int slot = slotOf(minuteOfWeek(LocalDateTime.now()));
+        if (slot == currentSlot) {
+            return;
+        }
+        // slots missed while the service was down are left untouched
+        int finished = currentSlot;
+        levels.values().forEach(model -> model.fold(finished));
+        currentSlot = slot;
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            System.out.println("Forecast snapshot failed → " + e.getMessage());
+        }
+    }
+
+    private int slotOf(double minuteOfWeek) {
+        return Math.min(slots - 1, (int) (minuteOfWeek / slotMinutes));
+    }
+
+    private static double minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 * 60
+                + time.getHour() * 60
+                + time.getMinute()
+                + time.getSecond() / 60.0;
+    }
+
+    // ================= SNAPSHOTS =================
+    private void writeSnapshot() throws IOException {
+        if (snapshotFile.getParent() != null) {
+            Files.createDirectories(snapshotFile.getParent());
+        }
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(slotMinutes);
+            out.writeInt(levels.size());
+            for (Map.Entry<Long, LevelModel> entry : levels.entrySet()) {
+                LevelModel model = entry.getValue();
+                out.writeLong(entry.getKey());
+                for (int i = 0; i < slots; i++) {
+                    out.writeFloat((float) model.arrivals[i]);
+                    out.writeFloat((float) model.departures[i]);
+                    out.writeInt(model.samples[i]);
+                }
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != slotMinutes) {
+                System.out.println("Ignoring forecast snapshot with another format or slot size");
+                return;
+            }
+            int count = in.readInt();
+            for (int l = 0; l < count; l++) {
+                LevelModel model = new LevelModel();
+                long levelId = in.readLong();
+                for (int i = 0; i < slots; i++) {
+                    model.arrivals[i] = in.readFloat();
+                    model.departures[i] = in.readFloat();
+                    model.samples[i] = in.readInt();
+                }
+                model.publish();
+                levels.put(levelId, model);
+            }
+            System.out.println("Forecast model loaded for " + levels.size() + " levels");
+        } catch (IOException e) {
+            System.out.println("Forecast snapshot unreadable → " + e.getMessage());
+            levels.clear();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            System.out.println("Forecast snapshot failed → " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.uday.parkinglotservice.occupancy;
+
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import com.uday.parkinglotservice.Repository.ParkingSpotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Free-spot counters per level and disabled class, used to turn entries for
+ * a full class away before any transaction or row lock is taken.
+ *
+ * The counters are a hint. Committed allocations and releases on this
+ * instance adjust them, and a periodic count from the DB replaces them,
+ * which also picks up other instances and expired edge leases. The locking
+ * allocation stays authoritative; when it finds nothing, the class is set to
+ * zero right away.
+ */
+@Component
+@Profile("!edge")
+public class AdmissionCounters {
+
+    public record ClassCount(long levelId, boolean disabled, int free) {
+    }
+
+    private record Key(long levelId, boolean disabled) {
+    }
+
+    private final ParkingSpotRepository spotRepo;
+    private final Duration resyncInterval;
+    private final Counter rejected;
+
+    private final Map<Key, AtomicInteger> free = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "admission-counters");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // everything is admitted until the first count from the DB
+    private volatile boolean ready;
+
+    public AdmissionCounters(ParkingSpotRepository spotRepo,
+                             MeterRegistry meterRegistry,
+                             @Value("${parking.admission.resync-interval:5s}") Duration resyncInterval) {
+        this.spotRepo = spotRepo;
+        this.resyncInterval = resyncInterval;
+        this.rejected = meterRegistry.counter("parking.admission.rejected");
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::resyncSafely, 0, resyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // false only when the class is known to be full; counts the rejection
+    public boolean admit(Long levelId, boolean disabled) {
+        if (!mayHaveFree(levelId, disabled)) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // Same check as admit, without counting a rejection
+    public boolean mayHaveFree(Long levelId, boolean disabled) {
+        if (!ready || levelId == null) {
+            return true;
+        }
+        AtomicInteger count = free.get(new Key(levelId, disabled));
+        return count == null || count.get() > 0;
+    }
+
+    // The locking query found no spot
+    public void noneFree(Long levelId, boolean disabled) {
+        if (levelId != null) {
+            free.computeIfAbsent(new Key(levelId, disabled), key -> new AtomicInteger()).set(0);
+        }
+    }
+
+    // Call after saving a spot that stopped being centrally allocatable (occupied or leased)
+    public void taken(ParkingSpot spot) {
+        adjustAfterCommit(spot, -1);
+    }
+
+    // Call after saving a spot that was freed or had its lease returned
+    public void freed(ParkingSpot spot) {
+        boolean leased = spot.getLeasedTo() != null && spot.getLeaseExpiresAt() != null
+                && spot.getLeaseExpiresAt().isAfter(LocalDateTime.now());
+        if (!spot.isOccupied() && !leased) {
+            adjustAfterCommit(spot, 1);
+        }
+    }
+
+    public List<ClassCount> snapshot() {
+        return free.entrySet().stream()
+                .map(e -> new ClassCount(e.getKey().levelId(), e.getKey().disabled(), e.getValue().get()))
+                .sorted(Comparator.comparingLong(ClassCount::levelId).thenComparing(ClassCount::disabled))
+                .toList();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void adjustAfterCommit(ParkingSpot spot, int delta) {
+        if (spot.getLevel() == null || spot.getLevel().getId() == null) {
+            return;
+        }
+        Key key = new Key(spot.getLevel().getId(), spot.isDisabled());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(key, delta);
+                }
+            });
+        } else {
+            adjust(key, delta);
+        }
+    }
+
+    private void adjust(Key key, int delta) {
+        free.computeIfAbsent(key, k -> new AtomicInteger())
+                .updateAndGet(value -> Math.max(0, value + delta));
+    }
+
+    private void resyncSafely() {
+        try {
+            resync();
+        } catch (RuntimeException e) {
+            System.out.println("Admission counter resync failed → " + e.getMessage());
+        }
+    }
+
+    private void resync() {
+        Map<Key, Integer> counted = new HashMap<>();
+        for (ParkingSpotRepository.ClassFree row : spotRepo.countFreeByClass(LocalDateTime.now())) {
+            long levelId = row.getLevelId();
+            // a level without spots of one class is full for that class
+            counted.putIfAbsent(new Key(levelId, false), 0);
+            counted.putIfAbsent(new Key(levelId, true), 0);
+            counted.put(new Key(levelId, row.getDisabled()), row.getFree().intValue());
+        }
+        counted.forEach((key, value) -> free.computeIfAbsent(key, k -> new AtomicInteger()).set(value));
+        // levels without any spot: keep the zeros noneFree set, drop anything else
+        free.keySet().removeIf(key -> !counted.containsKey(key) && free.get(key).get() > 0);
+        ready = true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
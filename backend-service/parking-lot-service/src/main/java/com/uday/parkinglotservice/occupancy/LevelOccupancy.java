@@ -0,0 +1,4 @@
+package com.uday.parkinglotservice.occupancy;
+
+public record LevelOccupancy(Long levelId, long total, long free) {
+}
@@ -0,0 +1,111 @@
+package com.uday.parkinglotservice.occupancy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed-size memory-mapped journal of occupancy changes since the last
+ * snapshot. Header [magic][generation], then 21-byte records
+ * [op][spot id][level id][crc32]. A zero op or bad checksum ends the journal.
+ * The checksum also covers the generation: reset only clears what the current
+ * generation wrote, and a record an older, longer generation left behind
+ * further in the file must not pass for a new one.
+ *
+ * Records reach the page cache on every write and disk on the next snapshot;
+ * anything lost to an OS crash is repaired by the DB verification.
+ */
+final class OccupancyJournal implements Closeable {
+
+    static final byte OCCUPIED = 1;
+    static final byte FREE = 2;
+    static final byte REMOVED = 3;
+
+    private static final int MAGIC = 0x4F434A32; // "OCJ2"
+    private static final int HEADER = 12;
+    private static final int RECORD = 21;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private long generation;
+    private int writePos = HEADER;
+
+    OccupancyJournal(Path file, int size) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, HEADER + RECORD));
+        this.generation = buffer.getInt(0) == MAGIC ? buffer.getLong(4) : -1;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    interface Replay {
+        void apply(byte op, long spotId, long levelId);
+    }
+
+    // Applies every intact record and positions the journal after the last one
+    int replay(Replay replay) {
+        int pos = HEADER;
+        int count = 0;
+        while (pos + RECORD <= buffer.capacity()) {
+            byte op = buffer.get(pos);
+            if (op == 0 || crc(pos) != buffer.getInt(pos + 17)) {
+                break;
+            }
+            replay.apply(op, buffer.getLong(pos + 1), buffer.getLong(pos + 9));
+            pos += RECORD;
+            count++;
+        }
+        writePos = pos;
+        return count;
+    }
+
+    // false when full; the caller snapshots and resets
+    boolean append(byte op, long spotId, long levelId) {
+        if (writePos + RECORD > buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(writePos + 1, spotId);
+        buffer.putLong(writePos + 9, levelId);
+        buffer.put(writePos, op);
+        buffer.putInt(writePos + 17, crc(writePos));
+        writePos += RECORD;
+        return true;
+    }
+
+    // Starts an empty journal on top of the snapshot with this generation
+    void reset(long newGeneration) {
+        for (int i = 0; i < writePos; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.putLong(4, newGeneration);
+        buffer.putInt(0, MAGIC);
+        buffer.force();
+        generation = newGeneration;
+        writePos = HEADER;
+    }
+
+    double fill() {
+        return (double) (writePos - HEADER) / (buffer.capacity() - HEADER);
+    }
+
+    private int crc(int pos) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, generation));
+        crc.update(buffer.slice(pos, 17));
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
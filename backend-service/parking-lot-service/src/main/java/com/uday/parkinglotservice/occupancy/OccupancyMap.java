@@ -0,0 +1,187 @@
+package com.uday.parkinglotservice.occupancy;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spot occupancy as two bitmaps per level (spot exists / spot occupied),
+ * indexed by spot id relative to the level's lowest id. Spot ids of a level
+ * are allocated together, so each bitmap is about one bit per spot.
+ * Not thread-safe; OccupancyTracker guards it.
+ */
+final class OccupancyMap {
+
+    private final Map<Long, Level> levels = new HashMap<>();
+
+    void set(long spotId, long levelId, boolean occupied) {
+        Long previous = levelOf(spotId);
+        if (previous != null && previous != levelId) {
+            levels.get(previous).remove(spotId);
+        }
+        levels.computeIfAbsent(levelId, id -> new Level()).set(spotId, occupied);
+    }
+
+    void remove(long spotId) {
+        Long levelId = levelOf(spotId);
+        if (levelId != null) {
+            levels.get(levelId).remove(spotId);
+        }
+    }
+
+    // null when the spot is unknown
+    Boolean occupied(long spotId) {
+        Long levelId = levelOf(spotId);
+        return levelId == null ? null : levels.get(levelId).occupied(spotId);
+    }
+
+    // a lot has a handful of levels, so a scan beats a per-spot index
+    Long levelOf(long spotId) {
+        for (Map.Entry<Long, Level> entry : levels.entrySet()) {
+            if (entry.getValue().contains(spotId)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    void forEachSpot(SpotConsumer consumer) {
+        levels.forEach((levelId, level) -> {
+            for (int bit = level.spots.nextSetBit(0); bit >= 0; bit = level.spots.nextSetBit(bit + 1)) {
+                consumer.accept(level.base + bit, levelId, level.occupied.get(bit));
+            }
+        });
+    }
+
+    int total(long levelId) {
+        Level level = levels.get(levelId);
+        return level == null ? 0 : level.spots.cardinality();
+    }
+
+    int free(long levelId) {
+        Level level = levels.get(levelId);
+        return level == null ? 0 : level.spots.cardinality() - level.occupied.cardinality();
+    }
+
+    boolean hasLevel(long levelId) {
+        return levels.containsKey(levelId);
+    }
+
+    int spotCount() {
+        return levels.values().stream().mapToInt(level -> level.spots.cardinality()).sum();
+    }
+
+    // [levels][per level: id, base, spot words, occupied words]
+    int serializedSize() {
+        int size = 4;
+        for (Level level : levels.values()) {
+            size += 8 + 8 + 4 + level.spots.toLongArray().length * 8 + 4 + level.occupied.toLongArray().length * 8;
+        }
+        return size;
+    }
+
+    void writeTo(ByteBuffer out) {
+        out.putInt(levels.size());
+        levels.forEach((levelId, level) -> {
+            out.putLong(levelId);
+            out.putLong(level.base);
+            putWords(out, level.spots.toLongArray());
+            putWords(out, level.occupied.toLongArray());
+        });
+    }
+
+    static OccupancyMap readFrom(ByteBuffer in) {
+        OccupancyMap map = new OccupancyMap();
+        int levelCount = in.getInt();
+        for (int i = 0; i < levelCount; i++) {
+            long levelId = in.getLong();
+            Level level = new Level();
+            level.base = in.getLong();
+            level.spots = BitSet.valueOf(getWords(in));
+            level.occupied = BitSet.valueOf(getWords(in));
+            map.levels.put(levelId, level);
+        }
+        return map;
+    }
+
+    interface SpotConsumer {
+        void accept(long spotId, long levelId, boolean occupied);
+    }
+
+    private static void putWords(ByteBuffer out, long[] words) {
+        out.putInt(words.length);
+        for (long word : words) {
+            out.putLong(word);
+        }
+    }
+
+    private static long[] getWords(ByteBuffer in) {
+        long[] words = new long[in.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        return words;
+    }
+
+    private static final class Level {
+
+        private long base = -1;
+        private BitSet spots = new BitSet();
+        private BitSet occupied = new BitSet();
+
+        void set(long spotId, boolean isOccupied) {
+            int index = index(spotId);
+            spots.set(index);
+            occupied.set(index, isOccupied);
+        }
+
+        void remove(long spotId) {
+            int bit = bit(spotId);
+            if (bit >= 0) {
+                spots.clear(bit);
+                occupied.clear(bit);
+            }
+        }
+
+        boolean contains(long spotId) {
+            int bit = bit(spotId);
+            return bit >= 0 && spots.get(bit);
+        }
+
+        boolean occupied(long spotId) {
+            int bit = bit(spotId);
+            return bit >= 0 && occupied.get(bit);
+        }
+
+        // -1 for an id below the base or past the last spot; Snowflake ids of
+        // another level can be far enough off to overflow an int
+        private int bit(long spotId) {
+            if (base < 0 || spotId < base || spotId - base >= spots.length()) {
+                return -1;
+            }
+            return (int) (spotId - base);
+        }
+
+        private int index(long spotId) {
+            if (base < 0) {
+                base = spotId;
+            } else if (spotId < base) {
+                // rare: a spot with a lower id than any seen on this level
+                int shift = (int) (base - spotId);
+                spots = shifted(spots, shift);
+                occupied = shifted(occupied, shift);
+                base = spotId;
+            }
+            return (int) (spotId - base);
+        }
+
+        private static BitSet shifted(BitSet bits, int shift) {
+            BitSet result = new BitSet(bits.length() + shift);
+            for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+                result.set(bit + shift);
+            }
+            return result;
+        }
+    }
+}
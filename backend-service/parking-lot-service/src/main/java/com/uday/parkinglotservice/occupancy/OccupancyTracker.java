@@ -0,0 +1,333 @@
+package com.uday.parkinglotservice.occupancy;
+
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import com.uday.parkinglotservice.Repository.ParkingSpotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * In-memory occupancy of every spot, persisted as a binary bitmap snapshot
+ * plus a memory-mapped journal of committed changes. A restart loads both in
+ * milliseconds instead of scanning parking_spot, then verifies against the
+ * DB in the background and repairs any drift.
+ *
+ * Only this instance's commits reach the journal. With the lots sharded over
+ * several instances the others change spots too, so verification repeats on
+ * an interval; between two runs the counts can be that much behind.
+ *
+ * The DB stays authoritative for allocation (row locks); this serves
+ * occupancy reads such as level counts and the nearly-full check.
+ */
+@Component
+@Profile("!edge")
+public class OccupancyTracker {
+
+    private static final int SNAPSHOT_MAGIC = 0x4F435331; // "OCS1"
+
+    private final ParkingSpotRepository spotRepo;
+    private final TransactionTemplate scanTx;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final int journalSize;
+    private final Duration snapshotInterval;
+    private final Duration verifyDelay;
+    private final Duration verifyInterval;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "occupancy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private OccupancyMap map = new OccupancyMap();
+    private OccupancyJournal journal;
+    private long generation;
+    // false until a snapshot is loaded or the first DB scan completes; reads go to the DB meanwhile
+    private volatile boolean ready;
+    // spots changed while a verification scan runs; the scanned row may predate the change
+    private Set<Long> touchedDuringVerify;
+    // only the first verification is always logged; touched by the scheduler thread only
+    private boolean verifiedOnce;
+
+    public OccupancyTracker(ParkingSpotRepository spotRepo,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${parking.occupancy.dir:data/occupancy}") String dir,
+                            @Value("${parking.occupancy.journal-size:4194304}") int journalSize,
+                            @Value("${parking.occupancy.snapshot-interval:5m}") Duration snapshotInterval,
+                            @Value("${parking.occupancy.verify-delay:5s}") Duration verifyDelay,
+                            @Value("${parking.occupancy.verify-interval:1m}") Duration verifyInterval) {
+        this.spotRepo = spotRepo;
+        // not read-only: the scan overwrites the map, so it must read the primary,
+        // never a lagging replica (the query itself is a read-only Hibernate query)
+        this.scanTx = new TransactionTemplate(transactionManager);
+        this.snapshotFile = Path.of(dir).resolve("occupancy.snapshot");
+        this.journalFile = Path.of(dir).resolve("occupancy.journal");
+        this.journalSize = journalSize;
+        this.snapshotInterval = snapshotInterval;
+        this.verifyDelay = verifyDelay;
+        this.verifyInterval = verifyInterval;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(snapshotFile.getParent());
+
+        synchronized (lock) {
+            journal = new OccupancyJournal(journalFile, journalSize);
+            long loaded = loadSnapshot();
+            if (loaded >= 0) {
+                generation = loaded;
+                int replayed = 0;
+                if (journal.generation() == generation) {
+                    replayed = journal.replay(this::apply);
+                } else {
+                    // written before the snapshot that already contains it
+                    journal.reset(generation);
+                }
+                ready = true;
+                System.out.println("Occupancy recovered: " + map.spotCount() + " spots, " + replayed
+                        + " journal records in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+            } else {
+                journal.reset(generation);
+                System.out.println("No occupancy snapshot, building from the database");
+            }
+        }
+
+        scheduler.scheduleWithFixedDelay(this::verifySafely,
+                verifyDelay.toMillis(), verifyInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::snapshotSafely,
+                snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Call after saving a spot; applied once the surrounding transaction commits
+    public void spotChanged(ParkingSpot spot) {
+        if (spot.getId() == null || spot.getLevel() == null || spot.getLevel().getId() == null) {
+            return;
+        }
+        long spotId = spot.getId();
+        long levelId = spot.getLevel().getId();
+        byte op = spot.isOccupied() ? OccupancyJournal.OCCUPIED : OccupancyJournal.FREE;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(op, spotId, levelId);
+                }
+            });
+        } else {
+            record(op, spotId, levelId);
+        }
+    }
+
+    public LevelOccupancy level(Long levelId) {
+        if (ready) {
+            synchronized (lock) {
+                if (map.hasLevel(levelId)) {
+                    return new LevelOccupancy(levelId, map.total(levelId), map.free(levelId));
+                }
+            }
+        }
+        return new LevelOccupancy(levelId,
+                spotRepo.countByLevelId(levelId),
+                spotRepo.countByLevelIdAndIsOccupiedFalse(levelId));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void record(byte op, long spotId, long levelId) {
+        synchronized (lock) {
+            if (touchedDuringVerify != null) {
+                touchedDuringVerify.add(spotId);
+            }
+            journalAndApply(op, spotId, levelId);
+        }
+    }
+
+    private void journalAndApply(byte op, long spotId, long levelId) {
+        if (!journal.append(op, spotId, levelId)) {
+            // snapshot() covers the current map and empties the journal
+            snapshot();
+            journal.append(op, spotId, levelId);
+        }
+        apply(op, spotId, levelId);
+    }
+
+    private void apply(byte op, long spotId, long levelId) {
+        if (op == OccupancyJournal.REMOVED) {
+            map.remove(spotId);
+        } else {
+            map.set(spotId, levelId, op == OccupancyJournal.OCCUPIED);
+        }
+    }
+
+    private void verifySafely() {
+        try {
+            verify();
+        } catch (RuntimeException e) {
+            System.out.println("Occupancy verification failed → " + e.getMessage());
+            synchronized (lock) {
+                touchedDuringVerify = null;
+                if (ready) {
+                    // the next run is one interval away
+                    return;
+                }
+            }
+            // nothing loaded yet, retry the first build sooner
+            scheduler.schedule(this::verifySafely, verifyDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void verify() {
+        long started = System.nanoTime();
+        synchronized (lock) {
+            touchedDuringVerify = new HashSet<>();
+        }
+
+        OccupancyMap db = new OccupancyMap();
+        scanTx.executeWithoutResult(status -> {
+            try (Stream<ParkingSpotRepository.SpotState> rows = spotRepo.streamAllStates()) {
+                rows.forEach(row -> {
+                    if (row.getLevelId() != null) {
+                        db.set(row.getId(), row.getLevelId(), Boolean.TRUE.equals(row.getOccupied()));
+                    }
+                });
+            }
+        });
+
+        int repaired;
+        synchronized (lock) {
+            Set<Long> touched = touchedDuringVerify;
+            touchedDuringVerify = null;
+
+            List<long[]> fixes = new ArrayList<>();
+            db.forEachSpot((spotId, levelId, occupied) -> {
+                if (!touched.contains(spotId)
+                        && (!Boolean.valueOf(occupied).equals(map.occupied(spotId))
+                        || !Long.valueOf(levelId).equals(map.levelOf(spotId)))) {
+                    fixes.add(new long[]{occupied ? OccupancyJournal.OCCUPIED : OccupancyJournal.FREE, spotId, levelId});
+                }
+            });
+            map.forEachSpot((spotId, levelId, occupied) -> {
+                if (!touched.contains(spotId) && db.occupied(spotId) == null) {
+                    fixes.add(new long[]{OccupancyJournal.REMOVED, spotId, levelId});
+                }
+            });
+            fixes.forEach(fix -> journalAndApply((byte) fix[0], fix[1], fix[2]));
+            repaired = fixes.size();
+
+            boolean firstBuild = !ready;
+            ready = true;
+            if (firstBuild || repaired > 0) {
+                snapshot();
+            }
+        }
+        if (repaired > 0 || !verifiedOnce) {
+            System.out.println("Occupancy verified against DB: " + db.spotCount() + " spots, "
+                    + repaired + " repaired in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+        }
+        verifiedOnce = true;
+    }
+
+    private void snapshotSafely() {
+        try {
+            synchronized (lock) {
+                if (ready && journal.fill() > 0) {
+                    snapshot();
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Occupancy snapshot failed → " + e.getMessage());
+        }
+    }
+
+    // Caller holds the lock
+    private void snapshot() {
+        long next = generation + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + map.serializedSize());
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.putLong(next);
+        map.writeTo(buffer);
+        buffer.flip();
+
+        Path tmp = snapshotFile.resolveSibling("occupancy.snapshot.tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // a crash before this reset leaves an older journal generation, which is then skipped
+        journal.reset(next);
+        generation = next;
+    }
+
+    // Returns the snapshot generation, or -1 when there is no usable snapshot
+    private long loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC) {
+                return -1;
+            }
+            long loaded = buffer.getLong();
+            map = OccupancyMap.readFrom(buffer);
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Occupancy snapshot unreadable, rebuilding → " + e.getMessage());
+            map = new OccupancyMap();
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        scheduler.shutdownNow();
+        synchronized (lock) {
+            if (ready) {
+                snapshot();
+            }
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.uday.parkinglotservice.sensor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Debounced sensor state per spot, kept in memory. A reading only changes a
+ * spot's state once the new value has held for the debounce window, so a
+ * bouncing sensor or a car manoeuvring in and out costs nothing. Changes
+ * wait in a set until the reconciler drains them, so a spot that flips and
+ * flips back in between is never written at all.
+ *
+ * The window is timed on this server's clock, from when the readings
+ * arrived: sensor clocks drift and a delayed batch would otherwise settle
+ * at once. The sensor's own timestamp only orders readings of one spot.
+ */
+@Component
+@Profile("!edge")
+public class SensorCoalescer {
+
+    private static final class SpotSensor {
+        // newest reading applied; older ones arriving late are dropped
+        long lastTimestamp = Long.MIN_VALUE;
+        boolean known;
+        boolean state;
+        boolean candidate;
+        // server time the candidate first arrived; -1: no change pending
+        long candidateSince = -1;
+        // state last handed to reconciliation; null: never
+        Boolean drained;
+    }
+
+    private final long debounceMillis;
+    private final int maxSpots;
+    private final Counter accepted;
+    private final Counter stale;
+    private final Counter rejected;
+
+    private final Map<Long, SpotSensor> spots = new ConcurrentHashMap<>();
+    // spots with a candidate waiting out the debounce window
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // spots whose debounced state changed since they were last drained
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    public SensorCoalescer(MeterRegistry meterRegistry,
+                           @Value("${parking.sensor.debounce:3s}") Duration debounce,
+                           @Value("${parking.sensor.max-spots:200000}") int maxSpots) {
+        this.debounceMillis = debounce.toMillis();
+        this.maxSpots = maxSpots;
+        this.accepted = meterRegistry.counter("parking.sensor.readings", "result", "accepted");
+        this.stale = meterRegistry.counter("parking.sensor.readings", "result", "stale");
+        this.rejected = meterRegistry.counter("parking.sensor.readings", "result", "rejected");
+    }
+
+    // Counts per request and adds them to the meters once, not per reading
+    public final class Batch implements SensorFrames.Sink {
+
+        // the readings of one request arrive together
+        private final long receivedAt = System.currentTimeMillis();
+        private long acceptedCount;
+        private long staleCount;
+        private long rejectedCount;
+
+        @Override
+        public void accept(long spotId, boolean occupied, long timestamp) {
+            SpotSensor sensor = spots.get(spotId);
+            if (sensor == null) {
+                if (spotId <= 0 || spots.size() >= maxSpots) {
+                    rejectedCount++;
+                    return;
+                }
+                sensor = spots.computeIfAbsent(spotId, id -> new SpotSensor());
+            }
+            if (read(spotId, sensor, occupied, timestamp, receivedAt)) {
+                acceptedCount++;
+            } else {
+                staleCount++;
+            }
+        }
+
+        public Map<String, Long> close() {
+            accepted.increment(acceptedCount);
+            stale.increment(staleCount);
+            rejected.increment(rejectedCount);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("accepted", acceptedCount);
+            counts.put("stale", staleCount);
+            counts.put("rejected", rejectedCount);
+            return counts;
+        }
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    private boolean read(long spotId, SpotSensor sensor, boolean occupied, long timestamp, long receivedAt) {
+        synchronized (sensor) {
+            if (timestamp <= sensor.lastTimestamp) {
+                return false;
+            }
+            sensor.lastTimestamp = timestamp;
+            if (sensor.known && occupied == sensor.state) {
+                // back to the settled state before the window ran out: a bounce
+                sensor.candidateSince = -1;
+                return true;
+            }
+            if (sensor.candidateSince < 0 || sensor.candidate != occupied) {
+                sensor.candidate = occupied;
+                sensor.candidateSince = receivedAt;
+            }
+            if (receivedAt - sensor.candidateSince >= debounceMillis) {
+                settle(spotId, sensor);
+            } else {
+                pending.add(spotId);
+            }
+            return true;
+        }
+    }
+
+    // Caller holds the sensor's lock
+    private void settle(long spotId, SpotSensor sensor) {
+        sensor.state = sensor.candidate;
+        sensor.known = true;
+        sensor.candidateSince = -1;
+        changed.add(spotId);
+    }
+
+    // Settles candidates that held for the window without a newer reading (sensors that report on change only); now is server time
+    public void settleQuiet(long now) {
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            Long spotId = it.next();
+            SpotSensor sensor = spots.get(spotId);
+            if (sensor == null) {
+                it.remove();
+                continue;
+            }
+            synchronized (sensor) {
+                if (sensor.candidateSince < 0) {
+                    it.remove();
+                } else if (now - sensor.candidateSince >= debounceMillis) {
+                    settle(spotId, sensor);
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // Up to max spots whose settled state differs from what was last drained, with that state
+    public Map<Long, Boolean> drain(int max) {
+        Map<Long, Boolean> batch = new LinkedHashMap<>();
+        for (Iterator<Long> it = changed.iterator(); it.hasNext() && batch.size() < max; ) {
+            Long spotId = it.next();
+            it.remove();
+            SpotSensor sensor = spots.get(spotId);
+            if (sensor == null) {
+                continue;
+            }
+            synchronized (sensor) {
+                if (sensor.drained == null || sensor.drained != sensor.state) {
+                    sensor.drained = sensor.state;
+                    batch.put(spotId, sensor.state);
+                }
+            }
+        }
+        return batch;
+    }
+
+    // A batch that could not be reconciled is drained again with whatever state the spots have by then
+    public void retry(Collection<Long> spotIds) {
+        for (Long spotId : spotIds) {
+            SpotSensor sensor = spots.get(spotId);
+            if (sensor != null) {
+                synchronized (sensor) {
+                    sensor.drained = null;
+                }
+                changed.add(spotId);
+            }
+        }
+    }
+
+    // Readings for ids that are not spots stop taking up memory
+    public void forget(long spotId) {
+        spots.remove(spotId);
+        pending.remove(spotId);
+        changed.remove(spotId);
+    }
+
+    public int backlog() {
+        return changed.size();
+    }
+
+    public int tracked() {
+        return spots.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.uday.parkinglotservice.sensor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Wire formats of sensor readings, parsed as a stream straight into a sink
+ * without an object per reading.
+ *
+ * NDJSON: one {"spotId":1,"occupied":true,"ts":1700000000000} per line; ts
+ * (epoch millis) may be left out and is then the time of arrival.
+ *
+ * Binary: one or more frames of int magic "SNR1", int count, then count
+ * records of long spotId, long ts (epoch millis), byte state (0 free,
+ * 1 occupied), all big-endian. 17 bytes a reading.
+ */
+public final class SensorFrames {
+
+    public static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+    public static final int MAGIC = 0x534E5231; // "SNR1"
+    public static final int RECORD_SIZE = 17;
+
+    public interface Sink {
+        void accept(long spotId, boolean occupied, long timestamp);
+    }
+
+    private SensorFrames() {
+    }
+
+    public static void readBinary(InputStream body, Sink sink) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body, 64 * 1024));
+        while (true) {
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException end) {
+                return;
+            }
+            if (magic != MAGIC) {
+                throw new IOException("Not a sensor frame (magic " + Integer.toHexString(magic) + ")");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long spotId = in.readLong();
+                long timestamp = in.readLong();
+                sink.accept(spotId, in.readByte() != 0, timestamp);
+            }
+        }
+    }
+
+    public static void readNdjson(JsonFactory factory, InputStream body, Sink sink) throws IOException {
+        long arrival = System.currentTimeMillis();
+        try (JsonParser parser = factory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a reading object at " + parser.currentLocation());
+                }
+                long spotId = -1;
+                Boolean occupied = null;
+                long timestamp = arrival;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "spotId" -> spotId = parser.getLongValue();
+                        case "occupied" -> occupied = parser.getBooleanValue();
+                        case "ts" -> timestamp = parser.getLongValue();
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (spotId < 0 || occupied == null) {
+                    throw new IOException("Reading without spotId or occupied at " + parser.currentLocation());
+                }
+                sink.accept(spotId, occupied, timestamp);
+            }
+        }
+    }
+}
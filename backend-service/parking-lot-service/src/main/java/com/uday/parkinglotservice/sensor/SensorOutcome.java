@@ -0,0 +1,16 @@
+package com.uday.parkinglotservice.sensor;
+
+// What reconciling one sensed state change against the spot's allocation did
+public enum SensorOutcome {
+    // allocation already matches; at most the sensed state is recorded
+    AGREES,
+    // sensed occupied on a free spot: taken out of allocation as unticketed
+    UNTICKETED_ARRIVAL,
+    // an unticketed vehicle left: the spot is freed (or handed to a waiter)
+    UNTICKETED_DEPARTURE,
+    // sensed free under an open ticket: left for the attendants, the ticket stays open
+    LEFT_WITHOUT_EXIT,
+    // sensed occupied on a spot an edge gate holds: the gate's log decides
+    LEASED,
+    UNKNOWN_SPOT
+}
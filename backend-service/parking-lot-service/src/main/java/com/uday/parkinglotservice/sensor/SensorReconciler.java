@@ -0,0 +1,101 @@
+package com.uday.parkinglotservice.sensor;
+
+import com.uday.parkinglotservice.ParkingLotService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves settled sensor changes into the DB on one background thread, in
+ * batches of one transaction each, so the ingestion endpoint never waits on
+ * a row lock. Only spots whose sensed state actually changed are loaded, and
+ * only fields that differ are written.
+ */
+@Component
+@Profile("!edge")
+public class SensorReconciler {
+
+    private final SensorCoalescer coalescer;
+    private final ParkingLotService service;
+    private final MeterRegistry meterRegistry;
+    private final Duration flushInterval;
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sensor-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SensorReconciler(SensorCoalescer coalescer,
+                            ParkingLotService service,
+                            MeterRegistry meterRegistry,
+                            @Value("${parking.sensor.flush-interval:1s}") Duration flushInterval,
+                            @Value("${parking.sensor.batch-size:500}") int batchSize) {
+        this.coalescer = coalescer;
+        this.service = service;
+        this.meterRegistry = meterRegistry;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        meterRegistry.gauge("parking.sensor.backlog", coalescer, SensorCoalescer::backlog);
+        meterRegistry.gauge("parking.sensor.tracked", coalescer, SensorCoalescer::tracked);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flushSafely,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.out.println("Sensor reconciliation failed → " + e.getMessage());
+        }
+    }
+
+    private void flush() {
+        coalescer.settleQuiet(System.currentTimeMillis());
+        Map<Long, Boolean> batch;
+        while (!(batch = coalescer.drain(batchSize)).isEmpty()) {
+            Map<Long, SensorOutcome> outcomes;
+            try {
+                outcomes = service.reconcileSensors(batch);
+            } catch (RuntimeException e) {
+                // e.g. a lock timeout against allocation; the next flush tries again
+                coalescer.retry(batch.keySet());
+                meterRegistry.counter("parking.sensor.flushes", "result", "failed").increment();
+                throw e;
+            }
+            Map<SensorOutcome, Integer> counts = new EnumMap<>(SensorOutcome.class);
+            outcomes.forEach((spotId, outcome) -> {
+                counts.merge(outcome, 1, Integer::sum);
+                if (outcome == SensorOutcome.UNKNOWN_SPOT) {
+                    coalescer.forget(spotId);
+                }
+            });
+            counts.forEach((outcome, count) ->
+                    meterRegistry.counter("parking.sensor.reconciled", "outcome", outcome.name()).increment(count));
+            meterRegistry.counter("parking.sensor.flushes", "result", "applied").increment();
+            if (counts.size() > 1 || !counts.containsKey(SensorOutcome.AGREES)) {
+                System.out.println("Sensor changes reconciled: " + counts);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,122 @@
+package com.uday.parkinglotservice.shard;
+
+import com.uday.common.shard.ConsistentHashRing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decides which parking-lot-service instance owns a lot by consistent
+ * hashing the lot id over the Eureka instance list. The gateway uses the same
+ * ring to route /api/parking/** by lot id, so a lot's allocations and row
+ * locks stay on one instance and capacity grows with the instance count.
+ */
+@Component
+@Profile("!edge")
+public class LotOwnership {
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final String selfInstanceId;
+    private final int virtualNodes;
+    private final Duration refreshInterval;
+    // true: answer 421 for lots owned by another instance instead of serving them
+    private final boolean enforce;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "lot-ownership");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 1);
+
+    public LotOwnership(DiscoveryClient discoveryClient,
+                        @Value("${spring.application.name}") String serviceId,
+                        Registration registration,
+                        @Value("${parking.sharding.virtual-nodes:100}") int virtualNodes,
+                        @Value("${parking.sharding.refresh-interval:10s}") Duration refreshInterval,
+                        @Value("${parking.sharding.enforce:false}") boolean enforce) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.selfInstanceId = registration.getInstanceId();
+        this.virtualNodes = virtualNodes;
+        this.refreshInterval = refreshInterval;
+        this.enforce = enforce;
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher.scheduleWithFixedDelay(this::refreshSafely,
+                0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public String ownerOf(Long lotId) {
+        return ring.nodeFor(String.valueOf(lotId));
+    }
+
+    // Before the first registry fetch (or when running alone) every lot is local
+    public boolean isLocal(Long lotId) {
+        if (lotId == null || ring.isEmpty()) {
+            return true;
+        }
+        return selfInstanceId.equals(ownerOf(lotId));
+    }
+
+    /**
+     * Under parking.sharding.enforce, answers 421 unless this instance owns
+     * the lot resolved on the server for the level or ticket, and a lot named
+     * by the request (what the gateway routed on) is that lot. The lot is
+     * only resolved when enforcing.
+     */
+    public void check(Supplier<Long> lot, Long requestedLotId) {
+        if (!enforce) {
+            return;
+        }
+        Long lotId = lot.get();
+        if (requestedLotId != null && lotId != null && !requestedLotId.equals(lotId)) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(421),
+                    "Request names lot " + requestedLotId + " but it is for lot " + lotId);
+        }
+        if (!isLocal(lotId)) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(421),
+                    "Lot " + lotId + " is owned by " + ownerOf(lotId));
+        }
+    }
+
+    public String selfInstanceId() {
+        return selfInstanceId;
+    }
+
+    private void refreshSafely() {
+        try {
+            List<String> ids = discoveryClient.getInstances(serviceId).stream()
+                    .map(ServiceInstance::getInstanceId)
+                    .sorted()
+                    .toList();
+            ring = new ConsistentHashRing(ids, virtualNodes);
+        } catch (RuntimeException e) {
+            // keep the previous ring
+            System.out.println("Lot ownership refresh failed → " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdown();
+    }
+}
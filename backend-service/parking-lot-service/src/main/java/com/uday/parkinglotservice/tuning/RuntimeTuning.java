@@ -0,0 +1,211 @@
+package com.uday.parkinglotservice.tuning;
+
+import com.uday.common.datasource.HikariPoolSizing;
+import com.uday.parkinglotservice.client.DownstreamClientProperties;
+import com.uday.parkinglotservice.client.DownstreamClients;
+import com.uday.parkinglotservice.client.DownstreamPolicy;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Applies tuning pushed from config-server (POST /actuator/refresh) to the
+ * running objects instead of waiting for a restart:
+ *
+ * - downstream.services.*: pool settings rebuild that service's client
+ *   (in-flight calls drain on the old pool), timeout and retry-budget
+ *   settings reset its adaptive timeout and budget; the rest is read per call
+ * - resilience4j.circuitbreaker / bulkhead instances: reconfigured in place
+ * - spring.datasource.hikari / replica pool size and connection timeout
+ *
+ * Every change applied is counted under parking.tuning.refreshes and logged.
+ */
+@Component
+public class RuntimeTuning {
+
+    private static final String DOWNSTREAM = "downstream.services.";
+    private static final String CIRCUIT_BREAKER = "resilience4j.circuitbreaker.instances.";
+    private static final String BULKHEAD = "resilience4j.bulkhead.instances.";
+
+    private static final Set<String> POOL_KEYS = Set.of("base-url", "max-connections", "pending-acquire-max-count",
+            "pending-acquire-timeout", "max-idle-time", "max-life-time", "evict-interval", "connect-timeout",
+            "response-timeout", "http2", "binary");
+    private static final Set<String> POLICY_KEYS = Set.of("response-timeout", "timeout-percentile",
+            "timeout-multiplier", "timeout-min", "retry-budget-ratio", "retry-budget-min");
+
+    private final Environment environment;
+    private final DownstreamClientProperties downstreamProperties;
+    private final DownstreamClients clients;
+    private final DownstreamPolicy policy;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final ListableBeanFactory beanFactory;
+    private final MeterRegistry meterRegistry;
+
+    public RuntimeTuning(Environment environment,
+                         DownstreamClientProperties downstreamProperties,
+                         DownstreamClients clients,
+                         DownstreamPolicy policy,
+                         CircuitBreakerRegistry circuitBreakers,
+                         BulkheadRegistry bulkheads,
+                         ListableBeanFactory beanFactory,
+                         MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.downstreamProperties = downstreamProperties;
+        this.clients = clients;
+        this.policy = policy;
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+        this.beanFactory = beanFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onRefresh(EnvironmentChangeEvent event) {
+        Set<String> rebuild = new TreeSet<>();
+        Set<String> reset = new TreeSet<>();
+        Set<String> breakers = new TreeSet<>();
+        Set<String> isolated = new TreeSet<>();
+        boolean hikari = false;
+
+        for (String key : event.getKeys()) {
+            if (key.startsWith(DOWNSTREAM)) {
+                String[] parts = key.substring(DOWNSTREAM.length()).split("\\.", 2);
+                if (parts.length == 2 && POOL_KEYS.contains(parts[1])) {
+                    rebuild.add(parts[0]);
+                }
+                if (parts.length == 2 && POLICY_KEYS.contains(parts[1])) {
+                    reset.add(parts[0]);
+                }
+            } else if (key.startsWith(CIRCUIT_BREAKER)) {
+                breakers.add(instance(key, CIRCUIT_BREAKER));
+            } else if (key.startsWith(BULKHEAD)) {
+                isolated.add(instance(key, BULKHEAD));
+            } else if (key.startsWith("spring.datasource.hikari.") || key.startsWith("spring.datasource.replica.")) {
+                hikari = true;
+            }
+        }
+
+        if (!rebuild.isEmpty() || !reset.isEmpty()) {
+            // the properties bean may not have been rebound yet when this listener runs
+            Binder.get(environment).bind("downstream", Bindable.ofInstance(downstreamProperties));
+        }
+        rebuild.forEach(service -> apply("downstream-client", service, () -> clients.rebuild(service)));
+        reset.forEach(service -> apply("downstream-policy", service, () -> policy.reset(service)));
+        breakers.forEach(name -> apply("circuit-breaker", name, () -> reconfigureCircuitBreaker(name)));
+        isolated.forEach(name -> apply("bulkhead", name, () -> reconfigureBulkhead(name)));
+        if (hikari) {
+            beanFactory.getBeansOfType(HikariDataSource.class).forEach((name, pool) ->
+                    apply("hikari", name, () -> resizePool(name, pool)));
+        }
+    }
+
+    private void apply(String component, String name, Runnable change) {
+        try {
+            change.run();
+            meterRegistry.counter("parking.tuning.refreshes", "component", component, "result", "applied").increment();
+            System.out.println("Tuning applied → " + component + " " + name);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("parking.tuning.refreshes", "component", component, "result", "failed").increment();
+            System.out.println("Tuning not applied to " + component + " " + name + " → " + e.getMessage());
+        }
+    }
+
+    // A circuit breaker's config is fixed, so a new one replaces it; an open breaker stays open
+    private void reconfigureCircuitBreaker(String name) {
+        CircuitBreaker current = circuitBreakers.circuitBreaker(name);
+        String prefix = CIRCUIT_BREAKER + name + ".";
+        CircuitBreakerConfig.Builder config = CircuitBreakerConfig.from(current.getCircuitBreakerConfig());
+        Float failureRate = environment.getProperty(prefix + "failure-rate-threshold", Float.class);
+        if (failureRate != null) {
+            config.failureRateThreshold(failureRate);
+        }
+        Float slowCallRate = environment.getProperty(prefix + "slow-call-rate-threshold", Float.class);
+        if (slowCallRate != null) {
+            config.slowCallRateThreshold(slowCallRate);
+        }
+        Duration slowCallDuration = environment.getProperty(prefix + "slow-call-duration-threshold", Duration.class);
+        if (slowCallDuration != null) {
+            config.slowCallDurationThreshold(slowCallDuration);
+        }
+        Integer windowSize = environment.getProperty(prefix + "sliding-window-size", Integer.class);
+        if (windowSize != null) {
+            config.slidingWindowSize(windowSize);
+        }
+        Integer minimumCalls = environment.getProperty(prefix + "minimum-number-of-calls", Integer.class);
+        if (minimumCalls != null) {
+            config.minimumNumberOfCalls(minimumCalls);
+        }
+        Duration openWait = environment.getProperty(prefix + "wait-duration-in-open-state", Duration.class);
+        if (openWait != null) {
+            config.waitDurationInOpenState(openWait);
+        }
+        Integer halfOpenCalls = environment.getProperty(prefix + "permitted-number-of-calls-in-half-open-state", Integer.class);
+        if (halfOpenCalls != null) {
+            config.permittedNumberOfCallsInHalfOpenState(halfOpenCalls);
+        }
+
+        CircuitBreaker replacement = CircuitBreaker.of(name, config.build());
+        if (current.getState() == CircuitBreaker.State.OPEN || current.getState() == CircuitBreaker.State.FORCED_OPEN) {
+            replacement.transitionToOpenState();
+        }
+        circuitBreakers.replace(name, replacement);
+    }
+
+    // Bulkheads take a new config in place; calls already admitted keep their permit
+    private void reconfigureBulkhead(String name) {
+        String prefix = BULKHEAD + name + ".";
+        bulkheads.find(name).ifPresent(bulkhead -> {
+            BulkheadConfig.Builder config = BulkheadConfig.from(bulkhead.getBulkheadConfig());
+            Integer maxCalls = environment.getProperty(prefix + "max-concurrent-calls", Integer.class);
+            if (maxCalls != null) {
+                config.maxConcurrentCalls(maxCalls);
+            }
+            Duration maxWait = environment.getProperty(prefix + "max-wait-duration", Duration.class);
+            if (maxWait != null) {
+                config.maxWaitDuration(maxWait);
+            }
+            bulkhead.changeConfig(config.build());
+        });
+    }
+
+    // Hikari grows at once and retires surplus connections as they are returned
+    private void resizePool(String beanName, HikariDataSource pool) {
+        String prefix = HikariPoolSizing.prefixFor(beanName) + ".";
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+        Integer maxSize = environment.getProperty(prefix + "maximum-pool-size", Integer.class);
+        if (maxSize != null) {
+            config.setMaximumPoolSize(maxSize);
+        }
+        Integer minIdle = environment.getProperty(prefix + "minimum-idle", Integer.class);
+        if (minIdle != null) {
+            config.setMinimumIdle(minIdle);
+        }
+        Duration connectionTimeout = environment.getProperty(prefix + "connection-timeout", Duration.class);
+        if (connectionTimeout != null) {
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+        }
+    }
+
+    private static String instance(String key, String prefix) {
+        String rest = key.substring(prefix.length());
+        int dot = rest.indexOf('.');
+        return dot < 0 ? rest : rest.substring(0, dot);
+    }
+}
@@ -0,0 +1,92 @@
+package com.uday.parkinglotservice.waitlist;
+
+import com.uday.parkinglotservice.DTO.TicketDetails;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One vehicle waiting for a spot of a level class. The status only moves
+ * forward through compare-and-set, so a release, the timeout sweep and a
+ * cancel racing for the same waiter cannot both win.
+ */
+@Getter
+public class Waiter {
+
+    public enum Status { WAITING, HANDING_OFF, ASSIGNED, EXPIRED, CANCELLED, FAILED }
+
+    private final String id;
+    private final String vehicleNumber;
+    private final long levelId;
+    private final boolean disabled;
+    // place in its class queue, compared with the queue's handed-off count for a position
+    private final long seq;
+    private final long expiresAt;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.WAITING);
+    private volatile TicketDetails ticket;
+    private volatile String detail;
+    private volatile long finishedAt;
+    // last position sent to subscribers
+    private volatile long reportedPosition;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    Waiter(String id, String vehicleNumber, long levelId, boolean disabled, long seq, long expiresAt) {
+        this.id = id;
+        this.vehicleNumber = vehicleNumber;
+        this.levelId = levelId;
+        this.disabled = disabled;
+        this.seq = seq;
+        this.expiresAt = expiresAt;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    boolean move(Status from, Status to) {
+        return status.compareAndSet(from, to);
+    }
+
+    boolean isDone() {
+        Status current = status.get();
+        return current != Status.WAITING && current != Status.HANDING_OFF;
+    }
+
+    void setReportedPosition(long reportedPosition) {
+        this.reportedPosition = reportedPosition;
+    }
+
+    void finish(Status to, TicketDetails ticket, String detail) {
+        this.ticket = ticket;
+        this.detail = detail;
+        this.finishedAt = System.currentTimeMillis();
+        status.set(to);
+    }
+
+    void subscribe(SseEmitter emitter) {
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+    }
+
+    // Sends to every subscriber; a final event also closes the streams
+    void publish(String event, Object data, boolean last) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data));
+                if (last) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
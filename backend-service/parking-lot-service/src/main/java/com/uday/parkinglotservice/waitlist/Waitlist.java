@@ -0,0 +1,363 @@
+package com.uday.parkinglotservice.waitlist;
+
+import com.uday.parkinglotservice.DTO.TicketDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vehicles waiting for a full level class (level id + disabled flag), served
+ * first come first served. A released spot is handed to the head of its
+ * class queue while it is still locked and occupied, so it is never seen as
+ * free and nobody arriving later can take it first.
+ *
+ * Each class has its own lock-free deque; joining, handing off and
+ * cancelling never block each other. Waiters that time out or cancel are
+ * only marked, skipped at the head and swept out in the background.
+ *
+ * While a class has waiters it takes no direct entries, and every spot
+ * that becomes free on it (a release, a returned or expired edge lease, a
+ * new level) goes to the queue first; WaitlistDrainer picks up the ones
+ * nobody released explicitly.
+ *
+ * The queues live in this instance: with lot sharding, entries and exits
+ * for a lot have to reach its owner (parking.sharding.enforce) for the
+ * hand-off to see them.
+ */
+@Component
+@Profile("!edge")
+public class Waitlist {
+
+    public record WaiterView(String id, long levelId, boolean disabled, String vehicleNumber,
+                             Waiter.Status status, long position, LocalDateTime expiresAt,
+                             TicketDetails ticket, String detail) {
+
+        // Entry that found a free spot and never had to wait
+        public static WaiterView admitted(long levelId, boolean disabled, String vehicleNumber, TicketDetails ticket) {
+            return new WaiterView(null, levelId, disabled, vehicleNumber, Waiter.Status.ASSIGNED, 0, null, ticket, null);
+        }
+    }
+
+    // a level class with vehicles queued on it
+    public record WaitingClass(long levelId, boolean disabled) {
+    }
+
+    private record Key(long levelId, boolean disabled) {
+    }
+
+    private static final class ClassQueue {
+        final Deque<Waiter> waiters = new ConcurrentLinkedDeque<>();
+        final AtomicLong joined = new AtomicLong();
+        // waiters taken off the head, handed a spot or skipped
+        final AtomicLong served = new AtomicLong();
+        final AtomicInteger waiting = new AtomicInteger();
+    }
+
+    private final int maxWaiters;
+    private final Duration maxWait;
+    private final Duration retention;
+    private final Duration sweepInterval;
+    private final Counter handOffs;
+    private final Counter expired;
+    private final Counter handOffFailures;
+    // failed hand-offs since the last sweep and the latest reason, reported by the sweeper
+    private final AtomicInteger failedSinceSweep = new AtomicInteger();
+    private volatile String lastFailure;
+
+    private final Map<Key, ClassQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, Waiter> byId = new ConcurrentHashMap<>();
+    private final Map<String, Waiter> byVehicle = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "waitlist-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService handOffExecutor;
+
+    public Waitlist(MeterRegistry meterRegistry,
+                    @Value("${parking.waitlist.max-waiters:5000}") int maxWaiters,
+                    @Value("${parking.waitlist.max-wait:15m}") Duration maxWait,
+                    @Value("${parking.waitlist.retention:5m}") Duration retention,
+                    @Value("${parking.waitlist.sweep-interval:1s}") Duration sweepInterval,
+                    @Value("${parking.waitlist.handoff-threads:4}") int handOffThreads) {
+        this.maxWaiters = maxWaiters;
+        this.maxWait = maxWait;
+        this.retention = retention;
+        this.sweepInterval = sweepInterval;
+        this.handOffs = meterRegistry.counter("parking.waitlist.handoffs");
+        this.expired = meterRegistry.counter("parking.waitlist.expired");
+        this.handOffFailures = meterRegistry.counter("parking.waitlist.handoff-failures");
+        meterRegistry.gauge("parking.waitlist.waiting", queues,
+                q -> q.values().stream().mapToInt(queue -> queue.waiting.get()).sum());
+        AtomicInteger threads = new AtomicInteger();
+        this.handOffExecutor = Executors.newFixedThreadPool(handOffThreads, r -> {
+            Thread thread = new Thread(r, "waitlist-handoff-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweepSafely,
+                sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the vehicle for the class. A vehicle already waiting keeps its
+     * place (and its original class); null when the class queue is full.
+     */
+    public Waiter join(long levelId, boolean disabled, String vehicleNumber) {
+        ClassQueue queue = queues.computeIfAbsent(new Key(levelId, disabled), k -> new ClassQueue());
+        Waiter[] created = new Waiter[1];
+        Waiter current = byVehicle.compute(vehicleNumber, (plate, previous) -> {
+            if (previous != null && !previous.isDone()) {
+                return previous;
+            }
+            if (queue.waiting.incrementAndGet() > maxWaiters) {
+                queue.waiting.decrementAndGet();
+                return previous;
+            }
+            created[0] = new Waiter(UUID.randomUUID().toString(), plate, levelId, disabled,
+                    queue.joined.incrementAndGet(), System.currentTimeMillis() + maxWait.toMillis());
+            return created[0];
+        });
+        if (created[0] == null) {
+            return current != null && !current.isDone() ? current : null;
+        }
+        byId.put(created[0].getId(), created[0]);
+        queue.waiters.offerLast(created[0]);
+        return created[0];
+    }
+
+    public boolean hasWaiters(long levelId, boolean disabled) {
+        return waiting(levelId, disabled) > 0;
+    }
+
+    public int waiting(long levelId, boolean disabled) {
+        ClassQueue queue = queues.get(new Key(levelId, disabled));
+        return queue == null ? 0 : queue.waiting.get();
+    }
+
+    public List<WaitingClass> waitingClasses() {
+        return queues.entrySet().stream()
+                .filter(e -> e.getValue().waiting.get() > 0)
+                .map(e -> new WaitingClass(e.getKey().levelId(), e.getKey().disabled()))
+                .toList();
+    }
+
+    public Waiter find(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Takes the first live waiter of the class off its queue, or null. Call
+     * with the released spot still locked; the caller keeps it occupied and
+     * passes the waiter to handOffAfterCommit.
+     */
+    public Waiter claimNext(long levelId, boolean disabled) {
+        ClassQueue queue = queues.get(new Key(levelId, disabled));
+        if (queue == null || queue.waiting.get() == 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Waiter waiter;
+        while ((waiter = queue.waiters.pollFirst()) != null) {
+            queue.served.incrementAndGet();
+            if (waiter.getExpiresAt() <= now) {
+                expire(queue, waiter);
+                continue;
+            }
+            if (waiter.move(Waiter.Status.WAITING, Waiter.Status.HANDING_OFF)) {
+                queue.waiting.decrementAndGet();
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the hand-off (ticket creation) once the releasing transaction has
+     * committed. On rollback the waiter goes back to the head of its queue.
+     */
+    public void handOffAfterCommit(Waiter waiter, Runnable handOff) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            handOffExecutor.execute(handOff);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                handOffExecutor.execute(handOff);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    requeue(waiter);
+                }
+            }
+        });
+    }
+
+    public void assigned(Waiter waiter, TicketDetails ticket) {
+        waiter.finish(Waiter.Status.ASSIGNED, ticket, null);
+        handOffs.increment();
+        waiter.publish("assigned", view(waiter), true);
+    }
+
+    public void failed(Waiter waiter, String detail) {
+        handOffFailures.increment();
+        lastFailure = detail;
+        failedSinceSweep.incrementAndGet();
+        waiter.finish(Waiter.Status.FAILED, null, detail);
+        waiter.publish("failed", view(waiter), true);
+    }
+
+    public Waiter cancel(String id) {
+        Waiter waiter = byId.get(id);
+        if (waiter != null && waiter.move(Waiter.Status.WAITING, Waiter.Status.CANCELLED)) {
+            queueOf(waiter).waiting.decrementAndGet();
+            waiter.finish(Waiter.Status.CANCELLED, null, "cancelled");
+            waiter.publish("cancelled", view(waiter), true);
+        }
+        return waiter;
+    }
+
+    /**
+     * Server-sent events for one waiter: "position" now and whenever it
+     * moves up, then one of "assigned", "expired", "cancelled" or "failed",
+     * after which the stream ends.
+     */
+    public SseEmitter subscribe(Waiter waiter) {
+        long remaining = Math.max(0, waiter.getExpiresAt() - System.currentTimeMillis());
+        SseEmitter emitter = new SseEmitter(remaining + sweepInterval.toMillis() + 30_000);
+        waiter.subscribe(emitter);
+        WaiterView view = view(waiter);
+        try {
+            emitter.send(SseEmitter.event().name(eventName(view.status())).data(view));
+            if (waiter.isDone()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // finished meanwhile; the final event already went out through publish
+        }
+        return emitter;
+    }
+
+    public WaiterView view(Waiter waiter) {
+        long position = waiter.getStatus() == Waiter.Status.WAITING ? position(waiter) : 0;
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(waiter.getExpiresAt()), ZoneId.systemDefault());
+        return new WaiterView(waiter.getId(), waiter.getLevelId(), waiter.isDisabled(), waiter.getVehicleNumber(),
+                waiter.getStatus(), position, expiresAt, waiter.getTicket(), waiter.getDetail());
+    }
+
+    // Upper bound: waiters that left from the middle of the queue are still counted until swept
+    private long position(Waiter waiter) {
+        ClassQueue queue = queueOf(waiter);
+        return Math.max(1, Math.min(waiter.getSeq() - queue.served.get(), queue.waiting.get()));
+    }
+
+    private static String eventName(Waiter.Status status) {
+        return switch (status) {
+            case WAITING, HANDING_OFF -> "position";
+            case ASSIGNED -> "assigned";
+            case EXPIRED -> "expired";
+            case CANCELLED -> "cancelled";
+            case FAILED -> "failed";
+        };
+    }
+
+    private ClassQueue queueOf(Waiter waiter) {
+        return queues.computeIfAbsent(new Key(waiter.getLevelId(), waiter.isDisabled()), k -> new ClassQueue());
+    }
+
+    private void requeue(Waiter waiter) {
+        if (waiter.move(Waiter.Status.HANDING_OFF, Waiter.Status.WAITING)) {
+            ClassQueue queue = queueOf(waiter);
+            queue.waiting.incrementAndGet();
+            queue.served.decrementAndGet();
+            queue.waiters.offerFirst(waiter);
+        }
+    }
+
+    private void expire(ClassQueue queue, Waiter waiter) {
+        if (waiter.move(Waiter.Status.WAITING, Waiter.Status.EXPIRED)) {
+            queue.waiting.decrementAndGet();
+            waiter.finish(Waiter.Status.EXPIRED, null, "no spot within " + maxWait);
+            expired.increment();
+            waiter.publish("expired", view(waiter), true);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            System.out.println("Waitlist sweep failed → " + e.getMessage());
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (ClassQueue queue : queues.values()) {
+            for (Waiter waiter : queue.waiters) {
+                if (waiter.getExpiresAt() <= now) {
+                    expire(queue, waiter);
+                } else if (!waiter.getEmitters().isEmpty() && waiter.getStatus() == Waiter.Status.WAITING) {
+                    long position = position(waiter);
+                    if (position != waiter.getReportedPosition()) {
+                        waiter.setReportedPosition(position);
+                        waiter.publish("position", view(waiter), false);
+                    }
+                }
+            }
+            queue.waiters.removeIf(Waiter::isDone);
+        }
+        int failed = failedSinceSweep.getAndSet(0);
+        if (failed > 0) {
+            System.out.println("Waitlist hand-offs failed → " + failed + ", last: " + lastFailure);
+        }
+        // finished waiters stay readable for a while, then go
+        long cutoff = now - retention.toMillis();
+        byId.values().removeIf(waiter -> {
+            if (waiter.isDone() && waiter.getFinishedAt() > 0 && waiter.getFinishedAt() < cutoff) {
+                byVehicle.remove(waiter.getVehicleNumber(), waiter);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+        handOffExecutor.shutdown();
+    }
+}
@@ -0,0 +1,73 @@
+package com.uday.parkinglotservice.waitlist;
+
+import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.occupancy.AdmissionCounters;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands spots that turned free without a release to their class's waiters:
+ * edge leases that expired, and spots freed on another instance. Only
+ * classes with waiters that the admission counters do not know to be full
+ * are looked at, one transaction each.
+ */
+@Component
+@Profile("!edge")
+public class WaitlistDrainer {
+
+    private final Waitlist waitlist;
+    private final ParkingLotService service;
+    private final AdmissionCounters admission;
+    private final Duration drainInterval;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "waitlist-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WaitlistDrainer(Waitlist waitlist,
+                           ParkingLotService service,
+                           AdmissionCounters admission,
+                           @Value("${parking.waitlist.drain-interval:5s}") Duration drainInterval) {
+        this.waitlist = waitlist;
+        this.service = service;
+        this.admission = admission;
+        this.drainInterval = drainInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drainSafely,
+                drainInterval.toMillis(), drainInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void drainSafely() {
+        for (Waitlist.WaitingClass waiting : waitlist.waitingClasses()) {
+            if (!admission.mayHaveFree(waiting.levelId(), waiting.disabled())) {
+                continue;
+            }
+            try {
+                int handedOff = service.handOffFreeSpots(waiting.levelId(), waiting.disabled());
+                if (handedOff > 0) {
+                    System.out.println("Waitlist drained → " + handedOff + " spots on level " + waiting.levelId());
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Waitlist drain failed → " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
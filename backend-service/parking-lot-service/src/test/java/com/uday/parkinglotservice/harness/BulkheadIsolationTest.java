@@ -0,0 +1,145 @@
+package com.uday.parkinglotservice.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.parkinglotservice.client.DownstreamClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the service on the harness and slows the payment stub while exits
+ * pile up on it: entries, which only call vehicle and ticketing, must keep
+ * their latency. With few request threads, exits blocked on payment would
+ * take them all unless the payment bulkhead turns the surplus away.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=30",
+        "harness.levels=2",
+        "harness.stubs.vehicle.port=18181",
+        "harness.stubs.ticketing.port=18182",
+        "harness.stubs.payment.port=18183",
+        "parking.occupancy.dir=target/harness/occupancy",
+        "parking.forecast.snapshot-file=target/harness/forecast/model.snapshot"
+})
+@ActiveProfiles("harness")
+class BulkheadIsolationTest {
+
+    private static final int ENTRIES = 10;
+    private static final int EXITS = 40;
+    private static final Duration SLOW_PAYMENT = Duration.ofSeconds(2);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private HarnessStubs stubs;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService pool = Executors.newFixedThreadPool(ENTRIES + EXITS);
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void slowPaymentDoesNotSlowEntries() throws Exception {
+        JsonNode levels = objectMapper.readTree(get("/parking/levels"));
+        long exitLevel = levels.get(0).get("id").asLong();
+        long entryLevel = levels.get(1).get("id").asLong();
+
+        List<Long> tickets = new ArrayList<>();
+        for (int i = 0; i < EXITS; i++) {
+            tickets.add(objectMapper.readTree(entry(exitLevel, "EXIT" + i).body()).get("id").asLong());
+        }
+        long baseline = p90(timedEntries(entryLevel, "BASE"));
+
+        HarnessProperties.Stub slow = new HarnessProperties.Stub();
+        slow.setLatency(SLOW_PAYMENT);
+        stubs.stub(DownstreamClients.PAYMENT).reconfigure(slow);
+
+        List<Future<Integer>> exits = new ArrayList<>();
+        for (Long ticket : tickets) {
+            exits.add(pool.submit(() -> send(HttpRequest.newBuilder(uri("/parking/exit?ticketId=" + ticket))
+                    .PUT(HttpRequest.BodyPublishers.noBody())).statusCode()));
+        }
+        // let the exits take their threads and payment connections first
+        Thread.sleep(300);
+        long underLoad = p90(timedEntries(entryLevel, "LOAD"));
+
+        for (Future<Integer> exit : exits) {
+            exit.get();
+        }
+        // the exits did reach the slowed payment stub while the entries ran
+        assertThat(stubs.stub(DownstreamClients.PAYMENT).calls("ok")).isPositive();
+        assertThat(underLoad)
+                .as("entry p90 %dms with payment slowed, %dms before", underLoad, baseline)
+                .isLessThan(Math.max(baseline * 3, baseline + 250))
+                // no entry waited out a payment call
+                .isLessThan(SLOW_PAYMENT.toMillis());
+    }
+
+    // Entry latencies in ms, ENTRIES at once
+    private List<Long> timedEntries(long levelId, String prefix) throws Exception {
+        List<Callable<Long>> calls = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            String plate = prefix + i;
+            calls.add(() -> {
+                long start = System.nanoTime();
+                HttpResponse<String> response = entry(levelId, plate);
+                assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+                return (System.nanoTime() - start) / 1_000_000;
+            });
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<Long> latency : pool.invokeAll(calls)) {
+            latencies.add(latency.get());
+        }
+        return latencies;
+    }
+
+    private HttpResponse<String> entry(long levelId, String plate) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri("/parking/entry?levelId=" + levelId
+                        + "&isDisabled=false&vehicleNumber=" + plate))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path)).GET()).body();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long p90(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.9) - 1);
+    }
+}
@@ -0,0 +1,164 @@
+package com.uday.parkinglotservice.harness;
+
+import com.uday.parkinglotservice.client.DownstreamClientProperties;
+import com.uday.parkinglotservice.client.DownstreamPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link DownstreamPolicy} against harness stubs that answer fast,
+ * slowly or with a 503, and checks what reaches the stubs.
+ */
+class FaultInjectionTest {
+
+    private static final String SERVICE = "stub";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StubServer fast;
+    private StubServer slow;
+    private StubServer failing;
+    private WebClient client;
+    private DownstreamClientProperties.Service settings;
+    private DownstreamPolicy policy;
+
+    @BeforeEach
+    void startStubs() {
+        fast = stub("fast", Duration.ZERO, 0);
+        slow = stub("slow", Duration.ofMillis(500), 0);
+        failing = stub("failing", Duration.ZERO, 1);
+        client = WebClient.create();
+
+        settings = new DownstreamClientProperties.Service();
+        settings.setResponseTimeout(Duration.ofSeconds(2));
+        settings.setTimeoutMin(Duration.ofMillis(100));
+        settings.setRetryBackoff(Duration.ofMillis(1));
+        DownstreamClientProperties properties = new DownstreamClientProperties();
+        properties.getServices().put(SERVICE, settings);
+        policy = new DownstreamPolicy(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void stopStubs() {
+        fast.stop();
+        slow.stop();
+        failing.stop();
+    }
+
+    @Test
+    void timeoutStartsAtTheResponseTimeout() {
+        assertThat(policy.timeout(SERVICE).current()).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void timeoutShrinksToRecentLatencyAndCutsOffASlowCall() {
+        settings.setRetryTimeouts(false);
+        settings.setTimeoutPercentile(0.5);
+        for (int i = 0; i < 64; i++) {
+            assertThat(call(fast)).isEqualTo("fast");
+        }
+        Duration adapted = policy.timeout(SERVICE).current();
+        assertThat(adapted).isLessThan(Duration.ofMillis(500)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> call(slow))
+                .satisfies(ex -> assertThat(Exceptions.unwrap(ex)).isInstanceOf(TimeoutException.class));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        assertThat(calls(slow)).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutCallsAreRetriedWhenAllowed() {
+        settings.setMaxRetries(2);
+        settings.setResponseTimeout(Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> call(slow))
+                .satisfies(ex -> assertThat(Exceptions.unwrap(ex)).isInstanceOf(TimeoutException.class));
+        assertThat(calls(slow)).isEqualTo(3);
+    }
+
+    @Test
+    void retriesStopOnceTheBudgetIsSpent() {
+        settings.setMaxRetries(3);
+        settings.setRetryBudgetRatio(0.0);
+        settings.setRetryBudgetMin(2);
+
+        // the reserve of two retries goes to the first call, later calls get a single attempt
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> call(failing)).isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        }
+        assertThat(calls(failing)).isEqualTo(3 + 1 + 1);
+        assertThat(policy.budget(SERVICE).available()).isZero();
+    }
+
+    @Test
+    void trafficRefillsTheBudget() {
+        settings.setMaxRetries(1);
+        settings.setRetryBudgetRatio(0.5);
+        settings.setRetryBudgetMin(0);
+
+        for (int i = 0; i < 4; i++) {
+            call(fast);
+        }
+        // four calls deposited two retries, the failing call itself a third half
+        assertThatThrownBy(() -> call(failing)).isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThat(calls(failing)).isEqualTo(2);
+        assertThat(policy.budget(SERVICE).available()).isEqualTo(1.5);
+    }
+
+    @Test
+    void everySubscriptionDeposits() {
+        settings.setRetryBudgetRatio(0.5);
+        settings.setRetryBudgetMin(0);
+
+        Mono<String> call = policy.apply(SERVICE,
+                client.get().uri("http://localhost:" + fast.port() + "/call").retrieve().bodyToMono(String.class));
+        assertThat(policy.budget(SERVICE).available()).isZero();
+        call.block();
+        call.block();
+        assertThat(policy.budget(SERVICE).available()).isEqualTo(1.0);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        settings.setMaxRetries(2);
+
+        assertThatThrownBy(() -> call(fast, "/missing")).isInstanceOf(WebClientResponseException.NotFound.class);
+        assertThat(policy.budget(SERVICE).available()).isEqualTo(5.1);
+    }
+
+    private StubServer stub(String name, Duration latency, double failureRate) {
+        HarnessProperties.Stub stubSettings = new HarnessProperties.Stub();
+        stubSettings.setLatency(latency);
+        stubSettings.setFailureRate(failureRate);
+        StubServer stub = new StubServer(name, stubSettings, 42, meterRegistry);
+        stub.start(routes -> routes.get("/call", (request, response) ->
+                stub.serve(request, response, body -> response.sendString(Mono.just(name)).then())));
+        return stub;
+    }
+
+    private static long calls(StubServer stub) {
+        return stub.calls("ok") + stub.calls("failed") + stub.calls("hung");
+    }
+
+    private String call(StubServer stub) {
+        return call(stub, "/call");
+    }
+
+    private String call(StubServer stub, String path) {
+        String uri = "http://localhost:" + stub.port() + path;
+        return policy.apply(SERVICE, client.get().uri(uri).retrieve().bodyToMono(String.class)).block();
+    }
+}
@@ -0,0 +1,18 @@
+package com.uday.parkinglotservice.harness;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Test harness mode (spring.profiles.active=harness): the whole entry/exit
+ * saga in one process, against an embedded database and in-process stubs for
+ * the downstream services whose latency and failures are seeded, so a run can
+ * be repeated exactly. Test scope only, never in the service jar: started
+ * from the test classpath by scripts/saga-harness-benchmark.sh.
+ */
+@Configuration
+@Profile("harness")
+@EnableConfigurationProperties(HarnessProperties.class)
+public class HarnessConfig {
+}
@@ -0,0 +1,55 @@
+package com.uday.parkinglotservice.harness;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Stub settings and call counts; PUT changes a stub's latency or failures mid-run (fault injection)
+@RestController
+@Profile("harness")
+@RequestMapping("/harness/stubs")
+public class HarnessController {
+
+    private final HarnessStubs stubs;
+
+    public HarnessController(HarnessStubs stubs) {
+        this.stubs = stubs;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list() {
+        return stubs.stubs().stream().map(HarnessController::view).toList();
+    }
+
+    @PutMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> reconfigure(@PathVariable String name,
+                                                           @RequestBody HarnessProperties.Stub settings) {
+        StubServer stub = stubs.stub(name);
+        if (stub == null) {
+            return ResponseEntity.notFound().build();
+        }
+        stub.reconfigure(settings);
+        System.out.println("Harness stub " + name + " → " + settings.getDistribution() + " " + settings.getLatency()
+                + ", failures " + settings.getFailureRate() + ", hangs " + settings.getHangRate());
+        return ResponseEntity.ok(view(stub));
+    }
+
+    private static Map<String, Object> view(StubServer stub) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("name", stub.name());
+        view.put("settings", stub.settings());
+        view.put("ok", stub.calls("ok"));
+        view.put("failed", stub.calls("failed"));
+        view.put("hung", stub.calls("hung"));
+        return view;
+    }
+}
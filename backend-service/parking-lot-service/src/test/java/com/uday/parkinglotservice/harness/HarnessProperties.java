@@ -0,0 +1,51 @@
+package com.uday.parkinglotservice.harness;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "harness")
+public class HarnessProperties {
+
+    // seeds every stub's draws: a request gets the same latency and failure on every run
+    private long seed = 42;
+
+    // created in the embedded DB on startup
+    private int levels = 4;
+    private int spotsPerLevel = 200;
+    private int disabledPerLevel = 10;
+
+    // keyed by downstream name: vehicle, ticketing, payment
+    private Map<String, Stub> stubs = new LinkedHashMap<>();
+
+    public enum Distribution { FIXED, UNIFORM, NORMAL, LOGNORMAL }
+
+    @Getter
+    @Setter
+    public static class Stub {
+
+        // registered in the static discovery client under the service's Eureka id
+        private int port;
+
+        // FIXED: always latency; UNIFORM: latency +- spread; NORMAL: mean latency,
+        // standard deviation spread; LOGNORMAL: median latency with shape sigma (long tail)
+        private Distribution distribution = Distribution.FIXED;
+        private Duration latency = Duration.ofMillis(5);
+        private Duration spread = Duration.ZERO;
+        private double sigma = 0.5;
+
+        // share of calls answered with failureStatus after the latency
+        private double failureRate = 0;
+        private int failureStatus = 503;
+
+        // share of calls held for hang before answering, to trip client timeouts
+        private double hangRate = 0;
+        private Duration hang = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,47 @@
+package com.uday.parkinglotservice.harness;
+
+import com.uday.parkinglotservice.Entity.ParkingLevel;
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.Repository.ParkingLevelRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Creates the configured levels in the empty embedded DB, through the service so counters and bitmap follow
+@Component
+@Profile("harness")
+public class HarnessSeeder {
+
+    private final HarnessProperties properties;
+    private final ParkingLotService service;
+    private final ParkingLevelRepository levelRepo;
+
+    public HarnessSeeder(HarnessProperties properties, ParkingLotService service, ParkingLevelRepository levelRepo) {
+        this.properties = properties;
+        this.service = service;
+        this.levelRepo = levelRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (levelRepo.count() > 0) {
+            return;
+        }
+        for (int l = 1; l <= properties.getLevels(); l++) {
+            ParkingLevel level = new ParkingLevel();
+            level.setLevelNumber("H" + l);
+            level.setLotId(1L);
+            for (int s = 0; s < properties.getSpotsPerLevel(); s++) {
+                ParkingSpot spot = new ParkingSpot();
+                spot.setSpotType("CAR");
+                spot.setDisabled(s < properties.getDisabledPerLevel());
+                level.getSpots().add(spot);
+            }
+            service.addLevel(level);
+        }
+        System.out.println("Harness seeded " + properties.getLevels() + " levels of "
+                + properties.getSpotsPerLevel() + " spots");
+    }
+}
@@ -0,0 +1,194 @@
+package com.uday.parkinglotservice.harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.uday.parkinglotservice.DTO.PaymentRequest;
+import com.uday.parkinglotservice.DTO.PaymentResponse;
+import com.uday.parkinglotservice.DTO.TicketDetails;
+import com.uday.parkinglotservice.DTO.VehicleRequest;
+import com.uday.parkinglotservice.DTO.VehicleResponse;
+import com.uday.parkinglotservice.client.DownstreamClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for VEHICLE-SERVICE, TICKETING-SERVICE and PAYMENT-SERVICE,
+ * answering the calls the entry/exit saga makes (plus /actuator/health for
+ * the load balancer's health checks) in JSON or Smile, like the real ones.
+ * Vehicles and tickets are kept in memory, so an entry followed by an exit
+ * behaves as it does against the real services.
+ */
+@Component
+@Profile("harness")
+public class HarnessStubs {
+
+    private static final Object NO_BODY = new Object();
+    private static final String HEALTH = "{\"status\":\"UP\"}";
+
+    private final HarnessProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper json;
+    private final ObjectMapper smile;
+
+    private final Map<String, StubServer> stubs = new LinkedHashMap<>();
+    private final Map<String, VehicleResponse> vehicles = new ConcurrentHashMap<>();
+    private final Map<Long, TicketDetails> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong vehicleIds = new AtomicLong();
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    public HarnessStubs(HarnessProperties properties,
+                        MeterRegistry meterRegistry,
+                        Jackson2ObjectMapperBuilder mapperBuilder) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.json = mapperBuilder.build();
+        this.smile = mapperBuilder.factory(new SmileFactory()).build();
+    }
+
+    @PostConstruct
+    public void start() {
+        StubServer vehicle = stub(DownstreamClients.VEHICLE, 1);
+        vehicle.start(routes -> routes
+                .get("/actuator/health", this::health)
+                .post("/vehicle/save", (request, response) -> reply(vehicle, request, response, body -> {
+                    VehicleRequest in = read(request, body, VehicleRequest.class);
+                    return vehicles.computeIfAbsent(in.getLicensePlate(), plate -> new VehicleResponse(
+                            vehicleIds.incrementAndGet(), plate, in.getType(), in.isDisabled()));
+                })));
+
+        StubServer ticketing = stub(DownstreamClients.TICKETING, 2);
+        ticketing.start(routes -> routes
+                .get("/actuator/health", this::health)
+                .post("/ticketing/create", (request, response) -> reply(ticketing, request, response, body -> {
+                    Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+                    String entryTime = param(params, "entryTime");
+                    String ticketId = param(params, "ticketId");
+                    TicketDetails ticket = new TicketDetails(
+                            ticketId != null ? Long.valueOf(ticketId) : ticketIds.incrementAndGet(),
+                            param(params, "vehicleNumber"),
+                            Long.valueOf(param(params, "spotId")),
+                            entryTime != null ? LocalDateTime.parse(entryTime) : LocalDateTime.now(),
+                            null);
+                    tickets.put(ticket.getId(), ticket);
+                    return ticket;
+                }))
+                .get("/ticketing/{id}", (request, response) -> reply(ticketing, request, response,
+                        body -> tickets.get(Long.valueOf(request.param("id")))))
+                .put("/ticketing/exit/{id}", (request, response) -> reply(ticketing, request, response, body -> {
+                    TicketDetails ticket = tickets.get(Long.valueOf(request.param("id")));
+                    if (ticket == null) {
+                        return null;
+                    }
+                    ticket.setExitTime(LocalDateTime.now());
+                    return NO_BODY;
+                })));
+
+        StubServer payment = stub(DownstreamClients.PAYMENT, 3);
+        payment.start(routes -> routes
+                .get("/actuator/health", this::health)
+                .post("/payments/create", (request, response) -> reply(payment, request, response, body -> {
+                    read(request, body, PaymentRequest.class);
+                    return new PaymentResponse("SUCCESS", null);
+                }))
+                .post("/payments/intents", (request, response) -> reply(payment, request, response, body -> {
+                    PaymentRequest in = read(request, body, PaymentRequest.class);
+                    return new PaymentResponse("PENDING", "stub-" + in.getTicketId());
+                })));
+    }
+
+    Collection<StubServer> stubs() {
+        return stubs.values();
+    }
+
+    StubServer stub(String name) {
+        return stubs.get(name);
+    }
+
+    private StubServer stub(String name, int index) {
+        HarnessProperties.Stub settings = properties.getStubs().get(name);
+        if (settings == null) {
+            throw new IllegalStateException("No harness stub configured for " + name);
+        }
+        // each stub has its own seed, so the same request to two stubs draws differently
+        StubServer stub = new StubServer(name, settings, properties.getSeed() * 31 + index, meterRegistry);
+        stubs.put(name, stub);
+        return stub;
+    }
+
+    private Mono<Void> health(HttpServerRequest request, HttpServerResponse response) {
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .sendString(Mono.just(HEALTH))
+                .then();
+    }
+
+    // Waits out the drawn latency, then fails or answers with the handler's result (null: 404)
+    private Mono<Void> reply(StubServer stub, HttpServerRequest request, HttpServerResponse response,
+                             Function<byte[], Object> handler) {
+        return stub.serve(request, response, body -> {
+            Object result = handler.apply(body);
+            if (result == null) {
+                return response.status(404).send().then();
+            }
+            if (result == NO_BODY) {
+                return response.send().then();
+            }
+            return write(request, response, result);
+        });
+    }
+
+    private <T> T read(HttpServerRequest request, byte[] body, Class<T> type) {
+        String contentType = request.requestHeaders().get(HttpHeaders.CONTENT_TYPE, "");
+        ObjectMapper mapper = contentType.startsWith(DownstreamClients.SMILE.toString()) ? smile : json;
+        try {
+            return mapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Smile when the caller accepts it, as the real services negotiate
+    private Mono<Void> write(HttpServerRequest request, HttpServerResponse response, Object value) {
+        String accept = request.requestHeaders().get(HttpHeaders.ACCEPT, "");
+        boolean binary = accept.contains(DownstreamClients.SMILE.toString());
+        try {
+            byte[] bytes = (binary ? smile : json).writeValueAsBytes(value);
+            return response.header(HttpHeaders.CONTENT_TYPE,
+                            binary ? DownstreamClients.SMILE.toString() : MediaType.APPLICATION_JSON_VALUE)
+                    .sendByteArray(Mono.just(bytes))
+                    .then();
+        } catch (IOException e) {
+            return Mono.error(new UncheckedIOException(e));
+        }
+    }
+
+    private static String param(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() || values.get(0).isEmpty() ? null : values.get(0);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stubs.values().forEach(StubServer::stop);
+    }
+}
@@ -0,0 +1,162 @@
+package com.uday.parkinglotservice.harness;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * One in-process stand-in for a downstream service: a Reactor Netty server
+ * whose latency and failures are drawn per request. The draw is seeded from
+ * the stub's seed, the request (method, URI and body) and how often that
+ * request was seen before, not from arrival order, so a request gets the
+ * same outcome on every run however concurrent calls interleave, and a
+ * retry of it draws afresh. Settings only decide what a draw means, so
+ * changing them mid-run does not shift later draws.
+ *
+ * What is reproduced is each request's outcome. Under concurrency the
+ * requests themselves can differ between runs (spots and ticket ids are
+ * handed out in arrival order), so a concurrent run reproduces the
+ * latency and failure statistics, not the exact trace.
+ *
+ * Delays are timers, not sleeping threads, so a slow stub costs nothing
+ * while it waits.
+ */
+class StubServer {
+
+    private static final byte[] NO_REQUEST_BODY = new byte[0];
+
+    // status 0: answer normally after the delay
+    record Outcome(Duration delay, int status) {
+    }
+
+    private final String name;
+    private final long seed;
+    private final Counter ok;
+    private final Counter failed;
+    private final Counter hung;
+
+    // request hash -> times seen
+    private final Map<Long, AtomicLong> occurrences = new ConcurrentHashMap<>();
+
+    private volatile HarnessProperties.Stub settings;
+    private DisposableServer server;
+
+    StubServer(String name, HarnessProperties.Stub settings, long seed, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.seed = seed;
+        this.ok = meterRegistry.counter("harness.stub.calls", "stub", name, "outcome", "ok");
+        this.failed = meterRegistry.counter("harness.stub.calls", "stub", name, "outcome", "failed");
+        this.hung = meterRegistry.counter("harness.stub.calls", "stub", name, "outcome", "hung");
+    }
+
+    void start(Consumer<HttpServerRoutes> routes) {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(settings.getPort())
+                .route(routes)
+                .bindNow();
+        System.out.println("Harness stub " + name + " listening on " + server.port());
+    }
+
+    // New latency and failure settings take effect for the next call
+    void reconfigure(HarnessProperties.Stub next) {
+        next.setPort(settings.getPort());
+        settings = next;
+    }
+
+    /**
+     * Reads the request body, waits out the drawn latency, then fails with
+     * the drawn status or hands the body to answer.
+     */
+    Mono<Void> serve(HttpServerRequest request, HttpServerResponse response, Function<byte[], Mono<Void>> answer) {
+        return request.receive().aggregate().asByteArray()
+                .defaultIfEmpty(NO_REQUEST_BODY)
+                .flatMap(body -> {
+                    Outcome outcome = next(request.method() + " " + request.uri(), body);
+                    return Mono.delay(outcome.delay()).then(Mono.defer(() -> outcome.status() != 0
+                            ? response.status(outcome.status()).send().then()
+                            : answer.apply(body)));
+                });
+    }
+
+    Outcome next(String request, byte[] body) {
+        HarnessProperties.Stub current = settings;
+        long hash = hash(request.getBytes(StandardCharsets.UTF_8), hash(body, 0xcbf29ce484222325L));
+        long seen = occurrences.computeIfAbsent(hash, h -> new AtomicLong()).getAndIncrement();
+        RandomGenerator draw = new SplittableRandom((seed * 31 + hash) * 31 + seen);
+        double roll = draw.nextDouble();
+        if (roll < current.getHangRate()) {
+            hung.increment();
+            return new Outcome(current.getHang(), 0);
+        }
+        Duration delay = latency(current, draw);
+        if (roll < current.getHangRate() + current.getFailureRate()) {
+            failed.increment();
+            return new Outcome(delay, current.getFailureStatus());
+        }
+        ok.increment();
+        return new Outcome(delay, 0);
+    }
+
+    private static Duration latency(HarnessProperties.Stub stub, RandomGenerator draw) {
+        double median = stub.getLatency().toNanos();
+        double spread = stub.getSpread().toNanos();
+        double nanos = switch (stub.getDistribution()) {
+            case FIXED -> median;
+            case UNIFORM -> median + (draw.nextDouble() * 2 - 1) * spread;
+            case NORMAL -> median + draw.nextGaussian() * spread;
+            case LOGNORMAL -> median * Math.exp(stub.getSigma() * draw.nextGaussian());
+        };
+        return Duration.ofNanos((long) Math.max(0, nanos));
+    }
+
+    // FNV-1a, continuing from h
+    private static long hash(byte[] bytes, long h) {
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    String name() {
+        return name;
+    }
+
+    int port() {
+        return server.port();
+    }
+
+    HarnessProperties.Stub settings() {
+        return settings;
+    }
+
+    long calls(String outcome) {
+        return (long) switch (outcome) {
+            case "failed" -> failed.count();
+            case "hung" -> hung.count();
+            default -> ok.count();
+        };
+    }
+
+    void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+}
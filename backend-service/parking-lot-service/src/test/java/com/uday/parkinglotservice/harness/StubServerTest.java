@@ -0,0 +1,96 @@
+package com.uday.parkinglotservice.harness;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What a stub draws for a request depends on the seed, the request and how
+ * often it was seen, not on the order requests arrive in.
+ */
+class StubServerTest {
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    @Test
+    void aRequestDrawsTheSameWhateverTheArrivalOrder() {
+        StubServer inOrder = stub(42);
+        StubServer reversed = stub(42);
+        List<String> requests = IntStream.range(0, 50).mapToObj(i -> "POST /vehicle/save?plate=KA" + i).toList();
+
+        List<StubServer.Outcome> first = new ArrayList<>();
+        requests.forEach(request -> first.add(inOrder.next(request, NO_BODY)));
+        List<StubServer.Outcome> second = new ArrayList<>();
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            second.add(0, reversed.next(requests.get(i), NO_BODY));
+        }
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void theBodyAndRepeatsOfARequestDrawAfresh() {
+        StubServer stub = stub(42);
+        List<StubServer.Outcome> outcomes = List.of(
+                stub.next("POST /payments/create", body("{\"ticketId\":1}")),
+                stub.next("POST /payments/create", body("{\"ticketId\":2}")),
+                stub.next("POST /payments/create", body("{\"ticketId\":1}")));
+
+        assertThat(outcomes).doesNotHaveDuplicates();
+        assertThat(stub(42).next("POST /payments/create", body("{\"ticketId\":1}"))).isEqualTo(outcomes.get(0));
+        assertThat(stub(7).next("POST /payments/create", body("{\"ticketId\":1}"))).isNotEqualTo(outcomes.get(0));
+    }
+
+    @Test
+    void newSettingsDoNotShiftLaterDraws() {
+        StubServer unchanged = stub(42);
+        StubServer reconfigured = stub(42);
+        unchanged.next("GET /ticketing/1", NO_BODY);
+        reconfigured.next("GET /ticketing/1", NO_BODY);
+
+        HarnessProperties.Stub failing = settings();
+        failing.setFailureRate(1);
+        reconfigured.reconfigure(failing);
+        assertThat(reconfigured.next("GET /ticketing/2", NO_BODY).status()).isEqualTo(503);
+        reconfigured.reconfigure(settings());
+
+        unchanged.next("GET /ticketing/2", NO_BODY);
+        assertThat(reconfigured.next("GET /ticketing/3", NO_BODY)).isEqualTo(unchanged.next("GET /ticketing/3", NO_BODY));
+    }
+
+    @Test
+    void failuresComeAtTheConfiguredRate() {
+        HarnessProperties.Stub settings = settings();
+        settings.setFailureRate(0.2);
+        StubServer stub = new StubServer("stub", settings, 42, new SimpleMeterRegistry());
+
+        long failed = IntStream.range(0, 10_000)
+                .filter(i -> stub.next("GET /ticketing/" + i, NO_BODY).status() != 0)
+                .count();
+
+        assertThat(failed).isBetween(1_800L, 2_200L);
+        assertThat(stub.calls("failed")).isEqualTo(failed);
+    }
+
+    private static StubServer stub(long seed) {
+        return new StubServer("stub", settings(), seed, new SimpleMeterRegistry());
+    }
+
+    private static HarnessProperties.Stub settings() {
+        HarnessProperties.Stub settings = new HarnessProperties.Stub();
+        settings.setDistribution(HarnessProperties.Distribution.LOGNORMAL);
+        settings.setLatency(Duration.ofMillis(10));
+        return settings;
+    }
+
+    private static byte[] body(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
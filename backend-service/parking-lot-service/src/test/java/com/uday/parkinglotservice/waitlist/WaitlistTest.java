@@ -0,0 +1,263 @@
+package com.uday.parkinglotservice.waitlist;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Joins, releases (claimNext), cancels and timeouts on one level class,
+ * from many threads at once.
+ */
+class WaitlistTest {
+
+    private static final long LEVEL = 1;
+    private static final int THREADS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newFixedThreadPool(THREADS * 2);
+    private Waitlist waitlist;
+
+    @AfterEach
+    void stop() {
+        pool.shutdownNow();
+        if (waitlist != null) {
+            waitlist.stop();
+        }
+    }
+
+    @Test
+    void servesFirstComeFirstServedAndSkipsCancelled() {
+        waitlist = waitlist(Duration.ofMinutes(1), Duration.ofHours(1));
+        Waiter first = waitlist.join(LEVEL, false, "A");
+        Waiter second = waitlist.join(LEVEL, false, "B");
+        Waiter third = waitlist.join(LEVEL, false, "C");
+        // the other class is a queue of its own
+        Waiter disabled = waitlist.join(LEVEL, true, "D");
+
+        waitlist.cancel(second.getId());
+
+        assertThat(waitlist.view(third).position()).isEqualTo(2);
+        assertThat(waitlist.claimNext(LEVEL, false)).isSameAs(first);
+        assertThat(waitlist.claimNext(LEVEL, false)).isSameAs(third);
+        assertThat(waitlist.claimNext(LEVEL, false)).isNull();
+        assertThat(waitlist.claimNext(LEVEL, true)).isSameAs(disabled);
+        assertThat(waitlist.hasWaiters(LEVEL, false)).isFalse();
+    }
+
+    @Test
+    void joiningAgainKeepsThePlace() {
+        waitlist = waitlist(Duration.ofMinutes(1), Duration.ofHours(1));
+        Waiter first = waitlist.join(LEVEL, false, "A");
+        waitlist.join(LEVEL, false, "B");
+
+        assertThat(waitlist.join(LEVEL, false, "A")).isSameAs(first);
+        assertThat(waitlist.waiting(LEVEL, false)).isEqualTo(2);
+        assertThat(waitlist.claimNext(LEVEL, false)).isSameAs(first);
+    }
+
+    @Test
+    void failedHandOffIsCountedAndEndsTheWaiter() {
+        waitlist = waitlist(Duration.ofMinutes(1), Duration.ofHours(1));
+        waitlist.join(LEVEL, false, "A");
+        Waiter claimed = waitlist.claimNext(LEVEL, false);
+
+        waitlist.failed(claimed, "ticketing unavailable");
+
+        assertThat(claimed.getStatus()).isEqualTo(Waiter.Status.FAILED);
+        assertThat(waitlist.view(claimed).detail()).isEqualTo("ticketing unavailable");
+        assertThat(meterRegistry.counter("parking.waitlist.handoff-failures").count()).isEqualTo(1);
+        // the vehicle may queue again
+        assertThat(waitlist.join(LEVEL, false, "A")).isNotSameAs(claimed);
+    }
+
+    @Test
+    void concurrentJoinsAndReleasesHandEachWaiterOutOnceInOrder() throws Exception {
+        waitlist = waitlist(Duration.ofMinutes(1), Duration.ofHours(1));
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean joining = new AtomicBoolean(true);
+
+        List<Callable<List<Waiter>>> joiners = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String prefix = "T" + t + "-";
+            joiners.add(() -> {
+                start.await();
+                List<Waiter> joined = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    joined.add(waitlist.join(LEVEL, false, prefix + i));
+                }
+                return joined;
+            });
+        }
+        List<Future<List<Waiter>>> claimers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            claimers.add(pool.submit(() -> {
+                start.await();
+                List<Waiter> claimed = new ArrayList<>();
+                while (joining.get() || waitlist.hasWaiters(LEVEL, false)) {
+                    Waiter waiter = waitlist.claimNext(LEVEL, false);
+                    if (waiter != null) {
+                        claimed.add(waiter);
+                    }
+                }
+                return claimed;
+            }));
+        }
+        List<Future<List<Waiter>>> joined = new ArrayList<>();
+        for (Callable<List<Waiter>> joiner : joiners) {
+            joined.add(pool.submit(joiner));
+        }
+        start.countDown();
+        for (Future<List<Waiter>> future : joined) {
+            future.get();
+        }
+        joining.set(false);
+
+        // within one claimer's list, a later claim came off the head later
+        Map<Waiter, Integer> claimCount = new HashMap<>();
+        Map<Waiter, Integer> claimIndex = new HashMap<>();
+        List<List<Waiter>> claimedByThread = new ArrayList<>();
+        for (Future<List<Waiter>> future : claimers) {
+            List<Waiter> claimed = future.get();
+            claimedByThread.add(claimed);
+            for (int i = 0; i < claimed.size(); i++) {
+                claimCount.merge(claimed.get(i), 1, Integer::sum);
+                claimIndex.put(claimed.get(i), i);
+            }
+        }
+        assertThat(claimCount).hasSize(THREADS * perThread);
+        assertThat(claimCount.values()).containsOnly(1);
+        assertThat(waitlist.waiting(LEVEL, false)).isZero();
+
+        // a vehicle joined after the previous one of its thread, so no claimer got it first
+        for (Future<List<Waiter>> future : joined) {
+            List<Waiter> sequence = future.get();
+            for (List<Waiter> claimed : claimedByThread) {
+                Set<Waiter> mine = new HashSet<>(claimed);
+                int last = -1;
+                for (Waiter waiter : sequence) {
+                    if (mine.contains(waiter)) {
+                        assertThat(claimIndex.get(waiter)).isGreaterThan(last);
+                        last = claimIndex.get(waiter);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void expiredWaitersAreNeverHandedASpot() throws Exception {
+        Duration maxWait = Duration.ofMillis(200);
+        waitlist = waitlist(maxWait, Duration.ofHours(1));
+        List<Waiter> stale = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            stale.add(waitlist.join(LEVEL, false, "OLD" + i));
+        }
+        Thread.sleep(maxWait.toMillis() + 50);
+
+        // fresh vehicles join behind the expired ones while spots are released
+        int fresh = 400;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean joining = new AtomicBoolean(true);
+        List<Future<List<Waiter>>> claimers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            claimers.add(pool.submit(() -> {
+                start.await();
+                List<Waiter> claimed = new ArrayList<>();
+                while (joining.get()) {
+                    Waiter waiter = waitlist.claimNext(LEVEL, false);
+                    if (waiter != null) {
+                        claimed.add(waiter);
+                    }
+                }
+                return claimed;
+            }));
+        }
+        List<Future<?>> joiners = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            joiners.add(pool.submit(() -> {
+                start.await();
+                for (int i = thread; i < fresh; i += THREADS) {
+                    waitlist.join(LEVEL, false, "NEW" + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> joiner : joiners) {
+            joiner.get();
+        }
+        joining.set(false);
+        List<Waiter> claimed = new ArrayList<>();
+        for (Future<List<Waiter>> claimer : claimers) {
+            claimed.addAll(claimer.get());
+        }
+
+        assertThat(claimed).allSatisfy(waiter -> assertThat(waiter.getVehicleNumber()).startsWith("NEW"));
+        assertThat(claimed).doesNotHaveDuplicates();
+        assertThat(stale).allSatisfy(waiter -> assertThat(waiter.getStatus()).isEqualTo(Waiter.Status.EXPIRED));
+        assertThat(waitlist.waiting(LEVEL, false)).isEqualTo(fresh - claimed.size());
+        assertThat(meterRegistry.counter("parking.waitlist.expired").count()).isEqualTo(stale.size());
+    }
+
+    @Test
+    void timeoutRacingCancelEndsEachWaiterOnce() throws Exception {
+        Duration maxWait = Duration.ofMillis(100);
+        waitlist = waitlist(maxWait, Duration.ofMillis(10));
+        waitlist.start();
+        List<Waiter> waiters = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            waiters.add(waitlist.join(LEVEL, false, "V" + i));
+        }
+        List<Waiter> shuffled = new ArrayList<>(waiters);
+        Collections.shuffle(shuffled);
+
+        // cancel them while the sweeper expires them
+        Thread.sleep(maxWait.toMillis() - 20);
+        List<Future<?>> cancels = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            cancels.add(pool.submit(() -> {
+                for (int i = thread; i < shuffled.size(); i += THREADS) {
+                    waitlist.cancel(shuffled.get(i).getId());
+                }
+            }));
+        }
+        for (Future<?> cancel : cancels) {
+            cancel.get();
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (waitlist.waiting(LEVEL, false) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(waitlist.waiting(LEVEL, false)).isZero();
+        assertThat(waiters).allSatisfy(waiter ->
+                assertThat(waiter.getStatus()).isIn(Waiter.Status.CANCELLED, Waiter.Status.EXPIRED));
+        long expired = waiters.stream().filter(waiter -> waiter.getStatus() == Waiter.Status.EXPIRED).count();
+        assertThat(meterRegistry.counter("parking.waitlist.expired").count()).isEqualTo(expired);
+        assertThat(waitlist.claimNext(LEVEL, false)).isNull();
+    }
+
+    private Waitlist waitlist(Duration maxWait, Duration sweepInterval) {
+        return new Waitlist(meterRegistry, 100_000, maxWait, Duration.ofMinutes(5), sweepInterval, 1);
+    }
+}
@@ -1,97 +1,109 @@
 package com.uday.paymentservice.controller;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
+import com.uday.paymentservice.dto.PaymentIntent;
 import com.uday.paymentservice.dto.PaymentRequest;
-import org.json.JSONObject;
+import com.uday.paymentservice.dto.PaymentResult;
+import com.uday.paymentservice.service.PaymentGatewayService;
+import com.uday.paymentservice.service.PaymentLedgerService;
+import com.uday.paymentservice.service.PaymentSettlementService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
 
-    @Autowired(required = false)
-    private RazorpayClient razorpayClient;
+    @Autowired
+    private PaymentGatewayService gatewayService;
 
-    @Value("${payment.mode:MOCK}")
-    private String paymentMode;
+    @Autowired
+    private PaymentSettlementService settlementService;
 
-    @Value("${payment.mock.fail.amount:500}")
-    private int mockFailAmount;
+    @Autowired
+    private PaymentLedgerService ledgerService;
 
+    // A retry with the same ticketId and Idempotency-Key replays a successful charge;
+    // while the first call is still running, or when it asks for another amount, it gets 409
     @PostMapping("/create")
-    public ResponseEntity<?> createPayment(@RequestBody PaymentRequest request) {
+    public ResponseEntity<?> createPayment(
+            @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
         System.out.println("Payment controller");
-        // ---- MOCK MODE ----
-        if ("MOCK".equalsIgnoreCase(paymentMode)) {
-            return handleMockPayment(request);
+        PaymentResult result = ledgerService.execute(
+                request.getTicketId(), idempotencyKey, request.getAmount(), () -> gatewayService.charge(request));
+        if (result.isError()) {
+            return ResponseEntity.status(500).body(result);
         }
-
-        // ---- REAL MODE (Razorpay) ----
-        return handleRealPayment(request);
+        if (result.isPending() || result.isAmountMismatch()) {
+            return ResponseEntity.status(409).body(result);
+        }
+        return ResponseEntity.ok(result);
     }
 
-    // ================= MOCK PAYMENT =================
-    private ResponseEntity<?> handleMockPayment(PaymentRequest request) {
-
-        System.out.println("Mock payment invoked for ticketId="
-                + request.getTicketId()
-                + ", amount=" + request.getAmount());
-
-        if (request.getAmount() > mockFailAmount) {
-            return ResponseEntity.ok(Map.of(
+    // Async mode: returns a PENDING intent at once, settlement happens in batches
+    @PostMapping("/intents")
+    public ResponseEntity<?> createIntent(@RequestBody PaymentRequest request) {
+        if (request.getTicketId() == null) {
+            return ResponseEntity.badRequest().body(Map.of(
                     "status", "FAILED",
-                    "reason", "Mock failure: amount exceeds limit"
+                    "reason", "ticketId is required"
             ));
         }
-
-        return ResponseEntity.ok(Map.of(
-                "status", "SUCCESS",
-                "paymentId", "MOCK_PAY_" + request.getTicketId()
-        ));
+        PaymentIntent intent = settlementService.submit(request);
+        if (intent == null) {
+            return ResponseEntity.status(503).body(Map.of(
+                    "status", "FAILED",
+                    "reason", "Settlement queue is full or the ticket is being settled elsewhere, retry later"
+            ));
+        }
+        return ResponseEntity.accepted().body(intent);
     }
 
-    // ================= REAL PAYMENT =================
-    private ResponseEntity<?> handleRealPayment(PaymentRequest request) {
-        if (razorpayClient == null) {
-            throw new IllegalStateException(
-                    "Payment mode is REAL but RazorpayClient is not configured"
-            );
+    @GetMapping("/intents/{ticketId}")
+    public ResponseEntity<?> getIntent(@PathVariable Long ticketId) {
+        PaymentIntent intent = settlementService.find(ticketId);
+        if (intent == null) {
+            return ResponseEntity.status(404)
+                    .body("No payment intent for ticket: " + ticketId);
         }
+        return ResponseEntity.ok(intent);
+    }
 
-        try {
-            int amount = request.getAmount() * 100; // ₹ → paise
-
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amount);
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", "receipt#" + request.getTicketId());
-
-            Order order = razorpayClient.orders.create(orderRequest);
-
-            return ResponseEntity.ok(Map.of(
-                    "status", "SUCCESS",
-                    "orderId", order.get("id"),
-                    "amount", amount,
-                    "currency", "INR"
-            ));
-
-        } catch (RazorpayException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body(Map.of(
-                    "status", "FAILED",
-                    "error", e.getMessage()
-            ));
-        }
+    // Reconciliation: streams ledger rows as CSV, [from, to) on createdAt
+    @GetMapping("/ledger/export")
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now();
+        StreamingResponseBody body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            ledgerService.exportCsv(start, end, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header("Content-Disposition", "attachment; filename=payment-ledger.csv")
+                .body(body);
     }
 }
-
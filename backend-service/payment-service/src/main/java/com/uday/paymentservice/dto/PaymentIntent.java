@@ -0,0 +1,38 @@
+package com.uday.paymentservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Handed back to the caller immediately; settled later in a batch
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentIntent {
+
+    public enum Status { PENDING, SUCCESS, FAILED }
+
+    private String intentId;
+    private Long ticketId;
+    private String vehicleNumber;
+    private int amount;
+    private volatile Status status = Status.PENDING;
+    private volatile PaymentResult result;
+    private Instant createdAt;
+    private volatile Instant settledAt;
+
+    @JsonIgnore
+    private String callbackUrl;
+
+    @JsonIgnore
+    public PaymentRequest toRequest() {
+        PaymentRequest request = new PaymentRequest();
+        request.setTicketId(ticketId);
+        request.setVehicleNumber(vehicleNumber);
+        request.setAmount(amount);
+        return request;
+    }
+}
@@ -11,4 +11,7 @@ public class PaymentRequest {
     private String vehicleNumber;
     private int amount;
 
+    // async mode only: where the settlement result is POSTed
+    private String callbackUrl;
+
 }
@@ -0,0 +1,84 @@
+package com.uday.paymentservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentResult {
+
+    private String status;
+    private String paymentId;
+    private String orderId;
+    private Integer amount;
+    private String currency;
+    private String reason;
+
+    // provider/transport error rather than a declined payment
+    @JsonIgnore
+    private boolean error;
+
+    public static PaymentResult success(String paymentId) {
+        PaymentResult result = new PaymentResult();
+        result.setStatus("SUCCESS");
+        result.setPaymentId(paymentId);
+        return result;
+    }
+
+    public static PaymentResult failed(String reason) {
+        PaymentResult result = new PaymentResult();
+        result.setStatus("FAILED");
+        result.setReason(reason);
+        return result;
+    }
+
+    public static PaymentResult error(String reason) {
+        PaymentResult result = failed(reason);
+        result.setError(true);
+        return result;
+    }
+
+    // the key is reserved by a charge that has not finished
+    public static PaymentResult pending() {
+        PaymentResult result = new PaymentResult();
+        result.setStatus("PENDING");
+        result.setReason("Payment with this idempotency key is in progress");
+        return result;
+    }
+
+    // the key was used before for another amount; carries the settled charge, if any
+    public static PaymentResult amountMismatch(PaymentResult settled) {
+        PaymentResult result = new PaymentResult();
+        result.setStatus("AMOUNT_MISMATCH");
+        result.setReason("Idempotency key was already used for a different amount");
+        if (settled != null) {
+            result.setPaymentId(settled.getPaymentId());
+            result.setOrderId(settled.getOrderId());
+            result.setAmount(settled.getAmount());
+            result.setCurrency(settled.getCurrency());
+        }
+        return result;
+    }
+
+    @JsonIgnore
+    public boolean isAmountMismatch() {
+        return "AMOUNT_MISMATCH".equals(status);
+    }
+
+    @JsonIgnore
+    public boolean isPending() {
+        return "PENDING".equals(status);
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return "SUCCESS".equals(status);
+    }
+}
@@ -0,0 +1,111 @@
+package com.uday.paymentservice.entity;
+
+import com.uday.paymentservice.dto.PaymentResult;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Append-only: each attempt at a key is a PENDING reservation row written before
+// the provider is called, followed by one outcome row (SUCCESS, FAILED or
+// ABANDONED) with the same attempt number. Rows are never updated or deleted.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "payment_ledger",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_payment_ledger_attempt",
+                columnNames = {"ticket_id", "idempotency_key", "attempt", "status"}
+        ),
+        indexes = @Index(name = "idx_payment_ledger_created_at", columnList = "created_at")
+)
+public class PaymentLedgerEntry {
+
+    public static final String PENDING = "PENDING";
+    public static final String ABANDONED = "ABANDONED";
+
+    // sequence (not IDENTITY) so outcome rows of a settlement batch can be batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_ledger_seq")
+    @SequenceGenerator(name = "payment_ledger_seq", sequenceName = "payment_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // rows from before attempts were numbered count as the first one
+    @Column(nullable = false, columnDefinition = "integer default 1 not null")
+    private int attempt;
+
+    // rupees asked for by the request; a reused key must ask for the same amount
+    @Column(name = "requested_amount")
+    private Integer requestedAmount;
+
+    private String status;
+    private String paymentId;
+    private String orderId;
+    private Integer amount;
+    private String currency;
+    private String reason;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "settled_at")
+    private Instant settledAt;
+
+    public static PaymentLedgerEntry reserve(Long ticketId, String idempotencyKey, int attempt, Integer requestedAmount) {
+        PaymentLedgerEntry entry = new PaymentLedgerEntry();
+        entry.setTicketId(ticketId);
+        entry.setIdempotencyKey(idempotencyKey);
+        entry.setAttempt(attempt);
+        entry.setRequestedAmount(requestedAmount);
+        entry.setStatus(PENDING);
+        entry.setCreatedAt(Instant.now());
+        return entry;
+    }
+
+    // The outcome row closing this reservation
+    public PaymentLedgerEntry outcome(PaymentResult result) {
+        PaymentLedgerEntry entry = new PaymentLedgerEntry();
+        entry.setTicketId(ticketId);
+        entry.setIdempotencyKey(idempotencyKey);
+        entry.setAttempt(attempt);
+        entry.setRequestedAmount(requestedAmount);
+        entry.setStatus(result.getStatus());
+        entry.setPaymentId(result.getPaymentId());
+        entry.setOrderId(result.getOrderId());
+        entry.setAmount(result.getAmount());
+        entry.setCurrency(result.getCurrency());
+        entry.setReason(result.getReason());
+        entry.setCreatedAt(Instant.now());
+        entry.setSettledAt(entry.getCreatedAt());
+        return entry;
+    }
+
+    // Closes a reservation whose owner never recorded an outcome
+    public PaymentLedgerEntry abandoned(String reason) {
+        PaymentLedgerEntry entry = outcome(PaymentResult.failed(reason));
+        entry.setStatus(ABANDONED);
+        return entry;
+    }
+
+    public boolean isPending() {
+        return PENDING.equals(status);
+    }
+
+    public boolean isSuccess() {
+        return "SUCCESS".equals(status);
+    }
+
+    public PaymentResult toResult() {
+        return new PaymentResult(status, paymentId, orderId, amount, currency, reason, false);
+    }
+}
@@ -0,0 +1,32 @@
+package com.uday.paymentservice.repository;
+
+import com.uday.paymentservice.entity.PaymentLedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface PaymentLedgerRepository extends JpaRepository<PaymentLedgerEntry, Long> {
+
+    // Every row of a key, reservations and outcomes of all its attempts
+    List<PaymentLedgerEntry> findByTicketIdAndIdempotencyKey(Long ticketId, String idempotencyKey);
+
+    // Server-side cursor for the reconciliation export; must run inside a transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("""
+   SELECT e FROM PaymentLedgerEntry e
+   WHERE e.createdAt >= :from
+     AND e.createdAt < :to
+   ORDER BY e.id""")
+    Stream<PaymentLedgerEntry> streamBetween(@Param("from") Instant from, @Param("to") Instant to);
+}
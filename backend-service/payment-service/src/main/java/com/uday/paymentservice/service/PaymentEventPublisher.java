@@ -0,0 +1,69 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.dto.PaymentIntent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Tells notification-service about async settlements that failed
+@Service
+public class PaymentEventPublisher {
+
+    private final RestClient notificationClient;
+    private final boolean enabled;
+
+    // bounded, and drops on overflow so settlement never waits on notifications
+    private final ExecutorService sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1000), new ThreadPoolExecutor.DiscardPolicy());
+
+    public PaymentEventPublisher(RestClient.Builder loadBalancedRestClientBuilder,
+                                 @Value("${payment.events.enabled:true}") boolean enabled) {
+        this.notificationClient = loadBalancedRestClientBuilder
+                .baseUrl("http://NOTIFICATION-SERVICE")
+                .build();
+        this.enabled = enabled;
+    }
+
+    @EventListener
+    public void onPaymentSettled(PaymentSettledEvent event) {
+        PaymentIntent intent = event.intent();
+        if (!enabled || intent.getStatus() != PaymentIntent.Status.FAILED) {
+            return;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "PAYMENT_FAILED");
+        payload.put("vehicleNumber", intent.getVehicleNumber());
+        payload.put("ticketId", intent.getTicketId());
+        payload.put("amount", intent.getAmount());
+        payload.put("occurredAt", LocalDateTime.now());
+
+        sender.execute(() -> {
+            try {
+                notificationClient.post()
+                        .uri("/api/notifications/events")
+                        .body(List.of(payload))
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RuntimeException e) {
+                System.out.println("Payment event not delivered → " + e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdown();
+    }
+}
@@ -0,0 +1,135 @@
+package com.uday.paymentservice.service;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.uday.paymentservice.dto.PaymentRequest;
+import com.uday.paymentservice.dto.PaymentResult;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+@Service
+public class PaymentGatewayService {
+
+    @Autowired(required = false)
+    private RazorpayClient razorpayClient;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${payment.mode:MOCK}")
+    private volatile String paymentMode;
+
+    @Value("${payment.mock.fail.amount:500}")
+    private volatile int mockFailAmount;
+
+    private final ExecutorService gatewayPool;
+
+    public PaymentGatewayService(@Value("${payment.async.gateway-concurrency:8}") int gatewayConcurrency) {
+        this.gatewayPool = Executors.newFixedThreadPool(gatewayConcurrency);
+    }
+
+    // Pushed from config-server; payments already running finish with the old values
+    @EventListener
+    public void onRefresh(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith("payment.mode") || key.startsWith("payment.mock."))) {
+            return;
+        }
+        paymentMode = environment.getProperty("payment.mode", "MOCK");
+        mockFailAmount = environment.getProperty("payment.mock.fail.amount", Integer.class, 500);
+        System.out.println("Payment tuning refreshed → mode=" + paymentMode + ", mockFailAmount=" + mockFailAmount);
+    }
+
+    public PaymentResult charge(PaymentRequest request) {
+        // ---- MOCK MODE ----
+        if ("MOCK".equalsIgnoreCase(paymentMode)) {
+            return handleMockPayment(request);
+        }
+
+        // ---- REAL MODE (Razorpay) ----
+        return handleRealPayment(request);
+    }
+
+    // Razorpay has no bulk order API, so a batch fans out over a bounded pool.
+    // MOCK settles inline.
+    public List<PaymentResult> chargeBatch(List<PaymentRequest> requests) {
+        if ("MOCK".equalsIgnoreCase(paymentMode)) {
+            List<PaymentResult> results = new ArrayList<>(requests.size());
+            for (PaymentRequest request : requests) {
+                results.add(handleMockPayment(request));
+            }
+            return results;
+        }
+
+        List<CompletableFuture<PaymentResult>> futures = new ArrayList<>(requests.size());
+        for (PaymentRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> handleRealPayment(request), gatewayPool));
+        }
+        List<PaymentResult> results = new ArrayList<>(requests.size());
+        for (CompletableFuture<PaymentResult> future : futures) {
+            results.add(future.exceptionally(ex -> PaymentResult.error(ex.getMessage())).join());
+        }
+        return results;
+    }
+
+    // ================= MOCK PAYMENT =================
+    private PaymentResult handleMockPayment(PaymentRequest request) {
+
+        System.out.println("Mock payment invoked for ticketId="
+                + request.getTicketId()
+                + ", amount=" + request.getAmount());
+
+        if (request.getAmount() > mockFailAmount) {
+            return PaymentResult.failed("Mock failure: amount exceeds limit");
+        }
+
+        return PaymentResult.success("MOCK_PAY_" + request.getTicketId());
+    }
+
+    // ================= REAL PAYMENT =================
+    private PaymentResult handleRealPayment(PaymentRequest request) {
+        if (razorpayClient == null) {
+            throw new IllegalStateException(
+                    "Payment mode is REAL but RazorpayClient is not configured"
+            );
+        }
+
+        try {
+            int amount = request.getAmount() * 100; // ₹ → paise
+
+            JSONObject orderRequest = new JSONObject();
+            orderRequest.put("amount", amount);
+            orderRequest.put("currency", "INR");
+            orderRequest.put("receipt", "receipt#" + request.getTicketId());
+
+            Order order = razorpayClient.orders.create(orderRequest);
+
+            PaymentResult result = new PaymentResult();
+            result.setStatus("SUCCESS");
+            result.setOrderId(order.get("id"));
+            result.setAmount(amount);
+            result.setCurrency("INR");
+            return result;
+
+        } catch (RazorpayException e) {
+            System.out.println("Razorpay order failed → " + e.getMessage());
+            return PaymentResult.error(e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        gatewayPool.shutdown();
+    }
+}
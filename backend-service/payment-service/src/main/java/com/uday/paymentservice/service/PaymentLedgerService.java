@@ -0,0 +1,353 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.dto.PaymentResult;
+import com.uday.paymentservice.entity.PaymentLedgerEntry;
+import com.uday.paymentservice.repository.PaymentLedgerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Idempotent front for the payment provider, over the append-only
+ * payment_ledger table. Before the provider is called a PENDING reservation
+ * for (ticketId, idempotencyKey, attempt) is inserted, and the unique
+ * constraint lets only one caller across all instances take an attempt. The
+ * outcome is appended as a second row of that attempt; nothing is updated or
+ * deleted, so declines reach the reconciliation export as well.
+ *
+ * A successful charge is replayed to every later call with the same key, from
+ * a hot LRU cache or the ledger. A call that finds the key's last attempt
+ * still PENDING is told the payment is in progress, and a declined or failed
+ * attempt lets the next call with the key start a new one. A reused key that
+ * asks for a different amount than the charge it stands for is rejected
+ * rather than charged.
+ *
+ * A reservation left by a crash during the provider call is closed with an
+ * ABANDONED row once it is older than payment.ledger.pending-timeout, which
+ * must stay well above the provider timeout; the next call then starts a new
+ * attempt instead of getting 409 forever.
+ */
+@Service
+public class PaymentLedgerService {
+
+    public static final String DEFAULT_KEY = "default";
+    public static final String ASYNC_KEY = "async";
+
+    record LedgerKey(Long ticketId, String idempotencyKey) {
+    }
+
+    // calls for another amount must not share the first call's answer
+    private record Call(LedgerKey key, Integer amount) {
+    }
+
+    /**
+     * A key folded from its rows: the successful charge, the reservation of
+     * the last attempt while it has no outcome, and the last attempt number.
+     */
+    private record KeyState(PaymentLedgerEntry settled, PaymentLedgerEntry open, int attempts) {
+
+        // Settled outcome, a pending marker, a mismatch, or null when a new attempt may start
+        PaymentResult answer(Integer amount) {
+            if (settled != null) {
+                return sameAmount(settled, amount) ? settled.toResult() : PaymentResult.amountMismatch(settled.toResult());
+            }
+            if (open != null) {
+                return sameAmount(open, amount) ? PaymentResult.pending() : PaymentResult.amountMismatch(null);
+            }
+            return null;
+        }
+    }
+
+    private final PaymentLedgerRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate writeTx;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration pendingTimeout;
+
+    private final Map<LedgerKey, PaymentLedgerEntry> hot;
+    private final Map<Call, CompletableFuture<PaymentResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter replayed;
+    private final Counter charged;
+    private final Counter inProgress;
+    private final Counter mismatched;
+    private final Counter abandoned;
+
+    public PaymentLedgerService(PaymentLedgerRepository repository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${payment.ledger.cache-size:50000}") int cacheSize,
+                                @Value("${payment.ledger.pending-timeout:10m}") Duration pendingTimeout) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.pendingTimeout = pendingTimeout;
+        this.hot = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LedgerKey, PaymentLedgerEntry> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        this.replayed = meterRegistry.counter("payment.ledger.lookups", "result", "replayed");
+        this.charged = meterRegistry.counter("payment.ledger.lookups", "result", "charged");
+        this.inProgress = meterRegistry.counter("payment.ledger.lookups", "result", "in-progress");
+        this.mismatched = meterRegistry.counter("payment.ledger.lookups", "result", "amount-mismatch");
+        this.abandoned = meterRegistry.counter("payment.ledger.abandoned");
+    }
+
+    public PaymentResult execute(Long ticketId, String idempotencyKey, Integer amount, Supplier<PaymentResult> charge) {
+        if (ticketId == null) {
+            // nothing to key on, cannot be made idempotent
+            return charge.get();
+        }
+        LedgerKey key = new LedgerKey(ticketId, normalize(idempotencyKey));
+
+        PaymentLedgerEntry cached = hot.get(key);
+        if (cached != null) {
+            return answer(new KeyState(cached, null, cached.getAttempt()).answer(amount));
+        }
+
+        Call call = new Call(key, amount);
+        CompletableFuture<PaymentResult> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentResult> other = inFlight.putIfAbsent(call, mine);
+        if (other != null) {
+            replayed.increment();
+            return other.join();
+        }
+
+        try {
+            PaymentResult result;
+            KeyState state = state(key);
+            PaymentResult known = state.answer(amount);
+            PaymentLedgerEntry reservation = known == null ? reserve(key, state.attempts() + 1, amount) : null;
+            if (reservation != null) {
+                charged.increment();
+                result = chargeReserved(reservation, charge);
+            } else if (known != null) {
+                result = answer(known);
+            } else {
+                // another call, possibly on another instance, reserved the attempt first
+                known = state(key).answer(amount);
+                result = answer(known != null ? known : PaymentResult.pending());
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(call, mine);
+        }
+    }
+
+    // Settled outcome, a pending marker, a mismatch, or null when the key is free
+    public PaymentResult find(Long ticketId, String idempotencyKey, Integer amount) {
+        LedgerKey key = new LedgerKey(ticketId, normalize(idempotencyKey));
+        PaymentLedgerEntry cached = hot.get(key);
+        KeyState state = cached != null ? new KeyState(cached, null, cached.getAttempt()) : state(key);
+        return state.answer(amount);
+    }
+
+    /**
+     * Inserts the PENDING reservation for a charge made outside
+     * {@link #execute}, e.g. by async settlement.
+     *
+     * @return false when the key is already reserved or settled
+     */
+    public boolean reserve(Long ticketId, String idempotencyKey, Integer amount) {
+        LedgerKey key = new LedgerKey(ticketId, normalize(idempotencyKey));
+        if (hot.containsKey(key)) {
+            return false;
+        }
+        KeyState state = state(key);
+        return state.answer(amount) == null && reserve(key, state.attempts() + 1, amount) != null;
+    }
+
+    // Appends the outcome rows of a settled batch in one transaction
+    public void completeAll(String idempotencyKey, Map<Long, PaymentResult> results) {
+        String normalized = normalize(idempotencyKey);
+        List<PaymentLedgerEntry> outcomes = new ArrayList<>(results.size());
+        writeTx.executeWithoutResult(status -> {
+            results.forEach((ticketId, result) -> {
+                LedgerKey key = new LedgerKey(ticketId, normalized);
+                PaymentLedgerEntry reservation = lastReservation(repository.findByTicketIdAndIdempotencyKey(ticketId, normalized));
+                if (reservation == null) {
+                    System.out.println("No ledger reservation for ticketId=" + ticketId + ", key=" + normalized);
+                    return;
+                }
+                outcomes.add(reservation.outcome(result));
+            });
+            repository.saveAll(outcomes);
+        });
+        outcomes.forEach(this::remember);
+    }
+
+    private PaymentResult chargeReserved(PaymentLedgerEntry reservation, Supplier<PaymentResult> charge) {
+        PaymentResult result;
+        try {
+            result = charge.get();
+        } catch (RuntimeException e) {
+            writeTx.executeWithoutResult(status ->
+                    repository.save(reservation.outcome(PaymentResult.error(e.getMessage()))));
+            throw e;
+        }
+        PaymentLedgerEntry outcome = reservation.outcome(result);
+        writeTx.executeWithoutResult(status -> repository.save(outcome));
+        remember(outcome);
+        return result;
+    }
+
+    // The new reservation, or null when another call took this attempt first
+    private PaymentLedgerEntry reserve(LedgerKey key, int attempt, Integer amount) {
+        PaymentLedgerEntry reservation = PaymentLedgerEntry.reserve(key.ticketId(), key.idempotencyKey(), attempt, amount);
+        try {
+            writeTx.executeWithoutResult(status -> repository.saveAndFlush(reservation));
+            return reservation;
+        } catch (DataIntegrityViolationException duplicate) {
+            return null;
+        }
+    }
+
+    private void remember(PaymentLedgerEntry outcome) {
+        if (outcome.isSuccess()) {
+            hot.putIfAbsent(new LedgerKey(outcome.getTicketId(), outcome.getIdempotencyKey()), outcome);
+        }
+    }
+
+    private PaymentResult answer(PaymentResult known) {
+        if (known.isAmountMismatch()) {
+            mismatched.increment();
+        } else {
+            (known.isPending() ? inProgress : replayed).increment();
+        }
+        return known;
+    }
+
+    // Reads the key's rows, closing a reservation that outlived pending-timeout
+    private KeyState state(LedgerKey key) {
+        List<PaymentLedgerEntry> rows = repository.findByTicketIdAndIdempotencyKey(key.ticketId(), key.idempotencyKey());
+        PaymentLedgerEntry settled = null;
+        int attempts = 0;
+        for (PaymentLedgerEntry row : rows) {
+            attempts = Math.max(attempts, row.getAttempt());
+            if (row.isSuccess()) {
+                // a late success of an abandoned attempt still counts
+                settled = row;
+            }
+        }
+        if (settled != null) {
+            hot.putIfAbsent(key, settled);
+            return new KeyState(settled, null, attempts);
+        }
+
+        int last = attempts;
+        boolean closed = rows.stream().anyMatch(row -> row.getAttempt() == last && !row.isPending());
+        PaymentLedgerEntry open = closed ? null : lastReservation(rows);
+        if (open != null && open.getCreatedAt().isBefore(Instant.now().minus(pendingTimeout))) {
+            abandon(open);
+            open = null;
+        }
+        return new KeyState(null, open, attempts);
+    }
+
+    private void abandon(PaymentLedgerEntry reservation) {
+        try {
+            writeTx.executeWithoutResult(status -> repository.saveAndFlush(
+                    reservation.abandoned("No outcome recorded within " + pendingTimeout)));
+            abandoned.increment();
+            System.out.println("Abandoned stale payment reservation ticketId=" + reservation.getTicketId()
+                    + ", key=" + reservation.getIdempotencyKey() + ", attempt=" + reservation.getAttempt());
+        } catch (DataIntegrityViolationException duplicate) {
+            // closed by another instance first
+        }
+    }
+
+    private static PaymentLedgerEntry lastReservation(List<PaymentLedgerEntry> rows) {
+        return rows.stream()
+                .filter(PaymentLedgerEntry::isPending)
+                .max(Comparator.comparingInt(PaymentLedgerEntry::getAttempt))
+                .orElse(null);
+    }
+
+    private static boolean sameAmount(PaymentLedgerEntry entry, Integer amount) {
+        // rows written before amounts were recorded match any amount
+        return entry.getRequestedAmount() == null || Objects.equals(entry.getRequestedAmount(), amount);
+    }
+
+    // ================= RECONCILIATION =================
+    public void exportCsv(Instant from, Instant to, Writer out) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<PaymentLedgerEntry> rows = repository.streamBetween(from, to)) {
+                out.write("id,ticketId,idempotencyKey,attempt,requestedAmount,status,paymentId,orderId,amount,currency,reason,createdAt,settledAt\n");
+                rows.forEach(entry -> {
+                    writeRow(entry, out);
+                    // keep the persistence context flat while streaming
+                    entityManager.detach(entry);
+                });
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeRow(PaymentLedgerEntry entry, Writer out) {
+        try {
+            out.write(entry.getId() + ","
+                    + entry.getTicketId() + ","
+                    + csv(entry.getIdempotencyKey()) + ","
+                    + entry.getAttempt() + ","
+                    + (entry.getRequestedAmount() == null ? "" : entry.getRequestedAmount()) + ","
+                    + csv(entry.getStatus()) + ","
+                    + csv(entry.getPaymentId()) + ","
+                    + csv(entry.getOrderId()) + ","
+                    + (entry.getAmount() == null ? "" : entry.getAmount()) + ","
+                    + csv(entry.getCurrency()) + ","
+                    + csv(entry.getReason()) + ","
+                    + entry.getCreatedAt() + ","
+                    + (entry.getSettledAt() == null ? "" : entry.getSettledAt()) + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String normalize(String idempotencyKey) {
+        return idempotencyKey == null || idempotencyKey.isBlank() ? DEFAULT_KEY : idempotencyKey.trim();
+    }
+}
@@ -0,0 +1,7 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.dto.PaymentIntent;
+
+// Published in-process once an async intent has been settled
+public record PaymentSettledEvent(PaymentIntent intent) {
+}
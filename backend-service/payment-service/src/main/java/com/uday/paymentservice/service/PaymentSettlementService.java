@@ -0,0 +1,263 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.dto.PaymentIntent;
+import com.uday.paymentservice.dto.PaymentRequest;
+import com.uday.paymentservice.dto.PaymentResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async payment mode. {@link #submit} hands back a PENDING intent straight
+ * away; a dispatcher thread drains the bounded queue in batches, settles them
+ * through {@link PaymentGatewayService} and delivers the outcome by callback
+ * and as a {@link PaymentSettledEvent}.
+ *
+ * Intents are idempotent on ticketId: re-submitting returns the existing one,
+ * unless it was declined. A PENDING ledger reservation is taken before an
+ * intent is queued, so two instances never settle the same ticket; one left
+ * by a crash is abandoned by the ledger after payment.ledger.pending-timeout.
+ */
+@Service
+public class PaymentSettlementService {
+
+    private final PaymentGatewayService gateway;
+    private final PaymentLedgerService ledger;
+    private final ApplicationEventPublisher events;
+    private final RestClient callbackClient = RestClient.create();
+
+    private final Map<Long, PaymentIntent> intents = new ConcurrentHashMap<>();
+    private final BlockingQueue<PaymentIntent> queue;
+    private final ExecutorService callbackPool = Executors.newFixedThreadPool(2);
+
+    private final int batchSize;
+    private final Duration batchWait;
+    private final Duration retention;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter settledOk;
+    private final Counter settledFailed;
+    private final DistributionSummary batchSizes;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+    private long lastEviction = System.nanoTime();
+
+    public PaymentSettlementService(PaymentGatewayService gateway,
+                                    PaymentLedgerService ledger,
+                                    ApplicationEventPublisher events,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${payment.async.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${payment.async.batch-size:100}") int batchSize,
+                                    @Value("${payment.async.batch-wait:200ms}") Duration batchWait,
+                                    @Value("${payment.async.retention:1h}") Duration retention) {
+        this.gateway = gateway;
+        this.ledger = ledger;
+        this.events = events;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.batchWait = batchWait;
+        this.retention = retention;
+
+        this.accepted = meterRegistry.counter("payment.intents.accepted");
+        this.rejected = meterRegistry.counter("payment.intents.rejected");
+        this.settledOk = meterRegistry.counter("payment.intents.settled", "status", "SUCCESS");
+        this.settledFailed = meterRegistry.counter("payment.intents.settled", "status", "FAILED");
+        this.batchSizes = DistributionSummary.builder("payment.settlement.batch.size").register(meterRegistry);
+        this.batchTimer = Timer.builder("payment.settlement.batch").register(meterRegistry);
+        Gauge.builder("payment.intents.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "payment-settlement");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * @return the intent for this ticket, or null when the queue is full
+     */
+    public PaymentIntent submit(PaymentRequest request) {
+        PaymentIntent fresh = new PaymentIntent();
+        fresh.setIntentId("PI_" + UUID.randomUUID());
+        fresh.setTicketId(request.getTicketId());
+        fresh.setVehicleNumber(request.getVehicleNumber());
+        fresh.setAmount(request.getAmount());
+        fresh.setCallbackUrl(request.getCallbackUrl());
+        fresh.setCreatedAt(Instant.now());
+
+        PaymentIntent existing = intents.putIfAbsent(request.getTicketId(), fresh);
+        // a declined intent is not replayed, the new request is settled again
+        while (existing != null) {
+            if (existing.getStatus() != PaymentIntent.Status.FAILED) {
+                return existing;
+            }
+            existing = intents.replace(request.getTicketId(), existing, fresh)
+                    ? null
+                    : intents.putIfAbsent(request.getTicketId(), fresh);
+        }
+
+        if (!ledger.reserve(request.getTicketId(), PaymentLedgerService.ASYNC_KEY, request.getAmount())) {
+            // settled before this instance started (or evicted since): replay from the ledger
+            PaymentResult settled = ledger.find(request.getTicketId(), PaymentLedgerService.ASYNC_KEY, request.getAmount());
+            if (settled != null && (settled.isSuccess() || settled.isAmountMismatch())) {
+                // a mismatch is answered as a failed intent, never charged again
+                fresh.setResult(settled);
+                fresh.setSettledAt(fresh.getCreatedAt());
+                fresh.setStatus(settled.isSuccess() ? PaymentIntent.Status.SUCCESS : PaymentIntent.Status.FAILED);
+                return fresh;
+            }
+            // still being settled, by another instance
+            intents.remove(request.getTicketId(), fresh);
+            rejected.increment();
+            return null;
+        }
+
+        if (!queue.offer(fresh)) {
+            intents.remove(request.getTicketId(), fresh);
+            ledger.completeAll(PaymentLedgerService.ASYNC_KEY,
+                    Map.of(request.getTicketId(), PaymentResult.error("Settlement queue is full")));
+            rejected.increment();
+            return null;
+        }
+        accepted.increment();
+        return fresh;
+    }
+
+    public PaymentIntent find(Long ticketId) {
+        return intents.get(ticketId);
+    }
+
+    private void dispatchLoop() {
+        List<PaymentIntent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                evictSettled();
+                PaymentIntent first = queue.poll(batchWait.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                settle(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // never let one bad batch kill the dispatcher
+                System.out.println("Settlement batch failed → " + e.getMessage());
+                List<PaymentResult> errors = new ArrayList<>(batch.size());
+                batch.forEach(intent -> errors.add(PaymentResult.error(e.getMessage())));
+                try {
+                    finish(batch, errors);
+                } catch (RuntimeException release) {
+                    System.out.println("Could not release ledger reservations → " + release.getMessage());
+                    batch.forEach(intent -> complete(intent, PaymentResult.error(e.getMessage())));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void settle(List<PaymentIntent> batch) {
+        List<PaymentRequest> requests = new ArrayList<>(batch.size());
+        for (PaymentIntent intent : batch) {
+            requests.add(intent.toRequest());
+        }
+
+        long start = System.nanoTime();
+        List<PaymentResult> results = gateway.chargeBatch(requests);
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+
+        finish(batch, results);
+    }
+
+    // Ledger first, so a callback or event never announces an outcome the ledger does not have
+    private void finish(List<PaymentIntent> batch, List<PaymentResult> results) {
+        Map<Long, PaymentResult> outcomes = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            outcomes.put(batch.get(i).getTicketId(), results.get(i));
+        }
+        ledger.completeAll(PaymentLedgerService.ASYNC_KEY, outcomes);
+
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results.get(i));
+        }
+    }
+
+    private void complete(PaymentIntent intent, PaymentResult result) {
+        if (intent.getStatus() != PaymentIntent.Status.PENDING) {
+            return;
+        }
+        intent.setResult(result);
+        intent.setSettledAt(Instant.now());
+        intent.setStatus(result.isSuccess() ? PaymentIntent.Status.SUCCESS : PaymentIntent.Status.FAILED);
+        (result.isSuccess() ? settledOk : settledFailed).increment();
+
+        events.publishEvent(new PaymentSettledEvent(intent));
+        if (intent.getCallbackUrl() != null) {
+            callbackPool.execute(() -> deliverCallback(intent));
+        }
+    }
+
+    private void deliverCallback(PaymentIntent intent) {
+        try {
+            callbackClient.post()
+                    .uri(intent.getCallbackUrl())
+                    .body(intent)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RuntimeException e) {
+            System.out.println("Payment callback failed for ticketId="
+                    + intent.getTicketId() + " → " + e.getMessage());
+        }
+    }
+
+    private void evictSettled() {
+        if (System.nanoTime() - lastEviction < TimeUnit.MINUTES.toNanos(1)) {
+            return;
+        }
+        lastEviction = System.nanoTime();
+        Instant cutoff = Instant.now().minus(retention);
+        intents.values().removeIf(intent ->
+                intent.getSettledAt() != null && intent.getSettledAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        callbackPool.shutdown();
+    }
+}
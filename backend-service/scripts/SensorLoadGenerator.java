@@ -0,0 +1,147 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Simulated spot sensors posting batches to /parking/sensors/readings as
+ * fast as the service takes them. Run with the JDK's source launcher:
+ *
+ *   java scripts/SensorLoadGenerator.java [name=value ...]
+ *
+ *   url       default http://localhost:8184/parking/sensors/readings?lotId=1
+ *   format    ndjson | binary (default binary)
+ *   first     first spot id (default 1)
+ *   spots     number of consecutive spot ids (default 800)
+ *   batch     readings per request (default 1000)
+ *   threads   concurrent senders, each owning a share of the spots (default 4)
+ *   seconds   run time (default 30)
+ *   flip      chance a reading follows a real arrival/departure (default 0.001)
+ *   bounce    chance a reading reports the wrong state (default 0.02)
+ *   seed      default 42
+ *
+ * Prints one line: format, readings/s, requests, failed requests and the
+ * accepted/stale/rejected counts the service answered with.
+ */
+public class SensorLoadGenerator {
+
+    private static final int MAGIC = 0x534E5231;
+    private static final Pattern COUNT = Pattern.compile("\"(accepted|stale|rejected)\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        java.util.Map<String, String> opts = new java.util.HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String url = opts.getOrDefault("url", "http://localhost:8184/parking/sensors/readings?lotId=1");
+        boolean binary = !"ndjson".equals(opts.getOrDefault("format", "binary"));
+        long first = Long.parseLong(opts.getOrDefault("first", "1"));
+        int spots = Integer.parseInt(opts.getOrDefault("spots", "800"));
+        int batch = Integer.parseInt(opts.getOrDefault("batch", "1000"));
+        int threads = Integer.parseInt(opts.getOrDefault("threads", "4"));
+        long seconds = Long.parseLong(opts.getOrDefault("seconds", "30"));
+        double flip = Double.parseDouble(opts.getOrDefault("flip", "0.001"));
+        double bounce = Double.parseDouble(opts.getOrDefault("bounce", "0.02"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicLong readings = new AtomicLong();
+        AtomicLong requests = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong stale = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long started = System.nanoTime();
+        long stopAt = started + Duration.ofSeconds(seconds).toNanos();
+
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread sender = new Thread(() -> {
+                Random random = new Random(seed * 31 + index);
+                // spots index, index + threads, ... belong to this sender, so timestamps per spot only grow
+                int owned = (spots - index + threads - 1) / threads;
+                boolean[] occupied = new boolean[owned];
+                long last = 0;
+                while (System.nanoTime() < stopAt) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch * (binary ? 17 : 48) + 8);
+                    try (DataOutputStream out = new DataOutputStream(bytes)) {
+                        if (binary) {
+                            out.writeInt(MAGIC);
+                            out.writeInt(batch);
+                        }
+                        for (int i = 0; i < batch; i++) {
+                            int slot = random.nextInt(owned);
+                            if (random.nextDouble() < flip) {
+                                occupied[slot] = !occupied[slot];
+                            }
+                            boolean reported = random.nextDouble() < bounce ? !occupied[slot] : occupied[slot];
+                            long spotId = first + index + (long) slot * threads;
+                            last = Math.max(System.currentTimeMillis(), last + 1);
+                            if (binary) {
+                                out.writeLong(spotId);
+                                out.writeLong(last);
+                                out.writeByte(reported ? 1 : 0);
+                            } else {
+                                out.write(("{\"spotId\":" + spotId + ",\"occupied\":" + reported + ",\"ts\":" + last + "}\n")
+                                        .getBytes(StandardCharsets.UTF_8));
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                            .header("Content-Type", binary ? "application/octet-stream" : "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray()))
+                            .build();
+                    requests.incrementAndGet();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        readings.addAndGet(batch);
+                        Matcher counts = COUNT.matcher(response.body());
+                        while (counts.find()) {
+                            long n = Long.parseLong(counts.group(2));
+                            switch (counts.group(1)) {
+                                case "accepted" -> accepted.addAndGet(n);
+                                case "stale" -> stale.addAndGet(n);
+                                default -> rejected.addAndGet(n);
+                            }
+                        }
+                    } catch (IOException e) {
+                        failed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "sensor-" + t);
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-7s %12.0f %9d %7d %12d %9d %9d%n", binary ? "binary" : "ndjson",
+                readings.get() / elapsed, requests.get(), failed.get(), accepted.get(), stale.get(), rejected.get());
+    }
+}
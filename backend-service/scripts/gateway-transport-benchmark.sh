@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Throughput and bytes on the wire through api-gateway with its default
+# transport vs the prod profile (h2c, gzip/br compression, tuned backend pool,
+# async access log instead of DEBUG logging).
+#
+#   ./scripts/gateway-transport-benchmark.sh [default|prod ...]
+#
+# Needs the stack up with some data (docker compose up, a level with spots)
+# and h2load (nghttp2). Each mode recreates the api-gateway container with
+# GATEWAY_PROFILES set accordingly, then loads the large JSON reads of the
+# entry screens: level list, spot list of a level, vehicle list.
+#
+# Every case is run over HTTP/1.1 (h2load --h1) and, for prod, also over h2c.
+# Clients send Accept-Encoding: ENCODING; "bytes/req" is everything h2load
+# read per response, headers included. Backends keep HTTP/1.1 to the gateway
+# unless they run with their prod profile (server.http2.enabled).
+#
+# Env: GATEWAY_URL, LEVEL_ID (default 1), REQUESTS per case (default 5000),
+# CLIENTS (default 32), STREAMS per h2c connection (default 10),
+# ENCODING (default "br, gzip").
+
+set -euo pipefail
+
+COMPOSE_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+GATEWAY_URL="${GATEWAY_URL:-http://localhost:8080}"
+LEVEL_ID="${LEVEL_ID:-1}"
+REQUESTS="${REQUESTS:-5000}"
+CLIENTS="${CLIENTS:-32}"
+STREAMS="${STREAMS:-10}"
+ENCODING="${ENCODING:-br, gzip}"
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(default prod)
+
+command -v h2load >/dev/null || { echo "h2load not found (apt install nghttp2-client)" >&2; exit 1; }
+
+PATHS=(
+  "/api/parking/levels"
+  "/api/parking/spots/$LEVEL_ID?isDisabled=false"
+  "/api/vehicle/all"
+)
+
+start_gateway() {
+  local profiles="$1" started
+  (cd "$COMPOSE_DIR" && GATEWAY_PROFILES="$profiles" docker compose up -d --force-recreate api-gateway >/dev/null)
+  started="$(date +%s)"
+  # routes only work once the gateway has fetched the registry
+  until curl -sf -o /dev/null "$GATEWAY_URL${PATHS[0]}"; do
+    (( $(date +%s) - started < 180 )) || return 1
+    sleep 1
+  done
+}
+
+# prints "<req/s> <bytes per response> <failed> <content-encoding>"
+measure() {
+  local url="$1" protocol="$2" args=(-c "$CLIENTS" -H "accept-encoding: $ENCODING") out encoding
+  if [ "$protocol" = h1 ]; then
+    args+=(--h1)
+  else
+    args+=(-m "$STREAMS")
+  fi
+  # warm-up, so pools, JIT and the load balancer cache are settled
+  h2load -n $(( REQUESTS / 10 )) "${args[@]}" "$url" >/dev/null 2>&1 || true
+  out="$(h2load -n "$REQUESTS" "${args[@]}" "$url" 2>&1)"
+  encoding="$(curl -s -o /dev/null -D - -H "Accept-Encoding: $ENCODING" "$url" \
+    | tr -d '\r' | sed -n 's/^[Cc]ontent-[Ee]ncoding: //p')"
+  awk -v n="$REQUESTS" -v enc="${encoding:-identity}" '
+    /^finished in/ { rps = $4 }
+    /^requests:/ { failed = $10 + $12 }
+    /^traffic:/ { gsub(/[()]/, "", $3); bytes = $3 }
+    END { printf "%s %.0f %d %s\n", rps, bytes / n, failed, enc }' <<< "$out"
+}
+
+printf '%-8s %-5s %-42s %10s %10s %7s %s\n' "mode" "proto" "path" "req/s" "bytes/req" "failed" "encoding"
+for mode in "${MODES[@]}"; do
+  if ! start_gateway "$mode"; then
+    printf '%-8s %s\n' "$mode" "gateway did not come up"
+    continue
+  fi
+  protocols=(h1)
+  [ "$mode" = prod ] && protocols+=(h2c)
+  for protocol in "${protocols[@]}"; do
+    for path in "${PATHS[@]}"; do
+      read -r rps bytes failed encoding <<< "$(measure "$GATEWAY_URL$path" "$protocol")"
+      printf '%-8s %-5s %-42s %10s %10s %7s %s\n' "$mode" "$protocol" "$path" "$rps" "$bytes" "$failed" "$encoding"
+    done
+  done
+done
+
+# leave the gateway as docker compose would start it
+(cd "$COMPOSE_DIR" && docker compose up -d --force-recreate api-gateway >/dev/null)
@@ -0,0 +1,122 @@
+#!/usr/bin/env bash
+#
+# Insert throughput of parking-lot-service with IDENTITY keys (the last
+# revision before id-generator) vs Snowflake ids (the current tree), both
+# with the prod profile's JDBC batching.
+#
+#   ./scripts/id-insert-benchmark.sh [identity|snowflake ...]
+#
+# Needs db up (docker compose up db), port 8084 free, Maven and git. The
+# IDENTITY build is made in a temporary git worktree; the current one from
+# id-generator and parking-lot-service (mvn install / mvn package).
+#
+# Each worker creates levels of SPOTS spots through POST /parking/levels:
+# one level insert plus SPOTS cascaded spot inserts in one transaction,
+# row by row with IDENTITY, in batches of 50 with Snowflake ids. The levels
+# are created under lot LOT_ID and deleted again afterwards.
+#
+# Env: SPOTS (default 500), LEVELS per worker (default 20), CONCURRENCY
+# (default 4), LOT_ID (default 990001), BASE_URL, JAVA_OPTS,
+# SPRING_DATASOURCE_URL (e.g. jdbc:postgresql://localhost:5432/parking_lot_service).
+
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+SPOTS="${SPOTS:-500}"
+LEVELS="${LEVELS:-20}"
+CONCURRENCY="${CONCURRENCY:-4}"
+LOT_ID="${LOT_ID:-990001}"
+BASE_URL="${BASE_URL:-http://localhost:8084}"
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(identity snowflake)
+
+WORK_DIR="$(mktemp -d -t id-benchmark-XXXX)"
+trap 'git -C "$BACKEND_DIR" worktree remove --force "$WORK_DIR/baseline" 2>/dev/null || true; rm -rf "$WORK_DIR"' EXIT
+
+now_ms() { date +%s%3N; }
+
+build_jar() {
+  local mode="$1" first_ids_commit
+  if [ "$mode" = identity ]; then
+    first_ids_commit="$(git -C "$BACKEND_DIR" log --diff-filter=A --format=%H -- id-generator/pom.xml | tail -1)"
+    git -C "$BACKEND_DIR" worktree add --detach "$WORK_DIR/baseline" "$first_ids_commit^" >/dev/null 2>&1
+    (cd "$WORK_DIR/baseline/backend-service/parking-lot-service" && mvn -q package -DskipTests) >&2
+    ls "$WORK_DIR"/baseline/backend-service/parking-lot-service/target/parking-lot-service-*.jar | grep -v -- '-cds.jar' | head -1
+  else
+    (cd "$BACKEND_DIR/id-generator" && mvn -q install -DskipTests) >&2
+    (cd "$BACKEND_DIR/parking-lot-service" && mvn -q package -DskipTests) >&2
+    ls "$BACKEND_DIR"/parking-lot-service/target/parking-lot-service-*.jar | grep -v -- '-cds.jar' | head -1
+  fi
+}
+
+wait_ready() {
+  local pid="$1" started
+  started="$(now_ms)"
+  until curl -sf "$BASE_URL/actuator/health" >/dev/null; do
+    kill -0 "$pid" 2>/dev/null || return 1
+    (( $(now_ms) - started < 180000 )) || return 1
+    sleep 0.5
+  done
+}
+
+level_body() {
+  local number="$1"
+  printf '{"levelNumber":"%s","lotId":%s,"spots":[' "$number" "$LOT_ID"
+  for s in $(seq 1 "$SPOTS"); do
+    [ "$s" -gt 1 ] && printf ','
+    printf '{"spotType":"CAR"}'
+  done
+  printf ']}'
+}
+
+# one worker: prints "<levels created> <errors>"
+worker() {
+  local id="$1" created=0 errors=0
+  for l in $(seq 1 "$LEVELS"); do
+    if level_body "B$id-$l" | curl -sf -o /dev/null -X POST -H 'Content-Type: application/json' \
+        --data-binary @- "$BASE_URL/parking/levels"; then
+      created=$((created + 1))
+    else
+      errors=$((errors + 1))
+    fi
+  done
+  echo "$created $errors"
+}
+
+cleanup_levels() {
+  (cd "$BACKEND_DIR" && docker compose exec -T db psql -q -U postgres -d parking_lot_service -c \
+    "DELETE FROM parking_spot WHERE level_id IN (SELECT id FROM parking_level WHERE lot_id = $LOT_ID);
+     DELETE FROM parking_level WHERE lot_id = $LOT_ID;") >/dev/null
+}
+
+run_mode() {
+  local mode="$1" jar log pid started elapsed results
+  jar="$(build_jar "$mode")"
+  log="$(mktemp -t "ids-$mode-XXXX.log")"
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -jar "$jar" --spring.profiles.active=prod >"$log" 2>&1 &
+  pid=$!
+  if ! wait_ready "$pid"; then
+    echo "$mode: service did not come up, see $log" >&2
+    kill "$pid" 2>/dev/null || true
+    return 1
+  fi
+
+  # warm-up, so JIT, the pool and the statement caches are settled
+  LEVELS=3 worker 0 >/dev/null
+  started="$(now_ms)"
+  results="$(for w in $(seq 1 "$CONCURRENCY"); do worker "$w" & done; wait)"
+  elapsed=$(( $(now_ms) - started ))
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  cleanup_levels
+  rm -f "$log"
+  awk -v mode="$mode" -v ms="$elapsed" -v spots="$SPOTS" '
+    { levels += $1; errors += $2 }
+    END { printf "%-10s %10.1f %12.0f %8d\n", mode, levels * 1000 / ms, levels * (spots + 1) * 1000 / ms, errors }' <<< "$results"
+}
+
+printf '%-10s %10s %12s %8s\n' "ids" "levels/s" "rows/s" "errors"
+for mode in "${MODES[@]}"; do
+  run_mode "$mode" || printf '%-10s %s\n' "$mode" "failed"
+done
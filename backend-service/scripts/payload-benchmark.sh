@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+#
+# Bytes and latency per request of the read endpoints used on the entry/exit
+# path, JSON vs Smile (the encoding parking-lot-service negotiates with
+# downstreams that have downstream.services.<name>.binary=true).
+#
+#   ./scripts/payload-benchmark.sh [requests per case]
+#
+# Needs the stack up with some data (docker compose up, a level with spots,
+# a registered vehicle and a ticket). Cases whose endpoint answers with an
+# error are reported as failed and skipped.
+#
+# Env: PARKING_URL, TICKETING_URL, VEHICLE_URL, LEVEL_ID (default 1),
+# TICKET_ID (default 1), PLATE (default the first plate of /vehicle/all).
+# Server CPU per request is not measured here; compare process CPU time
+# (e.g. /actuator/metrics/process.cpu.usage) across runs of equal size.
+
+set -euo pipefail
+
+REQUESTS="${1:-500}"
+PARKING_URL="${PARKING_URL:-http://localhost:8084}"
+TICKETING_URL="${TICKETING_URL:-http://localhost:8082}"
+VEHICLE_URL="${VEHICLE_URL:-http://localhost:8081}"
+LEVEL_ID="${LEVEL_ID:-1}"
+TICKET_ID="${TICKET_ID:-1}"
+PLATE="${PLATE:-$(curl -sf "$VEHICLE_URL/vehicle/all" | sed -n 's/.*"licensePlate":"\([^"]*\)".*/\1/p' | head -1)}"
+
+JSON="application/json"
+SMILE="application/x-jackson-smile"
+
+CASES=(
+  "levels|$PARKING_URL/parking/levels"
+  "spots|$PARKING_URL/parking/spots/$LEVEL_ID?isDisabled=false"
+  "ticket|$TICKETING_URL/ticketing/$TICKET_ID"
+  "vehicle|$VEHICLE_URL/vehicle/${PLATE:-none}"
+  "vehicles|$VEHICLE_URL/vehicle/all"
+)
+
+# prints "<bytes> <mean ms> <p99 ms>" for REQUESTS sequential calls over one connection
+measure() {
+  local url="$1" accept="$2" urls=() i
+  curl -sf -o /dev/null -H "Accept: $accept" "$url" || return 1
+  for i in $(seq 1 "$REQUESTS"); do urls+=("$url"); done
+  # a single curl invocation reuses the keep-alive connection
+  curl -s -H "Accept: $accept" -o /dev/null -w '%{size_download} %{time_total}\n' "${urls[@]}" \
+    | sort -k2 -n \
+    | awk -v n="$REQUESTS" '
+        { bytes = $1; sum += $2; t[NR] = $2 }
+        END {
+          p99 = t[int(n * 0.99) > 0 ? int(n * 0.99) : 1]
+          printf "%d %.3f %.3f\n", bytes, sum / NR * 1000, p99 * 1000
+        }'
+}
+
+printf '%-9s %-6s %10s %10s %10s\n' "endpoint" "format" "bytes" "mean ms" "p99 ms"
+for entry in "${CASES[@]}"; do
+  name="${entry%%|*}"
+  url="${entry#*|}"
+  for format in json smile; do
+    accept="$JSON"
+    [ "$format" = smile ] && accept="$SMILE"
+    if result="$(measure "$url" "$accept")"; then
+      read -r bytes mean p99 <<< "$result"
+      printf '%-9s %-6s %10s %10s %10s\n' "$name" "$format" "$bytes" "$mean" "$p99"
+    else
+      printf '%-9s %-6s %10s\n' "$name" "$format" "failed"
+    fi
+  done
+done
@@ -0,0 +1,100 @@
+#!/usr/bin/env bash
+#
+# Throughput of parking-lot-service with the default persistence settings
+# vs the prod profile (batching, L2 cache for levels, pool sized from cores,
+# no show-sql / open-in-view).
+#
+#   ./scripts/persistence-benchmark.sh [default|prod ...]
+#
+# Needs the rest of the stack up (db, discovery-server, vehicle-service,
+# ticketing-service, payment-service; e.g. docker compose up without
+# parking-lot-service), port 8084 free, a level with at least CONCURRENCY
+# free spots, and target/parking-lot-service-*.jar from mvn package.
+#
+# Each worker runs entry -> spot/level reads -> exit cycles with its own
+# plate, so the write path (locks, updates, downstream calls) and the read
+# endpoints are both exercised. The first WARMUP_S seconds are not counted.
+#
+# Env: LEVEL_ID (default 1), CONCURRENCY (default 16), DURATION_S (default 60),
+# WARMUP_S (default 15), BASE_URL, JAVA_OPTS.
+
+set -euo pipefail
+
+SERVICE_DIR="$(cd "$(dirname "$0")/../parking-lot-service" && pwd)"
+LEVEL_ID="${LEVEL_ID:-1}"
+CONCURRENCY="${CONCURRENCY:-16}"
+DURATION_S="${DURATION_S:-60}"
+WARMUP_S="${WARMUP_S:-15}"
+BASE_URL="${BASE_URL:-http://localhost:8084}"
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(default prod)
+
+JAR="$(ls "$SERVICE_DIR"/target/parking-lot-service-*.jar | grep -v -- '-cds.jar' | head -1)"
+
+now_ms() { date +%s%3N; }
+
+start_service() {
+  local profile_args=()
+  [ "$1" = prod ] && profile_args=(--spring.profiles.active=prod)
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -jar "$JAR" "${profile_args[@]}"
+}
+
+wait_ready() {
+  local pid="$1" started
+  started="$(now_ms)"
+  until curl -sf "$BASE_URL/actuator/health" >/dev/null; do
+    kill -0 "$pid" 2>/dev/null || return 1
+    (( $(now_ms) - started < 180000 )) || return 1
+    sleep 0.5
+  done
+}
+
+# one worker: prints "<cycles> <requests> <errors>" counted after the warm-up
+worker() {
+  local id="$1" warm_until="$2" stop_at="$3" cycles=0 requests=0 errors=0 counted body ticket
+  while (( $(now_ms) < stop_at )); do
+    counted=0
+    (( $(now_ms) >= warm_until )) && counted=1
+    plate="PB${id}X$(now_ms)"
+    if body="$(curl -sf -X POST "$BASE_URL/parking/entry?levelId=$LEVEL_ID&isDisabled=false&vehicleNumber=$plate")"; then
+      ticket="$(sed -n 's/.*"id":\([0-9]*\).*/\1/p' <<< "$body")"
+      curl -sf -o /dev/null "$BASE_URL/parking/spots/$LEVEL_ID?isDisabled=false" || errors=$((errors + counted))
+      curl -sf -o /dev/null "$BASE_URL/parking/levels" || errors=$((errors + counted))
+      curl -sf -o /dev/null -X PUT "$BASE_URL/parking/exit?ticketId=$ticket" || errors=$((errors + counted))
+      requests=$((requests + 4 * counted))
+      cycles=$((cycles + counted))
+    else
+      errors=$((errors + counted))
+      requests=$((requests + counted))
+    fi
+  done
+  echo "$cycles $requests $errors"
+}
+
+run_mode() {
+  local mode="$1" log pid warm_until stop_at results
+  log="$(mktemp -t "persistence-$mode-XXXX.log")"
+  start_service "$mode" >"$log" 2>&1 &
+  pid=$!
+  if ! wait_ready "$pid"; then
+    echo "$mode: service did not come up, see $log" >&2
+    kill "$pid" 2>/dev/null || true
+    return 1
+  fi
+
+  warm_until=$(( $(now_ms) + WARMUP_S * 1000 ))
+  stop_at=$(( warm_until + DURATION_S * 1000 ))
+  results="$(for w in $(seq 1 "$CONCURRENCY"); do worker "$w" "$warm_until" "$stop_at" & done; wait)"
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  awk -v mode="$mode" -v secs="$DURATION_S" '
+    { cycles += $1; requests += $2; errors += $3 }
+    END { printf "%-8s %10.1f %10.1f %8d\n", mode, cycles / secs, requests / secs, errors }' <<< "$results"
+}
+
+printf '%-8s %10s %10s %8s\n' "mode" "cycles/s" "req/s" "errors"
+for mode in "${MODES[@]}"; do
+  run_mode "$mode" || printf '%-8s %s\n' "$mode" "failed"
+done
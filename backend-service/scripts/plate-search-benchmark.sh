@@ -0,0 +1,98 @@
+#!/usr/bin/env bash
+#
+# Plate lookups from vehicle-service's in-memory plate index (/vehicle/search)
+# vs the LIKE queries the vehicle table would need for the same answers.
+#
+#   ./scripts/plate-search-benchmark.sh [queries per case]
+#
+# Needs the stack up (docker compose up). With SEED=<n> first inserts n
+# synthetic plates (KA01AB1234 style) straight into vehicle_service and
+# restarts vehicle-service so the index is rebuilt from them.
+#
+# Index times are reported twice: in-process (the vehicle.search timer, what
+# the index itself costs) and end to end over HTTP. LIKE times are Postgres
+# execution times from EXPLAIN ANALYZE. A LIKE pattern can only express
+# substitutions, so the fuzzy case compares against one '_' per position;
+# the index also finds insertions and deletions.
+#
+# Env: VEHICLE_URL, DB_CONTAINER (default postgres-db), SEED, PREFIX
+# (default KA01), PLATE (default a seeded plate with one character misread).
+
+set -euo pipefail
+
+QUERIES="${1:-200}"
+VEHICLE_URL="${VEHICLE_URL:-http://localhost:8081}"
+DB_CONTAINER="${DB_CONTAINER:-postgres-db}"
+PREFIX="${PREFIX:-KA01}"
+PLATE="${PLATE:-KA01AA1Z34}"
+
+psql_vehicle() {
+  docker exec -i "$DB_CONTAINER" psql -U postgres -d vehicle_service -qtAX "$@"
+}
+
+metric() {
+  curl -sf "$VEHICLE_URL/actuator/metrics/$1" \
+    | sed -n "s/.*\"statistic\":\"$2\",\"value\":\([0-9.eE+-]*\).*/\1/p"
+}
+
+if [ -n "${SEED:-}" ]; then
+  echo "Seeding $SEED plates"
+  psql_vehicle <<SQL
+INSERT INTO vehicle (license_plate, type, is_disabled)
+SELECT 'KA' || lpad((i % 99 + 1)::text, 2, '0')
+            || chr(65 + (i / 25740000) % 26) || chr(65 + (i / 990000) % 26)
+            || lpad(((i / 99) % 10000)::text, 4, '0'),
+       'CAR', i % 20 = 0
+FROM generate_series(0, $SEED - 1) AS i;
+ANALYZE vehicle;
+SQL
+  docker compose restart vehicle-service >/dev/null
+  until [ "$(metric vehicle.search.plates VALUE | cut -d. -f1)" -ge "$SEED" ] 2>/dev/null; do
+    sleep 2
+  done
+fi
+
+echo "Indexed plates: $(metric vehicle.search.plates VALUE)"
+
+# prints "<mean index us> <mean http ms>" for QUERIES calls over one connection
+measure_index() {
+  local url="$1" urls=() count_before time_before count_after time_after i
+  curl -sf -o /dev/null "$url"
+  count_before="$(metric vehicle.search COUNT)"
+  time_before="$(metric vehicle.search TOTAL_TIME)"
+  for i in $(seq 1 "$QUERIES"); do urls+=("$url"); done
+  local http
+  http="$(curl -s -o /dev/null -w '%{time_total}\n' "${urls[@]}" | awk '{ sum += $1 } END { printf "%.3f", sum / NR * 1000 }')"
+  count_after="$(metric vehicle.search COUNT)"
+  time_after="$(metric vehicle.search TOTAL_TIME)"
+  awk -v c0="$count_before" -v t0="$time_before" -v c1="$count_after" -v t1="$time_after" -v http="$http" \
+    'BEGIN { printf "%.1f %s\n", (t1 - t0) / (c1 - c0) * 1000000, http }'
+}
+
+# mean Postgres execution time in ms over QUERIES runs of the statement
+measure_like() {
+  local sql="$1" i
+  for i in $(seq 1 "$QUERIES"); do echo "EXPLAIN (ANALYZE, FORMAT TEXT) $sql;"; done \
+    | psql_vehicle \
+    | sed -n 's/^Execution Time: \([0-9.]*\) ms/\1/p' \
+    | awk '{ sum += $1 } END { printf "%.3f", sum / NR }'
+}
+
+substitutions() {
+  local plate="$1" i patterns=()
+  for ((i = 0; i < ${#plate}; i++)); do
+    patterns+=("'${plate:0:i}_${plate:i+1}'")
+  done
+  local IFS=,
+  echo "${patterns[*]}"
+}
+
+printf '%-8s %16s %14s %14s\n' "case" "index us (jvm)" "index ms (http)" "LIKE ms (db)"
+
+read -r index_us index_http <<< "$(measure_index "$VEHICLE_URL/vehicle/search?plate=${PREFIX}*&limit=20")"
+like_ms="$(measure_like "SELECT id, license_plate FROM vehicle WHERE license_plate LIKE '${PREFIX}%' LIMIT 20")"
+printf '%-8s %16s %14s %14s\n' "prefix" "$index_us" "$index_http" "$like_ms"
+
+read -r index_us index_http <<< "$(measure_index "$VEHICLE_URL/vehicle/search?plate=${PLATE}&maxDistance=1&limit=20")"
+like_ms="$(measure_like "SELECT id, license_plate FROM vehicle WHERE license_plate LIKE ANY (ARRAY[$(substitutions "$PLATE")]) LIMIT 20")"
+printf '%-8s %16s %14s %14s\n' "fuzzy" "$index_us" "$index_http" "$like_ms"
@@ -0,0 +1,126 @@
+#!/usr/bin/env bash
+#
+# Entry/exit saga throughput of parking-lot-service against the in-process
+# harness stubs (spring.profiles.active=harness), with healthy downstreams and
+# with injected slowness and failures.
+#
+#   ./scripts/saga-harness-benchmark.sh [baseline|slow-payment|failing-ticketing|hanging-vehicle ...]
+#
+# The harness is test code, not in the service jar: the script compiles the
+# tests and runs the application from the test classpath (H2 included). Needs
+# Java and Maven; no database, registry or other service.
+# Port 8184 and the stub ports (18081-18083) must be free.
+#
+# Each scenario starts a fresh instance (empty DB, stubs reseeded), applies
+# its stub settings through PUT /harness/stubs/{name}, then runs entry -> exit
+# cycles. The first WARMUP_S seconds are not counted. With CONCURRENCY=1 the
+# stubs draw the same latencies and failures in the same order on every run.
+#
+# Env: LEVEL_ID (default: the first seeded level), CONCURRENCY (default 16), DURATION_S (default 30),
+# WARMUP_S (default 10), BASE_URL, JAVA_OPTS.
+
+set -euo pipefail
+
+SERVICE_DIR="$(cd "$(dirname "$0")/../parking-lot-service" && pwd)"
+CONCURRENCY="${CONCURRENCY:-16}"
+DURATION_S="${DURATION_S:-30}"
+WARMUP_S="${WARMUP_S:-10}"
+BASE_URL="${BASE_URL:-http://localhost:8184}"
+SCENARIOS=("$@")
+[ ${#SCENARIOS[@]} -eq 0 ] && SCENARIOS=(baseline slow-payment failing-ticketing hanging-vehicle)
+
+CLASSPATH_FILE="$SERVICE_DIR/target/harness.classpath"
+mvn -q -f "$SERVICE_DIR/pom.xml" test-compile dependency:build-classpath \
+  -Dmdep.includeScope=test -Dmdep.outputFile="$CLASSPATH_FILE"
+HARNESS_CP="$SERVICE_DIR/target/test-classes:$SERVICE_DIR/target/classes:$(cat "$CLASSPATH_FILE")"
+
+now_ms() { date +%s%3N; }
+
+wait_ready() {
+  local pid="$1" started
+  started="$(now_ms)"
+  # the levels are seeded once the application is ready
+  until [ "$(curl -sf "$BASE_URL/parking/levels" 2>/dev/null)" != "" ] \
+      && [ "$(curl -sf "$BASE_URL/parking/levels")" != "[]" ]; do
+    kill -0 "$pid" 2>/dev/null || return 1
+    (( $(now_ms) - started < 180000 )) || return 1
+    sleep 0.5
+  done
+}
+
+stub() {
+  curl -sf -o /dev/null -X PUT -H 'Content-Type: application/json' -d "$2" "$BASE_URL/harness/stubs/$1"
+}
+
+# stub settings per scenario (durations in ISO-8601); stubs not named keep
+# application-harness.properties
+apply_scenario() {
+  case "$1" in
+    baseline) ;;
+    slow-payment)
+      stub payment '{"distribution":"LOGNORMAL","latency":"PT0.12S","sigma":1.0}' ;;
+    failing-ticketing)
+      stub ticketing '{"distribution":"LOGNORMAL","latency":"PT0.006S","sigma":0.4,"failureRate":0.3,"failureStatus":503}' ;;
+    hanging-vehicle)
+      stub vehicle '{"distribution":"LOGNORMAL","latency":"PT0.004S","sigma":0.4,"hangRate":0.05,"hang":"PT10S"}' ;;
+    *) echo "unknown scenario $1" >&2; return 1 ;;
+  esac
+}
+
+# one worker: prints "<cycles> <errors>" counted after the warm-up
+worker() {
+  local id="$1" warm_until="$2" stop_at="$3" cycles=0 errors=0 counted body ticket
+  while (( $(now_ms) < stop_at )); do
+    counted=0
+    (( $(now_ms) >= warm_until )) && counted=1
+    plate="HB${id}X$(now_ms)"
+    if body="$(curl -sf -X POST "$BASE_URL/parking/entry?levelId=$level_id&isDisabled=false&vehicleNumber=$plate")" \
+        && ticket="$(sed -n 's/.*"id":\([0-9]*\).*/\1/p' <<< "$body")" \
+        && curl -sf -o /dev/null -X PUT "$BASE_URL/parking/exit?ticketId=$ticket"; then
+      cycles=$((cycles + counted))
+    else
+      errors=$((errors + counted))
+    fi
+  done
+  echo "$cycles $errors"
+}
+
+# "name=STATE ..." of every circuit breaker at the end of the run
+breaker_states() {
+  curl -sf "$BASE_URL/actuator/circuitbreakers" \
+    | grep -o '"[A-Za-z]*Service":{[^}]*"state":"[A-Z_]*"' \
+    | sed 's/"\([A-Za-z]*\)Service".*"state":"\([A-Z_]*\)"/\1=\2/' \
+    | tr '\n' ' '
+}
+
+run_scenario() {
+  local scenario="$1" log pid warm_until stop_at results breakers
+  log="$(mktemp -t "harness-$scenario-XXXX.log")"
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -cp "$HARNESS_CP" com.uday.parkinglotservice.ParkingLotServiceApplication \
+    --spring.profiles.active=harness >"$log" 2>&1 &
+  pid=$!
+  if ! wait_ready "$pid" || ! apply_scenario "$scenario"; then
+    echo "$scenario: service did not come up, see $log" >&2
+    kill "$pid" 2>/dev/null || true
+    return 1
+  fi
+
+  # level ids are generated, so the default is read back from the seeded levels
+  level_id="${LEVEL_ID:-$(curl -sf "$BASE_URL/parking/levels" | sed -n 's/^\[{"id":\([0-9]*\).*/\1/p')}"
+  warm_until=$(( $(now_ms) + WARMUP_S * 1000 ))
+  stop_at=$(( warm_until + DURATION_S * 1000 ))
+  results="$(for w in $(seq 1 "$CONCURRENCY"); do worker "$w" "$warm_until" "$stop_at" & done; wait)"
+  breakers="$(breaker_states)"
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  awk -v scenario="$scenario" -v secs="$DURATION_S" -v breakers="$breakers" '
+    { cycles += $1; errors += $2 }
+    END { printf "%-18s %10.1f %8d  %s\n", scenario, cycles / secs, errors, breakers }' <<< "$results"
+}
+
+printf '%-18s %10s %8s  %s\n' "scenario" "cycles/s" "errors" "circuit breakers"
+for scenario in "${SCENARIOS[@]}"; do
+  run_scenario "$scenario" || printf '%-18s %s\n' "$scenario" "failed"
+done
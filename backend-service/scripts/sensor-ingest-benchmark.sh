@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+#
+# Sensor ingestion throughput of parking-lot-service: readings per second
+# accepted through POST /parking/sensors/readings in each wire format, and
+# how few of them reach the DB after debouncing and coalescing.
+#
+#   ./scripts/sensor-ingest-benchmark.sh [binary|ndjson ...]
+#
+# Runs the service with the harness profile (embedded DB, stub downstreams;
+# build with mvn -Pharness package), so nothing else needs to be up. Port
+# 8184 and the stub ports (18081-18083) must be free. The generator is
+# scripts/SensorLoadGenerator.java, run with the JDK's source launcher.
+#
+# "db changes" is what the reconciler wrote: unticketed arrivals/departures
+# and left-without-exit flags; everything else was absorbed in memory.
+#
+# Env: SPOTS (default 800, the harness seed), BATCH (default 1000),
+# THREADS (default 4), DURATION_S (default 30), BASE_URL, JAVA_OPTS.
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+SERVICE_DIR="$SCRIPT_DIR/../parking-lot-service"
+SPOTS="${SPOTS:-800}"
+BATCH="${BATCH:-1000}"
+THREADS="${THREADS:-4}"
+DURATION_S="${DURATION_S:-30}"
+BASE_URL="${BASE_URL:-http://localhost:8184}"
+FORMATS=("$@")
+[ ${#FORMATS[@]} -eq 0 ] && FORMATS=(binary ndjson)
+
+JAR="$(ls "$SERVICE_DIR"/target/parking-lot-service-*.jar | grep -v -- '-cds.jar' | head -1)"
+
+now_ms() { date +%s%3N; }
+
+wait_ready() {
+  local pid="$1" started
+  started="$(now_ms)"
+  until [ "$(curl -sf "$BASE_URL/parking/levels" 2>/dev/null || echo '[]')" != "[]" ]; do
+    kill -0 "$pid" 2>/dev/null || return 1
+    (( $(now_ms) - started < 180000 )) || return 1
+    sleep 0.5
+  done
+}
+
+# sum of a counter over all its tags, 0 when it was never incremented
+metric() {
+  curl -sf "$BASE_URL/actuator/metrics/$1${2:+?tag=$2}" \
+    | sed -n 's/.*"statistic":"COUNT","value":\([0-9.E]*\).*/\1/p' \
+    | awk '{ printf "%d", $1 }' || echo 0
+}
+
+run_format() {
+  local format="$1" log pid line changes
+  log="$(mktemp -t "sensor-$format-XXXX.log")"
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -jar "$JAR" --spring.profiles.active=harness >"$log" 2>&1 &
+  pid=$!
+  if ! wait_ready "$pid"; then
+    echo "$format: service did not come up, see $log" >&2
+    kill "$pid" 2>/dev/null || true
+    return 1
+  fi
+
+  # warm-up, so JIT and the connection pool are settled
+  java "$SCRIPT_DIR/SensorLoadGenerator.java" "url=$BASE_URL/parking/sensors/readings?lotId=1" "format=$format" \
+    "spots=$SPOTS" "batch=$BATCH" "threads=$THREADS" seconds=5 >/dev/null
+  line="$(java "$SCRIPT_DIR/SensorLoadGenerator.java" "url=$BASE_URL/parking/sensors/readings?lotId=1" "format=$format" \
+    "spots=$SPOTS" "batch=$BATCH" "threads=$THREADS" "seconds=$DURATION_S")"
+  # let the last settled changes be reconciled
+  sleep 5
+  changes=0
+  for outcome in UNTICKETED_ARRIVAL UNTICKETED_DEPARTURE LEFT_WITHOUT_EXIT; do
+    changes=$(( changes + $(metric parking.sensor.reconciled "outcome:$outcome") ))
+  done
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  printf '%s %10s\n' "$line" "$changes"
+}
+
+printf '%-7s %12s %9s %7s %12s %9s %9s %10s\n' "format" "readings/s" "requests" "failed" "accepted" "stale" "rejected" "db changes"
+for format in "${FORMATS[@]}"; do
+  run_format "$format" || printf '%-7s %s\n' "$format" "failed"
+done
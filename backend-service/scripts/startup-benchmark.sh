@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+#
+# Time from process start to the first successful POST /parking/entry of
+# parking-lot-service, per startup mode.
+#
+#   ./scripts/startup-benchmark.sh [jvm|aot|aot-cds|native ...]
+#
+# Needs the rest of the stack up (db, discovery-server, vehicle-service,
+# ticketing-service, and payment-service so the exit after each run frees
+# the spot again; e.g. docker compose up without parking-lot-service),
+# port 8084 free, a level with a free spot, and the artifacts of:
+#   jvm      mvn package               -> target/parking-lot-service-*.jar
+#   aot      mvn -Paot package         -> target/cds/*-cds.jar (without the CDS archive)
+#   aot-cds  mvn -Paot package         -> target/cds/*-cds.jar + app.jsa
+#   native   mvn -Pnative native:compile -> target/parking-lot-service
+#
+# Env: LEVEL_ID (default 1), RUNS per mode (default 3), BASE_URL, TIMEOUT_S.
+# The entry includes Eureka lookups of vehicle/ticketing, so the number is
+# time to a usable instance, not just to "Started".
+
+set -euo pipefail
+
+SERVICE_DIR="$(cd "$(dirname "$0")/../parking-lot-service" && pwd)"
+LEVEL_ID="${LEVEL_ID:-1}"
+RUNS="${RUNS:-3}"
+BASE_URL="${BASE_URL:-http://localhost:8084}"
+TIMEOUT_S="${TIMEOUT_S:-180}"
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(jvm aot aot-cds native)
+
+now_ms() { date +%s%3N; }
+
+start_service() {
+  case "$1" in
+    jvm)
+      java -jar "$(ls "$SERVICE_DIR"/target/parking-lot-service-*.jar | grep -v -- '-cds.jar' | head -1)" ;;
+    aot)
+      (cd "$SERVICE_DIR/target/cds" && exec java -Dspring.aot.enabled=true -jar ./*-cds.jar) ;;
+    aot-cds)
+      (cd "$SERVICE_DIR/target/cds" && exec java -XX:SharedArchiveFile=app.jsa -Xlog:cds=off \
+        -Dspring.aot.enabled=true -jar ./*-cds.jar) ;;
+    native)
+      "$SERVICE_DIR/target/parking-lot-service" ;;
+    *)
+      echo "unknown mode $1" >&2; return 1 ;;
+  esac
+}
+
+run_once() {
+  local mode="$1" run="$2" plate="BENCH$(now_ms)" log pid started body ticket elapsed
+  log="$(mktemp -t "startup-$mode-XXXX.log")"
+  started="$(now_ms)"
+  start_service "$mode" >"$log" 2>&1 &
+  pid=$!
+
+  while true; do
+    if body="$(curl -sf -X POST "$BASE_URL/parking/entry?levelId=$LEVEL_ID&isDisabled=false&vehicleNumber=$plate")"; then
+      elapsed=$(( $(now_ms) - started ))
+      break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$mode run $run: process exited, see $log" >&2; return 1
+    fi
+    if (( $(now_ms) - started > TIMEOUT_S * 1000 )); then
+      echo "$mode run $run: no successful entry after ${TIMEOUT_S}s, see $log" >&2
+      kill "$pid"; wait "$pid" 2>/dev/null || true; return 1
+    fi
+    sleep 0.05
+  done
+
+  # free the spot again so every run finds one
+  ticket="$(sed -n 's/.*"id":\([0-9]*\).*/\1/p' <<< "$body")"
+  [ -n "$ticket" ] && curl -sf -X PUT "$BASE_URL/parking/exit?ticketId=$ticket" >/dev/null || true
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  echo "$elapsed"
+}
+
+printf '%-8s %s\n' "mode" "time to first /parking/entry (ms)"
+for mode in "${MODES[@]}"; do
+  results=()
+  for run in $(seq 1 "$RUNS"); do
+    if ms="$(run_once "$mode" "$run")"; then
+      results+=("$ms")
+    fi
+  done
+  printf '%-8s %s\n' "$mode" "${results[*]:-failed}"
+done
@@ -0,0 +1,54 @@
+package com.uday.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Caps each Hikari pool at this service's share of the database's connections:
+ * persistence.pool.connection-budget across all instances of the service,
+ * split over persistence.pool.instances. Within that share a pool gets
+ * cores * per-core + spindles connections, more would only queue on the server.
+ * The budgets of all services together must stay below max_connections.
+ * minimum-idle is left alone, and a pool with an explicit maximum-pool-size keeps it.
+ */
+public class HikariPoolSizing implements BeanPostProcessor {
+
+    // bean name -> prefix the pool is bound from
+    private static final Map<String, String> PREFIXES = Map.of(
+            "dataSource", "spring.datasource.hikari",
+            "primaryDataSource", "spring.datasource.hikari",
+            "replicaDataSource", "spring.datasource.replica");
+
+    private final Environment environment;
+    private final int size;
+
+    public HikariPoolSizing(Environment environment) {
+        this.environment = environment;
+        int budget = environment.getRequiredProperty("persistence.pool.connection-budget", Integer.class);
+        int instances = environment.getProperty("persistence.pool.instances", Integer.class, 1);
+        // the database host's cores when it is not sized like this one
+        int cores = environment.getProperty("persistence.pool.cores", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        int wanted = cores * environment.getProperty("persistence.pool.per-core", Integer.class, 2)
+                + environment.getProperty("persistence.pool.spindles", Integer.class, 1);
+        this.size = Math.max(1, Math.min(wanted, budget / Math.max(1, instances)));
+    }
+
+    /** The prefix a pool bean's Hikari settings are bound from. */
+    public static String prefixFor(String beanName) {
+        return PREFIXES.getOrDefault(beanName, "spring.datasource.hikari");
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource pool
+                && !environment.containsProperty(prefixFor(beanName) + ".maximum-pool-size")) {
+            pool.setMaximumPoolSize(size);
+            System.out.println("Hikari pool " + beanName + " sized to " + size + " connections");
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,24 @@
+package com.uday.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Registers HikariPoolSizing once a service declares its connection budget
+ * (persistence.pool.connection-budget, set in the prod profile).
+ */
+@AutoConfiguration
+@ConditionalOnClass(HikariDataSource.class)
+@ConditionalOnProperty("persistence.pool.connection-budget")
+public class HikariPoolSizingAutoConfiguration {
+
+    // static: a post-processor has to exist before the pools it sizes
+    @Bean
+    public static HikariPoolSizing hikariPoolSizing(Environment environment) {
+        return new HikariPoolSizing(environment);
+    }
+}
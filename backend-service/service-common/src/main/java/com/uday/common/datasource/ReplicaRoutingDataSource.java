@@ -0,0 +1,213 @@
+package com.uday.common.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends read-only transactions opened by the service layer to the replica
+ * pool and everything else to the primary.
+ *
+ * Spring Data runs each repository call made outside a transaction in a
+ * read-only transaction of its own. Those back read-your-writes checks and
+ * stay on the primary. The replica's replay lag is probed on an interval;
+ * while it is unreachable, not streaming from the primary or more than
+ * maxLag behind, reads use the primary.
+ *
+ * Lag is measured against the primary's WAL position rather than on the
+ * standby alone, where one that lost its connection has replayed everything
+ * it received and looks caught up. Each check samples the primary's position;
+ * the replica is as far behind as the newest sample it has not replayed up to
+ * is old.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy so the connection is only
+ * taken once the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    enum Route { PRIMARY, REPLICA }
+
+    // transaction names of Spring Data's implicit repository transactions
+    private static final String REPOSITORY_TX_PREFIX = "org.springframework.data.";
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    // is it a standby at all, is its WAL receiver connected, and how far it has replayed
+    private static final String REPLICA_QUERY = """
+            SELECT pg_is_in_recovery(),
+                   EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming'),
+                   pg_last_wal_replay_lsn()::text""";
+
+    private record Sample(long lsn, long nanos) {
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+
+    private final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // false until the first lag check passes
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = -1;
+    // the primary's position at recent checks, newest last; monitor thread only
+    private final Deque<Sample> primarySamples = new ArrayDeque<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        monitor.scheduleWithFixedDelay(this::checkLag, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!replicaUsable || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name != null && name.startsWith(REPOSITORY_TX_PREFIX) ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return target.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            // do not fail the read, the next lag check decides when to come back
+            markUnusable("connection failed → " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    private void checkLag() {
+        try {
+            // read before the replica, so a caught-up replica is never behind the sample
+            Sample now = new Sample(primaryLsn(), System.nanoTime());
+            primarySamples.addLast(now);
+            while (now.nanos() - primarySamples.peekFirst().nanos() > maxLag.toNanos() + checkInterval.toNanos()) {
+                primarySamples.removeFirst();
+            }
+
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(REPLICA_QUERY)) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    // the replica URL points at a primary (no standby set up)
+                    use(0);
+                    return;
+                }
+                if (!rs.getBoolean(2)) {
+                    lagSeconds = -1;
+                    markUnusable("WAL receiver not streaming");
+                    return;
+                }
+                String replayed = rs.getString(3);
+                double lag = replayed != null ? lagBehind(parseLsn(replayed), now.nanos()) : -1;
+                lagSeconds = lag;
+                if (lag < 0) {
+                    markUnusable("behind every primary position of the last " + maxLag.toMillis() + "ms");
+                } else if (lag * 1000 > maxLag.toMillis()) {
+                    markUnusable("lag " + lag + "s over " + maxLag.toMillis() + "ms");
+                } else {
+                    use(lag);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            lagSeconds = -1;
+            markUnusable("lag check failed → " + e.getMessage());
+        }
+    }
+
+    // Age of the newest primary sample the replica has not replayed up to; -1 when it is behind all of them
+    private double lagBehind(long replayedLsn, long nowNanos) {
+        long caughtUpTo = -1;
+        for (Iterator<Sample> it = primarySamples.descendingIterator(); it.hasNext(); ) {
+            Sample sample = it.next();
+            if (replayedLsn >= sample.lsn()) {
+                caughtUpTo = sample.nanos();
+                break;
+            }
+        }
+        if (caughtUpTo < 0) {
+            return -1;
+        }
+        return caughtUpTo == nowNanos ? 0 : (nowNanos - caughtUpTo) / 1e9;
+    }
+
+    private void use(double lag) {
+        lagSeconds = lag;
+        if (!replicaUsable) {
+            replicaUsable = true;
+            System.out.println("Read replica in use, lag " + lag + "s");
+        }
+    }
+
+    private long primaryLsn() throws SQLException {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+            rs.next();
+            return parseLsn(rs.getString(1));
+        }
+    }
+
+    // "16/B374D848" -> 0x16B374D848
+    private static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private void markUnusable(String reason) {
+        if (replicaUsable) {
+            replicaUsable = false;
+            System.out.println("Read replica bypassed, reads go to the primary: " + reason);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    // -1 while the replica cannot be reached or its lag is unknown
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Override
+    public void destroy() {
+        monitor.shutdownNow();
+    }
+}
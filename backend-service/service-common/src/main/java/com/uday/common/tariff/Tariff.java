@@ -0,0 +1,59 @@
+package com.uday.common.tariff;
+
+import org.springframework.core.env.Environment;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * The tariff in force: {@link TariffRule#STANDARD} unless
+ * ticketing.tariff.minimum-fee / ticketing.tariff.per-hour override it.
+ * parking-lot-service charges it at the exit and ticketing-service quotes it,
+ * both from this bean; set the keys for application "application" on
+ * config-server so a push refreshes the two together.
+ */
+public class Tariff {
+
+    public static final String PREFIX = "ticketing.tariff.";
+
+    private final Environment environment;
+
+    // Both values swapped together on refresh, so a fee never mixes old and new ones
+    private volatile TariffRule rule;
+
+    public Tariff(Environment environment) {
+        this.environment = environment;
+        this.rule = load();
+    }
+
+    // Reloads the rule when a refresh changed one of its keys
+    public void refresh(Set<String> changedKeys) {
+        if (changedKeys.stream().noneMatch(key -> key.startsWith(PREFIX))) {
+            return;
+        }
+        rule = load();
+        System.out.println("Tariff refreshed → " + rule);
+    }
+
+    public TariffRule rule() {
+        return rule;
+    }
+
+    public double fee(LocalDateTime entryTime, LocalDateTime exitTime) {
+        return rule.fee(entryTime, exitTime);
+    }
+
+    // What a stay has cost so far; an open one is priced up to now
+    public double feeSoFar(LocalDateTime entryTime, LocalDateTime exitTime) {
+        if (entryTime == null) {
+            return 0;
+        }
+        return rule.fee(entryTime, exitTime != null ? exitTime : LocalDateTime.now());
+    }
+
+    private TariffRule load() {
+        return new TariffRule(
+                environment.getProperty(PREFIX + "minimum-fee", Double.class, TariffRule.STANDARD.minimumFee()),
+                environment.getProperty(PREFIX + "per-hour", Double.class, TariffRule.STANDARD.perHour()));
+    }
+}
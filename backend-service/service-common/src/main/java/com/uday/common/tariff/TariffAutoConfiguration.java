@@ -0,0 +1,35 @@
+package com.uday.common.tariff;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Registers the {@link Tariff} every service prices stays with, refreshed on
+ * /actuator/refresh where Spring Cloud is on the classpath.
+ */
+@AutoConfiguration
+public class TariffAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Tariff tariff(Environment environment) {
+        return new Tariff(environment);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(EnvironmentChangeEvent.class)
+    static class TariffRefreshConfiguration {
+
+        // Pushed from config-server
+        @Bean
+        public ApplicationListener<EnvironmentChangeEvent> tariffRefreshListener(Tariff tariff) {
+            return event -> tariff.refresh(event.getKeys());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.uday.common.tariff;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * What a stay costs: a rate per whole hour parked, never less than the
+ * minimum fee. Services price stays through the {@link Tariff} bean, which
+ * holds the rule in force.
+ */
+public record TariffRule(double minimumFee, double perHour) {
+
+    public static final TariffRule STANDARD = new TariffRule(600, 50);
+
+    public double fee(LocalDateTime entryTime, LocalDateTime exitTime) {
+        long hours = ChronoUnit.HOURS.between(entryTime, exitTime);
+        return Math.max(minimumFee, hours * perHour);
+    }
+}
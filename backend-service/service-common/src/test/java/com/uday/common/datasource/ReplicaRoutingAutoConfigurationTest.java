@@ -0,0 +1,77 @@
+package com.uday.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ReplicaRoutingAutoConfiguration.class, DataSourceAutoConfiguration.class))
+            // as SpringApplication does, so the Duration @Values convert
+            .withInitializer(context -> context.getBeanFactory().setConversionService(new ApplicationConversionService()))
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:primary-config");
+
+    @Test
+    void bootsDataSourceIsUsedWhenRoutingIsOff() {
+        runner.run(context -> {
+            assertThat(context).hasSingleBean(DataSource.class);
+            assertThat(context).doesNotHaveBean(ReplicaRoutingDataSource.class);
+            assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class);
+        });
+    }
+
+    @Test
+    void routingDataSourceSitsBehindALazyProxy() {
+        runner.withPropertyValues(
+                        "datasource.routing.enabled=true",
+                        "datasource.routing.check-interval=1h",
+                        "spring.datasource.hikari.maximum-pool-size=7",
+                        "spring.datasource.replica.jdbc-url=jdbc:h2:mem:replica-config",
+                        "spring.datasource.replica.maximum-pool-size=3")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(ReplicaRoutingDataSource.class);
+                    // the one DataSource JPA and JDBC pick up
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+
+                    HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+                    assertThat(primary.getPoolName()).isEqualTo("primary");
+                    assertThat(primary.getJdbcUrl()).isEqualTo("jdbc:h2:mem:primary-config");
+                    assertThat(primary.getMaximumPoolSize()).isEqualTo(7);
+
+                    HikariDataSource replica = context.getBean("replicaDataSource", HikariDataSource.class);
+                    assertThat(replica.getPoolName()).isEqualTo("replica");
+                    assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:h2:mem:replica-config");
+                    assertThat(replica.getMaximumPoolSize()).isEqualTo(3);
+                    assertThat(replica.isReadOnly()).isTrue();
+                    assertThat(replica.getConnectionTimeout()).isEqualTo(1000);
+
+                    // not a Postgres standby: the first lag check keeps reads on the primary
+                    assertThat(context.getBean(ReplicaRoutingDataSource.class).isReplicaUsable()).isFalse();
+                });
+    }
+
+    @Test
+    void replicaStateIsExportedAsGauges() {
+        runner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "datasource.routing.enabled=true",
+                        "datasource.routing.check-interval=1h",
+                        "spring.datasource.replica.jdbc-url=jdbc:h2:mem:replica-config")
+                .run(context -> {
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertThat(registry.get("datasource.replica.usable").gauge().value()).isZero();
+                    assertThat(registry.get("datasource.replica.lag").gauge().value()).isEqualTo(-1);
+                });
+    }
+}
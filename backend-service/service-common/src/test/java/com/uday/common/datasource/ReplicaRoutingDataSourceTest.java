@@ -0,0 +1,158 @@
+package com.uday.common.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes through two in-memory databases standing in for a Postgres primary
+ * and its standby: the WAL functions the lag check calls are aliased to Wal,
+ * whose positions the tests move, and pg_stat_wal_receiver is a plain table.
+ * Each database answers "SELECT name FROM server" with its role.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofMillis(300);
+    private static final Duration CHECK_INTERVAL = Duration.ofMillis(50);
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void startDatabases() {
+        Wal.written = 0x1_0000_0100L;
+        Wal.replayed = Wal.written;
+
+        primary = standIn("primary");
+        primary.execute("CREATE ALIAS pg_current_wal_lsn FOR '" + Wal.class.getName() + ".primaryLsn'");
+        replica = standIn("replica");
+        replica.execute("CREATE ALIAS pg_is_in_recovery FOR '" + Wal.class.getName() + ".inRecovery'");
+        replica.execute("CREATE ALIAS pg_last_wal_replay_lsn FOR '" + Wal.class.getName() + ".replayedLsn'");
+        replica.execute("CREATE TABLE pg_stat_wal_receiver (status VARCHAR(20))");
+        replica.execute("INSERT INTO pg_stat_wal_receiver VALUES ('streaming')");
+
+        routing = new ReplicaRoutingDataSource(primary.getDataSource(), replica.getDataSource(), MAX_LAG, CHECK_INTERVAL);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void stopDatabases() {
+        routing.destroy();
+        primary.execute("SHUTDOWN");
+        replica.execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() throws InterruptedException {
+        await(routing::isReplicaUsable);
+
+        assertThat(serverIn(readOnly)).isEqualTo("replica");
+        assertThat(serverIn(readWrite)).isEqualTo("primary");
+        assertThat(server()).isEqualTo("primary");
+        assertThat(routing.getLagSeconds()).isBetween(0.0, MAX_LAG.toMillis() / 1000.0);
+    }
+
+    @Test
+    void repositoryTransactionsStayOnThePrimary() throws InterruptedException {
+        await(routing::isReplicaUsable);
+
+        // what Spring Data names the read-only transaction of a repository call made outside one
+        readOnly.setName("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById");
+        assertThat(serverIn(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() throws InterruptedException {
+        await(routing::isReplicaUsable);
+
+        // the primary moves on, the replica stops replaying
+        Wal.written += 0x1000;
+        await(() -> !routing.isReplicaUsable());
+        assertThat(serverIn(readOnly)).isEqualTo("primary");
+
+        // caught up again
+        Wal.replayed = Wal.written;
+        await(routing::isReplicaUsable);
+        assertThat(serverIn(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaNotStreamingIsBypassed() throws InterruptedException {
+        await(routing::isReplicaUsable);
+
+        // a disconnected standby has replayed all it received and looks caught up
+        replica.execute("DELETE FROM pg_stat_wal_receiver");
+        await(() -> !routing.isReplicaUsable());
+        assertThat(routing.getLagSeconds()).isEqualTo(-1);
+        assertThat(serverIn(readOnly)).isEqualTo("primary");
+    }
+
+    private String serverIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> server());
+    }
+
+    private String server() {
+        return jdbc.queryForObject("SELECT name FROM server", String.class);
+    }
+
+    private static JdbcTemplate standIn(String role) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE server (name VARCHAR(20))");
+        jdbc.update("INSERT INTO server VALUES (?)", role);
+        return jdbc;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /** WAL positions the stand-ins report, as Postgres formats them. */
+    public static final class Wal {
+
+        static volatile long written;
+        static volatile long replayed;
+
+        public static String primaryLsn() {
+            return format(written);
+        }
+
+        public static String replayedLsn() {
+            return format(replayed);
+        }
+
+        public static boolean inRecovery() {
+            return true;
+        }
+
+        private static String format(long lsn) {
+            return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+        }
+    }
+}
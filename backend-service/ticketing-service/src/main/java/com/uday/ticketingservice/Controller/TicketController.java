@@ -1,11 +1,26 @@
 package com.uday.ticketingservice.Controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.common.tariff.Tariff;
+import com.uday.ticketingservice.DTO.OverstayResponse;
 import com.uday.ticketingservice.DTO.TicketResponse;
+import com.uday.ticketingservice.DTO.TicketViewResponse;
 import com.uday.ticketingservice.Entity.Ticket;
+import com.uday.ticketingservice.readmodel.OverstayIndex;
+import com.uday.ticketingservice.readmodel.TicketReadModel;
+import com.uday.ticketingservice.readmodel.TicketView;
 import com.uday.ticketingservice.ticketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -15,15 +30,36 @@ public class TicketController {
     @Autowired
     private ticketService ticketService;
 
+    @Autowired
+    private TicketReadModel readModel;
+
+    @Autowired
+    private Tariff tariff;
+
+    @Autowired
+    private OverstayIndex overstayIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
       @GetMapping
     public ResponseEntity<String> ticketsHome() {
         return ResponseEntity.ok("Ticketing Service is up and running!");
     }
 
     @PostMapping("/create")
-    public ResponseEntity<TicketResponse> createTicket(@RequestParam Long spotId,@RequestParam String vehicleNumber) {
+    public ResponseEntity<TicketResponse> createTicket(@RequestParam Long spotId,
+                                                       @RequestParam String vehicleNumber,
+                                                       @RequestParam(required = false) Long levelId,
+                                                       @RequestParam(required = false) String levelNumber,
+                                                       @RequestParam(required = false) Boolean isDisabled,
+                                                       @RequestParam(required = false) String vehicleType,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime entryTime,
+                                                       @RequestParam(required = false) Long ticketId) {
           System.out.println("ticket create called in controller");
-        Ticket ticket = ticketService.createTicket(spotId,vehicleNumber);
+        Ticket ticket = ticketService.createTicket(spotId, vehicleNumber, levelId, levelNumber, isDisabled, vehicleType,
+                entryTime, ticketId);
         return ResponseEntity.ok(
                 new TicketResponse(
                 ticket.getId(),
@@ -34,12 +70,50 @@ public class TicketController {
     }
 
     @PutMapping("/exit/{ticketId}")
-    public ResponseEntity<Ticket> exit(@PathVariable Long ticketId) {
-        return ResponseEntity.ok(ticketService.exit(ticketId));
+    public ResponseEntity<TicketView> exit(@PathVariable Long ticketId,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime exitTime) {
+        return ResponseEntity.ok(TicketView.from(ticketService.exit(ticketId, exitTime)));
     }
 
+    // Served from the in-memory read model; the ticket table is only read on a miss
     @GetMapping("/{ticketId}")
-    public Ticket getTicket(@PathVariable Long ticketId) {
-        return ticketService.getTicket(ticketId);
+    public TicketViewResponse getTicket(@PathVariable Long ticketId) {
+        TicketView view = readModel.findById(ticketId)
+                .orElseGet(() -> TicketView.from(ticketService.getTicket(ticketId)));
+        return new TicketViewResponse(view, tariff.feeSoFar(view.entryTime(), view.exitTime()));
+    }
+
+    @GetMapping("/vehicle/{vehicleNumber}")
+    public List<TicketViewResponse> getTicketsForVehicle(@PathVariable String vehicleNumber,
+                                                         @RequestParam(defaultValue = "false") boolean activeOnly) {
+        return readModel.findByVehicle(vehicleNumber, activeOnly).stream()
+                .map(view -> new TicketViewResponse(view, tariff.feeSoFar(view.entryTime(), view.exitTime())))
+                .toList();
+    }
+
+    /**
+     * Open tickets parked longer than minMinutes (the tariff's max stay by
+     * default), longest first, as NDJSON written while the index is walked.
+     */
+    @GetMapping(value = "/overstays", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getOverstays(@RequestParam(required = false) Long minMinutes,
+                                                              @RequestParam(defaultValue = "10000") int limit) {
+        if (limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        Duration olderThan = minMinutes != null ? Duration.ofMinutes(minMinutes) : null;
+        StreamingResponseBody body = (OutputStream out) -> {
+            Iterator<OverstayResponse> offenders = overstayIndex.offenders(olderThan).limit(limit).iterator();
+            int written = 0;
+            while (offenders.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(offenders.next()));
+                out.write('\n');
+                if (++written % 100 == 0) {
+                    out.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 }
@@ -0,0 +1,14 @@
+package com.uday.ticketingservice.DTO;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.uday.ticketingservice.readmodel.OverstayIndex;
+import com.uday.ticketingservice.readmodel.TicketView;
+
+// One line of GET /ticketing/overstays
+public record OverstayResponse(
+        @JsonUnwrapped TicketView ticket,
+        long minutesParked,
+        double feeSoFar,
+        OverstayIndex.Kind kind
+) {
+}
@@ -0,0 +1,10 @@
+package com.uday.ticketingservice.DTO;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.uday.ticketingservice.readmodel.TicketView;
+
+public record TicketViewResponse(
+        @JsonUnwrapped TicketView ticket,
+        double feeSoFar
+) {
+}
@@ -1,10 +1,15 @@
 package com.uday.ticketingservice.Entity;
 
+import com.uday.ids.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_ticket_updated_at", columnList = "updatedAt"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,7 +17,7 @@ import java.time.LocalDateTime;
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String vehicleNumber;
@@ -22,4 +27,18 @@ public class Ticket {
     private LocalDateTime entryTime;
 
     private LocalDateTime exitTime;
+
+    // Denormalized at entry so the read model can be rebuilt from this table alone
+    private Long levelId;
+
+    private String levelNumber;
+
+    private Boolean disabled;
+
+    private String vehicleType;
+
+    // Database clock on every write, so the read model can catch up on changes
+    // made by any instance; ids are minted at the gates and say nothing about order
+    @UpdateTimestamp(source = SourceType.DB)
+    private LocalDateTime updatedAt;
 }
@@ -1,12 +1,22 @@
 package com.uday.ticketingservice.Repository;
 
 import com.uday.ticketingservice.Entity.Ticket;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
     Optional<Ticket> findByVehicleNumber(String vehicleNumber);
     Optional<Ticket> findByVehicleNumberAndExitTimeIsNull(String vehicleNumber);
 
+    // read model catch-up: rows written since a watermark
+    Slice<Ticket> findByUpdatedAtGreaterThanEqual(LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT MAX(t.updatedAt) FROM Ticket t")
+    LocalDateTime findLastUpdate();
+
 }
@@ -0,0 +1,164 @@
+package com.uday.ticketingservice.readmodel;
+
+import com.uday.common.tariff.Tariff;
+import com.uday.ticketingservice.DTO.OverstayResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Open tickets ordered by entry time, so the ones parked longest are always
+ * at the head. Finding everyone parked past a limit walks the head of the
+ * skip list and stops at the first ticket under it: O(k) for k offenders,
+ * however many tickets the table holds.
+ *
+ * Fed by TicketReadModel, which also covers startup (snapshot + catch-up)
+ * and tickets opened or closed by other instances (periodic catch-up);
+ * closing a ticket takes it out.
+ */
+@Component
+public class OverstayIndex {
+
+    // OVERSTAY: past the tariff's maximum stay; UNCLOSED: so old the exit most likely failed halfway
+    public enum Kind { OVERSTAY, UNCLOSED }
+
+    private record Entry(long entryMillis, long id, TicketView view) {
+    }
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingLong(Entry::entryMillis).thenComparingLong(Entry::id);
+
+    private final Tariff tariff;
+    private final Duration maxStay;
+    private final Duration unclosedAfter;
+    private final Duration checkInterval;
+    private final Counter alerts;
+
+    private final NavigableSet<Entry> byEntryTime = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Entry> active = new ConcurrentHashMap<>();
+
+    // offenders already reported; only touched by the checker thread
+    private final Set<Long> alerted = new HashSet<>();
+    private final AtomicInteger offenders = new AtomicInteger();
+
+    private final ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "overstay-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OverstayIndex(Tariff tariff,
+                         MeterRegistry meterRegistry,
+                         @Value("${ticketing.overstay.max-stay:24h}") Duration maxStay,
+                         @Value("${ticketing.overstay.unclosed-after:72h}") Duration unclosedAfter,
+                         @Value("${ticketing.overstay.check-interval:1m}") Duration checkInterval) {
+        this.tariff = tariff;
+        this.maxStay = maxStay;
+        this.unclosedAfter = unclosedAfter;
+        this.checkInterval = checkInterval;
+        this.alerts = meterRegistry.counter("ticketing.overstay.alerts");
+        meterRegistry.gauge("ticketing.overstay.offenders", offenders);
+        meterRegistry.gauge("ticketing.overstay.active", active, Map::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        checker.scheduleWithFixedDelay(this::checkSafely,
+                checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Called by the read model for every ticket it stores
+    public void update(TicketView view) {
+        active.compute(view.id(), (id, previous) -> {
+            if (previous != null) {
+                byEntryTime.remove(previous);
+            }
+            if (!view.isActive() || view.entryTime() == null) {
+                return null;
+            }
+            Entry entry = new Entry(millis(view.entryTime()), id, view);
+            byEntryTime.add(entry);
+            return entry;
+        });
+    }
+
+    public void remove(Long ticketId) {
+        Entry previous = active.remove(ticketId);
+        if (previous != null) {
+            byEntryTime.remove(previous);
+        }
+    }
+
+    /**
+     * Open tickets parked longer than olderThan (the max stay when null),
+     * longest first. Lazy: consuming the first n costs O(n).
+     */
+    public Stream<OverstayResponse> offenders(Duration olderThan) {
+        LocalDateTime now = LocalDateTime.now();
+        return parkedBefore(now.minus(olderThan != null ? olderThan : maxStay))
+                .map(entry -> toResponse(entry.view(), now));
+    }
+
+    private Stream<Entry> parkedBefore(LocalDateTime cutoff) {
+        return byEntryTime.headSet(new Entry(millis(cutoff), Long.MIN_VALUE, null), false).stream();
+    }
+
+    private OverstayResponse toResponse(TicketView view, LocalDateTime now) {
+        Duration parked = Duration.between(view.entryTime(), now);
+        Kind kind = parked.compareTo(unclosedAfter) >= 0 ? Kind.UNCLOSED : Kind.OVERSTAY;
+        return new OverstayResponse(view, parked.toMinutes(), tariff.feeSoFar(view.entryTime(), view.exitTime()), kind);
+    }
+
+    private void checkSafely() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            System.out.println("Overstay check failed → " + e.getMessage());
+        }
+    }
+
+    // Reports each offender once, when it first crosses the max stay
+    private void check() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> current = new HashSet<>();
+        parkedBefore(now.minus(maxStay)).forEach(entry -> {
+            current.add(entry.id());
+            if (alerted.add(entry.id())) {
+                OverstayResponse offender = toResponse(entry.view(), now);
+                alerts.increment();
+                System.out.println("Overstay → ticket " + entry.id() + " vehicle " + entry.view().vehicleNumber()
+                        + " parked " + offender.minutesParked() + " min (" + offender.kind() + ")");
+            }
+        });
+        alerted.retainAll(current);
+        offenders.set(current.size());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @PreDestroy
+    public void stop() {
+        checker.shutdownNow();
+    }
+}
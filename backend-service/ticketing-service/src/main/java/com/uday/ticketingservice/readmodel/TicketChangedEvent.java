@@ -0,0 +1,7 @@
+package com.uday.ticketingservice.readmodel;
+
+import com.uday.ticketingservice.Entity.Ticket;
+
+// Published by the write side after every ticket insert/update
+public record TicketChangedEvent(Ticket ticket) {
+}
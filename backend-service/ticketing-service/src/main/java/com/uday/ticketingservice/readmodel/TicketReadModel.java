@@ -0,0 +1,352 @@
+package com.uday.ticketingservice.readmodel;
+
+import com.uday.ticketingservice.Entity.Ticket;
+import com.uday.ticketingservice.Repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Memory-resident query side for tickets. Kept current by TicketChangedEvent
+ * from the write side, so lookups by id and by vehicle number never hit the
+ * ticket table. Events only cover this instance's writes: with more than one
+ * instance the rest arrive through a catch-up on an interval.
+ *
+ * The whole model is written to a compact binary snapshot on an interval.
+ * On startup the snapshot is loaded and only the rows written since its
+ * watermark are read back from the database (a full rebuild when there is
+ * none). The watermark is the latest updatedAt in the ticket table before
+ * the last read, on the database clock; catch-up starts an overlap earlier
+ * so rows committed late by a slow transaction are not skipped. Ticket ids
+ * come from the gates and do not follow commit order, so they are no
+ * watermark. Closed tickets older than the retention are dropped from memory.
+ */
+@Component
+public class TicketReadModel {
+
+    private static final int SNAPSHOT_MAGIC = 0x54524D32; // "TRM2"
+    private static final int PAGE_SIZE = 1000;
+    // watermark of a table without any stamped row
+    private static final LocalDateTime NOTHING_SEEN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TicketRepository repository;
+    private final OverstayIndex overstays;
+
+    private final Map<Long, TicketView> byId = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<Long>> byVehicle = new ConcurrentHashMap<>();
+
+    private final Path snapshotFile;
+    private final Duration snapshotInterval;
+    private final Duration retention;
+    private final Duration catchUpInterval;
+    private final Duration catchUpOverlap;
+    // false only for the AppCDS training run, which has no database
+    private final boolean loadOnStart;
+
+    private final ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ticket-read-model-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean dirty;
+    // everything written up to this point (less the overlap) has been read
+    private volatile LocalDateTime watermark = NOTHING_SEEN;
+
+    public TicketReadModel(TicketRepository repository,
+                           OverstayIndex overstays,
+                           @Value("${ticketing.read-model.snapshot-file:data/ticket-read-model.snapshot}") String snapshotFile,
+                           @Value("${ticketing.read-model.snapshot-interval:30s}") Duration snapshotInterval,
+                           @Value("${ticketing.read-model.retention:30d}") Duration retention,
+                           @Value("${ticketing.read-model.catch-up-interval:15s}") Duration catchUpInterval,
+                           @Value("${ticketing.read-model.catch-up-overlap:1m}") Duration catchUpOverlap,
+                           @Value("${ticketing.read-model.load-on-start:true}") boolean loadOnStart) {
+        this.repository = repository;
+        this.overstays = overstays;
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.snapshotInterval = snapshotInterval;
+        this.retention = retention;
+        this.catchUpInterval = catchUpInterval;
+        this.catchUpOverlap = catchUpOverlap;
+        this.loadOnStart = loadOnStart;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!loadOnStart) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime snapshotWatermark = loadSnapshot();
+        if (snapshotWatermark == null) {
+            rebuild();
+        } else {
+            watermark = snapshotWatermark;
+            catchUp();
+        }
+        System.out.println("Ticket read model ready: " + byId.size() + " tickets in "
+                + (System.currentTimeMillis() - startedAt) + " ms");
+
+        snapshotter.scheduleWithFixedDelay(this::catchUpSafely,
+                catchUpInterval.toMillis(), catchUpInterval.toMillis(), TimeUnit.MILLISECONDS);
+        snapshotter.scheduleWithFixedDelay(this::snapshotSafely,
+                snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // ================= QUERIES =================
+    public Optional<TicketView> findById(Long ticketId) {
+        return Optional.ofNullable(byId.get(ticketId));
+    }
+
+    // newest first
+    public List<TicketView> findByVehicle(String vehicleNumber, boolean activeOnly) {
+        NavigableSet<Long> ids = byVehicle.get(normalize(vehicleNumber));
+        if (ids == null) {
+            return List.of();
+        }
+        List<TicketView> views = new ArrayList<>();
+        for (Long id : ids) {
+            TicketView view = byId.get(id);
+            if (view != null && (!activeOnly || view.isActive())) {
+                views.add(view);
+            }
+        }
+        return views;
+    }
+
+    // ================= UPDATES =================
+    @EventListener
+    public void on(TicketChangedEvent event) {
+        apply(TicketView.from(event.ticket()));
+    }
+
+    public void apply(TicketView view) {
+        if (view.id() == null) {
+            return;
+        }
+        byId.put(view.id(), view);
+        if (view.vehicleNumber() != null) {
+            byVehicle.computeIfAbsent(normalize(view.vehicleNumber()),
+                    plate -> new ConcurrentSkipListSet<>(Comparator.reverseOrder())).add(view.id());
+        }
+        overstays.update(view);
+        dirty = true;
+    }
+
+    private void remove(TicketView view) {
+        byId.remove(view.id());
+        if (view.vehicleNumber() != null) {
+            NavigableSet<Long> ids = byVehicle.get(normalize(view.vehicleNumber()));
+            if (ids != null) {
+                ids.remove(view.id());
+            }
+        }
+        overstays.remove(view.id());
+        dirty = true;
+    }
+
+    private void rebuild() {
+        LocalDateTime next = lastUpdate();
+        int page = 0;
+        Page<Ticket> batch;
+        do {
+            batch = repository.findAll(PageRequest.of(page++, PAGE_SIZE, Sort.by("id")));
+            batch.forEach(ticket -> apply(TicketView.from(ticket)));
+        } while (batch.hasNext());
+        // rows committed while paging are picked up by the next catch-up
+        watermark = next;
+        evictExpired();
+    }
+
+    private void catchUpSafely() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            // the watermark stays put, so the next run reads the same rows again
+            System.out.println("Ticket read model catch-up failed → " + e.getMessage());
+        }
+    }
+
+    // A row read here can be older than an event applied meanwhile; the next catch-up reads the newer row
+    private void catchUp() {
+        LocalDateTime next = lastUpdate();
+        LocalDateTime since = watermark.minus(catchUpOverlap);
+        int page = 0;
+        Slice<Ticket> batch;
+        do {
+            batch = repository.findByUpdatedAtGreaterThanEqual(since,
+                    PageRequest.of(page++, PAGE_SIZE, Sort.by("updatedAt", "id")));
+            batch.forEach(ticket -> apply(TicketView.from(ticket)));
+        } while (batch.hasNext());
+        watermark = next;
+    }
+
+    private LocalDateTime lastUpdate() {
+        LocalDateTime last = repository.findLastUpdate();
+        return last != null ? last : NOTHING_SEEN;
+    }
+
+    private void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        for (TicketView view : List.copyOf(byId.values())) {
+            if (view.exitTime() != null && view.exitTime().isBefore(cutoff)) {
+                remove(view);
+            }
+        }
+    }
+
+    // ================= SNAPSHOTS =================
+    private void snapshotSafely() {
+        try {
+            evictExpired();
+            if (dirty) {
+                writeSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ticket read model snapshot failed → " + e.getMessage());
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        dirty = false;
+        // read before the views, a change applied in between is read again on load
+        LocalDateTime snapshotWatermark = watermark;
+        List<TicketView> views = List.copyOf(byId.values());
+
+        if (snapshotFile.getParent() != null) {
+            Files.createDirectories(snapshotFile.getParent());
+        }
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            writeTime(out, snapshotWatermark);
+            out.writeInt(views.size());
+            for (TicketView view : views) {
+                out.writeLong(view.id());
+                writeString(out, view.vehicleNumber());
+                writeLong(out, view.spotId());
+                writeLong(out, view.levelId());
+                writeString(out, view.levelNumber());
+                out.writeByte(view.disabled() == null ? -1 : view.disabled() ? 1 : 0);
+                writeString(out, view.vehicleType());
+                writeTime(out, view.entryTime());
+                writeTime(out, view.exitTime());
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private LocalDateTime loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                System.out.println("Ignoring unknown ticket read model snapshot format");
+                return null;
+            }
+            LocalDateTime snapshotWatermark = readTime(in);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                String vehicleNumber = readString(in);
+                Long spotId = readLong(in);
+                Long levelId = readLong(in);
+                String levelNumber = readString(in);
+                byte disabled = in.readByte();
+                String vehicleType = readString(in);
+                LocalDateTime entryTime = readTime(in);
+                LocalDateTime exitTime = readTime(in);
+                apply(new TicketView(id, vehicleNumber, spotId, levelId, levelNumber,
+                        disabled < 0 ? null : disabled == 1, vehicleType, entryTime, exitTime));
+            }
+            return snapshotWatermark;
+        } catch (IOException e) {
+            // fall back to a full rebuild
+            System.out.println("Ticket read model snapshot unreadable → " + e.getMessage());
+            byId.keySet().forEach(overstays::remove);
+            byId.clear();
+            byVehicle.clear();
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static String normalize(String vehicleNumber) {
+        return vehicleNumber.trim().toUpperCase();
+    }
+
+    @PreDestroy
+    public void stop() {
+        snapshotter.shutdown();
+        snapshotSafely();
+    }
+}
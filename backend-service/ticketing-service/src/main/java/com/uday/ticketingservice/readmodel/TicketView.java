@@ -0,0 +1,37 @@
+package com.uday.ticketingservice.readmodel;
+
+import com.uday.ticketingservice.Entity.Ticket;
+
+import java.time.LocalDateTime;
+
+// Denormalized, immutable row of the ticket read model
+public record TicketView(
+        Long id,
+        String vehicleNumber,
+        Long spotId,
+        Long levelId,
+        String levelNumber,
+        Boolean disabled,
+        String vehicleType,
+        LocalDateTime entryTime,
+        LocalDateTime exitTime
+) {
+
+    public static TicketView from(Ticket ticket) {
+        return new TicketView(
+                ticket.getId(),
+                ticket.getVehicleNumber(),
+                ticket.getSpotId(),
+                ticket.getLevelId(),
+                ticket.getLevelNumber(),
+                ticket.getDisabled(),
+                ticket.getVehicleType(),
+                ticket.getEntryTime(),
+                ticket.getExitTime()
+        );
+    }
+
+    public boolean isActive() {
+        return exitTime == null;
+    }
+}
@@ -1,9 +1,13 @@
 package com.uday.ticketingservice;
 
+import com.uday.ids.SnowflakeIdGenerator;
 import com.uday.ticketingservice.Entity.Ticket;
 import com.uday.ticketingservice.Repository.TicketRepository;
+import com.uday.ticketingservice.readmodel.TicketChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
@@ -17,7 +21,32 @@ public class ticketService {
     @Autowired
     private TicketRepository ticketRepository;
 
+    @Autowired
+    private ApplicationEventPublisher events;
+
     public Ticket createTicket(Long spotId, String vehicleNumber) {
+        return createTicket(spotId, vehicleNumber, null, null, null, null);
+    }
+
+    public Ticket createTicket(Long spotId, String vehicleNumber,
+                               Long levelId, String levelNumber,
+                               Boolean disabled, String vehicleType) {
+        return createTicket(spotId, vehicleNumber, levelId, levelNumber, disabled, vehicleType, null);
+    }
+
+    // entryTime is only set by edge gates replaying entries recorded while offline
+    public Ticket createTicket(Long spotId, String vehicleNumber,
+                               Long levelId, String levelNumber,
+                               Boolean disabled, String vehicleType,
+                               LocalDateTime entryTime) {
+        return createTicket(spotId, vehicleNumber, levelId, levelNumber, disabled, vehicleType, entryTime, null);
+    }
+
+    // ticketId: minted by the gate before calling; a repeated call finds the open ticket below
+    public Ticket createTicket(Long spotId, String vehicleNumber,
+                               Long levelId, String levelNumber,
+                               Boolean disabled, String vehicleType,
+                               LocalDateTime entryTime, Long ticketId) {
 
     //Checking for any active tickets
         Optional<Ticket> activeTicket =
@@ -31,13 +60,23 @@ public class ticketService {
         Ticket ticket = new Ticket();
         ticket.setSpotId(spotId);
         ticket.setVehicleNumber(vehicleNumber);
-        ticket.setEntryTime(LocalDateTime.now());
+        ticket.setEntryTime(entryTime != null ? entryTime : LocalDateTime.now());
         ticket.setExitTime(null);
+        ticket.setLevelId(levelId);
+        ticket.setLevelNumber(levelNumber);
+        ticket.setDisabled(disabled);
+        ticket.setVehicleType(vehicleType);
 
-        return ticketRepository.save(ticket);
+        Ticket saved = SnowflakeIdGenerator.persistWithId(ticketId, () -> ticketRepository.save(ticket));
+        events.publishEvent(new TicketChangedEvent(saved));
+        return saved;
     }
 
     public Ticket exit(Long ticketId) {
+        return exit(ticketId, null);
+    }
+
+    public Ticket exit(Long ticketId, LocalDateTime exitTime) {
 
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() ->
@@ -47,10 +86,14 @@ public class ticketService {
         if (ticket.getExitTime() != null) {
             throw new IllegalStateException("Ticket already closed");
         }
-        ticket.setExitTime(LocalDateTime.now());
-        return ticketRepository.save(ticket);
+        ticket.setExitTime(exitTime != null ? exitTime : LocalDateTime.now());
+        Ticket saved = ticketRepository.save(ticket);
+        events.publishEvent(new TicketChangedEvent(saved));
+        return saved;
     }
 
+    // read-model miss; may be served by the read replica
+    @Transactional(readOnly = true)
     public Ticket getTicket(Long ticketId) {
         System.out.println(ticketId);
         return ticketRepository.findById(ticketId)
@@ -1,9 +1,12 @@
 package com.uday.vehicleservice;
 
+import com.uday.vehicleservice.dto.VehicleResponse;
 import com.uday.vehicleservice.entity.Vehicle;
 import com.uday.vehicleservice.repository.VehicleRepository;
+import com.uday.vehicleservice.search.PlateIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,19 +16,35 @@ public class VehicleService {
     @Autowired
     private VehicleRepository repo;
 
-    public Vehicle saveVehicle(Vehicle vehicle) {
-        return repo.save(vehicle);
+    @Autowired
+    private PlateIndex plateIndex;
+
+    public VehicleResponse saveVehicle(Vehicle vehicle) {
+        VehicleResponse saved = VehicleResponse.from(repo.save(vehicle));
+        plateIndex.saved(saved);
+        return saved;
     }
 
-    public List<Vehicle> getAllVehicles() {
-        return repo.findAll();
+    @Transactional(readOnly = true)
+    public List<VehicleResponse> getAllVehicles() {
+        return repo.findAllViews();
     }
 
-    public List<Vehicle> getVehicleByLicense(String licensePlate) {
-        return repo.findByLicensePlate(licensePlate);
+    @Transactional(readOnly = true)
+    public List<VehicleResponse> getVehicleByLicense(String licensePlate) {
+        return repo.findViewsByLicensePlate(licensePlate);
     }
 
     public void deleteVehicle(Long id) {
         repo.deleteById(id);
+        plateIndex.deleted(id);
+    }
+
+    // "KA01*" is a prefix lookup; anything else matches plates within maxDistance edits
+    public List<PlateIndex.PlateMatch> searchPlates(String query, int maxDistance, int limit) {
+        if (query.endsWith("*")) {
+            return plateIndex.prefix(query.substring(0, query.length() - 1), limit);
+        }
+        return plateIndex.similar(query, maxDistance, limit);
     }
 }
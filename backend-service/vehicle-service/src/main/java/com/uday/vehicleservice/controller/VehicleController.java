@@ -1,7 +1,9 @@
 package com.uday.vehicleservice.controller;
 
 import com.uday.vehicleservice.VehicleService;
+import com.uday.vehicleservice.dto.VehicleResponse;
 import com.uday.vehicleservice.entity.Vehicle;
+import com.uday.vehicleservice.search.PlateIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,23 +18,32 @@ public class VehicleController {
     private VehicleService vehicleService;
 
     @PostMapping("/save")
-    public ResponseEntity<Vehicle> saveVehicle(@RequestBody Vehicle vehicle) {
-        Vehicle saved = vehicleService.saveVehicle(vehicle);
+    public ResponseEntity<VehicleResponse> saveVehicle(@RequestBody Vehicle vehicle) {
+        VehicleResponse saved = vehicleService.saveVehicle(vehicle);
         return ResponseEntity.ok(saved);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<Vehicle>> getAllVehicles() {
-        List<Vehicle> vehicles = vehicleService.getAllVehicles();
+    public ResponseEntity<List<VehicleResponse>> getAllVehicles() {
+        List<VehicleResponse> vehicles = vehicleService.getAllVehicles();
         if (vehicles.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.ok(vehicles);
     }
 
+    // Prefix ("KA01*") or OCR-tolerant plate lookup from the in-memory plate index
+    @GetMapping("/search")
+    public ResponseEntity<List<PlateIndex.PlateMatch>> searchPlates(
+            @RequestParam String plate,
+            @RequestParam(defaultValue = "1") int maxDistance,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(vehicleService.searchPlates(plate, maxDistance, Math.min(limit, 500)));
+    }
+
     @GetMapping("/{licensePlate}")
     public ResponseEntity<?> getVehicleByLicense(@PathVariable String licensePlate) {
-        List<Vehicle> vehicles = vehicleService.getVehicleByLicense(licensePlate);
+        List<VehicleResponse> vehicles = vehicleService.getVehicleByLicense(licensePlate);
 
         if (vehicles.isEmpty()) {
             return ResponseEntity.status(404)
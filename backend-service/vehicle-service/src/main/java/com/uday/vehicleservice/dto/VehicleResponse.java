@@ -0,0 +1,18 @@
+package com.uday.vehicleservice.dto;
+
+import com.uday.vehicleservice.entity.Vehicle;
+import com.uday.vehicleservice.entity.VehicleType;
+
+// Vehicle as served over HTTP; same JSON shape as the entity
+public record VehicleResponse(
+        Long id,
+        String licensePlate,
+        VehicleType type,
+        boolean disabled
+) {
+
+    public static VehicleResponse from(Vehicle vehicle) {
+        return new VehicleResponse(vehicle.getId(), vehicle.getLicensePlate(),
+                vehicle.getType(), vehicle.isDisabled());
+    }
+}
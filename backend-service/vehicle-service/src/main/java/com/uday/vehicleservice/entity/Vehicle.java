@@ -1,12 +1,13 @@
 package com.uday.vehicleservice.entity;
 
+import com.uday.ids.SnowflakeId;
 import jakarta.persistence.*;
 
 @Entity
 public class Vehicle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String licensePlate;
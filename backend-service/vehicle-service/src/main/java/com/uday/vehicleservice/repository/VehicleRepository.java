@@ -1,12 +1,32 @@
 package com.uday.vehicleservice.repository;
 
+import com.uday.vehicleservice.dto.VehicleResponse;
 import com.uday.vehicleservice.entity.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
-    List<Vehicle> findByLicensePlate(String licensePlate);
+    // Read-side projections, no managed entities
+    @Query("SELECT new com.uday.vehicleservice.dto.VehicleResponse(v.id, v.licensePlate, v.type, v.isDisabled) "
+            + "FROM Vehicle v ORDER BY v.id")
+    List<VehicleResponse> findAllViews();
+
+    @Query("SELECT new com.uday.vehicleservice.dto.VehicleResponse(v.id, v.licensePlate, v.type, v.isDisabled) "
+            + "FROM Vehicle v WHERE v.licensePlate = :licensePlate")
+    List<VehicleResponse> findViewsByLicensePlate(@Param("licensePlate") String licensePlate);
+
+    // Whole table for the plate index rebuild; read in chunks, call inside a transaction
+    @Query("SELECT new com.uday.vehicleservice.dto.VehicleResponse(v.id, v.licensePlate, v.type, v.isDisabled) "
+            + "FROM Vehicle v")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<VehicleResponse> streamAllViews();
 }
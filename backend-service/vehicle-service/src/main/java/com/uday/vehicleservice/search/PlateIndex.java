@@ -0,0 +1,230 @@
+package com.uday.vehicleservice.search;
+
+import com.uday.vehicleservice.dto.VehicleResponse;
+import com.uday.vehicleservice.repository.VehicleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * In-memory plate search for gate cameras and operators: prefix lookups
+ * ("KA01*") and lookups within one or two OCR errors, answered from a trie
+ * of normalized plates (upper case, letters and digits only) without
+ * touching the DB.
+ *
+ * Saves and deletes on this instance are applied as they happen. A full
+ * rebuild from the DB on startup and every rebuild-interval picks up writes
+ * made by other instances and compacts nodes left by deletes; writes made
+ * while it runs are replayed onto the new trie before it is swapped in.
+ */
+@Component
+public class PlateIndex {
+
+    public record PlateMatch(String plate, int distance, List<VehicleResponse> vehicles) {
+    }
+
+    // Trie plus the vehicles behind each plate; swapped as a whole on rebuild
+    private static final class Generation {
+        final PlateTrie trie = new PlateTrie();
+        final Map<String, List<VehicleResponse>> byPlate = new HashMap<>();
+        final Map<Long, String> plateById = new HashMap<>();
+
+        void put(VehicleResponse vehicle) {
+            remove(vehicle.id());
+            String plate = normalize(vehicle.licensePlate());
+            if (plate.isEmpty()) {
+                return;
+            }
+            plateById.put(vehicle.id(), plate);
+            byPlate.computeIfAbsent(plate, p -> new ArrayList<>(1)).add(vehicle);
+            trie.insert(plate);
+        }
+
+        void remove(Long id) {
+            String plate = plateById.remove(id);
+            if (plate == null) {
+                return;
+            }
+            List<VehicleResponse> vehicles = byPlate.get(plate);
+            vehicles.removeIf(v -> v.id().equals(id));
+            if (vehicles.isEmpty()) {
+                byPlate.remove(plate);
+                trie.remove(plate);
+            }
+        }
+    }
+
+    public static final int MAX_DISTANCE = 2;
+
+    private final VehicleRepository repo;
+    private final TransactionTemplate readTx;
+    private final Duration rebuildInterval;
+    private final Timer searchTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Generation current = new Generation();
+    // writes seen while a rebuild reads the table; null when none is running
+    private List<Consumer<Generation>> pending;
+    private volatile boolean ready;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "plate-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PlateIndex(VehicleRepository repo,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${vehicle.search.rebuild-interval:30m}") Duration rebuildInterval) {
+        this.repo = repo;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.rebuildInterval = rebuildInterval;
+        this.searchTimer = meterRegistry.timer("vehicle.search");
+        meterRegistry.gauge("vehicle.search.plates", this, index -> index.read(g -> g.trie.size()));
+        meterRegistry.gauge("vehicle.search.nodes", this, index -> index.read(g -> g.trie.nodeCount()));
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::rebuildSafely, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public static String normalize(String plate) {
+        if (plate == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(plate.length());
+        for (char c : plate.toUpperCase(Locale.ROOT).toCharArray()) {
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Until the first rebuild finishes only writes from this instance are indexed
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void saved(VehicleResponse vehicle) {
+        write(generation -> generation.put(vehicle));
+    }
+
+    public void deleted(Long id) {
+        write(generation -> generation.remove(id));
+    }
+
+    public List<PlateMatch> prefix(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        return searchTimer.record(() -> read(generation -> {
+            List<PlateTrie.Hit> hits = new ArrayList<>();
+            generation.trie.prefix(normalized, limit, hits);
+            return matches(generation, hits);
+        }));
+    }
+
+    public List<PlateMatch> similar(String plate, int maxDistance, int limit) {
+        String normalized = normalize(plate);
+        int distance = Math.max(0, Math.min(maxDistance, MAX_DISTANCE));
+        return searchTimer.record(() -> read(generation -> {
+            List<PlateTrie.Hit> hits = new ArrayList<>();
+            generation.trie.fuzzy(normalized, distance, hits);
+            hits.sort(Comparator.comparingInt(PlateTrie.Hit::distance).thenComparing(PlateTrie.Hit::plate));
+            return matches(generation, hits.subList(0, Math.min(limit, hits.size())));
+        }));
+    }
+
+    private static List<PlateMatch> matches(Generation generation, List<PlateTrie.Hit> hits) {
+        List<PlateMatch> matches = new ArrayList<>(hits.size());
+        for (PlateTrie.Hit hit : hits) {
+            matches.add(new PlateMatch(hit.plate(), hit.distance(), List.copyOf(generation.byPlate.get(hit.plate()))));
+        }
+        return matches;
+    }
+
+    private <T> T read(Function<Generation, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<Generation> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            System.out.println("Plate index rebuild failed → " + e.getMessage());
+            lock.writeLock().lock();
+            pending = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        lock.writeLock().lock();
+        pending = new ArrayList<>();
+        lock.writeLock().unlock();
+
+        long started = System.currentTimeMillis();
+        Generation next = new Generation();
+        readTx.executeWithoutResult(status -> {
+            try (Stream<VehicleResponse> vehicles = repo.streamAllViews()) {
+                vehicles.forEach(next::put);
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.accept(next));
+            pending = null;
+            current = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        System.out.println("Plate index rebuilt: " + next.trie.size() + " plates in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
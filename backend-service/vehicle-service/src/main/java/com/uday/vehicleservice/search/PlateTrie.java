@@ -0,0 +1,179 @@
+package com.uday.vehicleservice.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trie over normalized plates, stored as parallel arrays (first child, next
+ * sibling, label, terminal flag) instead of node objects, so millions of
+ * plates cost a few bytes per distinct character. Removing a plate only
+ * clears its terminal flag; the index rebuilds the trie to drop dead nodes.
+ *
+ * Not thread-safe: PlateIndex guards it with a read/write lock.
+ */
+final class PlateTrie {
+
+    record Hit(String plate, int distance) {
+    }
+
+    private static final int NONE = -1;
+
+    private int[] firstChild = new int[1024];
+    private int[] nextSibling = new int[1024];
+    private char[] label = new char[1024];
+    private boolean[] terminal = new boolean[1024];
+    private int nodes = 1;
+    private int plates;
+
+    PlateTrie() {
+        firstChild[0] = NONE;
+        nextSibling[0] = NONE;
+    }
+
+    int size() {
+        return plates;
+    }
+
+    int nodeCount() {
+        return nodes;
+    }
+
+    void insert(String plate) {
+        int node = 0;
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            int child = child(node, c);
+            if (child == NONE) {
+                child = addChild(node, c);
+            }
+            node = child;
+        }
+        if (!terminal[node]) {
+            terminal[node] = true;
+            plates++;
+        }
+    }
+
+    void remove(String plate) {
+        int node = walk(plate);
+        if (node != NONE && terminal[node]) {
+            terminal[node] = false;
+            plates--;
+        }
+    }
+
+    // Plates starting with prefix, in trie order, at most limit
+    void prefix(String prefix, int limit, List<Hit> out) {
+        int node = walk(prefix);
+        if (node == NONE) {
+            return;
+        }
+        StringBuilder path = new StringBuilder(prefix);
+        collect(node, path, limit, out);
+    }
+
+    /**
+     * Plates within maxDistance edits (Levenshtein) of query. The DFS keeps
+     * one DP row per depth and skips any branch whose row minimum already
+     * exceeds maxDistance, so only a thin band of the trie is visited.
+     */
+    void fuzzy(String query, int maxDistance, List<Hit> out) {
+        int width = query.length() + 1;
+        int[][] rows = new int[query.length() + maxDistance + 2][width];
+        for (int i = 0; i < width; i++) {
+            rows[0][i] = i;
+        }
+        char[] path = new char[rows.length];
+        for (int child = firstChild[0]; child != NONE; child = nextSibling[child]) {
+            search(child, 1, query, maxDistance, rows, path, out);
+        }
+    }
+
+    private void search(int node, int depth, String query, int maxDistance, int[][] rows, char[] path, List<Hit> out) {
+        // a plate longer than query + maxDistance can never match
+        if (depth >= rows.length) {
+            return;
+        }
+        char c = label[node];
+        path[depth - 1] = c;
+        int[] previous = rows[depth - 1];
+        int[] row = rows[depth];
+        row[0] = depth;
+        int best = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int insert = row[i - 1] + 1;
+            int delete = previous[i] + 1;
+            int replace = previous[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(Math.min(insert, delete), replace);
+            best = Math.min(best, row[i]);
+        }
+        if (terminal[node] && row[row.length - 1] <= maxDistance) {
+            out.add(new Hit(new String(path, 0, depth), row[row.length - 1]));
+        }
+        if (best > maxDistance) {
+            return;
+        }
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            search(child, depth + 1, query, maxDistance, rows, path, out);
+        }
+    }
+
+    private void collect(int node, StringBuilder path, int limit, List<Hit> out) {
+        if (out.size() >= limit) {
+            return;
+        }
+        if (terminal[node]) {
+            out.add(new Hit(path.toString(), 0));
+        }
+        for (int child = firstChild[node]; child != NONE && out.size() < limit; child = nextSibling[child]) {
+            path.append(label[child]);
+            collect(child, path, limit, out);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    private int walk(String plate) {
+        int node = 0;
+        for (int i = 0; i < plate.length() && node != NONE; i++) {
+            node = child(node, plate.charAt(i));
+        }
+        return node;
+    }
+
+    // Children are a sibling list kept in label order; plates use at most 36 symbols
+    private int child(int node, char c) {
+        for (int child = firstChild[node]; child != NONE && label[child] <= c; child = nextSibling[child]) {
+            if (label[child] == c) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int addChild(int parent, char c) {
+        if (nodes == label.length) {
+            int capacity = nodes + (nodes >> 1);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            label = Arrays.copyOf(label, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+        }
+        int node = nodes++;
+        label[node] = c;
+        firstChild[node] = NONE;
+
+        int previous = NONE;
+        int next = firstChild[parent];
+        while (next != NONE && label[next] < c) {
+            previous = next;
+            next = nextSibling[next];
+        }
+        nextSibling[node] = next;
+        if (previous == NONE) {
+            firstChild[parent] = node;
+        } else {
+            nextSibling[previous] = node;
+        }
+        return node;
+    }
+}
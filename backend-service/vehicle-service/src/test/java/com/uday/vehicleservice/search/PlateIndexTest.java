@@ -0,0 +1,112 @@
+package com.uday.vehicleservice.search;
+
+import com.uday.vehicleservice.dto.VehicleResponse;
+import com.uday.vehicleservice.entity.VehicleType;
+import com.uday.vehicleservice.repository.VehicleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * PlateIndex over a mocked repository: the writes of this instance are
+ * applied as they happen, and a rebuild does not lose writes made while it
+ * reads the table.
+ */
+class PlateIndexTest {
+
+    private final VehicleRepository repo = mock(VehicleRepository.class);
+    private final PlateIndex index = new PlateIndex(repo, mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(), Duration.ofHours(1));
+
+    @AfterEach
+    void stop() {
+        index.stop();
+    }
+
+    @Test
+    void searchesNormalizedPlates() {
+        index.saved(vehicle(1, "ka-01 ab 1234"));
+        index.saved(vehicle(2, "KA01CD5678"));
+        index.saved(vehicle(3, "MH12XY0001"));
+
+        assertThat(plates(index.prefix("ka 01", 10))).containsExactly("KA01AB1234", "KA01CD5678");
+        assertThat(index.prefix("KA01", 10).get(0).vehicles()).containsExactly(vehicle(1, "ka-01 ab 1234"));
+
+        // one OCR error each: a substitution and a dropped character
+        List<PlateIndex.PlateMatch> similar = index.similar("KA01AB1284", 1, 10);
+        assertThat(plates(similar)).containsExactly("KA01AB1234");
+        assertThat(similar.get(0).distance()).isEqualTo(1);
+        assertThat(plates(index.similar("KA01CD568", 1, 10))).containsExactly("KA01CD5678");
+    }
+
+    @Test
+    void similarListsClosestFirstWithinTheCappedDistance() {
+        index.saved(vehicle(1, "KA01AB1234"));
+        index.saved(vehicle(2, "KA01AB1235"));
+        index.saved(vehicle(3, "KA01AB1299"));
+        index.saved(vehicle(4, "KA01AB9999"));
+
+        List<PlateIndex.PlateMatch> matches = index.similar("KA01AB1234", 5, 10);
+        // capped at MAX_DISTANCE
+        assertThat(plates(matches)).containsExactly("KA01AB1234", "KA01AB1235", "KA01AB1299");
+        assertThat(matches).extracting(PlateIndex.PlateMatch::distance).containsExactly(0, 1, 2);
+        assertThat(plates(index.similar("KA01AB1234", 2, 2))).containsExactly("KA01AB1234", "KA01AB1235");
+    }
+
+    @Test
+    void deletesAndPlateChangesAreApplied() {
+        index.saved(vehicle(1, "KA01AB1234"));
+        index.saved(vehicle(2, "KA01AB1234"));
+        index.saved(vehicle(3, "KA01AB12"));
+
+        index.deleted(1L);
+        assertThat(index.prefix("KA01AB1234", 10).get(0).vehicles()).containsExactly(vehicle(2, "KA01AB1234"));
+
+        index.deleted(2L);
+        assertThat(plates(index.prefix("KA01", 10))).containsExactly("KA01AB12");
+        assertThat(plates(index.similar("KA01AB1234", 2, 10))).containsExactly("KA01AB12");
+
+        // a re-saved vehicle leaves its old plate
+        index.saved(vehicle(3, "KA01AB1239"));
+        assertThat(plates(index.prefix("KA01", 10))).containsExactly("KA01AB1239");
+        assertThat(plates(index.similar("KA01AB12", 1, 10))).isEmpty();
+    }
+
+    @Test
+    void writesDuringARebuildAreReplayedOntoIt() throws InterruptedException {
+        index.saved(vehicle(1, "KA01AB1234"));
+        when(repo.streamAllViews()).thenAnswer(invocation -> {
+            // the table is read as it was before these land
+            index.deleted(2L);
+            index.saved(vehicle(3, "KA01AB3333"));
+            return Stream.of(vehicle(1, "KA01AB1234"), vehicle(2, "KA01AB2222"));
+        });
+
+        index.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!index.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(plates(index.prefix("KA01", 10))).containsExactly("KA01AB1234", "KA01AB3333");
+        assertThat(plates(index.similar("KA01AB2222", 1, 10))).isEmpty();
+    }
+
+    private static VehicleResponse vehicle(long id, String plate) {
+        return new VehicleResponse(id, plate, VehicleType.CAR, false);
+    }
+
+    private static List<String> plates(List<PlateIndex.PlateMatch> matches) {
+        return matches.stream().map(PlateIndex.PlateMatch::plate).toList();
+    }
+}
@@ -0,0 +1,168 @@
+package com.uday.vehicleservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlateTrieTest {
+
+    private static final String SYMBOLS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    @Test
+    void fuzzyFindsPlatesOneEditAway() {
+        PlateTrie trie = trie("KA01AB1234", "KA01AB1284", "KA01AB234", "KA01AB12345", "KA01BA1234", "MH12XY0001");
+
+        assertThat(fuzzy(trie, "KA01AB1234", 1)).containsOnly(
+                Map.entry("KA01AB1234", 0),
+                // substitution, deletion, insertion
+                Map.entry("KA01AB1284", 1),
+                Map.entry("KA01AB234", 1),
+                Map.entry("KA01AB12345", 1));
+        // a transposition is two edits
+        assertThat(fuzzy(trie, "KA01AB1234", 2)).containsEntry("KA01BA1234", 2);
+        assertThat(fuzzy(trie, "KA01AB1234", 0)).containsOnlyKeys("KA01AB1234");
+        assertThat(fuzzy(trie, "KA01AB1234", 2)).doesNotContainKey("MH12XY0001");
+    }
+
+    @Test
+    void fuzzyMatchesABruteForceScan() {
+        Random random = new Random(42);
+        List<String> plates = new ArrayList<>();
+        PlateTrie trie = new PlateTrie();
+        for (int i = 0; i < 3000; i++) {
+            // few prefixes, so near neighbours are common
+            String plate = "KA0" + random.nextInt(3) + randomPlate(random, 3 + random.nextInt(4));
+            plates.add(plate);
+            trie.insert(plate);
+        }
+        for (int i = 0; i < 300; i++) {
+            String query = mutate(random, plates.get(random.nextInt(plates.size())));
+            for (int distance = 0; distance <= PlateIndex.MAX_DISTANCE; distance++) {
+                Map<String, Integer> expected = new HashMap<>();
+                for (String plate : plates) {
+                    int d = levenshtein(query, plate);
+                    if (d <= distance) {
+                        expected.put(plate, d);
+                    }
+                }
+                assertThat(fuzzy(trie, query, distance)).as("%s within %d", query, distance).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void prefixListsPlatesInOrderUpToTheLimit() {
+        PlateTrie trie = trie("KA01CD5678", "KA02EF0001", "KA01AB1234", "KA01", "MH12XY0001");
+
+        assertThat(prefix(trie, "KA01", 10)).containsExactly("KA01", "KA01AB1234", "KA01CD5678");
+        assertThat(prefix(trie, "KA01", 2)).containsExactly("KA01", "KA01AB1234");
+        assertThat(prefix(trie, "KA", 10)).hasSize(4);
+        assertThat(prefix(trie, "", 10)).hasSize(5);
+        assertThat(prefix(trie, "KA03", 10)).isEmpty();
+    }
+
+    @Test
+    void removedPlatesAreNotFoundButTheirExtensionsAre() {
+        PlateTrie trie = trie("KA01", "KA012", "KA013");
+
+        trie.remove("KA01");
+        trie.remove("KA01");
+        trie.remove("KA0");
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(prefix(trie, "KA01", 10)).containsExactly("KA012", "KA013");
+        assertThat(fuzzy(trie, "KA01", 1)).containsOnlyKeys("KA012", "KA013");
+
+        trie.insert("KA01");
+        assertThat(trie.size()).isEqualTo(3);
+        assertThat(fuzzy(trie, "KA01", 0)).containsOnlyKeys("KA01");
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        PlateTrie trie = new PlateTrie();
+        Random random = new Random(7);
+        TreeSet<String> plates = new TreeSet<>();
+        while (plates.size() < 5000) {
+            String plate = randomPlate(random, 8);
+            plates.add(plate);
+            trie.insert(plate);
+        }
+
+        assertThat(trie.size()).isEqualTo(plates.size());
+        assertThat(prefix(trie, "", plates.size())).containsExactlyElementsOf(plates);
+    }
+
+    private static PlateTrie trie(String... plates) {
+        PlateTrie trie = new PlateTrie();
+        for (String plate : plates) {
+            trie.insert(plate);
+        }
+        return trie;
+    }
+
+    private static Map<String, Integer> fuzzy(PlateTrie trie, String query, int distance) {
+        List<PlateTrie.Hit> hits = new ArrayList<>();
+        trie.fuzzy(query, distance, hits);
+        Map<String, Integer> found = new HashMap<>();
+        for (PlateTrie.Hit hit : hits) {
+            assertThat(found.put(hit.plate(), hit.distance())).as("%s reported twice", hit.plate()).isNull();
+        }
+        return found;
+    }
+
+    private static List<String> prefix(PlateTrie trie, String prefix, int limit) {
+        List<PlateTrie.Hit> hits = new ArrayList<>();
+        trie.prefix(prefix, limit, hits);
+        return hits.stream().map(PlateTrie.Hit::plate).toList();
+    }
+
+    private static String randomPlate(Random random, int length) {
+        StringBuilder plate = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            plate.append(SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+        }
+        return plate.toString();
+    }
+
+    // Up to two random substitutions, insertions or deletions, as an OCR read would make
+    private static String mutate(Random random, String plate) {
+        StringBuilder mutated = new StringBuilder(plate);
+        for (int edits = random.nextInt(3); edits > 0 && mutated.length() > 1; edits--) {
+            int at = random.nextInt(mutated.length());
+            char symbol = SYMBOLS.charAt(random.nextInt(SYMBOLS.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.setCharAt(at, symbol);
+                case 1 -> mutated.insert(at, symbol);
+                default -> mutated.deleteCharAt(at);
+            }
+        }
+        return mutated.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int replace = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                row[j] = Math.min(Math.min(row[j - 1], previous[j]) + 1, replace);
+            }
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return previous[b.length()];
+    }
+}